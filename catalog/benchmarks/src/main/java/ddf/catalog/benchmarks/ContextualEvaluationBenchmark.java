@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.benchmarks;
+
+import ddf.catalog.pubsub.criteria.contextual.CaseSensitiveContextualAnalyzer;
+import ddf.catalog.pubsub.criteria.contextual.ContextualAnalyzer;
+import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluationCriteriaImpl;
+import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.criteria.contextual.ContextualIndex;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.queryParser.ParseException;
+import org.apache.lucene.queryParser.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures evaluating the contextual criteria of many subscriptions against one ingested metacard,
+ * which is the work the pubsub event processor does for every create, update and delete.
+ *
+ * <p>Every invocation handles one event, so running with the GC profiler, e.g. {@code java -jar
+ * target/benchmarks.jar ContextualEvaluationBenchmark -prof gc}, reports the bytes allocated per
+ * event as {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContextualEvaluationBenchmark {
+
+  private static final String FIELD_NAME = "Resource";
+
+  private static final String CASE_SENSITIVE_FIELD_NAME = "cs_Resource";
+
+  @Param({"1", "50"})
+  public int subscriptionCount;
+
+  private String metadata;
+
+  private String[] criteria;
+
+  @Setup
+  public void setUp() {
+    metadata = Fixtures.metadata(42);
+    criteria = new String[subscriptionCount];
+    for (int i = 0; i < subscriptionCount; i++) {
+      criteria[i] = Fixtures.word(i) + (i % 2 == 0 ? "" : " AND " + Fixtures.word(i + 1));
+    }
+  }
+
+  /** Evaluates every subscription against one index built lazily from the metadata. */
+  @Benchmark
+  public void evaluateSharedIndex(Blackhole blackhole) throws ParseException {
+    ContextualIndex index = new ContextualIndex(metadata);
+    for (String criterion : criteria) {
+      blackhole.consume(
+          ContextualEvaluator.evaluate(
+              new ContextualEvaluationCriteriaImpl(criterion, false, false, index)));
+    }
+  }
+
+  /**
+   * Baseline of the event processor before the lazy index: every event eagerly builds a {@link
+   * RAMDirectory} holding the case-insensitive and case-sensitive text, and every subscription
+   * creates its own analyzer and searcher.
+   */
+  @Benchmark
+  public void evaluateRamDirectoryPerEvent(Blackhole blackhole) throws IOException, ParseException {
+    Directory index = buildRamDirectoryIndex(metadata);
+    for (String criterion : criteria) {
+      QueryParser queryParser =
+          new QueryParser(Version.LUCENE_30, FIELD_NAME, new ContextualAnalyzer(Version.LUCENE_30));
+      queryParser.setAllowLeadingWildcard(true);
+
+      IndexSearcher searcher = new IndexSearcher(index, true);
+      blackhole.consume(searcher.search(queryParser.parse(criterion), 1).totalHits > 0);
+      searcher.close();
+    }
+  }
+
+  /** Evaluates every subscription against its own index, as if nothing were shared. */
+  @Benchmark
+  public void evaluateIndexPerSubscription(Blackhole blackhole) throws ParseException {
+    for (String criterion : criteria) {
+      blackhole.consume(
+          ContextualEvaluator.evaluate(
+              new ContextualEvaluationCriteriaImpl(criterion, false, false, null, metadata)));
+    }
+  }
+
+  private static Directory buildRamDirectoryIndex(String metadata) throws IOException {
+    String indexableText = new ContextualIndex(metadata).getIndexableText(null);
+    Directory index = new RAMDirectory();
+    try (ContextualAnalyzer analyzer = new ContextualAnalyzer(Version.LUCENE_30);
+        IndexWriter indexWriter =
+            new IndexWriter(index, analyzer, true, IndexWriter.MaxFieldLength.UNLIMITED)) {
+      indexWriter.addDocument(document(FIELD_NAME, indexableText));
+    }
+    try (CaseSensitiveContextualAnalyzer analyzer =
+            new CaseSensitiveContextualAnalyzer(Version.LUCENE_30);
+        IndexWriter indexWriter =
+            new IndexWriter(index, analyzer, false, IndexWriter.MaxFieldLength.UNLIMITED)) {
+      indexWriter.addDocument(document(CASE_SENSITIVE_FIELD_NAME, indexableText));
+    }
+    return index;
+  }
+
+  private static Document document(String fieldName, String value) {
+    Document document = new Document();
+    document.add(
+        new Field(
+            fieldName,
+            value,
+            Field.Store.YES,
+            Field.Index.ANALYZED,
+            Field.TermVector.WITH_POSITIONS_OFFSETS));
+    return document;
+  }
+}
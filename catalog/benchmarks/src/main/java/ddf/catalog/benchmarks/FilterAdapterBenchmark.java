@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.benchmarks;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.filter.delegate.FilterToTextDelegate;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.source.solr.DynamicSchemaResolver;
+import ddf.catalog.source.solr.SolrFilterDelegate;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.opengis.filter.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures walking query filters with the {@link GeotoolsFilterAdapterImpl}, both with a trivial
+ * delegate to isolate the adapter and with the {@link SolrFilterDelegate} that builds the Solr
+ * query for every catalog query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilterAdapterBenchmark {
+
+  @Param({Fixtures.CONTEXTUAL, Fixtures.TEMPORAL, Fixtures.SPATIAL, Fixtures.COMPOUND})
+  public String filterKind;
+
+  private Filter filter;
+
+  private FilterAdapter filterAdapter;
+
+  private DynamicSchemaResolver resolver;
+
+  @Setup
+  public void setUp() {
+    filter = Fixtures.filter(filterKind);
+    filterAdapter = new GeotoolsFilterAdapterImpl();
+    resolver = new DynamicSchemaResolver();
+    resolver.addMetacardType(MetacardImpl.BASIC_METACARD);
+  }
+
+  @Benchmark
+  public String adaptToText() throws UnsupportedQueryException {
+    return filterAdapter.adapt(filter, new FilterToTextDelegate());
+  }
+
+  @Benchmark
+  public SolrQuery adaptToSolrQuery() throws UnsupportedQueryException {
+    return filterAdapter.adapt(filter, new SolrFilterDelegate(resolver, Collections.emptyMap()));
+  }
+}
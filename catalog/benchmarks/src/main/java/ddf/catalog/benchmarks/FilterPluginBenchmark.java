@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.benchmarks;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.plugin.StopProcessingException;
+import ddf.catalog.security.filter.plugin.FilterPlugin;
+import ddf.security.SecurityConstants;
+import ddf.security.Subject;
+import ddf.security.audit.SecurityLogger;
+import ddf.security.impl.SubjectImpl;
+import ddf.security.permission.CollectionPermission;
+import ddf.security.permission.KeyValueCollectionPermission;
+import ddf.security.permission.impl.KeyValueCollectionPermissionImpl;
+import ddf.security.permission.impl.PermissionsImpl;
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.realm.AuthorizingRealm;
+import org.apache.shiro.session.mgt.SimpleSession;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.codice.ddf.security.impl.Security;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the security filtering {@link FilterPlugin#processPostQuery} applies to every page of
+ * query results. The subject is authorized by an in-memory realm holding the roles "A" and "B", and
+ * one in four results requires a role the subject doesn't have.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilterPluginBenchmark {
+
+  @Param({"100", "1000"})
+  public int resultCount;
+
+  private FilterPlugin filterPlugin;
+
+  private Map<String, Serializable> requestProperties;
+
+  private List<Result> results;
+
+  @Setup
+  public void setUp() {
+    Map<String, List<String>> roles = new HashMap<>();
+    roles.put("Roles", Arrays.asList("A", "B"));
+    KeyValueCollectionPermission userPermission =
+        new KeyValueCollectionPermissionImpl(CollectionPermission.READ_ACTION, roles);
+
+    DefaultSecurityManager securityManager = new DefaultSecurityManager();
+    securityManager.setRealm(new BenchmarkRealm(userPermission));
+    Subject subject =
+        new SubjectImpl(
+            new SimplePrincipalCollection("benchmark", BenchmarkRealm.NAME),
+            true,
+            new SimpleSession(UUID.randomUUID().toString()),
+            securityManager);
+
+    filterPlugin = new FilterPlugin(new Security());
+    filterPlugin.setPermissions(new PermissionsImpl());
+    filterPlugin.setSecurityLogger(
+        (SecurityLogger)
+            Proxy.newProxyInstance(
+                SecurityLogger.class.getClassLoader(),
+                new Class<?>[] {SecurityLogger.class},
+                (proxy, method, args) -> null));
+
+    requestProperties = new HashMap<>();
+    requestProperties.put(SecurityConstants.SECURITY_SUBJECT, subject);
+
+    results = new ArrayList<>(resultCount);
+    for (int i = 0; i < resultCount; i++) {
+      MetacardImpl metacard = Fixtures.metacard(i);
+      if (i % 4 == 0) {
+        HashMap<String, List<String>> security = new HashMap<>();
+        security.put("Roles", Arrays.asList("A", "B", "C"));
+        metacard.setSecurity(security);
+      }
+      results.add(new ResultImpl(metacard));
+    }
+  }
+
+  @Benchmark
+  public QueryResponse processPostQuery() throws StopProcessingException {
+    QueryRequestImpl request =
+        new QueryRequestImpl(
+            new QueryImpl(Fixtures.filter(Fixtures.CONTEXTUAL)), new HashMap<>(requestProperties));
+    QueryResponseImpl response =
+        new QueryResponseImpl(request, new ArrayList<>(results), true, resultCount);
+    return filterPlugin.processPostQuery(response);
+  }
+
+  private static class BenchmarkRealm extends AuthorizingRealm {
+
+    private static final String NAME = "benchmarkRealm";
+
+    private final Permission userPermission;
+
+    BenchmarkRealm(Permission userPermission) {
+      this.userPermission = userPermission;
+      setName(NAME);
+    }
+
+    @Override
+    public boolean isPermitted(PrincipalCollection principals, Permission permission) {
+      return userPermission.implies(permission);
+    }
+
+    @Override
+    protected AuthorizationInfo doGetAuthorizationInfo(PrincipalCollection principals) {
+      return null;
+    }
+
+    @Override
+    protected AuthenticationInfo doGetAuthenticationInfo(AuthenticationToken token) {
+      return null;
+    }
+  }
+}
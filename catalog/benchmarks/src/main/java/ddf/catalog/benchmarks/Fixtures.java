@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.benchmarks;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.opengis.filter.Filter;
+
+/**
+ * Deterministic in-memory fixtures shared by the benchmarks. Every fixture is derived from an index
+ * so that runs are repeatable and different benchmarks exercise the same data.
+ */
+public final class Fixtures {
+
+  public static final long EPOCH = 1_500_000_000_000L;
+
+  private static final String[] WORDS = {
+    "airport", "bridge", "river", "harbor", "runway", "tower", "station", "highway", "delta",
+    "valley", "ridge", "canal", "market", "depot", "quarry", "forest", "island", "summit"
+  };
+
+  /** Names of the query filters returned by {@link #filter(String)}. */
+  public static final String CONTEXTUAL = "contextual";
+
+  public static final String TEMPORAL = "temporal";
+
+  public static final String SPATIAL = "spatial";
+
+  public static final String COMPOUND = "compound";
+
+  private static final FilterBuilder FILTER_BUILDER = new GeotoolsFilterBuilder();
+
+  private Fixtures() {}
+
+  /** Returns one of the query filters typical of the searches clients send to the catalog. */
+  public static Filter filter(String kind) {
+    switch (kind) {
+      case CONTEXTUAL:
+        return FILTER_BUILDER.attribute(Metacard.ANY_TEXT).is().like().text("airport");
+      case TEMPORAL:
+        return FILTER_BUILDER
+            .attribute(Metacard.MODIFIED)
+            .is()
+            .during()
+            .dates(new Date(EPOCH), new Date(EPOCH + 86_400_000L));
+      case SPATIAL:
+        return FILTER_BUILDER
+            .attribute(Metacard.ANY_GEO)
+            .is()
+            .intersecting()
+            .wkt("POLYGON ((-10 -10, 10 -10, 10 10, -10 10, -10 -10))");
+      case COMPOUND:
+        List<Filter> titles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+          titles.add(FILTER_BUILDER.attribute(Metacard.TITLE).is().like().text(word(i)));
+        }
+        return FILTER_BUILDER.allOf(
+            filter(CONTEXTUAL),
+            filter(TEMPORAL),
+            filter(SPATIAL),
+            FILTER_BUILDER.anyOf(titles),
+            FILTER_BUILDER.attribute(Metacard.TAGS).is().equalTo().text("resource"));
+      default:
+        throw new IllegalArgumentException("Unknown filter: " + kind);
+    }
+  }
+
+  public static MetacardImpl metacard(int index) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(String.format("%032x", index));
+    metacard.setTitle("Metacard " + index + " " + word(index));
+    metacard.setDescription(sentence(index, 20));
+    metacard.setCreatedDate(new Date(EPOCH + index * 1000L));
+    metacard.setModifiedDate(new Date(EPOCH + index * 2000L));
+    metacard.setEffectiveDate(new Date(EPOCH + index * 1500L));
+    metacard.setLocation(point(index));
+    metacard.setContentTypeName("benchmark");
+    metacard.setContentTypeVersion("1.0");
+    metacard.setPointOfContact("poc" + (index % 10) + "@example.com");
+    metacard.setResourceURI(URI.create("content:" + metacard.getId()));
+    metacard.setResourceSize(Integer.toString(1024 + index));
+    metacard.setTags(new HashSet<>(Arrays.asList("resource", "benchmark")));
+    metacard.setMetadata(metadata(index));
+    metacard.setSourceId("ddf.distribution");
+
+    HashMap<String, List<String>> security = new HashMap<>();
+    security.put("Roles", Arrays.asList("A", "B"));
+    metacard.setSecurity(security);
+    return metacard;
+  }
+
+  public static List<Metacard> metacards(int count) {
+    List<Metacard> metacards = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      metacards.add(metacard(i));
+    }
+    return metacards;
+  }
+
+  public static List<Result> results(int count) {
+    List<Result> results = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      results.add(new ResultImpl(metacard(i)));
+    }
+    return results;
+  }
+
+  public static String metadata(int index) {
+    StringBuilder metadata = new StringBuilder(2048);
+    metadata
+        .append("<metadata xmlns=\"urn:benchmark\">")
+        .append("<title>Metacard ")
+        .append(index)
+        .append("</title>");
+    for (int i = 0; i < 10; i++) {
+      metadata
+          .append("<paragraph id=\"")
+          .append(i)
+          .append("\">")
+          .append(sentence(index + i, 25))
+          .append("</paragraph>");
+    }
+    return metadata.append("</metadata>").toString();
+  }
+
+  public static String point(int index) {
+    Random random = new Random(index);
+    return String.format(
+        "POINT (%.4f %.4f)", random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90);
+  }
+
+  public static String word(int index) {
+    return WORDS[Math.floorMod(index, WORDS.length)];
+  }
+
+  public static String sentence(int seed, int length) {
+    Random random = new Random(seed);
+    StringBuilder sentence = new StringBuilder(length * 8);
+    for (int i = 0; i < length; i++) {
+      if (i > 0) {
+        sentence.append(' ');
+      }
+      sentence.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return sentence.toString();
+  }
+}
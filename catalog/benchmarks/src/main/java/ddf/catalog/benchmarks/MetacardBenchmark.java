@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.benchmarks;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Measures building {@link MetacardImpl}s and reading their attributes. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetacardBenchmark {
+
+  private MetacardImpl metacard;
+
+  private List<Attribute> attributes;
+
+  private String[] attributeNames;
+
+  @Setup
+  public void setUp() {
+    metacard = Fixtures.metacard(42);
+
+    attributes = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    for (AttributeDescriptor descriptor : metacard.getMetacardType().getAttributeDescriptors()) {
+      names.add(descriptor.getName());
+      Attribute attribute = metacard.getAttribute(descriptor.getName());
+      if (attribute != null) {
+        attributes.add(attribute);
+      }
+    }
+    attributeNames = names.toArray(new String[0]);
+  }
+
+  @Benchmark
+  public Metacard construct() {
+    MetacardImpl constructed = new MetacardImpl();
+    for (Attribute attribute : attributes) {
+      constructed.setAttribute(attribute);
+    }
+    return constructed;
+  }
+
+  @Benchmark
+  public Metacard copy() {
+    return new MetacardImpl(metacard);
+  }
+
+  @Benchmark
+  public void getAllAttributes(Blackhole blackhole) {
+    for (String name : attributeNames) {
+      blackhole.consume(metacard.getAttribute(name));
+    }
+  }
+
+  @Benchmark
+  public void getCommonAttributes(Blackhole blackhole) {
+    blackhole.consume(metacard.getId());
+    blackhole.consume(metacard.getTitle());
+    blackhole.consume(metacard.getModifiedDate());
+    blackhole.consume(metacard.getLocation());
+    blackhole.consume(metacard.getAttribute(Metacard.SECURITY));
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.benchmarks;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.transform.CatalogTransformerException;
+import ddf.catalog.transformer.api.MetacardMarshaller;
+import ddf.catalog.transformer.api.PrintWriterProvider;
+import ddf.catalog.transformer.xml.MetacardMarshallerImpl;
+import ddf.catalog.transformer.xml.PrintWriterProviderImpl;
+import ddf.catalog.transformer.xml.XmlMetacardTransformer;
+import ddf.catalog.transformer.xml.XmlResponseQueueTransformer;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import javax.activation.MimeType;
+import org.codice.ddf.parser.Parser;
+import org.codice.ddf.parser.xml.XmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures marshalling a single metacard with the {@link XmlMetacardTransformer} and a page of
+ * results with the {@link XmlResponseQueueTransformer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XmlTransformerBenchmark {
+
+  @Param({"10", "250"})
+  public int resultCount;
+
+  private Metacard metacard;
+
+  private SourceResponseImpl response;
+
+  private XmlMetacardTransformer metacardTransformer;
+
+  private XmlResponseQueueTransformer responseQueueTransformer;
+
+  @Setup
+  public void setUp() throws Exception {
+    Parser parser = new XmlParser();
+    PrintWriterProvider printWriterProvider = new PrintWriterProviderImpl();
+    MetacardMarshaller metacardMarshaller = new MetacardMarshallerImpl(parser, printWriterProvider);
+
+    metacardTransformer = new XmlMetacardTransformer(metacardMarshaller);
+    responseQueueTransformer =
+        new XmlResponseQueueTransformer(
+            parser, printWriterProvider, metacardMarshaller, new MimeType("text/xml"));
+
+    metacard = Fixtures.metacard(42);
+    response = new SourceResponseImpl(null, Fixtures.results(resultCount));
+  }
+
+  @Benchmark
+  public byte[] transformMetacard() throws CatalogTransformerException, IOException {
+    return metacardTransformer.transform(metacard, Collections.emptyMap()).getByteArray();
+  }
+
+  @Benchmark
+  public byte[] transformResponse() throws CatalogTransformerException, IOException {
+    return responseQueueTransformer.transform(response, Collections.emptyMap()).getByteArray();
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import ddf.catalog.benchmarks.Fixtures;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.impl.SortByImpl;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.opengis.filter.sort.SortOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long the {@link SortedQueryMonitor} takes to collect the responses of several
+ * sources and merge them into a single sorted page. The source responses complete immediately, so
+ * only the collection and merge are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SortedQueryMonitorBenchmark {
+
+  @Param({"2", "10"})
+  public int sourceCount;
+
+  @Param({"100", "1000"})
+  public int pageSize;
+
+  @Param({Metacard.MODIFIED, Result.RELEVANCE})
+  public String sortAttribute;
+
+  private QueryRequest request;
+
+  private List<QueryRequest> sourceRequests;
+
+  private List<SourceResponse> sourceResponses;
+
+  @Setup
+  public void setUp() {
+    QueryImpl query =
+        new QueryImpl(
+            Fixtures.filter(Fixtures.CONTEXTUAL),
+            1,
+            pageSize,
+            new SortByImpl(sortAttribute, SortOrder.DESCENDING),
+            true,
+            60_000L);
+    request = new QueryRequestImpl(query);
+
+    sourceRequests = new ArrayList<>(sourceCount);
+    sourceResponses = new ArrayList<>(sourceCount);
+    List<Metacard> metacards = Fixtures.metacards(sourceCount * pageSize);
+    for (int source = 0; source < sourceCount; source++) {
+      // Interleave the results between the sources, in descending order of both the modified date
+      // and the relevance, so that the merge has to alternate between them
+      List<Result> sourceResults = new ArrayList<>(pageSize);
+      for (int i = metacards.size() - 1 - source; i >= 0; i -= sourceCount) {
+        ResultImpl result = new ResultImpl(metacards.get(i));
+        result.setRelevanceScore((double) i);
+        sourceResults.add(result);
+      }
+
+      QueryRequest sourceRequest =
+          new QueryRequestImpl(query, Collections.singletonList("source" + source));
+      sourceRequests.add(sourceRequest);
+      sourceResponses.add(
+          new SourceResponseImpl(sourceRequest, sourceResults, (long) sourceResults.size()));
+    }
+  }
+
+  @Benchmark
+  public List<Result> collectAndMerge() {
+    CompletionService<SourceResponse> completionService =
+        new ExecutorCompletionService<>(Runnable::run);
+    Map<Future<SourceResponse>, QueryRequest> futures = new HashMap<>();
+    for (int i = 0; i < sourceCount; i++) {
+      SourceResponse sourceResponse = sourceResponses.get(i);
+      futures.put(completionService.submit(() -> sourceResponse), sourceRequests.get(i));
+    }
+
+    QueryResponseImpl response = new QueryResponseImpl(request);
+    new SortedQueryMonitor(completionService, futures, response, request, Collections.emptyList())
+        .run();
+    return response.getResults();
+  }
+}
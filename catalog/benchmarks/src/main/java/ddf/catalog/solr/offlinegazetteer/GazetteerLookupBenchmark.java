@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.solr.offlinegazetteer;
+
+import ddf.catalog.benchmarks.Fixtures;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.util.NamedList;
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
+import org.codice.solr.client.solrj.SolrClient;
+import org.codice.solr.factory.SolrClientFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-metacard cost of the country code lookup that the GeoCoder plugin performs on
+ * ingest, with and without the {@link GazetteerSpatialIndex}. The Solr client answers immediately
+ * from memory, so the {@code solr} lookup excludes the round trip and the spatial query it pays in
+ * a running system and is a lower bound for that path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GazetteerLookupBenchmark {
+
+  private static final int LOCATION_COUNT = 1024;
+
+  private static final int COUNTRY_COUNT = 648;
+
+  @Param({"10000", "100000"})
+  public int cityCount;
+
+  @Param({"solr", "index"})
+  public String lookup;
+
+  private SolrDocumentList cities;
+
+  private SolrDocumentList countries;
+
+  private GazetteerSpatialIndex spatialIndex;
+
+  private GazetteerQueryOfflineSolr gazetteer;
+
+  private String[] locations;
+
+  private int next;
+
+  @Setup
+  public void setUp() throws InterruptedException {
+    cities = new SolrDocumentList();
+    for (int i = 0; i < cityCount; i++) {
+      cities.add(city(i));
+    }
+
+    // One 10 degree square per country code
+    countries = new SolrDocumentList();
+    for (int lon = -180; lon < 180; lon += 10) {
+      for (int lat = -90; lat < 90; lat += 10) {
+        countries.add(countryShape(countries.size(), lon, lat));
+      }
+    }
+
+    SolrClient client =
+        (SolrClient)
+            Proxy.newProxyInstance(
+                SolrClient.class.getClassLoader(),
+                new Class<?>[] {SolrClient.class},
+                (proxy, method, args) ->
+                    "query".equals(method.getName()) ? query((SolrQuery) args[0]) : null);
+    SolrClientFactory clientFactory =
+        (SolrClientFactory)
+            Proxy.newProxyInstance(
+                SolrClientFactory.class.getClassLoader(),
+                new Class<?>[] {SolrClientFactory.class},
+                (proxy, method, args) -> "newClient".equals(method.getName()) ? client : null);
+
+    gazetteer = new GazetteerQueryOfflineSolr(clientFactory);
+    if ("index".equals(lookup)) {
+      spatialIndex = new GazetteerSpatialIndex(clientFactory);
+      spatialIndex.setEnabled(true);
+      while (!spatialIndex.isAvailable()) {
+        Thread.sleep(100);
+      }
+      gazetteer.setSpatialIndex(spatialIndex);
+    }
+
+    locations = new String[LOCATION_COUNT];
+    for (int i = 0; i < LOCATION_COUNT; i++) {
+      locations[i] = Fixtures.point(i);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (spatialIndex != null) {
+      spatialIndex.destroy();
+    }
+  }
+
+  @Benchmark
+  public Optional<String> countryCode() throws Exception {
+    next = (next + 1) & (LOCATION_COUNT - 1);
+    return gazetteer.getCountryCode(locations[next], 50);
+  }
+
+  /**
+   * Answers the index loads with pages of cities or country shapes and the Solr lookups with the
+   * first city.
+   */
+  private QueryResponse query(SolrQuery query) {
+    NamedList<Object> response = new NamedList<>();
+    String cursorMark = query.get(CursorMarkParams.CURSOR_MARK_PARAM);
+    if (cursorMark == null) {
+      SolrDocumentList results = new SolrDocumentList();
+      results.add(cities.get(next % cities.size()));
+      response.add("response", results);
+    } else {
+      SolrDocumentList documents =
+          query.getQuery().contains(GazetteerConstants.SORT_VALUE) ? countries : cities;
+      int from =
+          CursorMarkParams.CURSOR_MARK_START.equals(cursorMark) ? 0 : Integer.parseInt(cursorMark);
+      int to = Math.min(from + query.getRows(), documents.size());
+
+      SolrDocumentList results = new SolrDocumentList();
+      results.addAll(documents.subList(from, to));
+      response.add("response", results);
+      response.add(
+          CursorMarkParams.CURSOR_MARK_NEXT,
+          to < documents.size() ? Integer.toString(to) : cursorMark);
+    }
+
+    QueryResponse queryResponse = new QueryResponse();
+    queryResponse.setResponse(response);
+    return queryResponse;
+  }
+
+  private static SolrDocument city(int index) {
+    SolrDocument document = new SolrDocument();
+    document.addField(GazetteerConstants.ID, String.format("%032x", index));
+    document.addField(GazetteerConstants.NAME, "City " + index);
+    document.addField(GazetteerConstants.LOCATION, Fixtures.point(index));
+    document.addField(
+        GazetteerConstants.COUNTRY_CODE, String.format("C%03d", index % COUNTRY_COUNT));
+    document.addField(GazetteerConstants.FEATURE_CODE, "PPL");
+    return document;
+  }
+
+  private static SolrDocument countryShape(int index, int lon, int lat) {
+    SolrDocument document = new SolrDocument();
+    document.addField(GazetteerConstants.ID, String.format("country%025x", index));
+    document.addField(
+        GazetteerConstants.LOCATION,
+        String.format(
+            "POLYGON ((%d %d, %d %d, %d %d, %d %d, %d %d))",
+            lon, lat, lon + 10, lat, lon + 10, lat + 10, lon, lat + 10, lon, lat));
+    document.addField(GazetteerConstants.COUNTRY_CODE, String.format("C%03d", index));
+    document.addField(
+        GazetteerConstants.SORT_VALUE, GeoCodingConstants.COUNTRY_GAZETTEER_SORT_VALUE);
+    return document;
+  }
+}
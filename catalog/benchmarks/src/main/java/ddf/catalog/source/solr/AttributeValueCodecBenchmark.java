@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.benchmarks.Fixtures;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares storing object attribute values with the {@link AttributeValueCodec} against the Java
+ * serialization used for the legacy {@code _obj} fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AttributeValueCodecBenchmark {
+
+  @Param({"string", "date", "list", "map"})
+  public String valueKind;
+
+  private Serializable value;
+
+  private byte[] encoded;
+
+  private byte[] serialized;
+
+  @Setup
+  public void setUp() throws IOException {
+    value = createValue(valueKind);
+    encoded = AttributeValueCodec.encode(value);
+    serialized = serialize(value);
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return AttributeValueCodec.encode(value);
+  }
+
+  @Benchmark
+  public Serializable decode() throws IOException {
+    return AttributeValueCodec.decode(encoded);
+  }
+
+  @Benchmark
+  public byte[] javaSerialize() throws IOException {
+    return serialize(value);
+  }
+
+  @Benchmark
+  public Object javaDeserialize() throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+      return in.readObject();
+    }
+  }
+
+  private static byte[] serialize(Serializable value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Serializable createValue(String kind) {
+    switch (kind) {
+      case "string":
+        return Fixtures.sentence(42, 10);
+      case "date":
+        return new Date(Fixtures.EPOCH);
+      case "list":
+        ArrayList<Serializable> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+          list.add(Fixtures.word(i));
+          list.add((long) i);
+        }
+        return list;
+      case "map":
+        // Falls back to Java serialization inside the codec
+        HashMap<String, List<String>> map = new HashMap<>();
+        map.put("Roles", List.of("A", "B"));
+        map.put("Groups", List.of("C"));
+        return map;
+      default:
+        throw new IllegalArgumentException("Unknown value: " + kind);
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.benchmarks.Fixtures;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardCreationException;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures converting a metacard into the fields of a Solr document with {@link
+ * DynamicSchemaResolver#addFields} and reading the field values back with {@link
+ * DynamicSchemaResolver#getDocValues}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DynamicSchemaResolverBenchmark {
+
+  private DynamicSchemaResolver resolver;
+
+  private Metacard metacard;
+
+  private SolrInputDocument document;
+
+  @Setup
+  public void setUp() throws MetacardCreationException {
+    resolver = new DynamicSchemaResolver();
+    metacard = Fixtures.metacard(42);
+
+    document = new SolrInputDocument();
+    resolver.addFields(metacard, document);
+  }
+
+  @Benchmark
+  public SolrInputDocument addFields() throws MetacardCreationException {
+    SolrInputDocument solrInputDocument = new SolrInputDocument();
+    resolver.addFields(metacard, solrInputDocument);
+    return solrInputDocument;
+  }
+
+  @Benchmark
+  public void getDocValues(Blackhole blackhole) {
+    for (SolrInputField field : document) {
+      if (!resolver.isPrivateField(field.getName())) {
+        blackhole.consume(resolver.getDocValues(field.getName(), field.getValues()));
+      }
+    }
+  }
+}
@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.klv;
+
+import static org.codice.ddf.libs.klv.data.Klv.KeyLength;
+import static org.codice.ddf.libs.klv.data.Klv.LengthEncoding;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.libs.klv.data.numerical.KlvByte;
+import org.codice.ddf.libs.klv.data.numerical.KlvInt;
+import org.codice.ddf.libs.klv.data.numerical.KlvLong;
+import org.codice.ddf.libs.klv.data.numerical.KlvShort;
+import org.codice.ddf.libs.klv.data.numerical.KlvUnsignedByte;
+import org.codice.ddf.libs.klv.data.numerical.KlvUnsignedShort;
+import org.codice.ddf.libs.klv.data.set.KlvLocalSet;
+import org.codice.ddf.libs.klv.data.text.KlvString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures decoding a UAS Datalink Local Set (MISB ST 0601) packet and reading the platform and
+ * frame center position from it, once through the {@link KlvContext} based {@link KlvDecoder} and
+ * once through reused {@link KlvIndex}es.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KlvDecodingBenchmark {
+
+  private static final int PACKET_COUNT = 1024;
+
+  private static final byte[] UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY = {
+    0x06, 0x0E, 0x2B, 0x34, 0x02, 0x0B, 0x01, 0x01, 0x0E, 0x01, 0x03, 0x01, 0x01, 0x00, 0x00, 0x00
+  };
+
+  private static final String UAS_DATALINK_LOCAL_SET = "UAS Datalink Local Set";
+
+  private static final String TIMESTAMP = "timestamp";
+
+  private static final String PLATFORM_HEADING_ANGLE = "platform heading angle";
+
+  private static final String SENSOR_LATITUDE = "sensor latitude";
+
+  private static final String SENSOR_LONGITUDE = "sensor longitude";
+
+  private static final String FRAME_CENTER_LATITUDE = "frame center latitude";
+
+  private static final String FRAME_CENTER_LONGITUDE = "frame center longitude";
+
+  private byte[][] packets;
+
+  private ByteBuffer[] buffers;
+
+  private KlvDecoder decoder;
+
+  private final KlvIndex universalSet = new KlvIndex(KeyLength.SIXTEEN_BYTES, LengthEncoding.BER);
+
+  private final KlvIndex localSet = new KlvIndex(KeyLength.ONE_BYTE, LengthEncoding.BER);
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    packets = new byte[PACKET_COUNT][];
+    buffers = new ByteBuffer[PACKET_COUNT];
+    for (int i = 0; i < PACKET_COUNT; i++) {
+      packets[i] = uasDatalinkPacket(i);
+      buffers[i] = ByteBuffer.wrap(packets[i]);
+    }
+
+    final List<KlvDataElement> dataElements = new ArrayList<>();
+    dataElements.add(new KlvUnsignedShort(new byte[] {0x01}, "checksum"));
+    dataElements.add(new KlvLong(new byte[] {0x02}, TIMESTAMP));
+    dataElements.add(new KlvString(new byte[] {0x03}, "mission id"));
+    dataElements.add(new KlvUnsignedShort(new byte[] {0x05}, PLATFORM_HEADING_ANGLE));
+    dataElements.add(new KlvShort(new byte[] {0x06}, "platform pitch angle"));
+    dataElements.add(new KlvShort(new byte[] {0x07}, "platform roll angle"));
+    dataElements.add(new KlvString(new byte[] {0x0b}, "image source sensor"));
+    dataElements.add(new KlvString(new byte[] {0x0c}, "image coordinate system"));
+    dataElements.add(new KlvInt(new byte[] {0x0d}, SENSOR_LATITUDE));
+    dataElements.add(new KlvInt(new byte[] {0x0e}, SENSOR_LONGITUDE));
+    dataElements.add(new KlvUnsignedShort(new byte[] {0x0f}, "sensor true altitude"));
+    dataElements.add(new KlvUnsignedShort(new byte[] {0x10}, "sensor horizontal fov"));
+    dataElements.add(new KlvUnsignedShort(new byte[] {0x11}, "sensor vertical fov"));
+    dataElements.add(new KlvLong(new byte[] {0x12}, "sensor relative azimuth angle"));
+    dataElements.add(new KlvInt(new byte[] {0x13}, "sensor relative elevation angle"));
+    dataElements.add(new KlvLong(new byte[] {0x14}, "sensor relative roll angle"));
+    dataElements.add(new KlvLong(new byte[] {0x15}, "slant range"));
+    dataElements.add(new KlvUnsignedShort(new byte[] {0x16}, "target width"));
+    dataElements.add(new KlvInt(new byte[] {0x17}, FRAME_CENTER_LATITUDE));
+    dataElements.add(new KlvInt(new byte[] {0x18}, FRAME_CENTER_LONGITUDE));
+    dataElements.add(new KlvUnsignedShort(new byte[] {0x19}, "frame center elevation"));
+    dataElements.add(new KlvUnsignedByte(new byte[] {0x38}, "platform ground speed"));
+    dataElements.add(new KlvLong(new byte[] {0x39}, "ground range"));
+    dataElements.add(new KlvByte(new byte[] {0x41}, "UAS LS version number"));
+
+    final KlvContext localSetContext =
+        new KlvContext(KeyLength.ONE_BYTE, LengthEncoding.BER, dataElements);
+    decoder =
+        new KlvDecoder(
+            new KlvContext(
+                KeyLength.SIXTEEN_BYTES,
+                LengthEncoding.BER,
+                Collections.singleton(
+                    new KlvLocalSet(
+                        UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY,
+                        UAS_DATALINK_LOCAL_SET,
+                        localSetContext))));
+  }
+
+  @Benchmark
+  public void decoder(final Blackhole blackhole) throws KlvDecodingException {
+    final KlvContext decoded = decoder.decode(packets[nextPacket()]);
+    final KlvContext values =
+        ((KlvLocalSet) decoded.getDataElementByName(UAS_DATALINK_LOCAL_SET)).getValue();
+
+    blackhole.consume(values.getDataElementByName(TIMESTAMP).getValue());
+    blackhole.consume(values.getDataElementByName(PLATFORM_HEADING_ANGLE).getValue());
+    blackhole.consume(values.getDataElementByName(SENSOR_LATITUDE).getValue());
+    blackhole.consume(values.getDataElementByName(SENSOR_LONGITUDE).getValue());
+    blackhole.consume(values.getDataElementByName(FRAME_CENTER_LATITUDE).getValue());
+    blackhole.consume(values.getDataElementByName(FRAME_CENTER_LONGITUDE).getValue());
+  }
+
+  @Benchmark
+  public void index(final Blackhole blackhole) throws KlvDecodingException {
+    universalSet.index(buffers[nextPacket()]);
+    localSet.indexValue(universalSet, universalSet.indexOf(UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY));
+
+    blackhole.consume(localSet.getValueAs64bitLong(localSet.indexOf(0x02)));
+    blackhole.consume(localSet.getValueAs16bitUnsignedInt(localSet.indexOf(0x05)));
+    blackhole.consume(localSet.getValueAs32bitInt(localSet.indexOf(0x0d)));
+    blackhole.consume(localSet.getValueAs32bitInt(localSet.indexOf(0x0e)));
+    blackhole.consume(localSet.getValueAs32bitInt(localSet.indexOf(0x17)));
+    blackhole.consume(localSet.getValueAs32bitInt(localSet.indexOf(0x18)));
+  }
+
+  private int nextPacket() {
+    next = (next + 1) % PACKET_COUNT;
+    return next;
+  }
+
+  /** Builds a packet with the tags and value sizes of a typical MISB ST 0601 local set. */
+  private static byte[] uasDatalinkPacket(final int i) {
+    final ByteArrayOutputStream localSet = new ByteArrayOutputStream();
+    tag(localSet, 0x02, 1245257585099653L + i * 33_333L, 8);
+    tag(localSet, 0x03, "MISSION01".getBytes(StandardCharsets.US_ASCII));
+    tag(localSet, 0x05, 15675 + i, 2);
+    tag(localSet, 0x06, 5504, 2);
+    tag(localSet, 0x07, 338, 2);
+    tag(localSet, 0x0b, "EON".getBytes(StandardCharsets.US_ASCII));
+    tag(localSet, 0x0c, "Geodetic WGS84".getBytes(StandardCharsets.US_ASCII));
+    tag(localSet, 0x0d, 1304747195L + i, 4);
+    tag(localSet, 0x0e, -1314362114L - i, 4);
+    tag(localSet, 0x0f, 8010, 2);
+    tag(localSet, 0x10, 133, 2);
+    tag(localSet, 0x11, 75, 2);
+    tag(localSet, 0x12, 550031997L, 4);
+    tag(localSet, 0x13, -52624680L, 4);
+    tag(localSet, 0x14, 4273523553L, 4);
+    tag(localSet, 0x15, 9387617L, 4);
+    tag(localSet, 0x16, 457, 2);
+    tag(localSet, 0x17, 1306364970L + i, 4);
+    tag(localSet, 0x18, -1312907532L - i, 4);
+    tag(localSet, 0x19, 2949, 2);
+    tag(localSet, 0x28, 1306364970L, 4);
+    tag(localSet, 0x29, -1312907532L, 4);
+    tag(localSet, 0x2a, 2949, 2);
+    tag(localSet, 0x38, 46, 1);
+    tag(localSet, 0x39, 9294889L, 4);
+    tag(localSet, 0x41, 1, 1);
+    tag(localSet, 0x01, 7263, 2);
+
+    final byte[] value = localSet.toByteArray();
+    final ByteArrayOutputStream packet = new ByteArrayOutputStream();
+    packet.write(UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY, 0, 16);
+    berLength(packet, value.length);
+    packet.write(value, 0, value.length);
+    return packet.toByteArray();
+  }
+
+  private static void tag(
+      final ByteArrayOutputStream out, final int tag, final long value, final int length) {
+    final byte[] bytes = new byte[length];
+    for (int j = 0; j < length; j++) {
+      bytes[j] = (byte) (value >> (8 * (length - 1 - j)));
+    }
+    tag(out, tag, bytes);
+  }
+
+  private static void tag(final ByteArrayOutputStream out, final int tag, final byte[] value) {
+    out.write(tag);
+    berLength(out, value.length);
+    out.write(value, 0, value.length);
+  }
+
+  private static void berLength(final ByteArrayOutputStream out, final int length) {
+    if (length < 0x80) {
+      out.write(length);
+    } else {
+      out.write(0x82);
+      out.write(length >> 8);
+      out.write(length);
+    }
+  }
+}
@@ -0,0 +1,332 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * A {@link MetacardImpl} that stores the values of the attributes declared by its {@link
+ * MetacardType} in a flat array instead of a map of {@link Attribute} objects.
+ *
+ * <p>The position of each declared attribute is looked up in an index that is built once per {@link
+ * MetacardType} instance and shared by every metacard of that type. Single values are held without
+ * a list wrapper and multiple values are held in an array. Values may also be set in their encoded
+ * form along with an {@link AttributeDecoder}; they are then decoded the first time the attribute
+ * is requested. Attributes that are not declared by the type are kept in a map, as {@link
+ * MetacardImpl} does.
+ *
+ * <p>A metacard that only holds some of its attributes can be given an attribute loader with {@link
+ * #setAttributeLoader(Set, Supplier)} and the names of the attributes it is missing. The first
+ * request for any of those loads the complete metacard once and copies them.
+ *
+ * <p>The {@link Attribute} of a declared attribute is created, and its value decoded, the first
+ * time it is requested, and is then kept in place of the value so later requests return the same
+ * instance. Values are stored in an {@link AtomicReferenceArray}, so an attribute created by one
+ * thread is safely published to the others. Concurrent first requests may create the attribute more
+ * than once, but all of them return the instance that was stored.
+ *
+ * <p>When serialized, this metacard is written as a {@link MetacardImpl} holding the same type,
+ * source id and attributes.
+ *
+ * <p><b>This code is experimental. While this class is functional and tested, it may change or be
+ * removed in a future version of the library.</b>
+ */
+public class CompactMetacard extends MetacardImpl {
+
+  private static final long serialVersionUID = 1L;
+
+  /** Weak keys are compared by identity, so equal types loaded separately get their own index. */
+  private static final LoadingCache<MetacardType, Map<String, Integer>> SLOT_INDEXES =
+      CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(CompactMetacard::createIndex));
+
+  private final transient Map<String, Integer> slots;
+
+  private final transient AtomicReferenceArray<Object> values;
+
+  private final transient AttributeDecoder decoder;
+
+  private transient Map<String, Attribute> undeclared;
+
+  private transient Set<String> missingAttributes;
+
+  private transient volatile Supplier<Metacard> attributeLoader;
+
+  /**
+   * Creates an empty {@link CompactMetacard} of the given {@link MetacardType}.
+   *
+   * @param type the {@link MetacardType}
+   */
+  public CompactMetacard(MetacardType type) {
+    this(type, null);
+  }
+
+  /**
+   * Creates an empty {@link CompactMetacard} of the given {@link MetacardType} that decodes values
+   * set with {@link #setEncodedAttribute(String, String, Object)} using the given decoder.
+   *
+   * @param type the {@link MetacardType}
+   * @param decoder the {@link AttributeDecoder} used for encoded values, may be null if encoded
+   *     values are never set
+   */
+  public CompactMetacard(MetacardType type, AttributeDecoder decoder) {
+    super(type);
+    this.slots = SLOT_INDEXES.getUnchecked(type);
+    this.values = new AtomicReferenceArray<>(slots.size());
+    this.decoder = decoder;
+  }
+
+  /**
+   * Creates a copy of a {@link CompactMetacard}. The copy holds the same values, including values
+   * that have not been decoded yet, and loads the attributes the original was created without with
+   * the same attribute loader. Changes made to either metacard are not reflected in the other.
+   *
+   * @param metacard the {@link CompactMetacard} to copy
+   */
+  public CompactMetacard(CompactMetacard metacard) {
+    super(metacard.getMetacardType());
+    setSourceId(metacard.getSourceId());
+    this.slots = metacard.slots;
+    this.decoder = metacard.decoder;
+    this.values = new AtomicReferenceArray<>(slots.size());
+    synchronized (metacard) {
+      for (int slot = 0; slot < values.length(); slot++) {
+        Object value = metacard.values.get(slot);
+        // Attributes are mutable, so the copy must not share the ones the original returned
+        values.set(
+            slot, value instanceof Attribute ? compact(((Attribute) value).getValues()) : value);
+      }
+      this.undeclared = metacard.undeclared == null ? null : new HashMap<>(metacard.undeclared);
+      this.missingAttributes = metacard.missingAttributes;
+      this.attributeLoader = metacard.attributeLoader;
+    }
+  }
+
+  @Override
+  public Attribute getAttribute(String name) {
+    if (attributeLoader != null && missingAttributes.contains(name)) {
+      loadAttributes();
+    }
+
+    Integer slot = slots.get(name);
+    if (slot == null) {
+      return undeclared == null ? null : undeclared.get(name);
+    }
+
+    while (true) {
+      Object value = values.get(slot);
+      if (value == null || value instanceof Attribute) {
+        return (Attribute) value;
+      }
+
+      Attribute attribute = createAttribute(name, value);
+      if (values.compareAndSet(slot, value, attribute)) {
+        return attribute;
+      }
+    }
+  }
+
+  @Override
+  public void setAttribute(Attribute attribute) {
+    if (attribute == null || attribute.getName() == null) {
+      return;
+    }
+
+    String name = attribute.getName();
+    if (attributeLoader != null && missingAttributes.contains(name)) {
+      // Load first so that the loaded value does not replace this one
+      loadAttributes();
+    }
+
+    Integer slot = slots.get(name);
+    if (slot != null) {
+      values.set(slot, attribute.getValue() == null ? null : compact(attribute.getValues()));
+    } else if (attribute.getValue() != null) {
+      if (undeclared == null) {
+        undeclared = new HashMap<>();
+      }
+      undeclared.put(name, attribute);
+    } else if (undeclared != null) {
+      undeclared.remove(name);
+    }
+  }
+
+  /**
+   * Sets an attribute to a value that has not been decoded yet. The value is passed to this
+   * metacard's {@link AttributeDecoder} along with the key the first time the attribute is
+   * requested. Attributes that are not declared by the {@link MetacardType} are decoded right away.
+   *
+   * @param name the name of the {@link Attribute}
+   * @param key the key passed to the {@link AttributeDecoder}, such as the name of the field the
+   *     value was read from
+   * @param encodedValue a single encoded value or a {@link Collection} of encoded values
+   * @throws IllegalStateException if this metacard was created without an {@link AttributeDecoder}
+   */
+  public void setEncodedAttribute(String name, String key, Object encodedValue) {
+    if (decoder == null) {
+      throw new IllegalStateException("No attribute decoder was provided for " + name);
+    }
+
+    if (encodedValue == null) {
+      setAttribute(new AttributeImpl(name, (Serializable) null));
+      return;
+    }
+
+    Encoded encoded = new Encoded(key, encodedValue);
+    Integer slot = slots.get(name);
+    if (slot != null) {
+      values.set(slot, encoded);
+    } else {
+      setAttribute(new AttributeImpl(name, encoded.decode(decoder)));
+    }
+  }
+
+  /**
+   * Sets the loader used to retrieve attributes this metacard was created without. The first
+   * request for any attribute named in {@code missingAttributes} calls the loader and copies those
+   * of them declared by the {@link MetacardType} from the metacard it returns, after which the
+   * loader is discarded. Other attributes never call the loader.
+   *
+   * @param missingAttributes the names of the attributes this metacard was created without
+   * @param attributeLoader supplies the complete metacard, or null if it cannot be retrieved
+   */
+  public void setAttributeLoader(
+      Set<String> missingAttributes, Supplier<Metacard> attributeLoader) {
+    this.missingAttributes = missingAttributes;
+    this.attributeLoader = attributeLoader;
+  }
+
+  private synchronized void loadAttributes() {
+    Supplier<Metacard> loader = attributeLoader;
+    if (loader == null) {
+      return;
+    }
+
+    Metacard metacard = loader.get();
+    if (metacard != null) {
+      for (String name : missingAttributes) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+          Attribute attribute = metacard.getAttribute(name);
+          values.set(
+              slot,
+              attribute == null || attribute.getValue() == null
+                  ? null
+                  : compact(attribute.getValues()));
+        }
+      }
+    }
+    attributeLoader = null;
+  }
+
+  private Object writeReplace() throws ObjectStreamException {
+    MetacardImpl metacard = new MetacardImpl(getMetacardType());
+    metacard.setSourceId(getSourceId());
+    for (String name : slots.keySet()) {
+      metacard.setAttribute(getAttribute(name));
+    }
+    if (undeclared != null) {
+      undeclared.values().forEach(metacard::setAttribute);
+    }
+    return metacard;
+  }
+
+  private Attribute createAttribute(String name, Object value) {
+    if (value instanceof Encoded) {
+      value = compact(((Encoded) value).decode(decoder));
+    }
+
+    if (value == null) {
+      return null;
+    } else if (value instanceof Multiple) {
+      return AttributeImpl.fromMultipleValues(name, Arrays.asList(((Multiple) value).values));
+    }
+    return AttributeImpl.fromSingleValue(name, (Serializable) value);
+  }
+
+  private static Object compact(List<Serializable> attributeValues) {
+    if (attributeValues == null || attributeValues.isEmpty()) {
+      return null;
+    } else if (attributeValues.size() == 1) {
+      return attributeValues.get(0);
+    }
+    return new Multiple(attributeValues.toArray(new Serializable[0]));
+  }
+
+  private static Map<String, Integer> createIndex(MetacardType type) {
+    ImmutableMap.Builder<String, Integer> index = ImmutableMap.builder();
+    int slot = 0;
+    for (AttributeDescriptor descriptor : type.getAttributeDescriptors()) {
+      index.put(descriptor.getName(), slot++);
+    }
+    return index.build();
+  }
+
+  /** Decodes the values given to {@link #setEncodedAttribute(String, String, Object)}. */
+  @FunctionalInterface
+  public interface AttributeDecoder {
+
+    /**
+     * @param key the key the values were set with
+     * @param encodedValues the encoded values of the attribute
+     * @return the decoded values of the attribute, never null
+     */
+    List<Serializable> decode(String key, Collection<Object> encodedValues);
+  }
+
+  private static final class Multiple {
+    private final Serializable[] values;
+
+    private Multiple(Serializable[] values) {
+      this.values = values;
+    }
+  }
+
+  private static final class Encoded {
+    private final String key;
+
+    private final Object value;
+
+    private Encoded(String key, Object value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Serializable> decode(AttributeDecoder decoder) {
+      Collection<Object> encodedValues =
+          value instanceof Collection
+              ? (Collection<Object>) value
+              : Collections.singletonList(value);
+      return decoder.decode(key, encodedValues);
+    }
+  }
+}
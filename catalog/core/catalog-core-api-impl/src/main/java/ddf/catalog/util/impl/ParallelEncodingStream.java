@@ -0,0 +1,314 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encodes a list of items in parallel on a {@link ForkJoinPool} and streams the encoded text, in
+ * the original order, through an {@link InputStream}.
+ *
+ * <p>Items are split into chunks of {@code threshold} items. The first chunk is encoded before the
+ * stream is returned, so that an item that can't be encoded at all fails the call instead of the
+ * read. Only a small window of chunks is encoded ahead of the reader, so the memory used does not
+ * grow with the number of items. A later failure while encoding is reported to the reader as an
+ * {@link IOException} once the text encoded before it has been read.
+ *
+ * <p>Encoding stops when the reader closes the stream, or when the reader hasn't taken any text for
+ * {@code writeTimeoutMillis}. The writer runs on the pool and waits for the reader through {@link
+ * ForkJoinPool#managedBlock}, so streams whose readers are slow make the pool add threads rather
+ * than hold up the encoding of other streams.
+ *
+ * @param <T> type of the items to encode
+ */
+public class ParallelEncodingStream<T> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParallelEncodingStream.class);
+
+  public static final long DEFAULT_WRITE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  /** Encodes a chunk of items to text. */
+  @FunctionalInterface
+  public interface ChunkEncoder<T> {
+
+    /**
+     * @param chunk items to encode
+     * @param offset index of the first item of the chunk in the full list
+     * @return the encoded text of the chunk
+     */
+    String encode(List<T> chunk, int offset) throws IOException;
+  }
+
+  private final ForkJoinPool pool;
+
+  private final int threshold;
+
+  private final int window;
+
+  private final long writeTimeoutMillis;
+
+  /**
+   * @param pool pool used to write the stream and to encode the chunks
+   * @param threshold number of items encoded by a single task
+   */
+  public ParallelEncodingStream(ForkJoinPool pool, int threshold) {
+    this(pool, threshold, DEFAULT_WRITE_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param pool pool used to write the stream and to encode the chunks
+   * @param threshold number of items encoded by a single task
+   * @param writeTimeoutMillis how long encoded text waits for the reader before encoding is
+   *     abandoned
+   */
+  public ParallelEncodingStream(ForkJoinPool pool, int threshold, long writeTimeoutMillis) {
+    Validate.notNull(pool, "Valid ForkJoinPool required.");
+    Validate.isTrue(writeTimeoutMillis > 0, "Write timeout must be positive.");
+    this.pool = pool;
+    this.threshold = Math.max(1, threshold);
+    this.window = pool.getParallelism() * 2;
+    this.writeTimeoutMillis = writeTimeoutMillis;
+  }
+
+  /**
+   * Encodes the first chunk of {@code items}, starts encoding the rest and returns the stream of
+   * encoded text. The caller must read the stream to the end or close it.
+   *
+   * @param prefix text written before the encoded items
+   * @param items items to encode
+   * @param encoder encoder applied to each chunk of items
+   * @param suffix text written after the encoded items
+   * @return UTF-8 encoded stream of the prefix, the encoded items and the suffix
+   * @throws IOException if the first chunk cannot be encoded
+   */
+  public InputStream stream(String prefix, List<T> items, ChunkEncoder<T> encoder, String suffix)
+      throws IOException {
+    List<T> chunkable = items instanceof RandomAccess ? items : new ArrayList<>(items);
+    int first = Math.min(chunkable.size(), threshold);
+    String head = first > 0 ? prefix + encoder.encode(chunkable.subList(0, first), 0) : prefix;
+
+    EncodedInputStream inputStream = new EncodedInputStream(window);
+    inputStream.add(head);
+    pool.execute(() -> write(inputStream, chunkable, first, encoder, suffix));
+    return inputStream;
+  }
+
+  private void write(
+      EncodedInputStream inputStream,
+      List<T> items,
+      int start,
+      ChunkEncoder<T> encoder,
+      String suffix) {
+    Deque<ForkJoinTask<String>> encoding = new ArrayDeque<>();
+    try {
+      int next = start;
+      while (next < items.size() || !encoding.isEmpty()) {
+        while (next < items.size() && encoding.size() < window) {
+          List<T> chunk = items.subList(next, Math.min(items.size(), next + threshold));
+          int offset = next;
+          encoding.add(ForkJoinTask.adapt(() -> encode(encoder, chunk, offset)).fork());
+          next += chunk.size();
+        }
+        inputStream.put(encoding.remove().join(), writeTimeoutMillis);
+      }
+
+      inputStream.put(suffix, writeTimeoutMillis);
+      inputStream.end();
+    } catch (IOException | RuntimeException e) {
+      LOGGER.debug("Unable to write encoded items to stream", e);
+      encoding.forEach(task -> task.cancel(true));
+      inputStream.fail(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      encoding.forEach(task -> task.cancel(true));
+      inputStream.fail(e);
+    }
+  }
+
+  private String encode(ChunkEncoder<T> encoder, List<T> chunk, int offset) {
+    try {
+      return encoder.encode(chunk, offset);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Stream of encoded chunks that holds at most {@code capacity} chunks the reader hasn't taken,
+   * and that turns the end of the stream into an error if the writer failed.
+   */
+  private static class EncodedInputStream extends InputStream {
+
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+
+    private final Semaphore space;
+
+    private final int capacity;
+
+    private volatile boolean closed;
+
+    private volatile Exception failure;
+
+    private byte[] current = new byte[0];
+
+    private int position;
+
+    private boolean ended;
+
+    EncodedInputStream(int capacity) {
+      this.capacity = capacity;
+      this.space = new Semaphore(capacity);
+    }
+
+    /** Adds a chunk without waiting; only used before the stream is handed to the reader. */
+    void add(String text) {
+      space.acquireUninterruptibly();
+      chunks.add(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void put(String text, long timeoutMillis) throws IOException, InterruptedException {
+      SpaceBlocker blocker = new SpaceBlocker(timeoutMillis);
+      ForkJoinPool.managedBlock(blocker);
+      if (!blocker.acquired) {
+        throw new IOException(
+            "Timed out after " + timeoutMillis + " ms waiting for the reader of encoded items");
+      }
+      if (closed) {
+        throw new IOException("Encoded stream was closed by the reader");
+      }
+      chunks.add(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void end() {
+      chunks.add(END);
+    }
+
+    void fail(Exception e) {
+      failure = e instanceof UncheckedIOException ? ((UncheckedIOException) e).getCause() : e;
+      chunks.add(END);
+    }
+
+    @Override
+    public synchronized int read() throws IOException {
+      return fill() ? current[position++] & 0xff : -1;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+      Objects.checkFromIndexSize(off, len, b.length);
+      if (len == 0) {
+        return 0;
+      }
+      if (!fill()) {
+        return -1;
+      }
+      int read = Math.min(len, current.length - position);
+      System.arraycopy(current, position, b, off, read);
+      position += read;
+      return read;
+    }
+
+    @Override
+    public synchronized int available() {
+      return current.length - position;
+    }
+
+    /** Stops the writer, which fails its next write instead of waiting for space. */
+    @Override
+    public void close() {
+      closed = true;
+      chunks.clear();
+      space.release(capacity);
+    }
+
+    private boolean fill() throws IOException {
+      if (closed) {
+        throw new IOException("Stream closed");
+      }
+      while (position == current.length) {
+        if (ended) {
+          if (failure != null) {
+            throw new IOException("Unable to encode items", failure);
+          }
+          return false;
+        }
+        byte[] next = take();
+        if (next == END) {
+          ended = true;
+        } else {
+          current = next;
+          position = 0;
+          space.release();
+        }
+      }
+      return true;
+    }
+
+    /** Waits for the reader to take a chunk without holding up the pool the writer runs on. */
+    private class SpaceBlocker implements ForkJoinPool.ManagedBlocker {
+
+      private final long timeoutMillis;
+
+      private boolean acquired;
+
+      SpaceBlocker(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+      }
+
+      @Override
+      public boolean block() throws InterruptedException {
+        acquired = space.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        return true;
+      }
+
+      @Override
+      public boolean isReleasable() {
+        if (!acquired) {
+          acquired = space.tryAcquire();
+        }
+        return acquired;
+      }
+    }
+
+    private byte[] take() throws IOException {
+      try {
+        return chunks.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for encoded items");
+      }
+    }
+  }
+}
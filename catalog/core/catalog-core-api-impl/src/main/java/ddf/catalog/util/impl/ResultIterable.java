@@ -14,6 +14,8 @@
 package ddf.catalog.util.impl;
 
 import static com.google.common.collect.Iterators.limit;
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_START;
 import static org.apache.commons.lang.Validate.isTrue;
 import static org.apache.commons.lang.Validate.notNull;
 
@@ -28,11 +30,14 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
@@ -254,11 +259,37 @@ private void fetchNextResults() {
         if (response.getHits() >= 0 && currentIndex > response.getHits()) {
           finished = true;
         }
+
+        updateQueryCursor(response);
       } catch (UnsupportedQueryException | SourceUnavailableException | FederationException e) {
         throw new CatalogQueryException(e);
       }
     }
 
+    /**
+     * Continues from the cursor returned with the response when the source supports cursors, which
+     * avoids having the source skip over every previous page. A cursor that did not move means
+     * there are no more results.
+     */
+    private void updateQueryCursor(SourceResponse response) {
+      Map<String, Serializable> requestProperties = queryRequestCopy.getProperties();
+      Serializable requestCursor = requestProperties.get(QUERY_CURSOR_KEY);
+      if (requestCursor == null) {
+        return;
+      }
+
+      Serializable responseCursor =
+          response.getProperties() == null ? null : response.getProperties().get(QUERY_CURSOR_KEY);
+      if (!(responseCursor instanceof String)) {
+        // The source does not support cursors, so fall back to paging by the start index
+        requestProperties.remove(QUERY_CURSOR_KEY);
+      } else if (responseCursor.equals(requestCursor)) {
+        finished = true;
+      } else {
+        requestProperties.put(QUERY_CURSOR_KEY, responseCursor);
+      }
+    }
+
     private boolean isDistinctResult(@Nullable Result result) {
       return result != null
           && (result.getMetacard() == null
@@ -281,12 +312,17 @@ private void copyQueryRequestAndQuery(QueryRequest queryRequest) {
               // always get the hit count
               query.getTimeoutMillis());
 
+      Map<String, Serializable> properties = new HashMap<>();
+      if (queryRequest.getProperties() != null) {
+        properties.putAll(queryRequest.getProperties());
+      }
+      if (queryCopy.getStartIndex() == 1) {
+        properties.putIfAbsent(QUERY_CURSOR_KEY, QUERY_CURSOR_START);
+      }
+
       this.queryRequestCopy =
           new QueryRequestImpl(
-              queryCopy,
-              queryRequest.isEnterprise(),
-              queryRequest.getSourceIds(),
-              queryRequest.getProperties());
+              queryCopy, queryRequest.isEnterprise(), queryRequest.getSourceIds(), properties);
     }
   }
 }
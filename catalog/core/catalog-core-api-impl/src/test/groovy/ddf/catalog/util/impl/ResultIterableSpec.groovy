@@ -30,6 +30,8 @@ import org.junit.runner.RunWith
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY
+import static ddf.catalog.Constants.QUERY_CURSOR_START
 import static ddf.catalog.util.impl.ResultIterable.resultIterable
 import static java.util.stream.Collectors.toList
 
@@ -197,6 +199,58 @@ class ResultIterableSpec extends Specification {
         results == actualResults
     }
 
+    def "next() pages with the cursor returned by the catalog"() {
+        setup:
+        List<Result> actualResults = (1..70).collect { new ResultImpl() }
+        List<Serializable> requestCursors = []
+
+        2 * catalogFramework.query(_ as QueryRequest) >> {
+            QueryRequest queryRequest ->
+                requestCursors << queryRequest.getPropertyValue(QUERY_CURSOR_KEY)
+                buildQueryResponse(actualResults, 0..63, "first")
+        } >> {
+            QueryRequest queryRequest ->
+                requestCursors << queryRequest.getPropertyValue(QUERY_CURSOR_KEY)
+                buildQueryResponse(actualResults, 64..69, "second")
+        }
+
+        Query queryMock = createQueryMock(1, 0)
+        QueryRequest queryRequestMock = createQueryRequestMock(queryMock)
+
+        def resultIterable = resultIterable(catalogFramework, queryRequestMock)
+
+        when:
+        def results = resultIterable.stream()
+                .collect(toList())
+
+        then:
+        results == actualResults
+        requestCursors == [QUERY_CURSOR_START, "first"]
+    }
+
+    def "next() stops when the cursor returned by the catalog does not change"() {
+        setup:
+        List<Result> actualResults = (1..10).collect { new ResultImpl() }
+
+        1 * catalogFramework.query(_ as QueryRequest) >> {
+            QueryRequest queryRequest ->
+                new QueryResponseImpl(queryRequest, actualResults, true, -1L,
+                        ["actualResultSize": 10, (QUERY_CURSOR_KEY): QUERY_CURSOR_START])
+        }
+
+        Query queryMock = createQueryMock(1, 0)
+        QueryRequest queryRequestMock = createQueryRequestMock(queryMock)
+
+        def resultIterable = resultIterable(catalogFramework, queryRequestMock)
+
+        when:
+        def results = resultIterable.stream()
+                .collect(toList())
+
+        then:
+        results == actualResults
+    }
+
     def "next() properly pages when first page is filtered out"() {
         setup:
         List<Result> actualResults = (1..70).collect { new ResultImpl() }
@@ -610,6 +664,16 @@ class ResultIterableSpec extends Specification {
         return buildQueryResponse(resultList, resultIndex..resultIndex)
     }
 
+    private QueryResponse buildQueryResponse(List<Result> resultList,
+                                             Range resultRange,
+                                             String nextCursor) {
+        return new QueryResponseImpl(new QueryRequestImpl(null),
+                resultList[resultRange],
+                true,
+                (long) resultList.size(),
+                ["actualResultSize": resultRange.size(), (QUERY_CURSOR_KEY): nextCursor])
+    }
+
     private QueryResponse buildQueryResponse(List<Result> resultList,
                                              Range resultRange) {
         QueryResponse response = new QueryResponseImpl(new QueryRequestImpl(null),
@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class CompactMetacardTest {
+
+  private static final String SERIALIZATION_FILE_LOCATION = "target/compact-metacard.ser";
+
+  @Test
+  public void testDeclaredAttributes() {
+    CompactMetacard metacard = new CompactMetacard(MetacardImpl.BASIC_METACARD);
+    metacard.setId("id");
+    metacard.setTitle("title");
+    metacard.setAttribute(new AttributeImpl(Metacard.DESCRIPTION, Arrays.asList("a", "b")));
+
+    assertThat(metacard.getId(), is("id"));
+    assertThat(metacard.getTitle(), is("title"));
+    assertThat(metacard.getAttribute(Metacard.DESCRIPTION).getValues(), contains("a", "b"));
+    assertThat(metacard.getAttribute(Metacard.METADATA), is(nullValue()));
+
+    metacard.setTitle(null);
+    assertThat(metacard.getAttribute(Metacard.TITLE), is(nullValue()));
+  }
+
+  @Test
+  public void testUndeclaredAttributes() {
+    CompactMetacard metacard = new CompactMetacard(MetacardImpl.BASIC_METACARD);
+    metacard.setAttribute("ext.undeclared", "value");
+
+    assertThat(metacard.getAttribute("ext.undeclared").getValue(), is("value"));
+
+    metacard.setAttribute("ext.undeclared", null);
+    assertThat(metacard.getAttribute("ext.undeclared"), is(nullValue()));
+  }
+
+  @Test
+  public void testEncodedAttributesDecodedOnce() {
+    AtomicInteger decodeCount = new AtomicInteger();
+    CompactMetacard metacard =
+        new CompactMetacard(
+            MetacardImpl.BASIC_METACARD,
+            (key, values) -> {
+              decodeCount.incrementAndGet();
+              return decode(key, values);
+            });
+    metacard.setEncodedAttribute(Metacard.TITLE, "title_txt", "title");
+    metacard.setEncodedAttribute(Metacard.DESCRIPTION, "description_txt", Arrays.asList("a", "b"));
+
+    assertThat(decodeCount.get(), is(0));
+    assertThat(metacard.getTitle(), is("title_txt:title"));
+    assertThat(metacard.getTitle(), is("title_txt:title"));
+    assertThat(decodeCount.get(), is(1));
+    assertThat(
+        metacard.getAttribute(Metacard.DESCRIPTION).getValues(),
+        contains("description_txt:a", "description_txt:b"));
+    assertThat(decodeCount.get(), is(2));
+  }
+
+  @Test
+  public void testSameAttributeReturnedUntilSet() {
+    CompactMetacard metacard = new CompactMetacard(MetacardImpl.BASIC_METACARD);
+    metacard.setTitle("title");
+
+    Attribute title = metacard.getAttribute(Metacard.TITLE);
+    assertThat(metacard.getAttribute(Metacard.TITLE), is(sameInstance(title)));
+
+    metacard.setTitle("other title");
+    assertThat(metacard.getAttribute(Metacard.TITLE), is(not(sameInstance(title))));
+    assertThat(metacard.getTitle(), is("other title"));
+  }
+
+  @Test
+  public void testConcurrentReadersGetTheSameAttribute() throws Exception {
+    CompactMetacard metacard =
+        new CompactMetacard(MetacardImpl.BASIC_METACARD, CompactMetacardTest::decode);
+    metacard.setEncodedAttribute(Metacard.TITLE, "title_txt", "title");
+
+    int readers = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(readers);
+    try {
+      List<Future<Attribute>> attributes = new ArrayList<>();
+      for (int i = 0; i < readers; i++) {
+        attributes.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return metacard.getAttribute(Metacard.TITLE);
+                }));
+      }
+      start.countDown();
+
+      Attribute title = metacard.getAttribute(Metacard.TITLE);
+      for (Future<Attribute> attribute : attributes) {
+        assertThat(attribute.get(), is(sameInstance(title)));
+      }
+      assertThat(title.getValue(), is("title_txt:title"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testUndeclaredEncodedAttributeDecodedImmediately() {
+    AtomicInteger decodeCount = new AtomicInteger();
+    CompactMetacard metacard =
+        new CompactMetacard(
+            MetacardImpl.BASIC_METACARD,
+            (key, values) -> {
+              decodeCount.incrementAndGet();
+              return decode(key, values);
+            });
+    metacard.setEncodedAttribute("ext.undeclared", "ext.undeclared_txt", "value");
+
+    assertThat(decodeCount.get(), is(1));
+    assertThat(metacard.getAttribute("ext.undeclared").getValue(), is("ext.undeclared_txt:value"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testEncodedAttributeWithoutDecoder() {
+    new CompactMetacard(MetacardImpl.BASIC_METACARD).setEncodedAttribute(Metacard.TITLE, "", "");
+  }
+
+  @Test
+  public void testAttributeLoaderCalledOnceForMissingAttributes() {
+    MetacardImpl complete = new MetacardImpl();
+    complete.setTitle("complete title");
+    complete.setDescription("complete description");
+
+    AtomicInteger loadCount = new AtomicInteger();
+    CompactMetacard metacard = new CompactMetacard(MetacardImpl.BASIC_METACARD);
+    metacard.setTitle("title");
+    metacard.setAttributeLoader(
+        new HashSet<>(Arrays.asList(Metacard.DESCRIPTION, Metacard.METADATA)),
+        () -> {
+          loadCount.incrementAndGet();
+          return complete;
+        });
+
+    assertThat(metacard.getTitle(), is("title"));
+    assertThat(loadCount.get(), is(0));
+    assertThat(metacard.getDescription(), is("complete description"));
+    assertThat(metacard.getAttribute(Metacard.METADATA), is(nullValue()));
+    assertThat(metacard.getTitle(), is("title"));
+    assertThat(loadCount.get(), is(1));
+  }
+
+  @Test
+  public void testAttributeLoaderNotCalledForAttributesThatAreNotMissing() {
+    AtomicInteger loadCount = new AtomicInteger();
+    CompactMetacard metacard = new CompactMetacard(MetacardImpl.BASIC_METACARD);
+    metacard.setTitle("title");
+    metacard.setAttributeLoader(
+        Collections.singleton(Metacard.DESCRIPTION),
+        () -> {
+          loadCount.incrementAndGet();
+          return new MetacardImpl();
+        });
+
+    assertThat(metacard.getTitle(), is("title"));
+    assertThat(metacard.getAttribute(Metacard.METADATA), is(nullValue()));
+    assertThat(metacard.getAttribute("ext.undeclared"), is(nullValue()));
+    assertThat(loadCount.get(), is(0));
+  }
+
+  @Test
+  public void testSetAttributeNotReplacedByLoader() {
+    MetacardImpl complete = new MetacardImpl();
+    complete.setDescription("complete description");
+
+    CompactMetacard metacard = new CompactMetacard(MetacardImpl.BASIC_METACARD);
+    metacard.setAttributeLoader(Collections.singleton(Metacard.DESCRIPTION), () -> complete);
+    metacard.setDescription("description");
+
+    assertThat(metacard.getDescription(), is("description"));
+  }
+
+  @Test
+  public void testCopyKeepsValuesAndLoader() {
+    MetacardImpl complete = new MetacardImpl();
+    complete.setDescription("complete description");
+
+    CompactMetacard metacard =
+        new CompactMetacard(MetacardImpl.BASIC_METACARD, CompactMetacardTest::decode);
+    metacard.setSourceId("source");
+    metacard.setEncodedAttribute(Metacard.TITLE, "title_txt", "title");
+    metacard.setAttribute("ext.undeclared", "value");
+    metacard.setAttributeLoader(Collections.singleton(Metacard.DESCRIPTION), () -> complete);
+
+    CompactMetacard copy = new CompactMetacard(metacard);
+    copy.setAttribute("ext.undeclared", "changed");
+
+    assertThat(copy.getSourceId(), is("source"));
+    assertThat(copy.getTitle(), is("title_txt:title"));
+    assertThat(copy.getDescription(), is("complete description"));
+    assertThat(metacard.getAttribute("ext.undeclared").getValue(), is("value"));
+  }
+
+  @Test
+  public void testSerializedAsMetacardImpl() throws Exception {
+    CompactMetacard metacard =
+        new CompactMetacard(MetacardImpl.BASIC_METACARD, CompactMetacardTest::decode);
+    metacard.setSourceId("source");
+    metacard.setEncodedAttribute(Metacard.TITLE, "title_txt", "title");
+    metacard.setAttribute("ext.undeclared", "value");
+
+    Serializer<Metacard> serializer = new Serializer<>();
+    serializer.serialize(metacard, SERIALIZATION_FILE_LOCATION);
+    Metacard read = serializer.deserialize(SERIALIZATION_FILE_LOCATION);
+
+    assertThat(read, is(instanceOf(MetacardImpl.class)));
+    assertThat(read, is(not(instanceOf(CompactMetacard.class))));
+    assertThat(read.getSourceId(), is("source"));
+    assertThat(read.getTitle(), is("title_txt:title"));
+    assertThat(read.getAttribute("ext.undeclared").getValue(), is("value"));
+  }
+
+  private static List<Serializable> decode(String key, Collection<Object> values) {
+    return values.stream().map(value -> key + ":" + value).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelEncodingStreamTest {
+
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+
+  private final ParallelEncodingStream<Integer> encodingStream =
+      new ParallelEncodingStream<>(pool, 3);
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void testItemsAreWrittenInOrder() throws IOException {
+    List<Integer> items = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+
+    InputStream inputStream =
+        encodingStream.stream("[", items, ParallelEncodingStreamTest::encode, "]");
+
+    String expected =
+        items.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+    assertThat(read(inputStream), is(expected));
+  }
+
+  @Test
+  public void testNoItems() throws IOException {
+    InputStream inputStream =
+        encodingStream.stream(
+            "[", Collections.emptyList(), ParallelEncodingStreamTest::encode, "]");
+
+    assertThat(read(inputStream), is("[]"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testEncodingFailureIsReportedToReader() throws IOException {
+    List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+    InputStream inputStream =
+        encodingStream.stream(
+            "[",
+            items,
+            (chunk, offset) -> {
+              if (offset > 50) {
+                throw new IOException("failed");
+              }
+              return encode(chunk, offset);
+            },
+            "]");
+
+    read(inputStream);
+  }
+
+  @Test(expected = IOException.class)
+  public void testFirstChunkFailureIsThrown() throws IOException {
+    List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+    encodingStream.stream(
+        "[",
+        items,
+        (chunk, offset) -> {
+          throw new IOException("failed");
+        },
+        "]");
+  }
+
+  @Test
+  public void testCloseStopsWriter() throws IOException {
+    List<Integer> items = IntStream.range(0, 100000).boxed().collect(Collectors.toList());
+    AtomicInteger encoded = new AtomicInteger();
+
+    InputStream inputStream =
+        encodingStream.stream(
+            "[",
+            items,
+            (chunk, offset) -> {
+              encoded.addAndGet(chunk.size());
+              return encode(chunk, offset);
+            },
+            "]");
+    inputStream.read();
+    inputStream.close();
+
+    assertThat(pool.awaitQuiescence(10, TimeUnit.SECONDS), is(true));
+    assertThat(encoded.get(), lessThan(items.size()));
+  }
+
+  @Test(expected = IOException.class)
+  public void testWriterTimesOutWhenReaderStalls() throws IOException {
+    List<Integer> items = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+
+    InputStream inputStream =
+        new ParallelEncodingStream<Integer>(pool, 3, 100)
+            .stream("[", items, ParallelEncodingStreamTest::encode, "]");
+
+    assertThat(pool.awaitQuiescence(10, TimeUnit.SECONDS), is(true));
+    read(inputStream);
+  }
+
+  @Test
+  public void testStalledReadersDoNotHoldUpOtherStreams() throws Exception {
+    ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+    ExecutorService reader = Executors.newSingleThreadExecutor();
+    List<InputStream> stalled = new ArrayList<>();
+    try {
+      ParallelEncodingStream<Integer> stream = new ParallelEncodingStream<>(singleThreadPool, 1);
+      List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+      for (int i = 0; i < singleThreadPool.getParallelism() + 2; i++) {
+        stalled.add(stream.stream("[", items, ParallelEncodingStreamTest::encode, "]"));
+      }
+
+      InputStream inputStream = stream.stream("[", items, ParallelEncodingStreamTest::encode, "]");
+      Future<String> read = reader.submit(() -> read(inputStream));
+
+      String expected =
+          items.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+      assertThat(read.get(10, TimeUnit.SECONDS), is(expected));
+    } finally {
+      for (InputStream inputStream : stalled) {
+        inputStream.close();
+      }
+      reader.shutdownNow();
+      singleThreadPool.shutdownNow();
+    }
+  }
+
+  private static String encode(List<Integer> chunk, int offset) {
+    return chunk.stream()
+        .map(String::valueOf)
+        .collect(Collectors.joining(",", offset == 0 ? "" : ",", ""));
+  }
+
+  private static String read(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    inputStream.transferTo(outputStream);
+    return outputStream.toString(StandardCharsets.UTF_8);
+  }
+}
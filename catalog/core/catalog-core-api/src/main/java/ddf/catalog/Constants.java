@@ -159,5 +159,25 @@ public final class Constants {
 
   public static final String ADDITIONAL_SORT_BYS = "additional-sort-bys";
 
+  /**
+   * Query request and response property holding an opaque cursor used to page sequentially through
+   * the results of a query. When a request sets it to {@link #QUERY_CURSOR_START}, or to the value
+   * returned in the response for the previous page, sources that support cursors ignore the query's
+   * start index and return the page that follows the cursor, along with the cursor for the next
+   * page. Sources that do not support cursors ignore it.
+   */
+  public static final String QUERY_CURSOR_KEY = "query-cursor";
+
+  /** Value of {@link #QUERY_CURSOR_KEY} that requests the first page of a cursor. */
+  public static final String QUERY_CURSOR_START = "*";
+
+  /**
+   * Query request property holding a {@link java.util.Collection} of the names of the attributes
+   * the caller needs from each result. Sources that support it may return metacards that only hold
+   * these attributes, loading any other attribute when it is first requested. Sources that do not
+   * support it ignore it and return complete metacards.
+   */
+  public static final String QUERY_REQUESTED_ATTRIBUTES_KEY = "requested-attributes";
+
   private Constants() {}
 }
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.event;
+
+import ddf.catalog.data.Metacard;
+import java.util.List;
+
+/**
+ * A {@link DeliveryMethod} that can deliver several {@link Metacard}s of the same operation at
+ * once. When a subscriber falls behind, the {@link EventProcessor} may hand it the queued metacards
+ * through these methods instead of one at a time.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ *
+ * @see Subscription
+ */
+public interface BatchDeliveryMethod extends DeliveryMethod {
+
+  /**
+   * Handles {@link Metacard}s that were created/ingested, as if each had been passed to {@link
+   * #created(Metacard)}.
+   *
+   * @param newMetacards the {@link Metacard}s that were ingested, in the order they were published
+   */
+  void created(List<Metacard> newMetacards);
+
+  /**
+   * Handles {@link Metacard}s that were updated, as if each pair had been passed to {@link
+   * #updatedHit(Metacard, Metacard)}.
+   *
+   * @param newMetacards the {@link Metacard}s after the update, in the order they were published
+   * @param oldMetacards the {@link Metacard}s before the update, in the same order as {@code
+   *     newMetacards}
+   */
+  void updatedHit(List<Metacard> newMetacards, List<Metacard> oldMetacards);
+
+  /**
+   * Handles {@link Metacard}s that were deleted, as if each had been passed to {@link
+   * #deleted(Metacard)}.
+   *
+   * @param oldMetacards the {@link Metacard}s that were deleted, in the order they were published
+   */
+  void deleted(List<Metacard> oldMetacards);
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.validation;
+
+import ddf.catalog.data.Metacard;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link MetacardValidator} that can validate the metacards of a single request together. This
+ * lets validators that consult the catalog do so once per request rather than once per metacard.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface BatchMetacardValidator extends MetacardValidator {
+  /**
+   * Validates a list of {@link Metacard}s as if each had been passed to {@link
+   * #validate(Metacard)}. Implementations may also report problems between the metacards of the
+   * list.
+   *
+   * @param metacards the {@link Metacard}s to validate, cannot be null
+   * @return the {@link ValidationException} for each metacard that failed validation, keyed by the
+   *     metacard's position in {@code metacards}
+   * @throws IllegalArgumentException if {@code metacards} is null
+   */
+  Map<Integer, ValidationException> validateMetacards(List<Metacard> metacards);
+}
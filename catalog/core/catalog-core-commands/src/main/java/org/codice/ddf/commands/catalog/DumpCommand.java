@@ -13,6 +13,9 @@
  */
 package org.codice.ddf.commands.catalog;
 
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_START;
+
 import com.google.common.io.FileBackedOutputStream;
 import ddf.catalog.Constants;
 import ddf.catalog.content.data.ContentItem;
@@ -22,6 +25,7 @@
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.types.Core;
+import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.impl.SortByImpl;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.ResourceRequest;
@@ -30,10 +34,11 @@
 import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.ResourceRequestById;
-import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.ResourceNotFoundException;
 import ddf.catalog.resource.ResourceNotSupportedException;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.util.impl.ResultIterable;
@@ -57,8 +62,11 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -77,6 +85,8 @@
 import org.apache.karaf.shell.api.action.Option;
 import org.apache.karaf.shell.api.action.lifecycle.Reference;
 import org.apache.karaf.shell.api.action.lifecycle.Service;
+import org.codice.ddf.commands.catalog.export.DumpCheckpoint;
+import org.codice.ddf.commands.catalog.export.DumpCheckpoint.Position;
 import org.codice.ddf.commands.catalog.facade.CatalogFacade;
 import org.codice.ddf.commands.util.DigitalSignature;
 import org.codice.ddf.configuration.SystemBaseUrl;
@@ -84,6 +94,7 @@
 import org.joda.time.Period;
 import org.joda.time.format.PeriodFormatter;
 import org.joda.time.format.PeriodFormatterBuilder;
+import org.opengis.filter.Filter;
 import org.opengis.filter.sort.SortBy;
 import org.opengis.filter.sort.SortOrder;
 import org.osgi.framework.InvalidSyntaxException;
@@ -110,6 +121,8 @@ public class DumpCommand extends CqlCommands {
 
   private static final int BUFFER_SIZE = 10_000_000;
 
+  private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
   private DigitalSignature signer;
 
   private final PeriodFormatter timeFormatter =
@@ -194,6 +207,16 @@ public class DumpCommand extends CqlCommands {
           "Dump the entire Catalog and local content into a zip file with the specified name using the default transformer.")
   String zipFileName;
 
+  @Option(
+      name = "--resume",
+      required = false,
+      aliases = {},
+      multiValued = false,
+      description =
+          "Resume an interrupted dump into the same directory, starting after the last page of Metacards "
+              + "that was completely written. Not supported with --include-content.")
+  boolean resume = false;
+
   @Reference protected SecurityLogger securityLogger;
 
   public DumpCommand() {}
@@ -241,18 +264,32 @@ protected final Object executeWithSubject() throws Exception {
       zipFileName = zipFileName + ".zip";
     }
 
+    Filter filter = getFilter();
+    DumpCheckpoint checkpoint = null;
+    if (StringUtils.isBlank(zipFileName)) {
+      checkpoint = getCheckpoint(dumpDir, filter);
+      if (checkpoint == null) {
+        return null;
+      }
+    } else if (resume) {
+      printErrorMessage("Cannot resume a dump with --include-content.");
+      return null;
+    }
+
     securityLogger.audit("Called catalog:dump command with path : {}", dirPath);
 
     CatalogFacade catalog = getCatalog();
 
     SortBy sort = new SortByImpl(Core.ID, SortOrder.ASCENDING);
 
-    QueryImpl query = new QueryImpl(getFilter());
+    QueryImpl query = new QueryImpl(filter);
     query.setRequestsTotalResultsCount(true);
     query.setPageSize(pageSize);
     query.setSortBy(sort);
 
     final AtomicLong resultCount = new AtomicLong(0);
+    final AtomicLong bytesWritten = new AtomicLong(0);
+    final Queue<String> failedIds = new ConcurrentLinkedQueue<>();
     long start = System.currentTimeMillis();
 
     BlockingQueue<Runnable> blockingQueue = new ArrayBlockingQueue<>(multithreaded);
@@ -272,37 +309,184 @@ protected final Object executeWithSubject() throws Exception {
       LOGGER.debug("Hits for Search: {}", catalog.query(queryRequest).getHits());
     }
 
-    if (StringUtils.isNotBlank(zipFileName)) {
-      File outputFile = new File(dirPath + zipFileName);
-      createZip(catalog, queryRequest, outputFile, resultCount);
+    boolean completed = false;
+    try {
+      if (StringUtils.isNotBlank(zipFileName)) {
+        File outputFile = new File(dirPath + zipFileName);
+        createZip(catalog, queryRequest, outputFile, resultCount);
+        bytesWritten.set(outputFile.length());
+
+        String alias =
+            AccessController.doPrivileged(
+                (PrivilegedAction<String>) () -> System.getProperty(SystemBaseUrl.EXTERNAL_HOST));
+        String password =
+            AccessController.doPrivileged(
+                (PrivilegedAction<String>)
+                    () -> System.getProperty("javax.net.ssl.keyStorePassword"));
+
+        try (InputStream inputStream = new FileInputStream(outputFile)) {
+          byte[] signature = signer.createDigitalSignature(inputStream, alias, password);
+
+          if (signature != null) {
+            String epoch = Long.toString(Instant.now().getEpochSecond());
+            String signatureFilepath = String.format("%sdump_%s.sig", dirPath, epoch);
+
+            FileUtils.writeByteArrayToFile(new File(signatureFilepath), signature);
+          }
+        }
+      } else {
+        dumpPages(
+            catalog,
+            query,
+            checkpoint,
+            executorService,
+            dumpDir,
+            resultCount,
+            bytesWritten,
+            failedIds);
+      }
+      completed = true;
+    } finally {
+      executorService.shutdown();
+      awaitTermination(executorService);
+    }
 
-      String alias =
-          AccessController.doPrivileged(
-              (PrivilegedAction<String>) () -> System.getProperty(SystemBaseUrl.EXTERNAL_HOST));
-      String password =
-          AccessController.doPrivileged(
-              (PrivilegedAction<String>)
-                  () -> System.getProperty("javax.net.ssl.keyStorePassword"));
+    if (completed && checkpoint != null) {
+      if (checkpoint.hasPendingPages()) {
+        if (!failedIds.isEmpty()) {
+          LOGGER.warn("Metacards that could not be written: {}", failedIds);
+        }
+        printErrorMessage(
+            failedIds.size()
+                + " Metacard(s) could not be written. Run the dump again with --resume to retry them.");
+      } else {
+        checkpoint.delete();
+      }
+    }
 
-      try (InputStream inputStream = new FileInputStream(outputFile)) {
-        byte[] signature = signer.createDigitalSignature(inputStream, alias, password);
+    long end = System.currentTimeMillis();
+    String elapsedTime = timeFormatter.print(new Period(start, end).withMillis(0));
+    console.printf(" %d file(s) dumped in %s\t%n", resultCount.get(), elapsedTime);
+    LOGGER.debug("{} file(s) dumped in {}", resultCount.get(), elapsedTime);
+    double seconds = Math.max(end - start, 1) / MS_PER_SECOND;
+    console.printf(
+        " %.1f records/s, %.2f MB/s%n",
+        resultCount.get() / seconds, bytesWritten.get() / BYTES_PER_MB / seconds);
+    console.println();
+    securityLogger.audit("Exported {} files to {}", resultCount.get(), dirPath);
+    return null;
+  }
 
-        if (signature != null) {
-          String epoch = Long.toString(Instant.now().getEpochSecond());
-          String signatureFilepath = String.format("%sdump_%s.sig", dirPath, epoch);
+  /**
+   * Starts a checkpoint for a new dump, or loads the one to resume from.
+   *
+   * @return the checkpoint, or {@code null} if the dump cannot proceed
+   */
+  @Nullable
+  private DumpCheckpoint getCheckpoint(File dumpDir, Filter filter) throws IOException {
+    if (!resume) {
+      return DumpCheckpoint.start(
+          dumpDir, filter.toString(), transformerId, Position.ofCursor(QUERY_CURSOR_START));
+    }
 
-          FileUtils.writeByteArrayToFile(new File(signatureFilepath), signature);
+    Optional<DumpCheckpoint> checkpoint = DumpCheckpoint.load(dumpDir);
+    if (!checkpoint.isPresent()) {
+      printErrorMessage("No interrupted dump found in [" + dirPath + "] to resume.");
+      return null;
+    }
+
+    if (!transformerId.equals(checkpoint.get().getTransformer())) {
+      printErrorMessage(
+          "The interrupted dump in ["
+              + dirPath
+              + "] used the "
+              + checkpoint.get().getTransformer()
+              + " transformer.");
+      return null;
+    }
+
+    if (!filter.toString().equals(checkpoint.get().getFilter())) {
+      console.println(
+          "Warning: the query differs from the one the interrupted dump was started with.");
+    }
+    return checkpoint.get();
+  }
+
+  /**
+   * Reads the matching metacards a page at a time and hands each page to the workers. Pages are
+   * read with a query cursor when the catalog supports one, so that reading deep into a large
+   * catalog stays cheap, and by start index otherwise. The checkpoint is moved forward as pages are
+   * written; a page with a metacard that could not be written is never checkpointed, and the IDs of
+   * those metacards are added to {@code failedIds}.
+   */
+  private void dumpPages(
+      CatalogFacade catalog,
+      QueryImpl query,
+      DumpCheckpoint checkpoint,
+      ExecutorService executorService,
+      File dumpDir,
+      AtomicLong resultCount,
+      AtomicLong bytesWritten,
+      Queue<String> failedIds)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    QueryRequest queryRequest = new QueryRequestImpl(query);
+    Position position = checkpoint.getPosition();
+    if (position.getCursor() != null) {
+      queryRequest.getProperties().put(QUERY_CURSOR_KEY, position.getCursor());
+    }
+    query.setStartIndex(position.getStartIndex());
+
+    boolean finished = false;
+    while (!finished) {
+      SourceResponse response = catalog.query(queryRequest);
+      List<Result> results = response.getResults();
+      Serializable requestCursor = queryRequest.getPropertyValue(QUERY_CURSOR_KEY);
+      Serializable responseCursor =
+          response.getProperties() == null ? null : response.getProperties().get(QUERY_CURSOR_KEY);
+
+      Position next;
+      if (requestCursor != null && responseCursor instanceof String) {
+        next = Position.ofCursor((String) responseCursor);
+        finished = results.isEmpty() || responseCursor.equals(requestCursor);
+        queryRequest.getProperties().put(QUERY_CURSOR_KEY, responseCursor);
+      } else {
+        // The catalog does not support cursors, so page by the start index instead
+        queryRequest.getProperties().remove(QUERY_CURSOR_KEY);
+        int actualResultSize =
+            Optional.ofNullable(response.getProperties())
+                .map(properties -> properties.get("actualResultSize"))
+                .filter(Integer.class::isInstance)
+                .map(Integer.class::cast)
+                .orElse(results.size());
+        int nextIndex = query.getStartIndex() + actualResultSize;
+        next = Position.ofStartIndex(nextIndex);
+        finished =
+            actualResultSize == 0 || (response.getHits() >= 0 && nextIndex > response.getHits());
+        query.setStartIndex(nextIndex);
+      }
+
+      if (!results.isEmpty()) {
+        long page = checkpoint.pageStarted(next);
+        Runnable writePage =
+            () -> {
+              List<String> failed = processResults(results, dumpDir, resultCount, bytesWritten);
+              if (failed.isEmpty()) {
+                checkpoint.pageWritten(page);
+              } else {
+                failedIds.addAll(failed);
+              }
+              printStatus(resultCount.get());
+            };
+        if (multithreaded > 1) {
+          executorService.submit(writePage);
+        } else {
+          writePage.run();
         }
       }
-    } else {
-      ResultIterable.resultIterable(catalog::query, queryRequest).stream()
-          .map(Collections::singletonList)
-          .map(result -> new SourceResponseImpl(queryRequest, result))
-          .forEach(response -> handleResult(response, executorService, dumpDir, resultCount));
     }
+  }
 
-    executorService.shutdown();
-
+  private void awaitTermination(ExecutorService executorService) {
     boolean interrupted = false;
     try {
       while (!executorService.isTerminated()) {
@@ -317,51 +501,36 @@ protected final Object executeWithSubject() throws Exception {
         Thread.currentThread().interrupt();
       }
     }
-
-    long end = System.currentTimeMillis();
-    String elapsedTime = timeFormatter.print(new Period(start, end).withMillis(0));
-    console.printf(" %d file(s) dumped in %s\t%n", resultCount.get(), elapsedTime);
-    LOGGER.debug("{} file(s) dumped in {}", resultCount.get(), elapsedTime);
-    console.println();
-    securityLogger.audit("Exported {} files to {}", resultCount.get(), dirPath);
-    return null;
-  }
-
-  private void handleResult(
-      SourceResponse response,
-      ExecutorService executorService,
-      File dumpDir,
-      AtomicLong resultCount) {
-    final List<Result> results = response.getResults();
-
-    if (multithreaded > 1) {
-      executorService.submit(() -> processResults(results, dumpDir, resultCount));
-    } else {
-      processResults(results, dumpDir, resultCount);
-    }
   }
 
-  private void processResults(List<Result> results, File dumpDir, AtomicLong resultCount) {
+  /** @return the IDs of the metacards that could not be written */
+  private List<String> processResults(
+      List<Result> results, File dumpDir, AtomicLong resultCount, AtomicLong bytesWritten) {
+    List<String> failedIds = new ArrayList<>();
     for (final Result result : results) {
       Metacard metacard = result.getMetacard();
       try {
-        exportMetacard(dumpDir, metacard, resultCount);
+        exportMetacard(dumpDir, metacard, resultCount, bytesWritten);
       } catch (IOException e) {
         LOGGER.debug(
             "Unable to export metacard: {} [{}]", metacard.getId(), metacard.getTitle(), e);
+        failedIds.add(metacard.getId());
       }
     }
+    return failedIds;
   }
 
-  private void exportMetacard(File dumpLocation, Metacard metacard, AtomicLong resultCount)
+  private void exportMetacard(
+      File dumpLocation, Metacard metacard, AtomicLong resultCount, AtomicLong bytesWritten)
       throws IOException {
     if (SERIALIZED_OBJECT_ID.matches(transformerId)) {
-      try (ObjectOutputStream oos =
-          new ObjectOutputStream(new FileOutputStream(getOutputFile(dumpLocation, metacard)))) {
+      File outputFile = getOutputFile(dumpLocation, metacard);
+      try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(outputFile))) {
         oos.writeObject(new MetacardImpl(metacard));
         oos.flush();
         resultCount.incrementAndGet();
       }
+      bytesWritten.addAndGet(outputFile.length());
     } else {
       BinaryContent binaryContent;
       if (metacard != null) {
@@ -371,12 +540,14 @@ private void exportMetacard(File dumpLocation, Metacard metacard, AtomicLong res
             binaryContent = transformer.transform(metacard, new HashMap<>());
 
             if (binaryContent != null) {
+              byte[] bytes = binaryContent.getByteArray();
               try (FileOutputStream fos =
                   new FileOutputStream(getOutputFile(dumpLocation, metacard))) {
-                fos.write(binaryContent.getByteArray());
+                fos.write(bytes);
                 fos.flush();
               }
               resultCount.incrementAndGet();
+              bytesWritten.addAndGet(bytes.length);
               break;
             }
 
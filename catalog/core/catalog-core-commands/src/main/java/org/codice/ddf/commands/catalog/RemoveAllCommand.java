@@ -13,6 +13,7 @@
  */
 package org.codice.ddf.commands.catalog;
 
+import ddf.catalog.Constants;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.types.Validation;
@@ -29,8 +30,13 @@
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
 import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -264,7 +270,7 @@ private QueryRequest getIntendedQuery(FilterBuilder filterBuilder, boolean isReq
     query.setRequestsTotalResultsCount(isRequestForTotal);
     query.setPageSize(batchSize);
 
-    return new QueryRequestImpl(query);
+    return getIdQueryRequest(query);
   }
 
   private QueryRequest getAlternateQuery(FilterBuilder filterBuilder, boolean isRequestForTotal) {
@@ -290,7 +296,15 @@ private QueryRequest getAlternateQuery(FilterBuilder filterBuilder, boolean isRe
     query.setRequestsTotalResultsCount(isRequestForTotal);
     query.setPageSize(batchSize);
 
-    return new QueryRequestImpl(query);
+    return getIdQueryRequest(query);
+  }
+
+  private QueryRequest getIdQueryRequest(QueryImpl query) {
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(
+        Constants.QUERY_REQUESTED_ATTRIBUTES_KEY,
+        new HashSet<>(Collections.singleton(Metacard.ID)));
+    return new QueryRequestImpl(query, properties);
   }
 
   private Filter addValidationAttributeToQuery(Filter filter, FilterBuilder filterBuilder) {
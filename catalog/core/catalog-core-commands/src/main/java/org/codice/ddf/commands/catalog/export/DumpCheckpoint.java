@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records how far a dump has progressed so that an interrupted dump can be resumed. Pages of
+ * results are handed to the workers in order but may be written out of order, so the checkpoint
+ * only moves past a page once that page and every page before it have been written. A resumed dump
+ * may therefore write some metacards a second time, but never skips one.
+ */
+public class DumpCheckpoint {
+
+  public static final String FILE_NAME = ".dump-checkpoint";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DumpCheckpoint.class);
+
+  private static final String FILTER = "filter";
+
+  private static final String TRANSFORMER = "transformer";
+
+  private static final String CURSOR = "cursor";
+
+  private static final String START_INDEX = "startIndex";
+
+  private final Path file;
+
+  private final String filter;
+
+  private final String transformer;
+
+  /** Position following each page that has been handed to a worker but not yet committed. */
+  private final Map<Long, Position> pendingPages = new HashMap<>();
+
+  private final Set<Long> writtenPages = new HashSet<>();
+
+  private Position position;
+
+  private long nextPage;
+
+  private long nextPageToCommit;
+
+  private DumpCheckpoint(Path file, String filter, String transformer, Position position) {
+    this.file = file;
+    this.filter = filter;
+    this.transformer = transformer;
+    this.position = position;
+  }
+
+  /**
+   * Starts a new checkpoint in the dump directory, replacing any existing one.
+   *
+   * @param dumpDirectory directory the dump is written to
+   * @param filter description of the dump's filter, used to detect resuming a different dump
+   * @param transformer ID of the transformer the dump uses
+   * @param start position of the first page
+   */
+  public static DumpCheckpoint start(
+      File dumpDirectory, String filter, String transformer, Position start) {
+    DumpCheckpoint checkpoint =
+        new DumpCheckpoint(dumpDirectory.toPath().resolve(FILE_NAME), filter, transformer, start);
+    checkpoint.save();
+    return checkpoint;
+  }
+
+  /**
+   * Loads the checkpoint left in the dump directory by an interrupted dump.
+   *
+   * @param dumpDirectory directory the dump is written to
+   * @return the checkpoint, or empty if the directory has none
+   * @throws IOException if the checkpoint could not be read
+   */
+  public static Optional<DumpCheckpoint> load(File dumpDirectory) throws IOException {
+    Path file = dumpDirectory.toPath().resolve(FILE_NAME);
+    if (!file.toFile().isFile()) {
+      return Optional.empty();
+    }
+
+    Properties properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(file)) {
+      properties.load(inputStream);
+    }
+
+    String cursor = properties.getProperty(CURSOR);
+    Position position;
+    try {
+      position =
+          cursor != null
+              ? Position.ofCursor(cursor)
+              : Position.ofStartIndex(Integer.parseInt(properties.getProperty(START_INDEX, "1")));
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid start index in checkpoint " + file, e);
+    }
+
+    return Optional.of(
+        new DumpCheckpoint(
+            file,
+            properties.getProperty(FILTER, ""),
+            properties.getProperty(TRANSFORMER, ""),
+            position));
+  }
+
+  public String getFilter() {
+    return filter;
+  }
+
+  public String getTransformer() {
+    return transformer;
+  }
+
+  /** @return the position the dump should continue from */
+  public synchronized Position getPosition() {
+    return position;
+  }
+
+  /**
+   * Registers a page that has been handed to a worker.
+   *
+   * @param next position of the page that follows it
+   * @return the page number to pass to {@link #pageWritten(long)}
+   */
+  public synchronized long pageStarted(Position next) {
+    pendingPages.put(nextPage, next);
+    return nextPage++;
+  }
+
+  /**
+   * Marks a page as written, moving the checkpoint past it if every earlier page has been written
+   * too.
+   *
+   * @param page the page number returned by {@link #pageStarted(Position)}
+   */
+  public synchronized void pageWritten(long page) {
+    writtenPages.add(page);
+
+    Position committed = null;
+    while (writtenPages.remove(nextPageToCommit)) {
+      committed = pendingPages.remove(nextPageToCommit);
+      nextPageToCommit++;
+    }
+
+    if (committed != null) {
+      position = committed;
+      save();
+    }
+  }
+
+  /** @return {@code true} if a page handed to a worker was never written */
+  public synchronized boolean hasPendingPages() {
+    return !pendingPages.isEmpty();
+  }
+
+  /** Removes the checkpoint once the dump has completed. */
+  public void delete() {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to delete dump checkpoint {}", file, e);
+    }
+  }
+
+  private synchronized void save() {
+    Properties properties = new Properties();
+    properties.setProperty(FILTER, filter);
+    properties.setProperty(TRANSFORMER, transformer);
+    if (position.getCursor() != null) {
+      properties.setProperty(CURSOR, position.getCursor());
+    } else {
+      properties.setProperty(START_INDEX, Integer.toString(position.getStartIndex()));
+    }
+
+    Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+    try (OutputStream outputStream = Files.newOutputStream(temp)) {
+      properties.store(outputStream, "catalog:dump checkpoint");
+    } catch (IOException e) {
+      LOGGER.warn("Unable to write dump checkpoint {}", file, e);
+      return;
+    }
+
+    try {
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to write dump checkpoint {}", file, e);
+    }
+  }
+
+  /**
+   * Where a page of results starts: either a query cursor, for sources that support cursors, or a
+   * start index.
+   */
+  public static final class Position {
+
+    private final String cursor;
+
+    private final int startIndex;
+
+    private Position(@Nullable String cursor, int startIndex) {
+      this.cursor = cursor;
+      this.startIndex = startIndex;
+    }
+
+    public static Position ofCursor(String cursor) {
+      return new Position(cursor, 1);
+    }
+
+    public static Position ofStartIndex(int startIndex) {
+      return new Position(null, startIndex);
+    }
+
+    @Nullable
+    public String getCursor() {
+      return cursor;
+    }
+
+    public int getStartIndex() {
+      return startIndex;
+    }
+  }
+}
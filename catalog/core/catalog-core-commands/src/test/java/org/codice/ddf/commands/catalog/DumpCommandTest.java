@@ -13,9 +13,13 @@
  */
 package org.codice.ddf.commands.catalog;
 
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_START;
 import static org.codice.ddf.commands.catalog.CommandSupport.ERROR_COLOR;
 import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
@@ -25,11 +29,15 @@
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.security.audit.SecurityLogger;
@@ -37,12 +45,17 @@
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
+import org.codice.ddf.commands.catalog.export.DumpCheckpoint;
+import org.codice.ddf.commands.catalog.export.DumpCheckpoint.Position;
 import org.codice.ddf.commands.util.DigitalSignature;
 import org.fusesource.jansi.Ansi;
 import org.junit.Before;
@@ -237,6 +250,118 @@ public void testNoFileDumpedWhenTransformFails() throws Exception {
     assertThat(consoleOutput.getOutput(), containsString(" 0 file(s) dumped in "));
   }
 
+  @Test
+  public void testCheckpointRemovedAfterDump() throws Exception {
+    DumpCommand dumpCommand = new DumpCommand(signer);
+    dumpCommand.securityLogger = mock(SecurityLogger.class);
+    dumpCommand.catalogFramework = givenCatalogFramework(getResultList("id1", "id2"));
+    dumpCommand.filterBuilder = new GeotoolsFilterBuilder();
+    File outputDirectory = testFolder.newFolder("somedirectory");
+    dumpCommand.dirPath = outputDirectory.getAbsolutePath();
+    dumpCommand.transformerId = CatalogCommands.SERIALIZED_OBJECT_ID;
+
+    dumpCommand.executeWithSubject();
+
+    assertThat(new File(outputDirectory, DumpCheckpoint.FILE_NAME).exists(), is(false));
+    assertThat(consoleOutput.getOutput(), containsString(" records/s, "));
+  }
+
+  @Test
+  public void testCheckpointKeptWhenMetacardNotWritten() throws Exception {
+    DumpCommand dumpCommand = new DumpCommand(signer);
+    dumpCommand.securityLogger = mock(SecurityLogger.class);
+    dumpCommand.catalogFramework = givenCatalogFramework(getResultList("id1", "id2"));
+    dumpCommand.filterBuilder = new GeotoolsFilterBuilder();
+    File outputDirectory = testFolder.newFolder("somedirectory");
+    // A directory in place of the output file makes writing the metacard fail
+    new File(outputDirectory, "id1").mkdir();
+    dumpCommand.dirPath = outputDirectory.getAbsolutePath();
+    dumpCommand.transformerId = CatalogCommands.SERIALIZED_OBJECT_ID;
+
+    dumpCommand.executeWithSubject();
+
+    assertThat(new File(outputDirectory, DumpCheckpoint.FILE_NAME).exists(), is(true));
+    assertThat(
+        DumpCheckpoint.load(outputDirectory).get().getPosition().getCursor(),
+        is(QUERY_CURSOR_START));
+    assertThat(consoleOutput.getOutput(), containsString("1 Metacard(s) could not be written."));
+    assertThat(consoleOutput.getOutput(), containsString(" 1 file(s) dumped in "));
+  }
+
+  @Test
+  public void testDumpPagesThroughCursor() throws Exception {
+    List<Object> cursors = new ArrayList<>();
+    DumpCommand dumpCommand = new DumpCommand(signer);
+    dumpCommand.securityLogger = mock(SecurityLogger.class);
+    QueryResponse firstPage =
+        givenResponse(getResultList("id1", "id2"), ImmutableMap.of(QUERY_CURSOR_KEY, "next"));
+    QueryResponse lastPage =
+        givenResponse(Collections.emptyList(), ImmutableMap.of(QUERY_CURSOR_KEY, "next"));
+    dumpCommand.catalogFramework =
+        givenPagedCatalogFramework(
+            request -> {
+              Serializable cursor = request.getPropertyValue(QUERY_CURSOR_KEY);
+              if (cursor == null) {
+                return lastPage;
+              }
+              cursors.add(cursor);
+              return QUERY_CURSOR_START.equals(cursor) ? firstPage : lastPage;
+            });
+    dumpCommand.filterBuilder = new GeotoolsFilterBuilder();
+    File outputDirectory = testFolder.newFolder("somedirectory");
+    dumpCommand.dirPath = outputDirectory.getAbsolutePath();
+    dumpCommand.transformerId = CatalogCommands.SERIALIZED_OBJECT_ID;
+
+    dumpCommand.executeWithSubject();
+
+    assertThat(cursors, contains(QUERY_CURSOR_START, "next"));
+    assertThat(consoleOutput.getOutput(), containsString(" 2 file(s) dumped in "));
+  }
+
+  @Test
+  public void testResumeFromCheckpoint() throws Exception {
+    File outputDirectory = testFolder.newFolder("somedirectory");
+    DumpCheckpoint.start(
+        outputDirectory, "filter", CatalogCommands.SERIALIZED_OBJECT_ID, Position.ofStartIndex(5));
+    List<Integer> startIndexes = new ArrayList<>();
+    DumpCommand dumpCommand = new DumpCommand(signer);
+    dumpCommand.securityLogger = mock(SecurityLogger.class);
+    QueryResponse page = givenResponse(getResultList("id5", "id6"), Collections.emptyMap());
+    QueryResponse lastPage = givenResponse(Collections.emptyList(), Collections.emptyMap());
+    dumpCommand.catalogFramework =
+        givenPagedCatalogFramework(
+            request -> {
+              int startIndex = request.getQuery().getStartIndex();
+              startIndexes.add(startIndex);
+              return startIndex == 5 ? page : lastPage;
+            });
+    dumpCommand.filterBuilder = new GeotoolsFilterBuilder();
+    dumpCommand.dirPath = outputDirectory.getAbsolutePath();
+    dumpCommand.transformerId = CatalogCommands.SERIALIZED_OBJECT_ID;
+    dumpCommand.resume = true;
+
+    dumpCommand.executeWithSubject();
+
+    assertThat(startIndexes, hasItems(5, 7));
+    assertThat(consoleOutput.getOutput(), containsString(" 2 file(s) dumped in "));
+    assertThat(new File(outputDirectory, DumpCheckpoint.FILE_NAME).exists(), is(false));
+  }
+
+  @Test
+  public void testResumeWithoutCheckpoint() throws Exception {
+    DumpCommand dumpCommand = new DumpCommand(signer);
+    dumpCommand.securityLogger = mock(SecurityLogger.class);
+    dumpCommand.filterBuilder = new GeotoolsFilterBuilder();
+    File outputDirectory = testFolder.newFolder("somedirectory");
+    dumpCommand.dirPath = outputDirectory.getAbsolutePath();
+    dumpCommand.transformerId = CatalogCommands.SERIALIZED_OBJECT_ID;
+    dumpCommand.resume = true;
+
+    dumpCommand.executeWithSubject();
+
+    assertThat(consoleOutput.getOutput(), containsString("No interrupted dump found in ["));
+  }
+
   @Test
   public void testNormalOperationsAsCompressedFile() throws Exception {
     File outputDirectory = testFolder.newFolder("somedirectory");
@@ -282,6 +407,22 @@ private void assertZipContents(InputStream inputStream, List<String> ids) throws
     }
   }
 
+  private CatalogFramework givenPagedCatalogFramework(Function<QueryRequest, QueryResponse> pages)
+      throws Exception {
+    CatalogFramework catalogFramework = mock(CatalogFramework.class);
+    when(catalogFramework.query(any(QueryRequest.class)))
+        .thenAnswer(invocation -> pages.apply(invocation.getArgument(0)));
+    return catalogFramework;
+  }
+
+  private QueryResponse givenResponse(List<Result> results, Map<String, Serializable> properties) {
+    QueryResponse response = mock(QueryResponse.class);
+    when(response.getResults()).thenReturn(results);
+    when(response.getProperties()).thenReturn(properties);
+    when(response.getHits()).thenReturn(-1L);
+    return response;
+  }
+
   private Metacard getMetacard(String id) {
     MetacardImpl metacard = new MetacardImpl();
     metacard.setId(id);
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog.export;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import org.codice.ddf.commands.catalog.export.DumpCheckpoint.Position;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DumpCheckpointTest {
+
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private File dumpDirectory;
+
+  @Before
+  public void setUp() throws Exception {
+    dumpDirectory = testFolder.newFolder("dump");
+  }
+
+  @Test
+  public void testCheckpointOnlyMovesPastContiguousWrittenPages() throws Exception {
+    DumpCheckpoint checkpoint =
+        DumpCheckpoint.start(dumpDirectory, "filter", "xml", Position.ofCursor("*"));
+    long first = checkpoint.pageStarted(Position.ofCursor("a"));
+    long second = checkpoint.pageStarted(Position.ofCursor("b"));
+    long third = checkpoint.pageStarted(Position.ofCursor("c"));
+
+    checkpoint.pageWritten(second);
+    assertThat(load().getPosition().getCursor(), is("*"));
+
+    checkpoint.pageWritten(first);
+    assertThat(load().getPosition().getCursor(), is("b"));
+    assertThat(checkpoint.hasPendingPages(), is(true));
+
+    checkpoint.pageWritten(third);
+    assertThat(load().getPosition().getCursor(), is("c"));
+    assertThat(checkpoint.hasPendingPages(), is(false));
+  }
+
+  @Test
+  public void testLoadStartIndexCheckpoint() throws Exception {
+    DumpCheckpoint checkpoint =
+        DumpCheckpoint.start(dumpDirectory, "filter", "xml", Position.ofStartIndex(1));
+    checkpoint.pageWritten(checkpoint.pageStarted(Position.ofStartIndex(101)));
+
+    DumpCheckpoint loaded = load();
+    assertThat(loaded.getPosition().getCursor(), is(nullValue()));
+    assertThat(loaded.getPosition().getStartIndex(), is(101));
+    assertThat(loaded.getFilter(), is("filter"));
+    assertThat(loaded.getTransformer(), is("xml"));
+  }
+
+  @Test
+  public void testDelete() throws Exception {
+    DumpCheckpoint.start(dumpDirectory, "filter", "xml", Position.ofCursor("*")).delete();
+
+    assertThat(DumpCheckpoint.load(dumpDirectory).isPresent(), is(false));
+  }
+
+  private DumpCheckpoint load() throws Exception {
+    return DumpCheckpoint.load(dumpDirectory).orElseThrow(AssertionError::new);
+  }
+}
@@ -17,12 +17,17 @@
 
 import com.google.common.annotations.VisibleForTesting;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
@@ -44,6 +49,14 @@
  * <p>if there are files being processed or a thread already inside {@code checkAndNotify()}, check
  * and notify will immediately return false
  *
+ * <p>When {@link #setUseFileSystemEvents(boolean) file system events} are used, only the
+ * directories the file system reports as changed are checked after the first poll. Directories
+ * whose events may have been lost are checked along with everything under them.
+ *
+ * <p>The state is stored in full the first time files finish processing, and after that each
+ * committed change is appended to the {@link ObjectPersistentStore}. The state is stored in full
+ * again once enough changes have been appended.
+ *
  * <p>Known Limitations:
  *
  * <ul>
@@ -60,6 +73,7 @@ public class AsyncFileAlterationObserver {
   private static final int LOGGING_TIME_DELAY = 500;
   private static final int LOGGING_TIME_INTERVAL = 5000;
   private static final String NULL_ARG_MSG = "Arguments can not be null";
+  private static final int MAX_APPENDED_CHANGES = 10_000;
 
   private final AsyncFileEntry rootFile;
   private AsyncFileAlterationListener listener = null;
@@ -68,10 +82,20 @@ public class AsyncFileAlterationObserver {
   private final ObjectPersistentStore serializer;
   private final Object processingLock = new Object();
 
+  private final AtomicInteger appendedChanges = new AtomicInteger();
+  private final Set<File> pendingRescans = ConcurrentHashMap.newKeySet();
+
   private Timer timer;
 
   private boolean isProcessing = false;
 
+  //  Appended changes can only be loaded once the state has been stored in full
+  private volatile boolean stored = false;
+
+  private volatile boolean useFileSystemEvents = false;
+
+  @Nullable private volatile DirectoryWatcher watcher;
+
   public AsyncFileAlterationObserver(File fileToObserve, ObjectPersistentStore serializer) {
     if (fileToObserve == null || serializer == null) {
       throw new IllegalArgumentException(NULL_ARG_MSG);
@@ -104,7 +128,13 @@ private AsyncFileAlterationObserver(AsyncFileEntry entry, ObjectPersistentStore
     if (temp == null) {
       return null;
     }
-    return new AsyncFileAlterationObserver(temp, store);
+    List<EntryChange> changes = store.loadAppended(observedFile.getName(), EntryChange.class);
+    changes.forEach(change -> change.applyTo(temp));
+
+    AsyncFileAlterationObserver observer = new AsyncFileAlterationObserver(temp, store);
+    observer.appendedChanges.set(changes.size());
+    observer.stored = true;
+    return observer;
   }
 
   /**
@@ -116,6 +146,19 @@ private AsyncFileAlterationObserver(AsyncFileEntry entry, ObjectPersistentStore
   public void initialize() throws IllegalStateException {
     initChildEntries(rootFile);
     serializer.store(rootFile.getName(), rootFile);
+    appendedChanges.set(0);
+    stored = true;
+  }
+
+  /**
+   * @param useFileSystemEvents whether to check only the directories the file system reports as
+   *     changed, rather than the whole tree, on each poll
+   */
+  public void setUseFileSystemEvents(boolean useFileSystemEvents) {
+    this.useFileSystemEvents = useFileSystemEvents;
+    if (!useFileSystemEvents) {
+      stopWatching();
+    }
   }
 
   /**
@@ -131,6 +174,7 @@ public void initializePeriodicLogging() {
   }
 
   public void destroy() {
+    stopWatching();
     rootFile.destroy();
 
     if (timer != null) {
@@ -181,7 +225,10 @@ public boolean checkAndNotify() {
 
     /* fire directory/file events */
     if (rootFile.checkNetwork()) {
-      checkAndNotify(rootFile, rootFile.getChildren(), listFiles(rootFile.getFile()), listenerCopy);
+      if (!notifyWatchedChanges(listenerCopy)) {
+        checkAndNotify(
+            rootFile, rootFile.getChildren(), listFiles(rootFile.getFile()), listenerCopy, true);
+      }
     } else {
       //  If we can't connect to the network then the file doesn't exist to us now.
       LOGGER.debug(
@@ -217,6 +264,8 @@ private void doCreate(AsyncFileEntry entry, final AsyncFileAlterationListener li
       // Directories are always committed and added to the parent IF they
       // don't already exist
 
+      //  Watch before listing so files added in between aren't missed
+      watch(entry.getFile());
       File[] children = listFiles(entry.getFile());
       for (File child : children) {
         doCreate(new AsyncFileEntry(entry, child), listenerCopy);
@@ -239,12 +288,14 @@ private void commitCreate(AsyncFileEntry entry, boolean success) {
       if (success) {
         entry.commit();
         entry.getParent().ifPresent(e -> e.addChild(entry));
+        appendChange(entry, false);
         LOGGER.debug(
             "File {} committed to {}",
             entry.getName(),
             entry.getParent().map(AsyncFileEntry::getName).orElse("parent"));
       } else {
         LOGGER.debug("Create task failed for {}", entry.getName());
+        rescanLater(entry);
       }
     } finally {
       onFinish(entry);
@@ -284,9 +335,11 @@ private void commitMatch(AsyncFileEntry entry, boolean success) {
       if (success) {
         LOGGER.trace("commitMatch({},{}): Starting...", entry.getName(), success);
         entry.commit();
+        appendChange(entry, false);
         LOGGER.debug("{} committed", entry.getName());
       } else {
         LOGGER.debug("Match task failed for {}", entry.getName());
+        rescanLater(entry);
       }
     } finally {
       onFinish(entry);
@@ -327,12 +380,14 @@ private void commitDelete(AsyncFileEntry entry, boolean success) {
       if (success) {
         entry.getParent().ifPresent(e -> e.removeChild(entry));
         entry.destroy();
+        appendChange(entry, true);
         LOGGER.debug(
             "{} was removed from {}",
             entry.getName(),
             entry.getParent().map(AsyncFileEntry::getName).orElse("parent"));
       } else {
         LOGGER.debug("Delete task failed for {}", entry.getName());
+        rescanLater(entry);
       }
     } finally {
       onFinish(entry);
@@ -346,12 +401,14 @@ private void commitDelete(AsyncFileEntry entry, boolean success) {
    * @param parent The parent directory (Wrapped in a AsyncFileEntry)
    * @param previous The list of all children of the parent directory (In sorted order)
    * @param files The list of current files (in sorted order)
+   * @param recursive whether to also compare the contents of existing subdirectories
    */
   private void checkAndNotify(
       final AsyncFileEntry parent,
       final List<AsyncFileEntry> previous,
       @Nullable final File[] files,
-      final AsyncFileAlterationListener listenerCopy) {
+      final AsyncFileAlterationListener listenerCopy,
+      final boolean recursive) {
     //  If there was an IO error then just stop.
     if (files == null) {
       return;
@@ -365,7 +422,9 @@ private void checkAndNotify(
       }
       if (c < files.length && entry.compareToFile(files[c]) == 0) {
         doMatch(entry, listenerCopy);
-        checkAndNotify(entry, entry.getChildren(), listFiles(files[c]), listenerCopy);
+        if (recursive) {
+          checkAndNotify(entry, entry.getChildren(), listFiles(files[c]), listenerCopy, true);
+        }
         c++;
       } else {
         //  Do Delete
@@ -373,7 +432,7 @@ private void checkAndNotify(
           //  The file may still exist but it's the network that's down.
           return;
         }
-        checkAndNotify(entry, entry.getChildren(), FileUtils.EMPTY_FILE_ARRAY, listenerCopy);
+        checkAndNotify(entry, entry.getChildren(), FileUtils.EMPTY_FILE_ARRAY, listenerCopy, true);
         doDelete(entry, listenerCopy);
       }
     }
@@ -420,12 +479,181 @@ private void onFinish(AsyncFileEntry entry) {
       processing.remove(entry);
       if (processing.isEmpty()) {
         LOGGER.debug("All files finished processing");
-        serializer.store(rootFile.getName(), rootFile);
+        if (!stored || appendedChanges.get() >= MAX_APPENDED_CHANGES) {
+          serializer.store(rootFile.getName(), rootFile);
+          appendedChanges.set(0);
+          stored = true;
+        }
         isProcessing = false;
       }
     }
   }
 
+  private void appendChange(AsyncFileEntry entry, boolean removed) {
+    serializer.append(rootFile.getName(), new EntryChange(entry.copySnapshot(), removed));
+    appendedChanges.incrementAndGet();
+  }
+
+  /**
+   * Checks the directories reported as changed by the file system.
+   *
+   * @return false if the whole tree needs to be checked instead
+   */
+  private boolean notifyWatchedChanges(final AsyncFileAlterationListener listenerCopy) {
+    if (!useFileSystemEvents) {
+      return false;
+    }
+
+    DirectoryWatcher currentWatcher = watcher;
+    if (currentWatcher == null) {
+      //  Changes made while nothing was watching are only found by checking the whole tree
+      startWatching();
+      return false;
+    }
+
+    DirectoryWatcher.Changes changes;
+    try {
+      changes = currentWatcher.poll();
+    } catch (ClosedWatchServiceException e) {
+      LOGGER.debug("Stopped watching [{}] for file system events", rootFile.getName(), e);
+      stopWatching();
+      return false;
+    }
+    if (!currentWatcher.isWatching(rootFile.getFile())) {
+      LOGGER.debug("[{}] is no longer being watched, checking all files", rootFile.getName());
+      stopWatching();
+      return false;
+    }
+
+    List<Path> overflowed =
+        changes.getOverflowed().stream().map(File::toPath).collect(Collectors.toList());
+    for (File directory : changes.getOverflowed()) {
+      if (overflowed.stream()
+          .noneMatch(other -> !other.equals(directory.toPath()) && isUnder(directory, other))) {
+        LOGGER.debug("Events were lost for [{}], checking all files under it", directory);
+        rescan(directory, listenerCopy, true);
+      }
+    }
+
+    Set<File> changed = new HashSet<>(changes.getChanged());
+    for (File directory : pendingRescans) {
+      pendingRescans.remove(directory);
+      changed.add(directory);
+    }
+    for (File directory : changed) {
+      if (overflowed.stream().noneMatch(other -> isUnder(directory, other))) {
+        rescan(directory, listenerCopy, false);
+      }
+    }
+    return true;
+  }
+
+  private boolean isUnder(File file, Path directory) {
+    return file.toPath().startsWith(directory);
+  }
+
+  private void rescan(
+      File directory, final AsyncFileAlterationListener listenerCopy, boolean recursive) {
+    AsyncFileEntry entry = rootFile;
+    if (!directory.equals(rootFile.getFile())) {
+      AsyncFileEntry parent = rootFile.findParentOf(directory, false);
+      entry = parent == null ? null : parent.getChild(directory).orElse(null);
+    }
+
+    if (entry == null) {
+      //  Its parent directory's check will find it
+      LOGGER.debug("[{}] changed but is not a known directory", directory);
+      return;
+    }
+    checkAndNotify(entry, entry.getChildren(), listFiles(directory), listenerCopy, recursive);
+  }
+
+  private void startWatching() {
+    try {
+      watcher = new DirectoryWatcher();
+      watch(rootFile);
+    } catch (IOException e) {
+      LOGGER.info(
+          "Unable to watch [{}] for file system events. All files will be checked on every poll.",
+          rootFile.getName(),
+          e);
+      useFileSystemEvents = false;
+      stopWatching();
+    }
+  }
+
+  private void watch(AsyncFileEntry directory) throws IOException {
+    DirectoryWatcher currentWatcher = watcher;
+    if (currentWatcher != null) {
+      currentWatcher.register(directory.getFile());
+      for (AsyncFileEntry child : directory.getChildren()) {
+        if (child.isDirectory()) {
+          watch(child);
+        }
+      }
+    }
+  }
+
+  private void watch(File directory) {
+    DirectoryWatcher currentWatcher = watcher;
+    if (currentWatcher != null) {
+      try {
+        currentWatcher.register(directory);
+      } catch (IOException | ClosedWatchServiceException e) {
+        LOGGER.info(
+            "Unable to watch [{}] for file system events. All files will be checked on every poll.",
+            directory,
+            e);
+        useFileSystemEvents = false;
+        stopWatching();
+      }
+    }
+  }
+
+  private void stopWatching() {
+    DirectoryWatcher currentWatcher = watcher;
+    watcher = null;
+    pendingRescans.clear();
+    if (currentWatcher != null) {
+      try {
+        currentWatcher.close();
+      } catch (IOException e) {
+        LOGGER.debug("Error closing the file system watcher for [{}]", rootFile.getName(), e);
+      }
+    }
+  }
+
+  /** A failed change is only retried when its directory is checked again. */
+  private void rescanLater(AsyncFileEntry entry) {
+    if (watcher != null) {
+      entry.getParent().ifPresent(parent -> pendingRescans.add(parent.getFile()));
+    }
+  }
+
+  /** A committed change to the state, appended to the {@link ObjectPersistentStore}. */
+  private static class EntryChange {
+
+    private final AsyncFileEntry snapshot;
+
+    private final boolean removed;
+
+    EntryChange(AsyncFileEntry snapshot, boolean removed) {
+      this.snapshot = snapshot;
+      this.removed = removed;
+    }
+
+    void applyTo(AsyncFileEntry root) {
+      if (snapshot == null || snapshot.getFile() == null) {
+        return;
+      }
+      if (removed) {
+        root.removeDescendant(snapshot.getFile());
+      } else {
+        root.restoreSnapshot(snapshot);
+      }
+    }
+  }
+
   private class LogProcessing extends TimerTask {
 
     /** Log files still in processing at scheduled intervals */
@@ -15,6 +15,7 @@
 
 import java.io.File;
 import java.io.Serializable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -57,9 +58,15 @@ public AsyncFileEntry(File file) {
   }
 
   public AsyncFileEntry(@Nullable AsyncFileEntry parent, File file) {
+    this(parent, file, true);
+  }
+
+  private AsyncFileEntry(@Nullable AsyncFileEntry parent, File file, boolean refresh) {
     this.parent = parent;
     contentFile = file;
-    refresh();
+    if (refresh) {
+      refresh();
+    }
   }
 
   //  For GSON deserialization
@@ -181,6 +188,95 @@ public void destroy() {
     children.clear();
   }
 
+  /** @return the child wrapping {@code file}, looked up without reading the file system */
+  Optional<AsyncFileEntry> getChild(File file) {
+    AsyncFileEntry child = children.ceiling(new AsyncFileEntry(null, file, false));
+    if (child != null && child.getFile().equals(file)) {
+      return Optional.of(child);
+    }
+    return Optional.empty();
+  }
+
+  /** @return a copy of the last meta-snapshot of this entry, without its parent or children */
+  AsyncFileEntry copySnapshot() {
+    AsyncFileEntry copy = new AsyncFileEntry(null, contentFile, false);
+    copy.copySnapshotFrom(this);
+    return copy;
+  }
+
+  /**
+   * Puts a meta-snapshot taken by {@link #copySnapshot()} into the tree under this entry, replacing
+   * the snapshot of an existing entry for the same file. Entries are created for any directories
+   * between this entry and the file that aren't in the tree.
+   */
+  void restoreSnapshot(AsyncFileEntry snapshot) {
+    AsyncFileEntry directory = findParentOf(snapshot.getFile(), true);
+    if (directory == null) {
+      return;
+    }
+    Optional<AsyncFileEntry> existing = directory.getChild(snapshot.getFile());
+    if (existing.isPresent()) {
+      existing.get().copySnapshotFrom(snapshot);
+    } else {
+      snapshot.setParent(directory);
+      directory.addChild(snapshot);
+    }
+  }
+
+  /**
+   * Removes the entry for {@code file}, and everything under it, from the tree under this entry.
+   */
+  void removeDescendant(File file) {
+    AsyncFileEntry directory = findParentOf(file, false);
+    if (directory != null) {
+      directory.getChild(file).ifPresent(directory::removeChild);
+    }
+  }
+
+  /**
+   * @return the entry for the directory containing {@code file} in the tree under this entry, or
+   *     {@code null} if {@code file} isn't under this entry or, when {@code create} is false, if an
+   *     entry between them isn't in the tree
+   */
+  @Nullable
+  AsyncFileEntry findParentOf(File file, boolean create) {
+    Path relative;
+    try {
+      relative = contentFile.toPath().relativize(file.toPath());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    if (relative.getNameCount() == 0
+        || relative.toString().isEmpty()
+        || relative.startsWith("..")) {
+      return null;
+    }
+
+    AsyncFileEntry current = this;
+    for (int i = 0; i < relative.getNameCount() - 1; i++) {
+      File childFile = new File(current.getFile(), relative.getName(i).toString());
+      Optional<AsyncFileEntry> child = current.getChild(childFile);
+      if (child.isPresent()) {
+        current = child.get();
+      } else if (create) {
+        AsyncFileEntry created = new AsyncFileEntry(current, childFile);
+        current.addChild(created);
+        current = created;
+      } else {
+        return null;
+      }
+    }
+    return current;
+  }
+
+  private void copySnapshotFrom(AsyncFileEntry other) {
+    name = other.name;
+    exists = other.exists;
+    lastModified = other.lastModified;
+    directory = other.directory;
+    length = other.length;
+  }
+
   //  Serializing to JSON doesn't allow infinite loops. Thus we
   //  Make the parent null and allow users to re-initialize after loading
   //  from a json.
@@ -97,6 +97,8 @@ public class ContentDirectoryMonitor implements DirectoryMonitor {
 
   private Integer readLockIntervalMilliseconds;
 
+  private boolean useFileSystemEvents = false;
+
   Processor systemSubjectBinder;
 
   /**
@@ -173,6 +175,20 @@ public Integer getReadLockIntervalMilliseconds() {
     return readLockIntervalMilliseconds;
   }
 
+  /**
+   * Only applies to in place monitoring of a file system directory. When set, the directory is
+   * checked for changes using file system events rather than by listing every file on each poll.
+   *
+   * @param useFileSystemEvents
+   */
+  public void setUseFileSystemEvents(Boolean useFileSystemEvents) {
+    this.useFileSystemEvents = Boolean.TRUE.equals(useFileSystemEvents);
+  }
+
+  public boolean getUseFileSystemEvents() {
+    return useFileSystemEvents;
+  }
+
   /**
    * Invoked after all of the setter methods have been called (for initial route creation), and also
    * called whenever an existing route is updated.
@@ -241,6 +257,7 @@ public void updateCallback(Map<String, Object> properties) {
       setProcessingMechanism((String) properties.get("processingMechanism"));
       setNumThreads((Integer) properties.get("numThreads"));
       setReadLockIntervalMilliseconds((Integer) properties.get("readLockIntervalMilliseconds"));
+      setUseFileSystemEvents((Boolean) properties.get("useFileSystemEvents"));
 
       String[] parameterArray = (String[]) properties.get(Constants.ATTRIBUTE_OVERRIDES_KEY);
       if (parameterArray != null) {
@@ -389,6 +406,8 @@ public void configure() throws Exception {
             stringBuilder = new StringBuilder("durable:" + monitoredDirectory);
             if (isDav) {
               stringBuilder.append("?isDav=true");
+            } else if (useFileSystemEvents) {
+              stringBuilder.append("?useFileSystemEvents=true");
             }
             break;
         }
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which monitored directories have had entries created, deleted or modified, using the file
+ * system's native change notifications. Directories are watched individually, since a {@link
+ * WatchService} does not report changes in subdirectories.
+ */
+class DirectoryWatcher implements Closeable {
+
+  private final WatchService watchService;
+
+  private final Map<WatchKey, File> directories = new ConcurrentHashMap<>();
+
+  private final Set<File> watched = ConcurrentHashMap.newKeySet();
+
+  DirectoryWatcher() throws IOException {
+    watchService = FileSystems.getDefault().newWatchService();
+  }
+
+  /** Starts watching a directory. Watching a directory that is already watched has no effect. */
+  void register(File directory) throws IOException {
+    Path path = directory.toPath();
+    directories.put(
+        path.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), directory);
+    watched.add(directory);
+  }
+
+  /**
+   * Collects the directories that have changed since the last call. Directories that may have lost
+   * events are reported as overflowed rather than changed.
+   *
+   * @throws ClosedWatchServiceException if the watcher was closed
+   */
+  Changes poll() {
+    Changes changes = new Changes();
+    WatchKey key;
+    while ((key = watchService.poll()) != null) {
+      File directory = directories.get(key);
+      if (directory != null) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == OVERFLOW) {
+            changes.overflowed.add(directory);
+          } else {
+            changes.changed.add(directory);
+          }
+        }
+      }
+      //  Keys of deleted directories can't be reset, and won't be signalled again
+      if (!key.reset()) {
+        File removed = directories.remove(key);
+        if (removed != null) {
+          watched.remove(removed);
+        }
+      }
+    }
+    return changes;
+  }
+
+  boolean isWatching(File directory) {
+    return watched.contains(directory);
+  }
+
+  @Override
+  public void close() throws IOException {
+    directories.clear();
+    watched.clear();
+    watchService.close();
+  }
+
+  static class Changes {
+
+    private final Set<File> changed = new HashSet<>();
+
+    private final Set<File> overflowed = new HashSet<>();
+
+    /** @return directories whose entries have changed */
+    Set<File> getChanged() {
+      return changed;
+    }
+
+    /** @return directories whose changes may not all have been reported */
+    Set<File> getOverflowed() {
+      return overflowed;
+    }
+  }
+}
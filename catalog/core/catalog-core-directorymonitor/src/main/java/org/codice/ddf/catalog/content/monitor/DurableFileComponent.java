@@ -43,6 +43,10 @@ protected FileEndpoint buildFileEndpoint(String uri, String remaining, Map param
     boolean isDav = Boolean.parseBoolean(davParam);
     parameters.remove("isDav");
 
+    boolean useFileSystemEvents =
+        Boolean.parseBoolean(String.valueOf(parameters.get("useFileSystemEvents")));
+    parameters.remove("useFileSystemEvents");
+
     GenericFileConfiguration config = new GenericFileConfiguration();
     File file = new File(remaining);
     if (isDav) {
@@ -51,6 +55,7 @@ protected FileEndpoint buildFileEndpoint(String uri, String remaining, Map param
     config.setDirectory(file.getCanonicalPath());
     DurableFileEndpoint result = new DurableFileEndpoint(uri, remaining, isDav, this);
     result.setFile(file);
+    result.setUseFileSystemEvents(useFileSystemEvents);
     result.setConfiguration(config);
 
     return result;
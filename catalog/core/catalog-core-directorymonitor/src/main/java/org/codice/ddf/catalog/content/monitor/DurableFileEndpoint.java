@@ -52,6 +52,8 @@ public class DurableFileEndpoint extends FileEndpoint {
 
   private String remaining;
 
+  private boolean useFileSystemEvents;
+
   @UriPath(name = "directoryName")
   @Metadata(required = true)
   private File file;
@@ -77,12 +79,15 @@ public FileConsumer createConsumer(Processor processor) throws Exception {
           new EventfulFileWrapperGenericFileOperations(),
           new GenericFileNoOpProcessStrategy());
     } else {
-      return new DurableFileSystemFileConsumer(
-          this,
-          remaining,
-          processor,
-          new EventfulFileWrapperGenericFileOperations(),
-          new GenericFileNoOpProcessStrategy());
+      DurableFileSystemFileConsumer consumer =
+          new DurableFileSystemFileConsumer(
+              this,
+              remaining,
+              processor,
+              new EventfulFileWrapperGenericFileOperations(),
+              new GenericFileNoOpProcessStrategy());
+      consumer.setUseFileSystemEvents(useFileSystemEvents);
+      return consumer;
     }
   }
 
@@ -136,6 +141,14 @@ public void setFile(File file) {
     }
   }
 
+  /**
+   * @param useFileSystemEvents whether the consumer checks only the directories the file system
+   *     reports as changed, rather than every file, on each poll
+   */
+  public void setUseFileSystemEvents(boolean useFileSystemEvents) {
+    this.useFileSystemEvents = useFileSystemEvents;
+  }
+
   private static class EventfulFileWrapperGenericFileOperations
       implements GenericFileOperations<File> {
 
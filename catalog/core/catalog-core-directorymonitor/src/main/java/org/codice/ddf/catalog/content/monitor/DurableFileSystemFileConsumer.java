@@ -33,6 +33,8 @@ public class DurableFileSystemFileConsumer extends AbstractDurableFileConsumer {
 
   private AsyncFileAlterationObserver observer;
 
+  private boolean useFileSystemEvents;
+
   DurableFileSystemFileConsumer(
       FileEndpoint endpoint,
       String remaining,
@@ -46,6 +48,7 @@ public class DurableFileSystemFileConsumer extends AbstractDurableFileConsumer {
   @Override
   protected boolean doPoll(String sha1) {
     if (observer != null) {
+      observer.setUseFileSystemEvents(useFileSystemEvents);
       observer.setListener(listener);
       observer.checkAndNotify();
       observer.removeListener();
@@ -106,6 +109,10 @@ private AsyncFileAlterationObserver backwardsCompatibility(String fileName) {
     return newObserver;
   }
 
+  void setUseFileSystemEvents(boolean useFileSystemEvents) {
+    this.useFileSystemEvents = useFileSystemEvents;
+  }
+
   @Override
   public void shutdown() {
     super.shutdown();
@@ -21,6 +21,7 @@
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
 import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileReader;
@@ -28,8 +29,12 @@
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.codice.ddf.configuration.AbsolutePathResolver;
 import org.slf4j.Logger;
@@ -41,6 +46,10 @@ public class JsonPersistantStore implements ObjectPersistentStore {
 
   private static final String PERSISTED_FILE_SUFFIX = ".json";
 
+  private static final String APPENDED_FILE_SUFFIX = ".journal";
+
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+
   private Gson gson =
       new GsonBuilder()
           .registerTypeAdapter(new TypeToken<File>() {}.getType(), new FileTypeAdapter())
@@ -68,20 +77,48 @@ private String getPersistencePath() {
     return new AbsolutePathResolver("data").getPath();
   }
 
-  @Override
-  public void store(String key, Object toStore) {
+  private void createDirectory() {
     File dir = getPath().toFile();
     if (!dir.exists() && !dir.mkdir()) {
       LOGGER.debug("Unable to create directory: {}", dir.getAbsolutePath());
     }
+  }
+
+  /**
+   * Writes the object to a temporary file first, so a failure part way through a large object
+   * leaves the previously stored object in place.
+   */
+  @Override
+  public synchronized void store(String key, Object toStore) {
+    createDirectory();
+    String shaKey = getShaFor(key);
+    Path target = getPath().resolve(shaKey + PERSISTED_FILE_SUFFIX);
+    Path temp = getPath().resolve(shaKey + PERSISTED_FILE_SUFFIX + TEMP_FILE_SUFFIX);
+    try {
+      try (OutputStream file = new FileOutputStream(temp.toFile());
+          OutputStream buffer = new BufferedOutputStream(file);
+          OutputStreamWriter output = new OutputStreamWriter(buffer)) {
+        gson.toJson(toStore, output);
+      }
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      Files.deleteIfExists(getPath().resolve(shaKey + APPENDED_FILE_SUFFIX));
+    } catch (IOException | JsonIOException e) {
+      LOGGER.debug("IOException storing value in cache with key = " + key, e);
+    }
+  }
+
+  @Override
+  public synchronized void append(String key, Object record) {
+    createDirectory();
     String shaKey = getShaFor(key);
     try (OutputStream file =
-            new FileOutputStream(getPath().resolve(shaKey + PERSISTED_FILE_SUFFIX).toFile());
+            new FileOutputStream(getPath().resolve(shaKey + APPENDED_FILE_SUFFIX).toFile(), true);
         OutputStream buffer = new BufferedOutputStream(file);
         OutputStreamWriter output = new OutputStreamWriter(buffer)) {
-      gson.toJson(toStore, output);
+      output.write(gson.toJson(record));
+      output.write(System.lineSeparator());
     } catch (IOException | JsonIOException e) {
-      LOGGER.debug("IOException storing value in cache with key = " + key, e);
+      LOGGER.debug("IOException appending value in cache with key = " + key, e);
     }
   }
 
@@ -103,4 +140,33 @@ public <T> T load(String key, Class<T> objectClass) {
     }
     return null;
   }
+
+  /**
+   * Stops at the first record that can't be read, which is normally one cut short by a shutdown
+   * while it was being appended.
+   */
+  @Override
+  public synchronized <T> List<T> loadAppended(String key, Class<T> recordClass) {
+    String shaKey = getShaFor(key);
+    File file = getPath().resolve(shaKey + APPENDED_FILE_SUFFIX).toFile();
+    List<T> records = new ArrayList<>();
+    if (!file.exists()) {
+      return records;
+    }
+
+    try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        T record = gson.fromJson(line, recordClass);
+        if (record != null) {
+          records.add(record);
+        }
+      }
+    } catch (IOException | JsonIOException e) {
+      LOGGER.debug("IOException", e);
+    } catch (JsonSyntaxException f) {
+      LOGGER.debug("Ignoring unreadable records appended with key = {}", key, f);
+    }
+    return records;
+  }
 }
@@ -13,6 +13,7 @@
  */
 package org.codice.ddf.catalog.content.monitor;
 
+import java.util.List;
 import javax.annotation.Nullable;
 
 /**
@@ -24,7 +25,7 @@ public interface ObjectPersistentStore {
 
   /**
    * Stores an object with a given key. Subsequent calls to {@link #store(String, Object)} with the
-   * same key should overwrite the old Object.
+   * same key should overwrite the old Object, and discard any records appended under the key.
    *
    * @param key
    * @param toStore
@@ -42,4 +43,25 @@ public interface ObjectPersistentStore {
    */
   @Nullable
   <T> T load(String key, Class<T> objectClass);
+
+  /**
+   * Appends a record under a given key without rewriting the object stored under that key. Used to
+   * persist changes to a large object incrementally between calls to {@link #store(String,
+   * Object)}.
+   *
+   * @param key
+   * @param record
+   */
+  void append(String key, Object record);
+
+  /**
+   * Given a key, returns the records appended since the last call to {@link #store(String,
+   * Object)}, in the order they were appended.
+   *
+   * @param key
+   * @param recordClass class of the records that were appended.
+   * @param <T>
+   * @return The appended records, or an empty list if there are none
+   */
+  <T> List<T> loadAppended(String key, Class<T> recordClass);
 }
@@ -18,9 +18,11 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -29,11 +31,14 @@
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.camel.spi.Synchronization;
 import org.apache.commons.io.FileUtils;
@@ -331,6 +336,98 @@ public void testSerializationAfterCreate() throws Exception {
     verify(store, atLeast(1)).store(any(), any());
   }
 
+  @Test
+  public void testLoadReplaysAppendedChanges() throws Exception {
+    List<String> appended = new ArrayList<>();
+    Gson gson = new Gson();
+    doAnswer(invocation -> appended.add(gson.toJson(invocation.getArguments()[1])))
+        .when(store)
+        .append(any(), any());
+    doAnswer(
+            invocation ->
+                appended.stream()
+                    .map(record -> gson.fromJson(record, (Class<?>) invocation.getArguments()[1]))
+                    .collect(Collectors.toList()))
+        .when(store)
+        .loadAppended(any(), any());
+
+    observer.initialize();
+    initNestedDirectory(2, 3, 4, 0);
+    observer.checkAndNotify();
+    fileDelete(files[0]);
+    observer.checkAndNotify();
+    init();
+
+    AsyncFileAlterationObserver two = AsyncFileAlterationObserver.load(monitoredDirectory, store);
+    two.setListener(fileListener);
+    two.checkAndNotify();
+
+    verify(fileListener, never()).onFileCreate(any(File.class), any(Synchronization.class));
+    verify(fileListener, never()).onFileChange(any(File.class), any(Synchronization.class));
+    verify(fileListener, never()).onFileDelete(any(File.class), any(Synchronization.class));
+  }
+
+  @Test
+  public void testFileSystemEvents() throws Exception {
+    observer.setUseFileSystemEvents(true);
+    observer.checkAndNotify();
+
+    initNestedDirectory(2, 3, 1, 0);
+    awaitCreates(totalSize);
+
+    File[] newFiles = initFiles(2, grandchildDir, "new-grandchild-file00");
+    awaitCreates(totalSize + newFiles.length);
+
+    fileDelete(childFiles[0]);
+    long deadline = System.currentTimeMillis() + timeout;
+    while (System.currentTimeMillis() < deadline
+        && observer.getRootFile().getChildren().get(0).getChildren().size() != 2) {
+      observer.checkAndNotify();
+      Thread.sleep(50);
+    }
+
+    verify(fileListener, times(totalSize + newFiles.length))
+        .onFileCreate(any(File.class), any(Synchronization.class));
+    verify(fileListener, times(1)).onFileDelete(any(File.class), any(Synchronization.class));
+    observer.destroy();
+  }
+
+  @Test
+  public void testFileSystemEventsDoNotListUnchangedDirectories() throws Exception {
+    File childDirectory = new File(monitoredDirectory, "child");
+    childDirectory.mkdir();
+    initFiles(1, childDirectory, "child-file00");
+
+    File monitoredDirectorySpy = spy(monitoredDirectory);
+    observer = new AsyncFileAlterationObserver(monitoredDirectorySpy, store);
+    observer.setListener(fileListener);
+    observer.setUseFileSystemEvents(true);
+
+    //  The first poll checks the whole tree and starts watching it
+    awaitCreates(1);
+    observer.checkAndNotify();
+    clearInvocations(monitoredDirectorySpy);
+
+    initFiles(1, childDirectory, "new-child-file00");
+    awaitCreates(2);
+
+    verify(fileListener, times(2)).onFileCreate(any(File.class), any(Synchronization.class));
+    verify(monitoredDirectorySpy, never()).listFiles();
+    observer.destroy();
+  }
+
+  private void awaitCreates(int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeout;
+    while (System.currentTimeMillis() < deadline
+        && Mockito.mockingDetails(fileListener).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("onFileCreate"))
+                .count()
+            < expected) {
+      observer.checkAndNotify();
+      Thread.sleep(50);
+    }
+  }
+
   @Test
   public void testFileDeleteWithError() throws Exception {
 
@@ -29,10 +29,12 @@
 import ddf.catalog.plugin.PostIngestPlugin;
 import ddf.catalog.plugin.PreDeliveryPlugin;
 import ddf.catalog.plugin.PreSubscriptionPlugin;
-import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.criteria.contextual.ContextualIndex;
+import ddf.catalog.pubsub.internal.DeliveryScheduler;
 import ddf.catalog.pubsub.internal.PubSubConstants;
 import ddf.catalog.pubsub.internal.PubSubThread;
 import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
 import ddf.catalog.pubsub.predicate.Predicate;
 import ddf.catalog.util.impl.Requests;
 import java.net.URI;
@@ -42,10 +44,6 @@
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import org.apache.lucene.store.Directory;
-import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.event.Event;
@@ -74,11 +72,11 @@ public class EventProcessorImpl implements EventProcessor, EventHandler, PostIng
 
   protected CatalogFramework catalog;
 
-  private Map<String, ServiceRegistration> existingSubscriptions;
+  private final SubscriptionIndex subscriptionIndex = new SubscriptionIndex();
 
-  private final ExecutorService threadPool =
-      Executors.newCachedThreadPool(
-          StandardThreadFactoryBuilder.newThreadFactory("eventProcessorThread"));
+  private ServiceRegistration subscriptionIndexRegistration;
+
+  private final DeliveryScheduler deliveryScheduler = new DeliveryScheduler();
 
   public EventProcessorImpl() {
     LOGGER.debug("INSIDE: EventProcessorImpl default constructor");
@@ -97,7 +95,6 @@ public EventProcessorImpl(
     this.preSubscription = preSubscription;
     this.preDelivery = preDelivery;
     this.catalog = catalog;
-    this.existingSubscriptions = new HashMap<>();
 
     if (this.preSubscription == null) {
       LOGGER.debug("preSubscription plugins list is NULL");
@@ -174,29 +171,13 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
 
       // CONTEXTUAL INFORMATION
       if (metacard.getMetadata() != null) {
-        try {
-          // Build Lucene search index on entry's entire metadata using
-          // default XPaths (specified
-          // in ContextualEvaluator) - this index will be used by all
-          // contextual predicates that do
-          // *NOT* specify any textPaths. (Building index here optimizes
-          // code so that this index is
-          // not built for every contextual subscription that has no
-          // textPaths.)
-          Directory index = ContextualEvaluator.buildIndex(metacard.getMetadata());
-
-          // Build contextual info to be sent in event for this entry.
-          // Include the default Lucene search
-          // index and the entry's metadata (in case subscription has
-          // textPaths, then it can create Lucene
-          // search indices on the metadata using its textPaths)
-          Map<String, Object> contextualMap = new HashMap<>(2, 1);
-          contextualMap.put("DEFAULT_INDEX", index);
-          contextualMap.put("METADATA", metacard.getMetadata());
-          properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
-        } catch (Exception e) {
-          LOGGER.info("Exception updating context map", e);
-        }
+        // The contextual index is built lazily and shared by all contextual predicates that
+        // evaluate this entry, so entries that are not matched against any contextual
+        // subscription are never parsed or indexed.
+        Map<String, Object> contextualMap = new HashMap<>(2, 1);
+        contextualMap.put("INDEX", new ContextualIndex(metacard.getMetadata()));
+        contextualMap.put("METADATA", metacard.getMetadata());
+        properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
       }
 
       if (eventAdmin != null) {
@@ -211,6 +192,41 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
     LOGGER.trace(EXITING, methodName);
   }
 
+  /** @param deliveryThreads number of threads delivering events to all subscriptions */
+  public void setDeliveryThreads(int deliveryThreads) {
+    deliveryScheduler.setThreads(deliveryThreads);
+  }
+
+  /** @param deliveryQueueSize maximum number of events waiting for delivery per subscription */
+  public void setDeliveryQueueSize(int deliveryQueueSize) {
+    deliveryScheduler.setQueueSize(deliveryQueueSize);
+  }
+
+  /**
+   * @param deliveryBatchSize maximum number of queued events handed to a subscription at once.
+   *     Subscriptions whose delivery method is a {@link ddf.catalog.event.BatchDeliveryMethod}
+   *     receive them in a single call.
+   */
+  public void setDeliveryBatchSize(int deliveryBatchSize) {
+    deliveryScheduler.setBatchSize(deliveryBatchSize);
+  }
+
+  /**
+   * @param deliveryOverflowPolicy name of the {@link DeliveryScheduler.OverflowPolicy} applied when
+   *     a subscription's queue is full
+   */
+  public void setDeliveryOverflowPolicy(String deliveryOverflowPolicy) {
+    deliveryScheduler.setOverflowPolicy(deliveryOverflowPolicy);
+  }
+
+  /**
+   * @param deliveryBlockTimeoutMillis how long the {@code BLOCK} overflow policy waits for room in
+   *     a full queue before dropping the event
+   */
+  public void setDeliveryBlockTimeoutMillis(long deliveryBlockTimeoutMillis) {
+    deliveryScheduler.setBlockTimeoutMillis(deliveryBlockTimeoutMillis);
+  }
+
   public void init() {
     String methodName = "init";
     LOGGER.trace(ENTERING, methodName);
@@ -222,6 +238,18 @@ public void destroy() {
     String methodName = "destroy";
     LOGGER.trace(ENTERING, methodName);
 
+    synchronized (subscriptionIndex) {
+      if (subscriptionIndexRegistration != null) {
+        try {
+          subscriptionIndexRegistration.unregister();
+        } catch (IllegalStateException e) {
+          LOGGER.debug("Subscription index was already unregistered", e);
+        }
+        subscriptionIndexRegistration = null;
+      }
+    }
+    deliveryScheduler.shutdown();
+
     LOGGER.trace(EXITING, methodName);
   }
 
@@ -238,7 +266,7 @@ public void handleEvent(Event event) {
 
     LOGGER.debug("Received event: {}", event.getTopic());
 
-    if (!existingSubscriptions.isEmpty()) {
+    if (!subscriptionIndex.isEmpty()) {
       String topic = event.getTopic();
       Metacard entry = (Metacard) event.getProperty(EventProcessor.EVENT_METACARD);
       LOGGER.debug("metacard ID = {}", entry.getId());
@@ -285,18 +313,17 @@ public void createSubscription(Subscription subscription, String subscriptionId)
       Predicate finalPredicate = (Predicate) subscription.accept(visitor, null);
       LOGGER.debug("predicate from filter visitor: {}", finalPredicate);
 
-      String[] topics = new String[] {PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME};
-
-      Dictionary<String, String[]> props = new Hashtable<>(1, 1);
-      props.put(EventConstants.EVENT_TOPIC, topics);
-      ServiceRegistration serviceRegistration =
-          bundleContext.registerService(
-              EventHandler.class.getName(),
-              new PublishedEventHandler(
-                  finalPredicate, subscription, preDelivery, catalog, threadPool),
-              props);
-
-      existingSubscriptions.put(subscriptionId, serviceRegistration);
+      registerSubscriptionIndex();
+      subscriptionIndex.add(
+          subscriptionId,
+          finalPredicate,
+          new PublishedEventHandler(
+              subscriptionId,
+              finalPredicate,
+              subscription,
+              preDelivery,
+              catalog,
+              deliveryScheduler));
 
       LOGGER.debug("Subscription {} created.", subscriptionId);
     } catch (Exception e) {
@@ -334,11 +361,9 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
 
     try {
       LOGGER.debug("Removing subscription: {}", subscriptionId);
-      ServiceRegistration sr = (ServiceRegistration) existingSubscriptions.get(subscriptionId);
-      if (sr != null) {
-        sr.unregister();
+      deliveryScheduler.unregister(subscriptionId);
+      if (subscriptionIndex.remove(subscriptionId)) {
         LOGGER.debug("Removal complete");
-        existingSubscriptions.remove(subscriptionId);
       } else {
         LOGGER.debug(
             "Unable to find existing subscription: {}.  May already be deleted.", subscriptionId);
@@ -352,6 +377,24 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
     LOGGER.trace(EXITING, methodName);
   }
 
+  /**
+   * Registers the {@link SubscriptionIndex} as the single {@link EventHandler} for published
+   * events. All subscriptions are matched through the index rather than each registering its own
+   * handler, so each event is only posted once.
+   */
+  private void registerSubscriptionIndex() {
+    synchronized (subscriptionIndex) {
+      if (subscriptionIndexRegistration == null) {
+        String[] topics = new String[] {PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME};
+
+        Dictionary<String, String[]> props = new Hashtable<>(1, 1);
+        props.put(EventConstants.EVENT_TOPIC, topics);
+        subscriptionIndexRegistration =
+            bundleContext.registerService(EventHandler.class.getName(), subscriptionIndex, props);
+      }
+    }
+  }
+
   @Override
   public void notifyCreated(Metacard newMetacard) {
     LOGGER.trace("ENTERING: notifyCreated");
@@ -19,11 +19,12 @@
 import ddf.catalog.operation.Pingable;
 import ddf.catalog.plugin.PreDeliveryPlugin;
 import ddf.catalog.pubsub.internal.DeliveryProcessor;
+import ddf.catalog.pubsub.internal.DeliveryScheduler;
 import ddf.catalog.pubsub.internal.PubSubConstants;
 import ddf.catalog.pubsub.predicate.Predicate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
 import org.apache.commons.collections.CollectionUtils;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
@@ -33,7 +34,7 @@
 public class PublishedEventHandler implements EventHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(PublishedEventHandler.class);
 
-  private final ExecutorService threadPool;
+  private final DeliveryScheduler.SubscriptionQueue deliveryQueue;
 
   private Predicate predicate;
 
@@ -44,102 +45,111 @@ public class PublishedEventHandler implements EventHandler {
   private CatalogFramework catalog;
 
   public PublishedEventHandler(
+      String subscriptionId,
       Predicate finalPredicate,
       Subscription subscription,
       List<PreDeliveryPlugin> preDelivery,
       CatalogFramework catalog,
-      ExecutorService threadPool) {
+      DeliveryScheduler deliveryScheduler) {
     this.predicate = finalPredicate;
     this.subscription = subscription;
     this.preDelivery = preDelivery;
     this.catalog = catalog;
-    this.threadPool = threadPool;
+    this.deliveryQueue = deliveryScheduler.register(subscriptionId, this::deliver);
   }
 
+  /**
+   * Queues the event for delivery. The event is evaluated against the subscription and delivered by
+   * the {@link DeliveryScheduler}'s workers, so the EventAdmin thread is not held up by the
+   * subscriber.
+   */
   @Override
   public void handleEvent(Event event) {
-    threadPool.submit(new EventProcessor(event));
+    deliveryQueue.offer(event);
   }
 
-  private class EventProcessor implements Runnable {
+  private void deliver(List<Event> events) {
+    String methodName = "deliver";
+    LOGGER.trace("ENTERING: {}", methodName);
 
-    private Event event;
-
-    public EventProcessor(Event event) {
-      this.event = event;
+    if (subscription.getDeliveryMethod() instanceof Pingable
+        && !((Pingable) subscription.getDeliveryMethod()).ping()) {
+      LOGGER.debug("Subscription is not active ignoring {} events", events.size());
+      return;
     }
 
-    @Override
-    public void run() {
-
-      String methodName = "handleEvent";
-      LOGGER.trace("ENTERING: {}", methodName);
-
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("topic = {}", event.getTopic());
-        for (String propertyName : event.getPropertyNames()) {
-          LOGGER.debug("name = {},   value = {}", propertyName, event.getProperty(propertyName));
-        }
+    List<Event> matches = new ArrayList<>(events.size());
+    for (Event event : events) {
+      if (isDeliverable(event)) {
+        matches.add(event);
       }
+    }
 
-      if (subscription.getDeliveryMethod() instanceof Pingable
-          && !((Pingable) subscription.getDeliveryMethod()).ping()) {
-        LOGGER.debug("Subscription is not active ignoring event");
-        return;
-      }
+    if (!matches.isEmpty()) {
+      new DeliveryProcessor(subscription, preDelivery).process(matches);
+    }
 
-      LOGGER.debug("subscription is enterprise? {}", subscription.isEnterprise());
-      Set<String> sourceIds = subscription.getSourceIds();
-      LOGGER.debug("subscription has source names: {}", sourceIds);
-
-      Metacard eventMetacard = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
-      String metacardSourceId = eventMetacard.getSourceId();
-      LOGGER.debug("metacard source id: {}", metacardSourceId);
-
-      if (subscription.isEnterprise()) {
-        // if the subscription is an enterprise subscription then evaluate all incoming events
-        evaluateEvent(event);
-      } else if (CollectionUtils.isEmpty(sourceIds)) {
-        evaluateLocalSubscription(metacardSourceId);
-      } else {
-        evaluateSiteBasedSubscription(sourceIds, metacardSourceId);
-      }
+    LOGGER.trace("EXITING: {}", methodName);
+  }
 
-      LOGGER.trace("EXITING: {}", methodName);
+  private boolean isDeliverable(Event event) {
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("topic = {}", event.getTopic());
+      for (String propertyName : event.getPropertyNames()) {
+        LOGGER.debug("name = {},   value = {}", propertyName, event.getProperty(propertyName));
+      }
     }
 
-    private void evaluateSiteBasedSubscription(Set<String> sourceIds, String metacardSourceId) {
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug(
-            "subscription is a site-based subscription starting with site id {}",
-            sourceIds.iterator().next());
-      }
-      // perform site based filtering on subscription
-      if (sourceIds.contains(metacardSourceId)) {
-        LOGGER.debug("event received from subscribed site");
-        evaluateEvent(event);
-      } else {
-        LOGGER.debug(
-            "event received from remote site that is not in list of source IDs of subscription - not evaluating event");
-      }
+    LOGGER.debug("subscription is enterprise? {}", subscription.isEnterprise());
+    Set<String> sourceIds = subscription.getSourceIds();
+    LOGGER.debug("subscription has source names: {}", sourceIds);
+
+    Metacard eventMetacard = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
+    String metacardSourceId = eventMetacard.getSourceId();
+    LOGGER.debug("metacard source id: {}", metacardSourceId);
+
+    if (subscription.isEnterprise()) {
+      // if the subscription is an enterprise subscription then evaluate all incoming events
+      return evaluateEvent(event);
+    } else if (CollectionUtils.isEmpty(sourceIds)) {
+      return evaluateLocalSubscription(event, metacardSourceId);
+    } else {
+      return evaluateSiteBasedSubscription(event, sourceIds, metacardSourceId);
     }
+  }
 
-    private void evaluateLocalSubscription(String metacardSourceId) {
-      LOGGER.debug("subscription is a local subscription. Local Source Id: {}", catalog.getId());
-      if (catalog.getId() != null && catalog.getId().equals(metacardSourceId)) {
-        LOGGER.debug("event received from local site");
-        evaluateEvent(event);
-      } else {
-        LOGGER.debug(
-            "event is from remote site but subscription is local - not evaluating event against subscription filter");
-      }
+  private boolean evaluateSiteBasedSubscription(
+      Event event, Set<String> sourceIds, String metacardSourceId) {
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(
+          "subscription is a site-based subscription starting with site id {}",
+          sourceIds.iterator().next());
+    }
+    // perform site based filtering on subscription
+    if (sourceIds.contains(metacardSourceId)) {
+      LOGGER.debug("event received from subscribed site");
+      return evaluateEvent(event);
+    } else {
+      LOGGER.debug(
+          "event received from remote site that is not in list of source IDs of subscription - not evaluating event");
+      return false;
     }
+  }
 
-    private void evaluateEvent(Event event) {
-      // If predicate is NULL then we are handling a filterless subscription - publish all events
-      if (predicate == null || predicate.matches(event)) {
-        new DeliveryProcessor(subscription, preDelivery).process(event);
-      }
+  private boolean evaluateLocalSubscription(Event event, String metacardSourceId) {
+    LOGGER.debug("subscription is a local subscription. Local Source Id: {}", catalog.getId());
+    if (catalog.getId() != null && catalog.getId().equals(metacardSourceId)) {
+      LOGGER.debug("event received from local site");
+      return evaluateEvent(event);
+    } else {
+      LOGGER.debug(
+          "event is from remote site but subscription is local - not evaluating event against subscription filter");
+      return false;
     }
   }
+
+  private boolean evaluateEvent(Event event) {
+    // If predicate is NULL then we are handling a filterless subscription - publish all events
+    return predicate == null || predicate.matches(event);
+  }
 }
@@ -13,16 +13,14 @@
  */
 package ddf.catalog.pubsub.criteria.contextual;
 
-import org.apache.lucene.store.Directory;
-
 public interface ContextualEvaluationCriteria {
 
   /**
-   * The document that is to be stored and searched over.
+   * The document that is to be searched over.
    *
    * @return
    */
-  public Directory getIndex();
+  public ContextualIndex getIndex();
 
   /**
    * The search phrase which forms the criteria to search over the document
@@ -13,14 +13,11 @@
  */
 package ddf.catalog.pubsub.criteria.contextual;
 
-import java.io.Closeable;
-import java.io.IOException;
 import java.util.Arrays;
-import org.apache.lucene.store.Directory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ContextualEvaluationCriteriaImpl implements ContextualEvaluationCriteria, Closeable {
+public class ContextualEvaluationCriteriaImpl implements ContextualEvaluationCriteria {
   private static final Logger LOGGER =
       LoggerFactory.getLogger(ContextualEvaluationCriteriaImpl.class);
 
@@ -32,19 +29,20 @@ public class ContextualEvaluationCriteriaImpl implements ContextualEvaluationCri
 
   private String[] textPaths;
 
-  private String metadata;
+  private ContextualIndex index;
 
-  private Directory index;
+  public ContextualEvaluationCriteriaImpl(
+      String criteria, boolean fuzzy, boolean caseSensitiveSearch, ContextualIndex index) {
+    this(criteria, fuzzy, caseSensitiveSearch, null, index);
+  }
 
   public ContextualEvaluationCriteriaImpl(
-      String criteria, boolean fuzzy, boolean caseSensitiveSearch, Directory index) {
-    super();
-    this.criteria = criteria;
-    this.fuzzy = fuzzy;
-    this.caseSensitiveSearch = caseSensitiveSearch;
-    this.textPaths = null;
-    this.metadata = null;
-    this.index = index;
+      String criteria,
+      boolean fuzzy,
+      boolean caseSensitiveSearch,
+      String[] textPaths,
+      String metadata) {
+    this(criteria, fuzzy, caseSensitiveSearch, textPaths, new ContextualIndex(metadata));
   }
 
   public ContextualEvaluationCriteriaImpl(
@@ -52,27 +50,25 @@ public ContextualEvaluationCriteriaImpl(
       boolean fuzzy,
       boolean caseSensitiveSearch,
       String[] textPaths,
-      String metadata)
-      throws IOException {
+      ContextualIndex index) {
     super();
 
     LOGGER.debug("criteria = {}", criteria);
-    LOGGER.debug("textPaths:\n");
     if (textPaths != null) {
       if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("textPaths:\n");
         for (String textPath : textPaths) {
           LOGGER.debug(textPath);
         }
       }
 
-      this.criteria = criteria;
-      this.fuzzy = fuzzy;
-      this.caseSensitiveSearch = caseSensitiveSearch;
-      this.metadata = metadata;
-      this.textPaths = new String[textPaths.length];
-      System.arraycopy(textPaths, 0, this.textPaths, 0, textPaths.length);
+      this.textPaths = Arrays.copyOf(textPaths, textPaths.length);
     }
-    this.index = ContextualEvaluator.buildIndex(metadata, this.textPaths);
+
+    this.criteria = criteria;
+    this.fuzzy = fuzzy;
+    this.caseSensitiveSearch = caseSensitiveSearch;
+    this.index = index;
   }
 
   @Override
@@ -81,7 +77,7 @@ public String getCriteria() {
   }
 
   @Override
-  public Directory getIndex() {
+  public ContextualIndex getIndex() {
     return index;
   }
 
@@ -106,11 +102,6 @@ public String[] getTextPaths() {
 
   @Override
   public String getMetadata() {
-    return metadata;
-  }
-
-  @Override
-  public void close() throws IOException {
-    index.close();
+    return index.getMetadata();
   }
 }
@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.criteria.contextual;
+
+import ddf.util.XPathHelper;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.TermAttribute;
+import org.apache.lucene.index.memory.MemoryIndex;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Version;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Single-document contextual index over the metadata of one published entry.
+ *
+ * <p>Nothing is parsed or indexed until a contextual predicate asks for it. The metadata is parsed
+ * into a DOM at most once, the text selected by each set of XPath selectors is extracted at most
+ * once, and each selection is indexed at most once per case sensitivity into a {@link MemoryIndex}.
+ * Entries published when no contextual subscription exists therefore cost nothing beyond the
+ * construction of this object.
+ *
+ * <p>Predicates of several subscriptions may evaluate the same index concurrently. The parsed DOM
+ * is not thread safe, even for reads, so text extraction from it is serialized; searching the
+ * extracted text is not.
+ */
+public final class ContextualIndex {
+  static final String FIELD_NAME = "Resource";
+
+  static final String CASE_SENSITIVE_FIELD_NAME = "cs_Resource";
+
+  // Analyzers keep any reusable token streams per thread, so a single instance of each can be
+  // shared by every index and query parser rather than being created for every event.
+  static final Analyzer CASE_INSENSITIVE_ANALYZER = new ContextualAnalyzer(Version.LUCENE_30);
+
+  static final Analyzer CASE_SENSITIVE_ANALYZER =
+      new CaseSensitiveContextualAnalyzer(Version.LUCENE_30);
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ContextualIndex.class);
+
+  private static final String DEFAULT_XPATH_1 =
+      "/*[local-name()=\"Resource\"]/*"
+          + "[local-name() != \"identifier\" and "
+          + "local-name() != \"language\" and "
+          + "local-name() != \"dates\" and "
+          + "local-name() != \"rights\" and "
+          + "local-name() != \"format\" and "
+          + "local-name() != \"subjectCoverage\" and "
+          + "local-name() != \"temporalCoverage\" and "
+          + "local-name() != \"geospatialCoverage\"  "
+          + "] ";
+
+  private static final String DEFAULT_XPATH_2 =
+      "/*[local-name()=\"Resource\"]"
+          + "/*[local-name()=\"geospatialCoverage\"]/*[local-name()=\"GeospatialExtent\"]"
+          + "/*[not(ancestor::node()[local-name()=\"boundingGeometry\"] or descendant-or-self::node()[local-name()=\"boundingGeometry\"])] ";
+
+  private static final List<String> DEFAULT_XPATH_SELECTORS =
+      Arrays.asList(DEFAULT_XPATH_1, DEFAULT_XPATH_2);
+
+  private final String metadata;
+
+  private final Map<List<String>, String> indexableText = new ConcurrentHashMap<>();
+
+  private final Map<List<String>, MemoryIndex> caseInsensitiveIndexes = new ConcurrentHashMap<>();
+
+  private final Map<List<String>, MemoryIndex> caseSensitiveIndexes = new ConcurrentHashMap<>();
+
+  private XPathHelper xpathHelper;
+
+  /** @param metadata the XML metadata of the entry, may be {@code null} */
+  public ContextualIndex(String metadata) {
+    this.metadata = metadata;
+  }
+
+  public String getMetadata() {
+    return metadata;
+  }
+
+  /**
+   * Determines whether the indexed text selected by the specified XPath selectors matches the
+   * specified query.
+   *
+   * @param query the query to run, parsed against {@link #FIELD_NAME} or {@link
+   *     #CASE_SENSITIVE_FIELD_NAME} as appropriate for {@code caseSensitive}
+   * @param xpathSelectors the XPath selectors used to extract the text to search, or {@code null}
+   *     to use the default selectors
+   * @param caseSensitive whether the case-sensitive index should be searched
+   * @return {@code true} if the query matches
+   */
+  public boolean matches(Query query, String[] xpathSelectors, boolean caseSensitive) {
+    MemoryIndex index = getIndex(xpathSelectors, caseSensitive);
+
+    // MemoryIndex sorts its fields lazily on the first search, so searches are serialized
+    synchronized (index) {
+      return index.search(query) > 0.0f;
+    }
+  }
+
+  /**
+   * Extracts the text from the metadata that is selected by the specified XPath selectors.
+   *
+   * @param xpathSelectors the XPath selectors, or {@code null} to use the default selectors
+   * @return the selected text, or an empty string if there is no metadata or nothing was selected
+   */
+  public String getIndexableText(String[] xpathSelectors) {
+    return indexableText.computeIfAbsent(toKey(xpathSelectors), this::extractIndexableText);
+  }
+
+  private MemoryIndex getIndex(String[] xpathSelectors, boolean caseSensitive) {
+    List<String> key = toKey(xpathSelectors);
+    if (caseSensitive) {
+      return caseSensitiveIndexes.computeIfAbsent(
+          key,
+          k -> buildIndex(CASE_SENSITIVE_FIELD_NAME, CASE_SENSITIVE_ANALYZER, k, "case-sensitive"));
+    }
+    return caseInsensitiveIndexes.computeIfAbsent(
+        key, k -> buildIndex(FIELD_NAME, CASE_INSENSITIVE_ANALYZER, k, "case-insensitive"));
+  }
+
+  private MemoryIndex buildIndex(
+      String fieldName, Analyzer analyzer, List<String> xpathSelectors, String description) {
+    String text = indexableText.computeIfAbsent(xpathSelectors, this::extractIndexableText);
+    logTokens(analyzer, fieldName, text, description);
+
+    MemoryIndex index = new MemoryIndex();
+    index.addField(fieldName, text, analyzer);
+    return index;
+  }
+
+  private static List<String> toKey(String[] xpathSelectors) {
+    if (xpathSelectors == null || xpathSelectors.length == 0) {
+      return DEFAULT_XPATH_SELECTORS;
+    }
+    return Arrays.asList(xpathSelectors.clone());
+  }
+
+  private static void logTokens(
+      Analyzer analyzer, String fieldName, String text, String analyzerName) {
+    if (!LOGGER.isDebugEnabled()) {
+      return;
+    }
+
+    try {
+      TokenStream tokenStream = analyzer.tokenStream(fieldName, new StringReader(text));
+      TermAttribute termAttribute = tokenStream.getAttribute(TermAttribute.class);
+      LOGGER.debug("-----  {} tokens  -----", analyzerName);
+      while (tokenStream.incrementToken()) {
+        LOGGER.debug(termAttribute.term());
+      }
+      LOGGER.debug("-----  END:  {} tokens  -----", analyzerName);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to log {} tokens", analyzerName, e);
+    }
+  }
+
+  private synchronized XPathHelper getXPathHelper() {
+    if (xpathHelper == null) {
+      // Treat the "default namespace" (i.e., xmlns="http://some.namespace") the same as the
+      // "no namespace" (i.e., xmlns="") so that user-specified XPath Selectors do not need to
+      // specify a namespace for expressions in the default namespace (for example, user can
+      // specify //fileTitle vs. //namespace:fileTitle, where a NamespaceContext/NamespaceResolver
+      // would try to resolve the namespace they specified)
+      xpathHelper = new XPathHelper(metadata.replaceAll("xmlns=['\"].*?['\"]", ""));
+    }
+    return xpathHelper;
+  }
+
+  /**
+   * Extract the text from the metadata that is to be indexed using the specified XPath selectors.
+   */
+  private String extractIndexableText(List<String> xpathSelectors) {
+    if (metadata == null) {
+      return "";
+    }
+
+    LOGGER.debug("xpathSelectors.size = {}", xpathSelectors.size());
+
+    StringBuilder attributeText = new StringBuilder();
+    StringBuilder elementText = new StringBuilder();
+
+    XPathHelper xHelper = getXPathHelper();
+
+    // Xerces DOM nodes are not thread safe for reads, so only one thread may walk the document
+    synchronized (xHelper) {
+      extractText(xHelper, xpathSelectors, attributeText, elementText);
+    }
+
+    // Attribute values precede the Text nodes' values in the indexable text
+    return attributeText.append(elementText).toString();
+  }
+
+  private static void extractText(
+      XPathHelper xHelper,
+      List<String> xpathSelectors,
+      StringBuilder attributeText,
+      StringBuilder elementText) {
+    try {
+      for (String xpath : xpathSelectors) {
+        LOGGER.debug("Processing xpath selector: {}", xpath);
+        NodeList nodeList = (NodeList) xHelper.evaluate(xpath, XPathConstants.NODESET);
+        LOGGER.debug("nodeList length = {}", nodeList.getLength());
+
+        for (int i = 0; i < nodeList.getLength(); i++) {
+          Node node = nodeList.item(i);
+          if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
+            Attr attribute = (Attr) node;
+            LOGGER.debug("Adding text [{}]", attribute.getNodeValue());
+            attributeText.append(attribute.getNodeValue()).append(' ');
+
+            // On each element node detected, traverse all of its children. Look for any Text
+            // nodes it has, adding their text values to the indexable text. (getTextContent()
+            // would concatenate the Text nodes without any white space between them.)
+          } else if (node.getNodeType() == Node.ELEMENT_NODE) {
+            traverse((Element) node, elementText);
+          } else {
+            LOGGER.debug(
+                "Unsupported node type: {},   node name = {}",
+                node.getNodeType(),
+                node.getNodeName());
+          }
+        }
+      }
+    } catch (XPathExpressionException e) {
+      LOGGER.debug("Unable to evaluate XPath", e);
+    }
+  }
+
+  private static void traverse(Node n, StringBuilder indexedText) {
+    // Traverse the rest of the tree in depth-first order.
+    if (n.getNodeType() == Node.TEXT_NODE) {
+      indexedText.append(n.getNodeValue()).append(' ');
+    }
+
+    if (n.hasChildNodes()) {
+      NodeList nl = n.getChildNodes();
+
+      for (int i = 0; i < nl.getLength(); i++) {
+        traverse(nl.item(i), indexedText);
+      }
+    }
+  }
+}
@@ -14,12 +14,16 @@
 package ddf.catalog.pubsub.internal;
 
 import ddf.catalog.data.Metacard;
+import ddf.catalog.event.BatchDeliveryMethod;
+import ddf.catalog.event.DeliveryMethod;
 import ddf.catalog.event.Subscription;
 import ddf.catalog.operation.Update;
 import ddf.catalog.operation.impl.UpdateImpl;
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.PreDeliveryPlugin;
 import ddf.catalog.plugin.StopProcessingException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.osgi.service.event.Event;
 import org.slf4j.Logger;
@@ -48,52 +52,15 @@ public void process(Event event) {
     LOGGER.debug("ENTERING: {}", methodName);
 
     Metacard entry = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
-    String operation = event.getProperty(PubSubConstants.HEADER_OPERATION_KEY).toString();
+    String operation = getOperation(event);
 
     LOGGER.debug("Delivering catalog entry.");
     if (subscription != null) {
       if (entry != null) {
-        if (operation.equalsIgnoreCase(PubSubConstants.CREATE)) {
-          try {
-            for (PreDeliveryPlugin plugin : preDelivery) {
-              LOGGER.debug("Processing 'created' entry with preDelivery plugin");
-              entry = plugin.processCreate(entry);
-            }
-            subscription.getDeliveryMethod().created(entry);
-          } catch (PluginExecutionException e) {
-            LOGGER.debug(PLUGIN_EXCEPTION_MSG, e);
-            subscription.getDeliveryMethod().created(entry);
-          } catch (StopProcessingException e) {
-            LOGGER.info(DELIVERY_FAILURE_MSG, e);
-          }
-        } else if (operation.equalsIgnoreCase(PubSubConstants.UPDATE)) {
-          // TODO: Handle hit or miss
-          try {
-            for (PreDeliveryPlugin plugin : preDelivery) {
-              LOGGER.debug("Processing 'updated' entry with preDelivery plugin");
-              Update updatedEntry = plugin.processUpdateHit(new UpdateImpl(entry, null));
-              entry = updatedEntry.getNewMetacard();
-            }
-            subscription.getDeliveryMethod().updatedHit(entry, entry);
-          } catch (PluginExecutionException e) {
-            LOGGER.debug(PLUGIN_EXCEPTION_MSG, e);
-            subscription.getDeliveryMethod().updatedHit(entry, entry);
-          } catch (StopProcessingException e) {
-            LOGGER.info(DELIVERY_FAILURE_MSG, e);
-          }
-        } else if (operation.equalsIgnoreCase(PubSubConstants.DELETE)) {
-
-          try {
-            for (PreDeliveryPlugin plugin : preDelivery) {
-              LOGGER.debug("Processing 'deleted' entry with preDelivery plugin");
-              entry = plugin.processCreate(entry);
-            }
-            subscription.getDeliveryMethod().deleted(entry);
-          } catch (PluginExecutionException e) {
-            LOGGER.debug(PLUGIN_EXCEPTION_MSG, e);
-            subscription.getDeliveryMethod().deleted(entry);
-          } catch (StopProcessingException e) {
-            LOGGER.info(DELIVERY_FAILURE_MSG, e);
+        if (operation != null) {
+          entry = preDeliver(operation, entry);
+          if (entry != null) {
+            deliver(operation, entry);
           }
         } else {
           LOGGER.debug("Could not deliver hit for subscription.");
@@ -107,4 +74,109 @@ public void process(Event event) {
 
     LOGGER.debug("EXITING: {}", methodName);
   }
+
+  /**
+   * Delivers events in the order they were published. If the subscription's delivery method is a
+   * {@link BatchDeliveryMethod}, each run of consecutive events with the same operation is
+   * delivered in a single call.
+   *
+   * @param events the events to deliver
+   */
+  public void process(List<Event> events) {
+    if (subscription == null
+        || events.size() < 2
+        || !(subscription.getDeliveryMethod() instanceof BatchDeliveryMethod)) {
+      events.forEach(this::process);
+      return;
+    }
+
+    LOGGER.debug("Delivering {} catalog entries.", events.size());
+    String batchOperation = null;
+    List<Metacard> batch = new ArrayList<>(events.size());
+    for (Event event : events) {
+      Metacard entry = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
+      String operation = getOperation(event);
+      if (entry == null || operation == null) {
+        LOGGER.debug("Could not deliver hit for subscription.");
+        continue;
+      }
+
+      if (!operation.equals(batchOperation)) {
+        deliver(batchOperation, batch);
+        batch = new ArrayList<>(events.size());
+        batchOperation = operation;
+      }
+
+      entry = preDeliver(operation, entry);
+      if (entry != null) {
+        batch.add(entry);
+      }
+    }
+    deliver(batchOperation, batch);
+  }
+
+  /** @return the operation of the event, or {@code null} if it is not one that can be delivered */
+  private String getOperation(Event event) {
+    String operation = String.valueOf(event.getProperty(PubSubConstants.HEADER_OPERATION_KEY));
+    for (String known :
+        new String[] {PubSubConstants.CREATE, PubSubConstants.UPDATE, PubSubConstants.DELETE}) {
+      if (known.equalsIgnoreCase(operation)) {
+        return known;
+      }
+    }
+    return null;
+  }
+
+  /** @return the entry to deliver, or {@code null} if a plugin determined it cannot be delivered */
+  private Metacard preDeliver(String operation, Metacard entry) {
+    try {
+      for (PreDeliveryPlugin plugin : preDelivery) {
+        if (PubSubConstants.UPDATE.equals(operation)) {
+          LOGGER.debug("Processing 'updated' entry with preDelivery plugin");
+          Update updatedEntry = plugin.processUpdateHit(new UpdateImpl(entry, null));
+          entry = updatedEntry.getNewMetacard();
+        } else {
+          LOGGER.debug("Processing '{}' entry with preDelivery plugin", operation);
+          entry = plugin.processCreate(entry);
+        }
+      }
+    } catch (PluginExecutionException e) {
+      LOGGER.debug(PLUGIN_EXCEPTION_MSG, e);
+    } catch (StopProcessingException e) {
+      LOGGER.info(DELIVERY_FAILURE_MSG, e);
+      return null;
+    }
+    return entry;
+  }
+
+  private void deliver(String operation, Metacard entry) {
+    DeliveryMethod deliveryMethod = subscription.getDeliveryMethod();
+    if (PubSubConstants.CREATE.equals(operation)) {
+      deliveryMethod.created(entry);
+    } else if (PubSubConstants.UPDATE.equals(operation)) {
+      deliveryMethod.updatedHit(entry, entry);
+    } else {
+      deliveryMethod.deleted(entry);
+    }
+  }
+
+  private void deliver(String operation, List<Metacard> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    if (entries.size() == 1) {
+      deliver(operation, entries.get(0));
+      return;
+    }
+
+    BatchDeliveryMethod deliveryMethod = (BatchDeliveryMethod) subscription.getDeliveryMethod();
+    List<Metacard> batch = Collections.unmodifiableList(entries);
+    if (PubSubConstants.CREATE.equals(operation)) {
+      deliveryMethod.created(batch);
+    } else if (PubSubConstants.UPDATE.equals(operation)) {
+      deliveryMethod.updatedHit(batch, batch);
+    } else {
+      deliveryMethod.deleted(batch);
+    }
+  }
 }
@@ -0,0 +1,350 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.osgi.service.event.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schedules the delivery of published events to subscriptions. Each subscription has its own
+ * bounded queue, and a fixed pool of workers takes turns draining the queues one batch at a time,
+ * so a subscriber that is slow or unreachable only fills its own queue rather than tying up threads
+ * needed by the other subscriptions or by ingest.
+ *
+ * <p>A queue is scheduled on the worker pool at most once at a time, so the pool's own work queue
+ * never holds more entries than there are subscriptions.
+ */
+public class DeliveryScheduler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DeliveryScheduler.class);
+
+  private static final String QUEUE_SIZE_METRIC = "ddf.catalog.pubsub.delivery.queue.size";
+
+  private static final String LATENCY_METRIC = "ddf.catalog.pubsub.delivery.latency";
+
+  private static final String DROPPED_METRIC = "ddf.catalog.pubsub.delivery.dropped";
+
+  private static final String SUBSCRIPTION_TAG = "subscription";
+
+  public static final int DEFAULT_THREADS = 8;
+
+  public static final int DEFAULT_QUEUE_SIZE = 1000;
+
+  public static final int DEFAULT_BATCH_SIZE = 50;
+
+  public static final long DEFAULT_BLOCK_TIMEOUT_MILLIS = 1000;
+
+  /** What to do with an event published to a subscription whose queue is full. */
+  public enum OverflowPolicy {
+    /** Discard the oldest queued event to make room for the new one. */
+    DROP_OLDEST,
+    /** Discard the new event. */
+    DROP_NEWEST,
+    /**
+     * Make the publishing thread wait for room in the queue, up to the block timeout, and then
+     * discard the new event.
+     */
+    BLOCK
+  }
+
+  private final ThreadPoolExecutor executor;
+
+  private final Map<String, SubscriptionQueue> queues = new HashMap<>();
+
+  private volatile int queueSize = DEFAULT_QUEUE_SIZE;
+
+  private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+  private volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+  private volatile long blockTimeoutMillis = DEFAULT_BLOCK_TIMEOUT_MILLIS;
+
+  public DeliveryScheduler() {
+    executor =
+        new ThreadPoolExecutor(
+            DEFAULT_THREADS,
+            DEFAULT_THREADS,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            StandardThreadFactoryBuilder.newThreadFactory("eventProcessorThread"));
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Creates the queue of a subscription, replacing and discarding any queue already registered for
+   * the same subscription ID.
+   *
+   * @param subscriptionId ID of the subscription, used to tag its metrics
+   * @param deliverer delivers a batch of events, in the order they were queued, to the subscription
+   * @return the subscription's queue
+   */
+  public SubscriptionQueue register(String subscriptionId, Consumer<List<Event>> deliverer) {
+    SubscriptionQueue queue = new SubscriptionQueue(subscriptionId, deliverer);
+    SubscriptionQueue previous;
+    synchronized (queues) {
+      previous = queues.put(subscriptionId, queue);
+    }
+    if (previous != null) {
+      previous.close();
+    }
+    return queue;
+  }
+
+  /**
+   * Discards the queue of a subscription along with any events still waiting in it.
+   *
+   * @param subscriptionId ID of the subscription
+   */
+  public void unregister(String subscriptionId) {
+    SubscriptionQueue queue;
+    synchronized (queues) {
+      queue = queues.remove(subscriptionId);
+    }
+    if (queue != null) {
+      queue.close();
+    }
+  }
+
+  public void shutdown() {
+    List<SubscriptionQueue> closing;
+    synchronized (queues) {
+      closing = new ArrayList<>(queues.values());
+      queues.clear();
+    }
+    closing.forEach(SubscriptionQueue::close);
+    executor.shutdownNow();
+  }
+
+  public void setThreads(int threads) {
+    int size = Math.max(1, threads);
+    if (size > executor.getMaximumPoolSize()) {
+      executor.setMaximumPoolSize(size);
+      executor.setCorePoolSize(size);
+    } else {
+      executor.setCorePoolSize(size);
+      executor.setMaximumPoolSize(size);
+    }
+  }
+
+  public void setQueueSize(int queueSize) {
+    this.queueSize = Math.max(1, queueSize);
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  public void setOverflowPolicy(String overflowPolicy) {
+    try {
+      this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException | NullPointerException e) {
+      LOGGER.info(
+          "Unknown delivery overflow policy [{}]; keeping {}.",
+          overflowPolicy,
+          this.overflowPolicy);
+    }
+  }
+
+  public void setBlockTimeoutMillis(long blockTimeoutMillis) {
+    this.blockTimeoutMillis = Math.max(0, blockTimeoutMillis);
+  }
+
+  /** The bounded queue of events waiting to be delivered to one subscription. */
+  public class SubscriptionQueue {
+
+    private final String subscriptionId;
+
+    private final Consumer<List<Event>> deliverer;
+
+    private final ArrayDeque<QueuedEvent> events = new ArrayDeque<>();
+
+    private final Gauge depth;
+
+    private final Timer latency;
+
+    private final Counter dropped;
+
+    private boolean scheduled;
+
+    private boolean closed;
+
+    SubscriptionQueue(String subscriptionId, Consumer<List<Event>> deliverer) {
+      this.subscriptionId = subscriptionId;
+      this.deliverer = deliverer;
+      Tags tags = Tags.of(SUBSCRIPTION_TAG, subscriptionId);
+      depth =
+          Gauge.builder(QUEUE_SIZE_METRIC, this, SubscriptionQueue::size)
+              .tags(tags)
+              .register(Metrics.globalRegistry);
+      latency = Metrics.timer(LATENCY_METRIC, tags);
+      dropped = Metrics.counter(DROPPED_METRIC, tags);
+    }
+
+    /**
+     * Queues an event for delivery, applying the overflow policy if the queue is full.
+     *
+     * @param event the published event
+     * @return {@code true} if the event was queued
+     */
+    public boolean offer(Event event) {
+      synchronized (this) {
+        if (closed) {
+          return false;
+        }
+
+        if (events.size() >= queueSize && !makeRoom()) {
+          dropped.increment();
+          LOGGER.debug("Delivery queue of subscription {} is full; dropping event", subscriptionId);
+          return false;
+        }
+
+        events.addLast(new QueuedEvent(event, System.nanoTime()));
+        if (scheduled) {
+          return true;
+        }
+        scheduled = true;
+      }
+
+      schedule();
+      return true;
+    }
+
+    public synchronized int size() {
+      return events.size();
+    }
+
+    /**
+     * @return {@code true} if there is room for another event; {@code false} if the new event has
+     *     to be dropped
+     */
+    private boolean makeRoom() {
+      switch (overflowPolicy) {
+        case DROP_OLDEST:
+          events.pollFirst();
+          dropped.increment();
+          LOGGER.debug(
+              "Delivery queue of subscription {} is full; dropping oldest event", subscriptionId);
+          return true;
+        case BLOCK:
+          long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+          try {
+            while (!closed && events.size() >= queueSize) {
+              long remaining = deadline - System.nanoTime();
+              if (remaining <= 0) {
+                return false;
+              }
+              TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+          }
+          return !closed;
+        case DROP_NEWEST:
+        default:
+          return false;
+      }
+    }
+
+    private void schedule() {
+      try {
+        executor.execute(this::deliverBatch);
+      } catch (RejectedExecutionException e) {
+        LOGGER.debug("Unable to schedule delivery for subscription {}", subscriptionId, e);
+        synchronized (this) {
+          scheduled = false;
+        }
+      }
+    }
+
+    /**
+     * Delivers one batch and, if more events are waiting, goes to the back of the worker pool's
+     * queue so other subscriptions get a turn.
+     */
+    private void deliverBatch() {
+      List<QueuedEvent> batch;
+      synchronized (this) {
+        int count = Math.min(batchSize, events.size());
+        batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+          batch.add(events.pollFirst());
+        }
+        notifyAll();
+      }
+
+      try {
+        if (!batch.isEmpty()) {
+          List<Event> batchEvents = new ArrayList<>(batch.size());
+          batch.forEach(queued -> batchEvents.add(queued.event));
+          deliverer.accept(batchEvents);
+        }
+      } catch (RuntimeException e) {
+        LOGGER.info("Unable to deliver events to subscription {}", subscriptionId, e);
+      } finally {
+        long now = System.nanoTime();
+        batch.forEach(queued -> latency.record(now - queued.queuedNanos, TimeUnit.NANOSECONDS));
+      }
+
+      synchronized (this) {
+        if (events.isEmpty() || closed) {
+          scheduled = false;
+          return;
+        }
+      }
+      schedule();
+    }
+
+    private void close() {
+      synchronized (this) {
+        closed = true;
+        events.clear();
+        notifyAll();
+      }
+      Metrics.globalRegistry.remove(depth);
+      Metrics.globalRegistry.remove(latency);
+      Metrics.globalRegistry.remove(dropped);
+    }
+  }
+
+  private static class QueuedEvent {
+
+    private final Event event;
+
+    private final long queuedNanos;
+
+    QueuedEvent(Event event, long queuedNanos) {
+      this.event = event;
+      this.queuedNanos = queuedNanos;
+    }
+  }
+}
@@ -0,0 +1,442 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.OrPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.geotools.geometry.jts.WKTReader2;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.intervalrtree.SortedPackedIntervalRTree;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.ParseException;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Matches published catalog events against all subscriptions through a single index, instead of
+ * posting every event to one {@link EventHandler} per subscription.
+ *
+ * <p>When a subscription is added, a necessary condition is derived from its {@link Predicate}
+ * tree: the exact content types, geospatial envelopes or absolute temporal windows that an event
+ * must match for the predicate to possibly be true. These are kept in hash buckets, an {@link
+ * STRtree} and per-{@link DateType} interval trees. Each event probes the index once and only the
+ * subscriptions found there, plus the subscriptions that have no indexable criteria (e.g. purely
+ * contextual ones), are handed the event for full predicate evaluation.
+ *
+ * <p>The index structures are rebuilt as an immutable snapshot whenever a subscription is added or
+ * removed, so events are matched without locking.
+ */
+public class SubscriptionIndex implements EventHandler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionIndex.class);
+
+  /** Content types that contain no regular expression or wildcard characters. */
+  private static final Pattern EXACT_CONTENT_TYPE = Pattern.compile("[\\w\\- /:]+");
+
+  private static final String NULL_CONTENT_TYPE = "null";
+
+  private final Map<String, IndexedSubscription> subscriptions = new LinkedHashMap<>();
+
+  private volatile Snapshot snapshot = new Snapshot(Collections.emptyList());
+
+  /**
+   * Adds a subscription to the index, replacing any subscription with the same ID.
+   *
+   * @param subscriptionId ID of the subscription
+   * @param predicate the subscription's predicate, or {@code null} if it matches all events
+   * @param handler handler that evaluates the predicate and delivers matching events
+   */
+  public synchronized void add(String subscriptionId, Predicate predicate, EventHandler handler) {
+    IndexedSubscription subscription =
+        new IndexedSubscription(subscriptionId, handler, postingsOf(predicate));
+    LOGGER.debug("Indexing subscription {} with {}", subscriptionId, subscription.postings);
+    subscriptions.put(subscriptionId, subscription);
+    snapshot = new Snapshot(subscriptions.values());
+  }
+
+  /**
+   * Removes a subscription from the index.
+   *
+   * @param subscriptionId ID of the subscription
+   * @return {@code true} if the subscription was in the index
+   */
+  public synchronized boolean remove(String subscriptionId) {
+    if (subscriptions.remove(subscriptionId) == null) {
+      return false;
+    }
+    snapshot = new Snapshot(subscriptions.values());
+    return true;
+  }
+
+  public synchronized boolean contains(String subscriptionId) {
+    return subscriptions.containsKey(subscriptionId);
+  }
+
+  public boolean isEmpty() {
+    return snapshot.size == 0;
+  }
+
+  public int size() {
+    return snapshot.size;
+  }
+
+  @Override
+  public void handleEvent(Event event) {
+    for (EventHandler handler : getCandidates(event)) {
+      try {
+        handler.handleEvent(event);
+      } catch (RuntimeException e) {
+        LOGGER.info("Unable to hand event to subscription handler", e);
+      }
+    }
+  }
+
+  /**
+   * Finds the handlers of the subscriptions that could match the event. Every subscription whose
+   * predicate matches the event is guaranteed to be included, but the predicates of the returned
+   * subscriptions still need to be evaluated.
+   *
+   * @param event the published event
+   * @return handlers of the candidate subscriptions
+   */
+  public Set<EventHandler> getCandidates(Event event) {
+    Snapshot current = snapshot;
+
+    if (isDeletedEntry(event)) {
+      // Every predicate matches a delete without metadata, so all subscriptions are candidates
+      return current.allHandlers();
+    }
+
+    Set<IndexedSubscription> candidates = new LinkedHashSet<>(current.unindexed);
+
+    List<IndexedSubscription> contentTypeMatches =
+        current.byContentType.get(getEventContentType(event));
+    if (contentTypeMatches != null) {
+      candidates.addAll(contentTypeMatches);
+    }
+
+    Metacard entry = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
+
+    if (current.spatialIndex != null) {
+      Envelope location = getLocationEnvelope(entry);
+      if (location == null) {
+        candidates.addAll(current.spatialSubscriptions);
+      } else {
+        current.spatialIndex.query(location, item -> candidates.add((IndexedSubscription) item));
+      }
+    }
+
+    for (Map.Entry<DateType, SortedPackedIntervalRTree> temporal :
+        current.temporalIndex.entrySet()) {
+      Date date = entry == null ? null : getDate(entry, temporal.getKey());
+      if (date == null) {
+        candidates.addAll(current.temporalSubscriptions.get(temporal.getKey()));
+      } else {
+        double time = date.getTime();
+        temporal.getValue().query(time, time, item -> candidates.add((IndexedSubscription) item));
+      }
+    }
+
+    LOGGER.debug(
+        "Found {} candidate subscriptions out of {} for event", candidates.size(), current.size);
+
+    Set<EventHandler> handlers = new LinkedHashSet<>();
+    for (IndexedSubscription candidate : candidates) {
+      handlers.add(candidate.handler);
+    }
+    return handlers;
+  }
+
+  /**
+   * Derives the index postings of a predicate. An event can only match the predicate if it matches
+   * at least one of the returned postings.
+   *
+   * @return the postings, or {@code null} if the predicate cannot be indexed and must be evaluated
+   *     against every event
+   */
+  static Postings postingsOf(Predicate predicate) {
+    if (predicate instanceof AndPredicate) {
+      Postings left = postingsOf(((AndPredicate) predicate).getLeft());
+      Postings right = postingsOf(((AndPredicate) predicate).getRight());
+      if (left == null) {
+        return right;
+      } else if (right == null) {
+        return left;
+      }
+      // Either side alone is a necessary condition; use the more selective one
+      return left.size() <= right.size() ? left : right;
+    } else if (predicate instanceof OrPredicate) {
+      Postings left = postingsOf(((OrPredicate) predicate).getLeft());
+      Postings right = postingsOf(((OrPredicate) predicate).getRight());
+      return left == null || right == null ? null : left.union(right);
+    } else if (predicate instanceof ContentTypePredicate) {
+      String type = ((ContentTypePredicate) predicate).getType();
+      if (type != null && EXACT_CONTENT_TYPE.matcher(type).matches()) {
+        Postings postings = new Postings();
+        postings.contentTypes.add(type);
+        return postings;
+      }
+    } else if (predicate instanceof GeospatialPredicate) {
+      GeospatialPredicate geospatialPredicate = (GeospatialPredicate) predicate;
+      Geometry geometry = geospatialPredicate.getGeoCriteria();
+      if (geometry != null && !geometry.isEmpty()) {
+        Envelope envelope = new Envelope(geometry.getEnvelopeInternal());
+        envelope.expandBy(Math.abs(geospatialPredicate.getDistance()));
+        Postings postings = new Postings();
+        postings.envelopes.add(envelope);
+        return postings;
+      }
+    } else if (predicate instanceof TemporalPredicate) {
+      TemporalPredicate temporalPredicate = (TemporalPredicate) predicate;
+      Date start = temporalPredicate.getStart();
+      Date end = temporalPredicate.getEnd();
+      // Relative (offset) windows move with the clock, so they are not indexed
+      if (temporalPredicate.getOffset() <= 0
+          && temporalPredicate.getType() != null
+          && (start != null || end != null)) {
+        Postings postings = new Postings();
+        postings.intervals.put(
+            temporalPredicate.getType(),
+            new ArrayList<>(
+                Collections.singletonList(
+                    new double[] {
+                      start == null ? Double.NEGATIVE_INFINITY : start.getTime(),
+                      end == null ? Double.POSITIVE_INFINITY : end.getTime()
+                    })));
+        return postings;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isDeletedEntry(Event event) {
+    if (!PubSubConstants.DELETE.equals(event.getProperty(PubSubConstants.HEADER_OPERATION_KEY))) {
+      return false;
+    }
+    Object contextualMap = event.getProperty(PubSubConstants.HEADER_CONTEXTUAL_KEY);
+    return contextualMap instanceof Map
+        && PubSubConstants.METADATA_DELETED.equals(((Map) contextualMap).get("METADATA"));
+  }
+
+  /** Extracts the content type name the same way {@code ContentTypeEvaluator} does. */
+  private static String getEventContentType(Event event) {
+    Object contentType = event.getProperty(PubSubConstants.HEADER_CONTENT_TYPE_KEY);
+    if (contentType == null) {
+      return NULL_CONTENT_TYPE;
+    }
+    String type = contentType.toString().split(",", -1)[0];
+    return type.isEmpty() ? NULL_CONTENT_TYPE : type;
+  }
+
+  private static Envelope getLocationEnvelope(Metacard entry) {
+    if (entry == null || entry.getLocation() == null) {
+      return null;
+    }
+    try {
+      return new WKTReader2().read(entry.getLocation()).getEnvelopeInternal();
+    } catch (ParseException e) {
+      LOGGER.debug("Unable to parse location of metacard {}", entry.getId(), e);
+      return null;
+    }
+  }
+
+  private static Date getDate(Metacard entry, DateType type) {
+    switch (type) {
+      case MODIFIED:
+        return entry.getModifiedDate();
+      case EFFECTIVE:
+        return entry.getEffectiveDate();
+      case CREATED:
+        return entry.getCreatedDate();
+      case EXPIRATION:
+        return entry.getExpirationDate();
+      case METACARD_CREATED:
+        return getDateAttribute(entry, Core.METACARD_CREATED);
+      case METACARD_MODIFIED:
+        return getDateAttribute(entry, Core.METACARD_MODIFIED);
+      default:
+        return null;
+    }
+  }
+
+  private static Date getDateAttribute(Metacard entry, String attributeName) {
+    Attribute attribute = entry.getAttribute(attributeName);
+    return attribute != null && attribute.getValue() instanceof Date
+        ? (Date) attribute.getValue()
+        : null;
+  }
+
+  /** The values under which a subscription is indexed. */
+  static class Postings {
+
+    final Set<String> contentTypes = new HashSet<>();
+
+    final List<Envelope> envelopes = new ArrayList<>();
+
+    final Map<DateType, List<double[]>> intervals = new EnumMap<>(DateType.class);
+
+    int size() {
+      return contentTypes.size()
+          + envelopes.size()
+          + intervals.values().stream().mapToInt(List::size).sum();
+    }
+
+    Postings union(Postings other) {
+      Postings union = new Postings();
+      union.contentTypes.addAll(contentTypes);
+      union.contentTypes.addAll(other.contentTypes);
+      union.envelopes.addAll(envelopes);
+      union.envelopes.addAll(other.envelopes);
+      intervals.forEach(
+          (type, windows) ->
+              union.intervals.computeIfAbsent(type, t -> new ArrayList<>()).addAll(windows));
+      other.intervals.forEach(
+          (type, windows) ->
+              union.intervals.computeIfAbsent(type, t -> new ArrayList<>()).addAll(windows));
+      return union;
+    }
+
+    @Override
+    public String toString() {
+      return "contentTypes="
+          + contentTypes
+          + ", envelopes="
+          + envelopes
+          + ", temporalTypes="
+          + intervals.keySet();
+    }
+  }
+
+  private static class IndexedSubscription {
+
+    private final String subscriptionId;
+
+    private final EventHandler handler;
+
+    /** {@code null} if the subscription must be evaluated against every event. */
+    private final Postings postings;
+
+    IndexedSubscription(String subscriptionId, EventHandler handler, Postings postings) {
+      this.subscriptionId = subscriptionId;
+      this.handler = handler;
+      this.postings = postings;
+    }
+
+    @Override
+    public String toString() {
+      return subscriptionId;
+    }
+  }
+
+  /** Immutable view of the index used to match events. */
+  private static class Snapshot {
+
+    private final int size;
+
+    private final List<IndexedSubscription> all = new ArrayList<>();
+
+    private final List<IndexedSubscription> unindexed = new ArrayList<>();
+
+    private final Map<String, List<IndexedSubscription>> byContentType = new HashMap<>();
+
+    private final List<IndexedSubscription> spatialSubscriptions = new ArrayList<>();
+
+    private final STRtree spatialIndex;
+
+    private final Map<DateType, List<IndexedSubscription>> temporalSubscriptions =
+        new EnumMap<>(DateType.class);
+
+    private final Map<DateType, SortedPackedIntervalRTree> temporalIndex =
+        new EnumMap<>(DateType.class);
+
+    Snapshot(Iterable<IndexedSubscription> subscriptions) {
+      STRtree tree = new STRtree();
+
+      for (IndexedSubscription subscription : subscriptions) {
+        all.add(subscription);
+        Postings postings = subscription.postings;
+        if (postings == null) {
+          unindexed.add(subscription);
+          continue;
+        }
+
+        for (String contentType : postings.contentTypes) {
+          byContentType.computeIfAbsent(contentType, t -> new ArrayList<>()).add(subscription);
+        }
+
+        if (!postings.envelopes.isEmpty()) {
+          spatialSubscriptions.add(subscription);
+          for (Envelope envelope : postings.envelopes) {
+            tree.insert(envelope, subscription);
+          }
+        }
+
+        for (Map.Entry<DateType, List<double[]>> windows : postings.intervals.entrySet()) {
+          temporalSubscriptions
+              .computeIfAbsent(windows.getKey(), t -> new ArrayList<>())
+              .add(subscription);
+          SortedPackedIntervalRTree intervalTree =
+              temporalIndex.computeIfAbsent(windows.getKey(), t -> new SortedPackedIntervalRTree());
+          for (double[] window : windows.getValue()) {
+            intervalTree.insert(window[0], window[1], subscription);
+          }
+        }
+      }
+
+      size = all.size();
+
+      if (spatialSubscriptions.isEmpty()) {
+        spatialIndex = null;
+      } else {
+        tree.build();
+        spatialIndex = tree;
+      }
+
+      // The interval trees are built lazily on their first query; query them once here so they
+      // are fully built before the snapshot is shared between threads.
+      temporalIndex.values().forEach(intervalTree -> intervalTree.query(0, 0, item -> {}));
+    }
+
+    Set<EventHandler> allHandlers() {
+      Set<EventHandler> handlers = new LinkedHashSet<>();
+      for (IndexedSubscription subscription : all) {
+        handlers.add(subscription.handler);
+      }
+      return handlers;
+    }
+  }
+}
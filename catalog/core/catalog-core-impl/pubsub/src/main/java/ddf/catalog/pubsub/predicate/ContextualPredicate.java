@@ -16,9 +16,9 @@
 import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluationCriteria;
 import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluationCriteriaImpl;
 import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.criteria.contextual.ContextualIndex;
 import ddf.catalog.pubsub.criteria.contextual.ContextualTokenizer;
 import ddf.catalog.pubsub.internal.PubSubConstants;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
@@ -26,7 +26,6 @@
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.lucene.queryParser.ParseException;
-import org.apache.lucene.store.Directory;
 import org.osgi.service.event.Event;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -235,44 +234,31 @@ public boolean matches(Event properties) {
       return true;
     }
 
-    // If predicate specified one or more text paths, then extract the entry's metadata from the
-    // Event properties and
-    // pass it and the text path(s) to the evaluation criteria (which will build a Lucene index
-    // on the metadata using the
-    // text paths)
-    if (this.textPaths != null && !this.textPaths.isEmpty()) {
-      LOGGER.debug("creating criteria with textPaths and metadata document");
-      try {
-        cec =
-            new ContextualEvaluationCriteriaImpl(
-                searchPhrase,
-                fuzzy,
-                caseSensitiveSearch,
-                this.textPaths.toArray(new String[this.textPaths.size()]),
-                (String) contextualMap.get("METADATA"));
-      } catch (IOException e) {
-        LOGGER.debug("IO exception during context evaluation", e);
-        return false;
-      }
+    // If predicate specified one or more text paths, then the entry's contextual index extracts
+    // and indexes the text selected by those paths; otherwise the entry's entire metadata is
+    // searched per the default XPath expressions. Either selection is indexed at most once per
+    // event, no matter how many subscriptions search it.
+    ContextualIndex index = (ContextualIndex) contextualMap.get("INDEX");
+    if (index == null) {
+      index = new ContextualIndex(metadata);
+    }
 
-      // This predicate has no text paths specified, so can use default Lucene search index, which
-      // indexed the entry's entire metadata
-      // per the default XPath expressions in ContextualEvaluator, from the event's properties
-      // data
-    } else {
-      LOGGER.debug("using default Lucene search index for metadata");
+    if (this.textPaths != null && !this.textPaths.isEmpty()) {
+      LOGGER.debug("creating criteria with textPaths and contextual index");
       cec =
           new ContextualEvaluationCriteriaImpl(
               searchPhrase,
               fuzzy,
               caseSensitiveSearch,
-              (Directory) contextualMap.get("DEFAULT_INDEX"));
+              this.textPaths.toArray(new String[this.textPaths.size()]),
+              index);
+    } else {
+      LOGGER.debug("using default contextual index for metadata");
+      cec = new ContextualEvaluationCriteriaImpl(searchPhrase, fuzzy, caseSensitiveSearch, index);
     }
 
     try {
       return ContextualEvaluator.evaluate(cec);
-    } catch (IOException e) {
-      LOGGER.debug("IO Exception evaluating context criteria", e);
     } catch (ParseException e) {
       LOGGER.debug("Parse Exception evaluating context criteria", e);
     }
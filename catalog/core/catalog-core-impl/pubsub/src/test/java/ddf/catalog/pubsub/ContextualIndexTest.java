@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.isEmptyString;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.pubsub.criteria.contextual.ContextualIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.TermQuery;
+import org.junit.Test;
+
+public class ContextualIndexTest {
+
+  private static final String[] KEYWORD_PATHS = new String[] {"//keyword/@value"};
+
+  @Test
+  public void testDefaultSelectorsMatchCaseInsensitively() {
+    ContextualIndex index = new ContextualIndex(TestDataLibrary.getDogEntry());
+
+    assertThat(index.matches(new TermQuery(new Term("Resource", "dog")), null, false), is(true));
+    assertThat(index.matches(new TermQuery(new Term("Resource", "cat")), null, false), is(false));
+  }
+
+  @Test
+  public void testCaseSensitiveIndex() {
+    ContextualIndex index = new ContextualIndex(TestDataLibrary.getDogEntry());
+
+    assertThat(index.matches(new TermQuery(new Term("cs_Resource", "Dog")), null, true), is(true));
+    assertThat(index.matches(new TermQuery(new Term("cs_Resource", "dog")), null, true), is(false));
+  }
+
+  @Test
+  public void testTextPathsSelectExcludedElements() {
+    ContextualIndex index = new ContextualIndex(TestDataLibrary.getDogEntry());
+    TermQuery query = new TermQuery(new Term("Resource", "exercise"));
+
+    assertThat(index.matches(query, null, false), is(false));
+    assertThat(index.matches(query, KEYWORD_PATHS, false), is(true));
+  }
+
+  @Test
+  public void testIndexableTextIsExtractedOnce() {
+    ContextualIndex index = new ContextualIndex(TestDataLibrary.getDogEntry());
+
+    String text = index.getIndexableText(KEYWORD_PATHS);
+
+    assertThat(text.trim(), is("exercise"));
+    assertThat(index.getIndexableText(KEYWORD_PATHS.clone()), sameInstance(text));
+  }
+
+  @Test
+  public void testConcurrentExtraction() throws Exception {
+    ContextualIndex index = new ContextualIndex(TestDataLibrary.getDogEntry());
+    List<Callable<String>> extractions = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      // Distinct selectors so that every task extracts from the document
+      String[] selectors = {"//keyword/@value", "//missing" + i};
+      extractions.add(() -> index.getIndexableText(selectors).trim());
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<String> texts = new ArrayList<>();
+    try {
+      for (Future<String> text : executor.invokeAll(extractions)) {
+        texts.add(text.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(texts, everyItem(is("exercise")));
+  }
+
+  @Test
+  public void testNullMetadata() {
+    ContextualIndex index = new ContextualIndex(null);
+
+    assertThat(index.getIndexableText(null), isEmptyString());
+    assertThat(index.matches(new TermQuery(new Term("Resource", "dog")), null, false), is(false));
+  }
+}
@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.event.BatchDeliveryMethod;
+import ddf.catalog.pubsub.internal.DeliveryProcessor;
+import ddf.catalog.pubsub.internal.DeliveryScheduler;
+import ddf.catalog.pubsub.internal.DeliveryScheduler.SubscriptionQueue;
+import ddf.catalog.pubsub.internal.PubSubConstants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.event.Event;
+
+public class DeliverySchedulerTest {
+
+  private DeliveryScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    scheduler = new DeliveryScheduler();
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testQueuedEventsDeliveredInOrderInBatches() throws Exception {
+    scheduler.setBatchSize(2);
+    BlockingDeliverer deliverer = new BlockingDeliverer(5);
+    SubscriptionQueue queue = scheduler.register("subscription", deliverer);
+
+    offer(queue, "1");
+    deliverer.awaitStarted();
+    offer(queue, "2", "3", "4", "5");
+    deliverer.release();
+
+    deliverer.await();
+    assertThat(deliverer.ids(), contains("1", "2", "3", "4", "5"));
+    assertThat(deliverer.batchSizes, contains(1, 2, 2));
+  }
+
+  @Test
+  public void testDropOldestWhenQueueIsFull() throws Exception {
+    scheduler.setQueueSize(2);
+    scheduler.setOverflowPolicy("drop_oldest");
+    BlockingDeliverer deliverer = new BlockingDeliverer(3);
+    SubscriptionQueue queue = scheduler.register("subscription", deliverer);
+
+    offer(queue, "1");
+    deliverer.awaitStarted();
+    assertThat(queue.offer(event("2")), is(true));
+    assertThat(queue.offer(event("3")), is(true));
+    assertThat(queue.offer(event("4")), is(true));
+    deliverer.release();
+
+    deliverer.await();
+    assertThat(deliverer.ids(), contains("1", "3", "4"));
+  }
+
+  @Test
+  public void testDropNewestWhenQueueIsFull() throws Exception {
+    scheduler.setQueueSize(2);
+    scheduler.setOverflowPolicy("DROP_NEWEST");
+    BlockingDeliverer deliverer = new BlockingDeliverer(3);
+    SubscriptionQueue queue = scheduler.register("subscription", deliverer);
+
+    offer(queue, "1");
+    deliverer.awaitStarted();
+    assertThat(queue.offer(event("2")), is(true));
+    assertThat(queue.offer(event("3")), is(true));
+    assertThat(queue.offer(event("4")), is(false));
+    deliverer.release();
+
+    deliverer.await();
+    assertThat(deliverer.ids(), contains("1", "2", "3"));
+  }
+
+  @Test
+  public void testSlowSubscriptionDoesNotDelayOthers() throws Exception {
+    scheduler.setThreads(2);
+    BlockingDeliverer slow = new BlockingDeliverer(1);
+    BlockingDeliverer fast = new BlockingDeliverer(3);
+    fast.release();
+    SubscriptionQueue slowQueue = scheduler.register("slow", slow);
+    SubscriptionQueue fastQueue = scheduler.register("fast", fast);
+
+    offer(slowQueue, "1");
+    slow.awaitStarted();
+    offer(fastQueue, "1", "2", "3");
+
+    fast.await();
+    assertThat(fast.ids(), contains("1", "2", "3"));
+    slow.release();
+    slow.await();
+  }
+
+  @Test
+  public void testUnregisteredQueueRejectsEvents() {
+    SubscriptionQueue queue = scheduler.register("subscription", events -> {});
+    scheduler.unregister("subscription");
+
+    assertThat(queue.offer(event("1")), is(false));
+  }
+
+  @Test
+  public void testBatchDeliveryMethodReceivesRunsOfOperations() {
+    RecordingBatchDeliveryMethod deliveryMethod = new RecordingBatchDeliveryMethod();
+    DeliveryProcessor processor =
+        new DeliveryProcessor(new MockSubscription(null, deliveryMethod), Collections.emptyList());
+
+    processor.process(
+        Arrays.asList(
+            event("1", PubSubConstants.CREATE),
+            event("2", PubSubConstants.CREATE),
+            event("3", PubSubConstants.UPDATE),
+            event("4", PubSubConstants.DELETE),
+            event("5", PubSubConstants.DELETE)));
+
+    assertThat(deliveryMethod.calls, contains("created[1, 2]", "updated(3)", "deleted[4, 5]"));
+  }
+
+  private static void offer(SubscriptionQueue queue, String... ids) {
+    for (String id : ids) {
+      assertThat(queue.offer(event(id)), is(true));
+    }
+  }
+
+  private static Event event(String id) {
+    return event(id, PubSubConstants.CREATE);
+  }
+
+  private static Event event(String id, String operation) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
+    properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+    return new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties);
+  }
+
+  /** Records delivered events, holding up deliveries until it is released. */
+  private static class BlockingDeliverer implements Consumer<List<Event>> {
+
+    private final List<Event> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private final CountDownLatch done;
+
+    BlockingDeliverer(int expectedEvents) {
+      done = new CountDownLatch(expectedEvents);
+    }
+
+    @Override
+    public void accept(List<Event> events) {
+      started.countDown();
+      try {
+        released.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      batchSizes.add(events.size());
+      delivered.addAll(events);
+      events.forEach(event -> done.countDown());
+    }
+
+    void release() {
+      released.countDown();
+    }
+
+    void awaitStarted() throws InterruptedException {
+      assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+    void await() throws InterruptedException {
+      assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+    List<String> ids() {
+      synchronized (delivered) {
+        return delivered.stream()
+            .map(event -> ((Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY)).getId())
+            .collect(Collectors.toList());
+      }
+    }
+  }
+
+  private static class RecordingBatchDeliveryMethod extends MockDeliveryMethod
+      implements BatchDeliveryMethod {
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Override
+    public void created(List<Metacard> newMetacards) {
+      calls.add("created" + ids(newMetacards));
+    }
+
+    @Override
+    public void updatedHit(Metacard newMetacard, Metacard oldMetacard) {
+      calls.add("updated(" + newMetacard.getId() + ")");
+    }
+
+    @Override
+    public void updatedHit(List<Metacard> newMetacards, List<Metacard> oldMetacards) {
+      calls.add("updated" + ids(newMetacards));
+    }
+
+    @Override
+    public void deleted(List<Metacard> oldMetacards) {
+      calls.add("deleted" + ids(oldMetacards));
+    }
+
+    private static List<String> ids(List<Metacard> metacards) {
+      return metacards.stream().map(Metacard::getId).collect(Collectors.toList());
+    }
+  }
+}
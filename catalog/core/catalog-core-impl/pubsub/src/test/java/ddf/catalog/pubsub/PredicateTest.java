@@ -26,7 +26,7 @@
 import ddf.catalog.data.types.Core;
 import ddf.catalog.pubsub.criteria.contenttype.ContentTypeEvaluationCriteriaImpl;
 import ddf.catalog.pubsub.criteria.contenttype.ContentTypeEvaluator;
-import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.criteria.contextual.ContextualIndex;
 import ddf.catalog.pubsub.criteria.contextual.ContextualTokenizer;
 import ddf.catalog.pubsub.criteria.geospatial.GeospatialEvaluationCriteria;
 import ddf.catalog.pubsub.criteria.geospatial.GeospatialEvaluationCriteriaImpl;
@@ -51,7 +51,6 @@
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
 import org.apache.commons.lang.StringEscapeUtils;
-import org.apache.lucene.store.Directory;
 import org.geotools.filter.FilterTransformer;
 import org.junit.Test;
 import org.locationtech.jts.geom.Geometry;
@@ -295,9 +294,8 @@ public void testContentTypeFilter() throws Exception {
   }
 
   private Map<String, Object> constructContextualMap(MetacardImpl metacard) throws IOException {
-    Directory index = ContextualEvaluator.buildIndex(metacard.getMetadata());
     Map<String, Object> contextualMap = new HashMap<>();
-    contextualMap.put("DEFAULT_INDEX", index);
+    contextualMap.put("INDEX", new ContextualIndex(metacard.getMetadata()));
     contextualMap.put("METADATA", metacard.getMetadata());
     return contextualMap;
   }
@@ -1109,8 +1107,7 @@ public void testContextualQuery() throws Exception {
     contextualMap.clear();
     properties.clear();
     metacard.setMetadata(TestDataLibrary.getDogEntry());
-    Directory index1 = ContextualEvaluator.buildIndex(metacard.getMetadata());
-    contextualMap.put("DEFAULT_INDEX", index1);
+    contextualMap.put("INDEX", new ContextualIndex(metacard.getMetadata()));
     contextualMap.put("METADATA", metacard.getMetadata());
     properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
     properties.put(PubSubConstants.HEADER_ID_KEY, metacard.getId());
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.criteria.geospatial.SpatialOperator;
+import ddf.catalog.pubsub.internal.PubSubConstants;
+import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+
+public class SubscriptionIndexTest {
+
+  private static final String POLYGON = "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))";
+
+  private final EventHandler nitfHandler = event -> {};
+
+  private final EventHandler geoHandler = event -> {};
+
+  private final EventHandler temporalHandler = event -> {};
+
+  private final EventHandler contextualHandler = event -> {};
+
+  private final EventHandler nitfOrGeoHandler = event -> {};
+
+  private SubscriptionIndex index;
+
+  @Before
+  public void setUp() {
+    index = new SubscriptionIndex();
+    index.add("nitf", new ContentTypePredicate("nitf", null), nitfHandler);
+    index.add(
+        "geo",
+        SubscriptionFilterVisitor.and(
+            new GeospatialPredicate(POLYGON, SpatialOperator.OVERLAPS.name(), 0.0),
+            new ContextualPredicate("test", false, false, null)),
+        geoHandler);
+    index.add(
+        "temporal",
+        new TemporalPredicate(new Date(1000), new Date(2000), DateType.EFFECTIVE),
+        temporalHandler);
+    index.add("contextual", new ContextualPredicate("test", false, false, null), contextualHandler);
+    index.add(
+        "nitfOrGeo",
+        SubscriptionFilterVisitor.or(
+            new ContentTypePredicate("nitf", null),
+            new GeospatialPredicate(POLYGON, SpatialOperator.OVERLAPS.name(), 0.0)),
+        nitfOrGeoHandler);
+  }
+
+  @Test
+  public void testOnlyUnindexedSubscriptionsForNonMatchingEvent() {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setLocation("POINT (50 50)");
+    metacard.setEffectiveDate(new Date(5000));
+
+    assertThat(index.getCandidates(event(metacard, "pdf")), containsInAnyOrder(contextualHandler));
+  }
+
+  @Test
+  public void testContentTypeBucket() {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setLocation("POINT (50 50)");
+    metacard.setEffectiveDate(new Date(5000));
+
+    assertThat(
+        index.getCandidates(event(metacard, "nitf")),
+        containsInAnyOrder(contextualHandler, nitfHandler, nitfOrGeoHandler));
+  }
+
+  @Test
+  public void testGeospatialIndex() {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setLocation("POINT (5 5)");
+    metacard.setEffectiveDate(new Date(5000));
+
+    assertThat(
+        index.getCandidates(event(metacard, "pdf")),
+        containsInAnyOrder(contextualHandler, geoHandler, nitfOrGeoHandler));
+  }
+
+  @Test
+  public void testTemporalIndex() {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setLocation("POINT (50 50)");
+    metacard.setEffectiveDate(new Date(1500));
+
+    assertThat(
+        index.getCandidates(event(metacard, "pdf")),
+        containsInAnyOrder(contextualHandler, temporalHandler));
+  }
+
+  @Test
+  public void testMissingLocationAndDateAreCandidates() {
+    assertThat(
+        index.getCandidates(event(new MetacardImpl(), "pdf")),
+        containsInAnyOrder(contextualHandler, geoHandler, temporalHandler, nitfOrGeoHandler));
+  }
+
+  @Test
+  public void testDeletedEntryMatchesAllSubscriptions() {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(PubSubConstants.HEADER_OPERATION_KEY, PubSubConstants.DELETE);
+    properties.put(PubSubConstants.HEADER_ENTRY_KEY, new MetacardImpl());
+    Map<String, Object> contextualMap = new HashMap<>();
+    contextualMap.put("METADATA", PubSubConstants.METADATA_DELETED);
+    properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
+
+    assertThat(
+        index.getCandidates(new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties)),
+        containsInAnyOrder(
+            nitfHandler, geoHandler, temporalHandler, contextualHandler, nitfOrGeoHandler));
+  }
+
+  @Test
+  public void testRemoveSubscription() {
+    index.remove("contextual");
+    index.remove("temporal");
+
+    assertThat(index.size(), is(3));
+    assertThat(
+        index.getCandidates(event(new MetacardImpl(), "pdf")),
+        containsInAnyOrder(geoHandler, nitfOrGeoHandler));
+
+    index.remove("nitf");
+    index.remove("geo");
+    index.remove("nitfOrGeo");
+    assertThat(index.isEmpty(), is(true));
+    assertThat(index.getCandidates(event(new MetacardImpl(), "nitf")), is(empty()));
+  }
+
+  private Event event(MetacardImpl metacard, String contentType) {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(PubSubConstants.HEADER_OPERATION_KEY, PubSubConstants.CREATE);
+    properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+    properties.put(PubSubConstants.HEADER_CONTENT_TYPE_KEY, contentType + ",");
+    return new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties);
+  }
+}
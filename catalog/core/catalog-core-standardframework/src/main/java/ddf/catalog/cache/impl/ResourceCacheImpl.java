@@ -14,24 +14,174 @@
 package ddf.catalog.cache.impl;
 
 import ddf.catalog.cache.ResourceCacheInterface;
+import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.data.ReliableResource;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Disk backed product cache. Each cached product is stored as its own file, named after its cache
+ * key, in a subdirectory of the configured product cache directory that only the cache writes to,
+ * while a small in-memory index maps the cache keys to the {@link ReliableResource}s describing
+ * those files. The total size of the cached products is bounded by {@link
+ * #setMaxCacheDirSizeMegabytes(long)}; when that limit is exceeded the least recently used entries
+ * are evicted and their files deleted.
+ *
+ * <p>The index is not persisted. Product files left in the cache directory by a previous run cannot
+ * be validated against their metacards, so they are removed from that subdirectory when the cache
+ * directory is set. Other files in the configured directory are never touched.
+ *
+ * <p>Resources returned by {@link #getValid(String, Metacard)} already have their product file
+ * open, so a product evicted while a client is still reading it is not removed from under that
+ * client.
+ */
 public class ResourceCacheImpl implements ResourceCacheInterface {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResourceCacheImpl.class);
+
+  private static final String KARAF_HOME = "karaf.home";
+
+  private static final String PRODUCT_CACHE_NAME = "Product_Cache";
+
+  private static final String DEFAULT_PRODUCT_CACHE_DIRECTORY =
+      "data" + File.separator + PRODUCT_CACHE_NAME;
+
+  private static final String PRODUCT_FILES_DIRECTORY = "products";
+
+  private static final long BYTES_IN_MEGABYTES = 1024L * 1024L;
+
+  private static final long DEFAULT_MAX_CACHE_DIR_SIZE_MEGABYTES = 10240L;
+
+  /** Cached entries in least recently used order, guarded by {@code this}. */
+  private final LinkedHashMap<String, ReliableResource> cache =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Map<String, ReliableResource> pendingCache = new ConcurrentHashMap<>();
+
+  /** Completed when the product being cached for a pending key is put in or dropped from cache. */
+  private final Map<String, CompletableFuture<Void>> pendingCompletions = new ConcurrentHashMap<>();
+
+  private String productCacheDirectory;
+
+  private long maxCacheDirSizeBytes = DEFAULT_MAX_CACHE_DIR_SIZE_MEGABYTES * BYTES_IN_MEGABYTES;
+
+  private long cacheDirSizeBytes = 0L;
+
   public ResourceCacheImpl() {}
 
   public void teardownCache() {
-    // no-op
+    synchronized (this) {
+      cache.clear();
+      cacheDirSizeBytes = 0L;
+    }
+    pendingCache.clear();
+    pendingCompletions.values().forEach(completion -> completion.complete(null));
+    pendingCompletions.clear();
   }
 
+  /**
+   * @return the directory cached product files are written to, a subdirectory of the configured
+   *     product cache directory that is owned by the cache
+   */
   public String getProductCacheDirectory() {
-    return null;
+    return productCacheDirectory;
   }
 
+  /**
+   * Sets the directory the cached products are written to. The products are stored in a {@code
+   * products} subdirectory of it, so any other files in the directory are left alone. If the
+   * directory is blank or cannot be created, the default {@code <karaf.home>/data/Product_Cache}
+   * directory is used instead. If the directory changes, any entries cached in the previous
+   * directory are dropped from the index.
+   *
+   * @param productCacheDirectory directory to store the cached products in
+   */
   public void setProductCacheDirectory(String productCacheDirectory) {
-    // no-op
+    String newProductCacheDirectory = null;
+
+    if (StringUtils.isNotBlank(productCacheDirectory)) {
+      newProductCacheDirectory =
+          getUsableDirectory(
+              FilenameUtils.concat(
+                  FilenameUtils.normalize(productCacheDirectory), PRODUCT_FILES_DIRECTORY));
+    }
+
+    if (newProductCacheDirectory == null) {
+      String karafHome = System.getProperty(KARAF_HOME);
+      if (karafHome != null) {
+        newProductCacheDirectory =
+            getUsableDirectory(
+                new File(
+                        new File(karafHome, DEFAULT_PRODUCT_CACHE_DIRECTORY),
+                        PRODUCT_FILES_DIRECTORY)
+                    .getAbsolutePath());
+      }
+    }
+
+    if (newProductCacheDirectory == null) {
+      LOGGER.info(
+          "Unable to use product cache directory [{}] or the default product cache directory. Products will not be cached.",
+          productCacheDirectory);
+      return;
+    }
+
+    synchronized (this) {
+      if (newProductCacheDirectory.equals(this.productCacheDirectory)) {
+        return;
+      }
+      LOGGER.debug("Setting product cache directory to [{}]", newProductCacheDirectory);
+      cache.clear();
+      cacheDirSizeBytes = 0L;
+      this.productCacheDirectory = newProductCacheDirectory;
+    }
+    deleteUntrackedFiles(newProductCacheDirectory);
+  }
+
+  public long getMaxCacheDirSizeMegabytes() {
+    return maxCacheDirSizeBytes / BYTES_IN_MEGABYTES;
+  }
+
+  /**
+   * Sets the maximum total size of the cached products. Entries are evicted, least recently used
+   * first, until the cache fits within the new limit.
+   *
+   * @param maxCacheDirSizeMegabytes maximum size of the product cache directory in megabytes
+   */
+  public void setMaxCacheDirSizeMegabytes(long maxCacheDirSizeMegabytes) {
+    if (maxCacheDirSizeMegabytes < 0) {
+      throw new IllegalArgumentException("Max cache directory size must not be negative");
+    }
+    LOGGER.debug("Setting max product cache directory size to {} MB", maxCacheDirSizeMegabytes);
+    List<ReliableResource> evicted;
+    synchronized (this) {
+      this.maxCacheDirSizeBytes = maxCacheDirSizeMegabytes * BYTES_IN_MEGABYTES;
+      evicted = evict();
+    }
+    evicted.forEach(this::deleteProduct);
+  }
+
+  /** @return the total size, in bytes, of the products currently in the cache */
+  public synchronized long getCacheDirSizeBytes() {
+    return cacheDirSizeBytes;
   }
 
   /**
@@ -43,7 +193,7 @@ public void setProductCacheDirectory(String productCacheDirectory) {
    */
   @Override
   public boolean isPending(String key) {
-    return false;
+    return key != null && pendingCache.containsKey(key);
   }
 
   /**
@@ -54,32 +204,160 @@ public boolean isPending(String key) {
    */
   @Override
   public void put(ReliableResource reliableResource) {
-    // no-op
+    if (reliableResource == null || reliableResource.getKey() == null) {
+      return;
+    }
+
+    String key = reliableResource.getKey();
+    pendingCache.remove(key);
+
+    if (!reliableResource.hasProduct()) {
+      LOGGER.debug("Product file for cache key [{}] does not exist. Not caching it.", key);
+      completePending(key);
+      return;
+    }
+
+    reliableResource.setLastTouchedMillis(System.currentTimeMillis());
+    long size = getProductSize(reliableResource);
+
+    List<ReliableResource> evicted = new ArrayList<>();
+    synchronized (this) {
+      ReliableResource previous = cache.put(key, reliableResource);
+      if (previous != null) {
+        cacheDirSizeBytes -= getProductSize(previous);
+        if (!Objects.equals(previous.getFilePath(), reliableResource.getFilePath())) {
+          evicted.add(previous);
+        }
+      }
+      cacheDirSizeBytes += size;
+      evicted.addAll(evict());
+    }
+    completePending(key);
+    evicted.forEach(this::deleteProduct);
+
+    LOGGER.debug("Added cache key [{}] ({} bytes) to the product cache", key, size);
   }
 
   @Override
   public void removePendingCacheEntry(String cacheKey) {
-    // no-op
+    if (cacheKey == null) {
+      return;
+    }
+    if (pendingCache.remove(cacheKey) == null) {
+      LOGGER.debug("Did not find pending cache entry with key [{}]", cacheKey);
+    }
+    completePending(cacheKey);
   }
 
   @Override
   public void addPendingCacheEntry(ReliableResource reliableResource) {
-    // no-op
+    if (reliableResource == null || reliableResource.getKey() == null) {
+      return;
+    }
+    pendingCompletions.computeIfAbsent(reliableResource.getKey(), k -> new CompletableFuture<>());
+    pendingCache.put(reliableResource.getKey(), reliableResource);
+  }
+
+  /**
+   * Waits for a product that is currently being cached to finish, then returns it if it is valid.
+   * This lets concurrent requests for the same product share the download that is caching it
+   * instead of each retrieving the product from its source.
+   *
+   * @param key cache key of the product
+   * @param latestMetacard the most recent metacard for the product
+   * @param timeoutMillis how long to wait for the pending product to be cached
+   * @return Resource, {@code null} if the product was not cached within the timeout or is not valid
+   */
+  public Resource getValidWhenCached(String key, Metacard latestMetacard, long timeoutMillis) {
+    CompletableFuture<Void> pendingCompletion = key == null ? null : pendingCompletions.get(key);
+    if (pendingCompletion != null) {
+      try {
+        pendingCompletion.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        LOGGER.debug("Product for cache key [{}] was not cached within {} ms", key, timeoutMillis);
+        return null;
+      } catch (ExecutionException e) {
+        return null;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+    }
+    return getValid(key, latestMetacard);
+  }
+
+  private void completePending(String key) {
+    CompletableFuture<Void> pendingCompletion = pendingCompletions.remove(key);
+    if (pendingCompletion != null) {
+      pendingCompletion.complete(null);
+    }
   }
 
   /**
+   * Returns the cached product for the key if it is still valid. The product file of the returned
+   * resource is opened before this method returns, so the product can still be read if the entry is
+   * evicted afterwards.
+   *
    * @param key
    * @return Resource, {@code null} if not found.
    */
   @Override
   public Resource getValid(String key, Metacard latestMetacard) {
+    ReliableResource cachedResource = getValidEntry(key, latestMetacard);
+    if (cachedResource == null) {
+      return null;
+    }
+
+    InputStream product;
+    synchronized (this) {
+      // Evicted product files are only deleted after they have been removed from the index while
+      // holding this lock, so the file cannot be deleted before it is opened here.
+      if (cache.get(key) != cachedResource) {
+        LOGGER.debug("Cache key [{}] was evicted before its product could be opened", key);
+        return null;
+      }
+      product = cachedResource.getInputStream();
+    }
+
+    if (product == null) {
+      return null;
+    }
+    return new OpenedReliableResource(cachedResource, product);
+  }
+
+  private ReliableResource getValidEntry(String key, Metacard latestMetacard) {
     if (key == null) {
       throw new IllegalArgumentException("Must specify non-null key");
     }
     if (latestMetacard == null) {
       throw new IllegalArgumentException("Must specify non-null metacard");
     }
-    return null;
+
+    ReliableResource cachedResource;
+    synchronized (this) {
+      cachedResource = cache.get(key);
+    }
+
+    if (cachedResource == null) {
+      LOGGER.debug("No product found in cache for key [{}]", key);
+      return null;
+    }
+
+    if (!cachedResource.hasProduct()) {
+      LOGGER.debug(
+          "Product file [{}] for cache key [{}] is missing. Removing cache entry.",
+          cachedResource.getFilePath(),
+          key);
+      remove(cachedResource);
+      return null;
+    }
+
+    if (!validateCacheEntry(cachedResource, latestMetacard)) {
+      return null;
+    }
+
+    cachedResource.setLastTouchedMillis(System.currentTimeMillis());
+    return cachedResource;
   }
 
   /**
@@ -90,13 +368,17 @@ public Resource getValid(String key, Metacard latestMetacard) {
    */
   @Override
   public boolean containsValid(String key, Metacard latestMetacard) {
-    return false;
+    if (key == null || latestMetacard == null) {
+      return false;
+    }
+    return getValidEntry(key, latestMetacard) != null;
   }
 
   /**
    * Compares the {@link Metacard} in a {@link ReliableResource} pulled from cache with a Metacard
    * obtained directly from the Catalog to ensure they are the same. Typically used to determine if
-   * the cache entry is out-of-date based on the Catalog having an updated Metacard.
+   * the cache entry is out-of-date based on the Catalog having an updated Metacard. Out-of-date
+   * entries are removed from the cache and their product files deleted.
    *
    * @param cachedResource
    * @param latestMetacard
@@ -108,6 +390,139 @@ protected boolean validateCacheEntry(ReliableResource cachedResource, Metacard l
       throw new IllegalArgumentException(
           "Neither the cachedResource nor the metacard retrieved from the catalog can be null.");
     }
+
+    Metacard cachedMetacard = cachedResource.getMetacard();
+
+    if (cachedMetacard != null
+        && Objects.equals(cachedMetacard.getId(), latestMetacard.getId())
+        && Objects.equals(cachedMetacard.getModifiedDate(), latestMetacard.getModifiedDate())
+        && Objects.equals(
+            getAttributeValue(cachedMetacard, Metacard.CHECKSUM),
+            getAttributeValue(latestMetacard, Metacard.CHECKSUM))) {
+      return true;
+    }
+
+    LOGGER.debug(
+        "Cached product for key [{}] is out of date with the metacard in the catalog. Removing it from the cache.",
+        cachedResource.getKey());
+    remove(cachedResource);
     return false;
   }
+
+  private Object getAttributeValue(Metacard metacard, String attributeName) {
+    Attribute attribute = metacard.getAttribute(attributeName);
+    return attribute == null ? null : attribute.getValue();
+  }
+
+  private void remove(ReliableResource cachedResource) {
+    boolean removed;
+    synchronized (this) {
+      removed = cache.remove(cachedResource.getKey(), cachedResource);
+      if (removed) {
+        cacheDirSizeBytes -= getProductSize(cachedResource);
+      }
+    }
+    deleteProduct(cachedResource);
+  }
+
+  /**
+   * Removes the least recently used entries from the index until the cache fits within its maximum
+   * size. Must be called while holding the lock on {@code this}; the returned entries' product
+   * files should be deleted after the lock is released.
+   */
+  private List<ReliableResource> evict() {
+    List<ReliableResource> evicted = new ArrayList<>();
+    Iterator<ReliableResource> iterator = cache.values().iterator();
+    while (cacheDirSizeBytes > maxCacheDirSizeBytes && iterator.hasNext()) {
+      ReliableResource eldest = iterator.next();
+      iterator.remove();
+      cacheDirSizeBytes -= getProductSize(eldest);
+      evicted.add(eldest);
+      LOGGER.debug("Evicting cache key [{}] from the product cache", eldest.getKey());
+    }
+    return evicted;
+  }
+
+  private long getProductSize(ReliableResource reliableResource) {
+    if (reliableResource.getSize() >= 0) {
+      return reliableResource.getSize();
+    }
+    return reliableResource.getFilePath() == null
+        ? 0L
+        : new File(reliableResource.getFilePath()).length();
+  }
+
+  private void deleteProduct(ReliableResource reliableResource) {
+    if (reliableResource.getFilePath() == null || isPending(reliableResource.getKey())) {
+      return;
+    }
+    File product = new File(reliableResource.getFilePath());
+    if (product.exists() && !product.delete()) {
+      LOGGER.debug("Unable to delete cached product file [{}]", product.getAbsolutePath());
+    }
+  }
+
+  private void deleteUntrackedFiles(String directory) {
+    File[] files = new File(directory).listFiles(File::isFile);
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      if (!isPending(file.getName())) {
+        try {
+          Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+          LOGGER.debug("Unable to delete stale cached product file [{}]", file, e);
+        }
+      }
+    }
+  }
+
+  private String getUsableDirectory(String path) {
+    if (path == null) {
+      return null;
+    }
+    File directory = new File(path);
+    if ((directory.isDirectory() || directory.mkdirs())
+        && directory.canRead()
+        && directory.canWrite()) {
+      return directory.getAbsolutePath();
+    }
+    LOGGER.debug("Unable to create or access product cache directory [{}]", path);
+    return null;
+  }
+
+  /**
+   * A snapshot of a cached product whose product file was opened when it was retrieved from the
+   * cache. The first call to {@link #getInputStream()} returns that stream; later calls open the
+   * file again.
+   */
+  private static class OpenedReliableResource extends ReliableResource {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient InputStream product;
+
+    OpenedReliableResource(ReliableResource cachedResource, InputStream product) {
+      super(
+          cachedResource.getKey(),
+          cachedResource.getFilePath(),
+          cachedResource.getMimeType(),
+          cachedResource.getName(),
+          cachedResource.getMetacard());
+      setSize(cachedResource.getSize());
+      setLastTouchedMillis(cachedResource.getLastTouchedMillis());
+      this.product = product;
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() {
+      if (product != null) {
+        InputStream opened = product;
+        product = null;
+        return opened;
+      }
+      return super.getInputStream();
+    }
+  }
 }
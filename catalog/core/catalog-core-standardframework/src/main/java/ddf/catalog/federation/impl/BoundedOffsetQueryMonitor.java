@@ -0,0 +1,393 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceProcessingDetails;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.ProcessingDetailsImpl;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.plugin.PostFederatedQueryPlugin;
+import ddf.catalog.plugin.PreFederatedQueryPlugin;
+import ddf.catalog.plugin.StopProcessingException;
+import ddf.catalog.source.Source;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Federates a query with an offset across several sources without fetching the whole window of
+ * {@code offset + pageSize - 1} results from every source.
+ *
+ * <p>Each source is queried in rounds of growing size. After every round the results fetched so far
+ * are ranked, and a source stops being queried once the last result it returned (its watermark)
+ * ranks at or below the last result of the window, since nothing it has left can make it into the
+ * window. Sources that return results out of order are never stopped early. The results fetched
+ * from each source are then handed to a {@link SortedQueryMonitor}, which runs the post-federated
+ * query plugins and merges them as if each source had returned them all at once.
+ */
+class BoundedOffsetQueryMonitor implements Runnable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BoundedOffsetQueryMonitor.class);
+
+  private final ExecutorService queryExecutorService;
+
+  private final List<Source> sources;
+
+  private final QueryRequest queryRequest;
+
+  private final QueryRequest windowQueryRequest;
+
+  private final QueryResponseImpl returnResults;
+
+  private final List<PreFederatedQueryPlugin> preQuery;
+
+  private final List<PostFederatedQueryPlugin> postQuery;
+
+  private final SortedQueryMonitorFactory sortedQueryMonitorFactory;
+
+  private final SourceScheduler sourceScheduler;
+
+  private final Comparator<Result> comparator;
+
+  private final long deadline;
+
+  /**
+   * @param queryRequest the original request, whose page size sets the size of the first round
+   * @param windowQueryRequest the request for the first {@code offset + pageSize - 1} results,
+   *     which is the most that will be fetched from any one source
+   */
+  BoundedOffsetQueryMonitor(
+      ExecutorService queryExecutorService,
+      List<Source> sources,
+      QueryRequest queryRequest,
+      QueryRequest windowQueryRequest,
+      QueryResponseImpl returnResults,
+      List<PreFederatedQueryPlugin> preQuery,
+      List<PostFederatedQueryPlugin> postQuery,
+      SortedQueryMonitorFactory sortedQueryMonitorFactory,
+      SourceScheduler sourceScheduler) {
+    this.queryExecutorService = queryExecutorService;
+    this.sources = sources;
+    this.queryRequest = queryRequest;
+    this.windowQueryRequest = windowQueryRequest;
+    this.returnResults = returnResults;
+    this.preQuery = preQuery;
+    this.postQuery = postQuery;
+    this.sortedQueryMonitorFactory = sortedQueryMonitorFactory;
+    this.sourceScheduler = sourceScheduler;
+    this.comparator = SortedQueryMonitor.createResultComparator(windowQueryRequest);
+    this.deadline = System.currentTimeMillis() + windowQueryRequest.getQuery().getTimeoutMillis();
+  }
+
+  @Override
+  public void run() {
+    int window = windowQueryRequest.getQuery().getPageSize();
+
+    List<SourceFetch> fetches =
+        sources.stream()
+            .filter(source -> source != null)
+            .map(SourceFetch::new)
+            .collect(Collectors.toList());
+
+    int firstRound =
+        Math.max(
+            queryRequest.getQuery().getPageSize(),
+            (window + fetches.size() - 1) / Math.max(1, fetches.size()));
+    fetches.forEach(fetch -> fetch.nextPageSize = Math.max(1, Math.min(firstRound, window)));
+
+    int rounds = 0;
+    List<SourceFetch> active = fetches;
+    while (!active.isEmpty()) {
+      rounds++;
+      if (!fetchRound(active)) {
+        break;
+      }
+      stopExcludedSources(fetches, active, window);
+      active = active.stream().filter(fetch -> !fetch.done).collect(Collectors.toList());
+    }
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(
+          "Fetched {} results from {} sources in {} rounds for a window of {}",
+          fetches.stream().mapToInt(fetch -> fetch.results.size()).sum(),
+          fetches.size(),
+          rounds,
+          window);
+    }
+
+    merge(fetches);
+  }
+
+  /**
+   * Queries every active source for its next page and waits for all of them.
+   *
+   * @return {@code false} if the query timed out or was interrupted
+   */
+  private boolean fetchRound(List<SourceFetch> active) {
+    CompletionService<SourceResponse> completionService =
+        new ExecutorCompletionService<>(queryExecutorService);
+    Map<Future<SourceResponse>, SourceFetch> pending = new HashMap<>();
+
+    for (SourceFetch fetch : active) {
+      QueryRequest sourceQueryRequest = fetch.nextRequest();
+      pending.put(
+          completionService.submit(sourceScheduler.query(fetch.source, sourceQueryRequest)), fetch);
+    }
+
+    while (!pending.isEmpty()) {
+      Future<SourceResponse> future;
+      try {
+        if (windowQueryRequest.getQuery().getTimeoutMillis() < 1) {
+          future = completionService.take();
+        } else {
+          future =
+              completionService.poll(
+                  Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failPending(pending, e);
+        return false;
+      }
+
+      if (future == null) {
+        failPending(pending, new TimeoutException());
+        return false;
+      }
+
+      SourceFetch fetch = pending.remove(future);
+      if (fetch == null) {
+        continue;
+      }
+
+      try {
+        fetch.add(future.get());
+      } catch (ExecutionException e) {
+        LOGGER.info(
+            "Couldn't get results from federated query for sourceId = {}", fetch.getId(), e);
+        fetch.fail(e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        fetch.fail(e);
+        failPending(pending, e);
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private void failPending(Map<Future<SourceResponse>, SourceFetch> pending, Exception e) {
+    pending.forEach(
+        (future, fetch) -> {
+          LOGGER.info("Search for {} did not complete", fetch.getId());
+          future.cancel(true);
+          fetch.fail(e);
+        });
+    pending.clear();
+  }
+
+  /**
+   * Stops the active sources whose watermark ranks at or below the last result of the window among
+   * all the results fetched so far, and sizes the next round of the others.
+   */
+  private void stopExcludedSources(
+      List<SourceFetch> fetches, List<SourceFetch> active, int window) {
+    Result windowEnd = null;
+    List<Result> fetched =
+        fetches.stream().flatMap(fetch -> fetch.results.stream()).collect(Collectors.toList());
+    if (fetched.size() >= window) {
+      fetched.sort(comparator);
+      windowEnd = fetched.get(window - 1);
+    }
+
+    for (SourceFetch fetch : active) {
+      if (fetch.done) {
+        continue;
+      }
+
+      if (windowEnd != null
+          && fetch.sorted
+          && comparator.compare(fetch.getWatermark(), windowEnd) >= 0) {
+        LOGGER.debug("Source {} cannot contribute to the requested page", fetch.getId());
+        fetch.done = true;
+        continue;
+      }
+
+      fetch.nextPageSize = Math.min(fetch.nextPageSize * 2, window - fetch.results.size());
+      if (fetch.nextPageSize <= 0) {
+        fetch.done = true;
+      }
+    }
+  }
+
+  /** Hands each source's results to a {@link SortedQueryMonitor} as a single response. */
+  private void merge(List<SourceFetch> fetches) {
+    CompletionService<SourceResponse> completed = new ExecutorCompletionService<>(Runnable::run);
+    Map<Future<SourceResponse>, QueryRequest> futures = new HashMap<>();
+    for (SourceFetch fetch : fetches) {
+      futures.put(completed.submit(fetch::toResponse), fetch.getWindowRequest());
+    }
+
+    sortedQueryMonitorFactory
+        .createMonitor(completed, futures, returnResults, windowQueryRequest, postQuery)
+        .run();
+  }
+
+  /** The results fetched so far from a single source. */
+  private class SourceFetch {
+
+    private final Source source;
+
+    private final List<Result> results = new ArrayList<>();
+
+    private final Set<SourceProcessingDetails> processingDetails = new HashSet<>();
+
+    private Map<String, Serializable> properties = new HashMap<>();
+
+    private QueryRequest firstRequest;
+
+    private long hits = 0;
+
+    private int nextPageSize;
+
+    private boolean sorted = true;
+
+    private boolean done = false;
+
+    private Exception failure;
+
+    SourceFetch(Source source) {
+      this.source = source;
+    }
+
+    String getId() {
+      return source.getId();
+    }
+
+    Result getWatermark() {
+      return results.get(results.size() - 1);
+    }
+
+    QueryRequest nextRequest() {
+      Query query = windowQueryRequest.getQuery();
+      QueryRequest sourceQueryRequest =
+          new QueryRequestImpl(
+              new QueryImpl(
+                  query,
+                  results.size() + 1,
+                  nextPageSize,
+                  query.getSortBy(),
+                  query.requestsTotalResultsCount(),
+                  query.getTimeoutMillis()),
+              windowQueryRequest.isEnterprise(),
+              Collections.singleton(source.getId()),
+              new HashMap<>(windowQueryRequest.getProperties()));
+
+      try {
+        for (PreFederatedQueryPlugin service : preQuery) {
+          try {
+            sourceQueryRequest = service.process(source, sourceQueryRequest);
+          } catch (PluginExecutionException e) {
+            LOGGER.info("Error executing PreFederatedQueryPlugin", e);
+          }
+        }
+      } catch (StopProcessingException e) {
+        LOGGER.info("Plugin stopped processing", e);
+      }
+
+      if (firstRequest == null) {
+        firstRequest = sourceQueryRequest;
+      }
+      return sourceQueryRequest;
+    }
+
+    void add(SourceResponse response) {
+      if (response == null) {
+        fail(new NullPointerException());
+        return;
+      }
+
+      List<Result> page = response.getResults() == null ? List.of() : response.getResults();
+      for (Result result : page) {
+        if (!results.isEmpty() && comparator.compare(getWatermark(), result) > 0) {
+          sorted = false;
+        }
+        results.add(result);
+      }
+
+      hits = response.getHits();
+      if (response.getProperties() != null) {
+        properties = response.getProperties();
+      }
+      if (response.getProcessingDetails() != null) {
+        processingDetails.addAll(response.getProcessingDetails());
+      }
+
+      if (page.size() < nextPageSize || (hits > 0 && results.size() >= hits)) {
+        done = true;
+      }
+    }
+
+    void fail(Exception e) {
+      failure = e;
+      done = true;
+    }
+
+    /** Returns the request that the combined results of this source answer. */
+    QueryRequest getWindowRequest() {
+      QueryRequest request = firstRequest == null ? windowQueryRequest : firstRequest;
+      return new QueryRequestImpl(
+          windowQueryRequest.getQuery(),
+          request.isEnterprise(),
+          Collections.singleton(source.getId()),
+          request.getProperties());
+    }
+
+    SourceResponse toResponse() throws Exception {
+      if (failure != null && results.isEmpty()) {
+        throw failure;
+      }
+
+      Set<SourceProcessingDetails> details = new HashSet<>(processingDetails);
+      if (failure != null) {
+        details.add(new ProcessingDetailsImpl(source.getId(), failure));
+      }
+      return new SourceResponseImpl(getWindowRequest(), properties, results, hits, details);
+    }
+  }
+}
@@ -41,6 +41,7 @@
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.Validate;
 import org.opengis.filter.sort.SortOrder;
 import org.slf4j.Logger;
@@ -96,8 +97,12 @@ public class SortedFederationStrategy implements FederationStrategy {
 
   private final ExecutorService queryExecutorService;
 
+  private final SourceScheduler sourceScheduler = new SourceScheduler();
+
   private int maxStartIndex;
 
+  private boolean boundedOffsetPaging = false;
+
   /**
    * Instantiates an {@code AbstractFederationStrategy} with the provided {@link ExecutorService}.
    *
@@ -158,8 +163,6 @@ public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
     final Map<String, Serializable> properties = Collections.synchronizedMap(new HashMap<>());
     final QueryResponseImpl queryResponseQueue = new QueryResponseImpl(queryRequest, properties);
 
-    Map<Future<SourceResponse>, QueryRequest> futures = new HashMap<>();
-
     Query modifiedQuery = getModifiedQuery(originalQuery, sources.size(), offset, pageSize);
     QueryRequest modifiedQueryRequest =
         new QueryRequestImpl(
@@ -168,6 +171,62 @@ public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
             queryRequest.getSourceIds(),
             queryRequest.getProperties());
 
+    if (boundedOffsetPaging && offset > 1 && sources.size() > 1) {
+      queryExecutorService.submit(
+          new QueryResponseRunnableMonitor(
+              new BoundedOffsetQueryMonitor(
+                  queryExecutorService,
+                  sources,
+                  queryRequest,
+                  modifiedQueryRequest,
+                  queryResponseQueue,
+                  preQuery,
+                  postQuery,
+                  sortedQueryMonitorFactory,
+                  sourceScheduler),
+              queryResponseQueue));
+    } else {
+      queryAllSources(sources, queryRequest, modifiedQueryRequest, queryResponseQueue);
+    }
+
+    QueryResponseImpl offsetResults = null;
+    // If there are offsets and more than one source, we have to get all the
+    // results back and then
+    // transfer them into a different Queue. That is what the
+    // OffsetResultHandler does.
+    if (offset > 1 && sources.size() > 1) {
+      offsetResults = new QueryResponseImpl(queryRequest, properties);
+      queryExecutorService.submit(
+          new QueryResponseRunnableMonitor(
+              new OffsetResultHandler(queryResponseQueue, offsetResults, pageSize, offset),
+              offsetResults));
+    }
+
+    QueryResponse queryResponse;
+    if (offset > 1 && sources.size() > 1) {
+      queryResponse = offsetResults;
+      LOGGER.debug("returning offsetResults");
+    } else {
+      queryResponse = queryResponseQueue;
+      LOGGER.debug("returning returnResults: {}", queryResponse);
+    }
+
+    LOGGER.debug("returning Query Results: {}", queryResponse);
+    return queryResponse;
+  }
+
+  /**
+   * Queries every source for the full modified query and merges all of their results once they have
+   * all responded.
+   */
+  private void queryAllSources(
+      List<Source> sources,
+      QueryRequest queryRequest,
+      QueryRequest modifiedQueryRequest,
+      QueryResponseImpl queryResponseQueue) {
+    Query modifiedQuery = modifiedQueryRequest.getQuery();
+    Map<Future<SourceResponse>, QueryRequest> futures = new HashMap<>();
+
     CompletionService<SourceResponse> queryCompletion =
         new ExecutorCompletionService<>(queryExecutorService);
 
@@ -196,41 +255,16 @@ public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
 
         QueryRequest finalSourceQueryRequest = sourceQueryRequest;
         futures.put(
-            queryCompletion.submit(() -> new TimedSource(source).query(finalSourceQueryRequest)),
+            queryCompletion.submit(sourceScheduler.query(source, finalSourceQueryRequest)),
             sourceQueryRequest);
       }
     }
 
-    QueryResponseImpl offsetResults = null;
-    // If there are offsets and more than one source, we have to get all the
-    // results back and then
-    // transfer them into a different Queue. That is what the
-    // OffsetResultHandler does.
-    if (offset > 1 && sources.size() > 1) {
-      offsetResults = new QueryResponseImpl(queryRequest, properties);
-      queryExecutorService.submit(
-          new QueryResponseRunnableMonitor(
-              new OffsetResultHandler(queryResponseQueue, offsetResults, pageSize, offset),
-              offsetResults));
-    }
-
     queryExecutorService.submit(
         new QueryResponseRunnableMonitor(
             sortedQueryMonitorFactory.createMonitor(
                 queryCompletion, futures, queryResponseQueue, modifiedQueryRequest, postQuery),
             queryResponseQueue));
-
-    QueryResponse queryResponse;
-    if (offset > 1 && sources.size() > 1) {
-      queryResponse = offsetResults;
-      LOGGER.debug("returning offsetResults");
-    } else {
-      queryResponse = queryResponseQueue;
-      LOGGER.debug("returning returnResults: {}", queryResponse);
-    }
-
-    LOGGER.debug("returning Query Results: {}", queryResponse);
-    return queryResponse;
   }
 
   private Query getModifiedQuery(
@@ -296,6 +330,50 @@ public void setMaxStartIndex(int maxStartIndex) {
     }
   }
 
+  /**
+   * To be set via Spring/Blueprint
+   *
+   * @param boundedOffsetPaging whether queries with an offset across several sources should fetch
+   *     results from each source in growing rounds, stopping once a source cannot contribute to the
+   *     requested page, instead of fetching every result up to the end of the page from every
+   *     source
+   */
+  public void setBoundedOffsetPaging(boolean boundedOffsetPaging) {
+    this.boundedOffsetPaging = boundedOffsetPaging;
+  }
+
+  /**
+   * To be set via Spring/Blueprint
+   *
+   * @param maxConcurrentQueriesPerSource the most queries that may run on a single source at once;
+   *     further queries to that source fail immediately. 0 or less removes the limit.
+   */
+  public void setMaxConcurrentQueriesPerSource(int maxConcurrentQueriesPerSource) {
+    sourceScheduler.setMaxConcurrentQueries(maxConcurrentQueriesPerSource);
+  }
+
+  /**
+   * To be set via Spring/Blueprint
+   *
+   * @param circuitBreakerFailureThreshold the number of consecutive failed or timed out queries
+   *     after which a source is no longer queried for a while. 0 or less never stops querying a
+   *     source.
+   */
+  public void setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+    sourceScheduler.setFailureThreshold(circuitBreakerFailureThreshold);
+  }
+
+  /**
+   * To be set via Spring/Blueprint
+   *
+   * @param circuitBreakerOpenSeconds how long a failing source is not queried before a single query
+   *     is sent to check whether it has recovered
+   */
+  public void setCircuitBreakerOpenSeconds(int circuitBreakerOpenSeconds) {
+    sourceScheduler.setOpenMillis(
+        TimeUnit.SECONDS.toMillis(Math.max(0, circuitBreakerOpenSeconds)));
+  }
+
   static class OffsetResultHandler implements Runnable {
 
     private QueryResponseImpl originalResults = null;
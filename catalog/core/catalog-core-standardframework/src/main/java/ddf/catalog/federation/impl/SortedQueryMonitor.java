@@ -47,6 +47,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
@@ -97,56 +98,10 @@ public SortedQueryMonitor(
 
   @Override
   public void run() {
-    List<SortBy> sortBys = new ArrayList<>();
-    SortBy sortBy = query.getSortBy();
-    if (sortBy != null && sortBy.getPropertyName() != null) {
-      sortBys.add(sortBy);
-    }
-    Serializable sortBySer = request.getPropertyValue(ADDITIONAL_SORT_BYS);
-    if (sortBySer instanceof SortBy[]) {
-      SortBy[] extSortBys = (SortBy[]) sortBySer;
-      if (extSortBys.length > 0) {
-        sortBys.addAll(Arrays.asList(extSortBys));
-      }
-    }
-
-    // Prepare the Comparators that we will use
-    CollectionResultComparator resultComparator = new CollectionResultComparator();
-    if (!sortBys.isEmpty()) {
-      for (SortBy sort : sortBys) {
-        Comparator<Result> comparator = null;
-
-        PropertyName sortingProp = sort.getPropertyName();
-        String sortType = sortingProp.getPropertyName();
-        SortOrder sortOrder =
-            (sort.getSortOrder() == null) ? SortOrder.DESCENDING : sort.getSortOrder();
-        LOGGER.debug("Sorting type: {}", sortType);
-        LOGGER.debug("Sorting order: {}", sortOrder);
+    Comparator<Result> resultComparator = createResultComparator(request);
 
-        // Temporal searches are currently sorted by the effective time
-        if (Metacard.EFFECTIVE.equals(sortType) || Result.TEMPORAL.equals(sortType)) {
-          comparator = new TemporalResultComparator(sortOrder);
-        } else if (Result.DISTANCE.equals(sortType)) {
-          comparator = new DistanceResultComparator(sortOrder);
-        } else if (Result.RELEVANCE.equals(sortType)) {
-          comparator = new RelevanceResultComparator(sortOrder);
-        } else {
-          Comparator<Result> fallback =
-              Comparator.comparing(
-                  r -> getAttributeValue((Result) r, sortType),
-                  ((sortOrder == SortOrder.ASCENDING)
-                      ? Comparator.nullsLast(Comparator.<Comparable>naturalOrder())
-                      : Comparator.nullsLast(Comparator.<Comparable>reverseOrder())));
-          comparator = new CaseInsensitiveIfStringComparator(sortOrder, sortType, fallback);
-        }
-        resultComparator.addComparator(comparator);
-      }
-    } else {
-      Comparator<Result> coreComparator = SortedFederationStrategy.DEFAULT_COMPARATOR;
-      resultComparator.addComparator(coreComparator);
-    }
-
-    List<Result> resultList = new ArrayList<>();
+    List<List<Result>> resultsPerSource = new ArrayList<>();
+    int resultCount = 0;
     long totalHits = 0;
     Set<ProcessingDetails> detailsOfReturnResults = returnResults.getProcessingDetails();
 
@@ -206,7 +161,11 @@ public void run() {
         sourceResponse =
             executePostFederationQueryPluginsWithSourceError(queryRequest, sourceId, e);
       }
-      resultList.addAll(sourceResponse.getResults());
+      List<Result> sourceResults = sourceResponse.getResults();
+      if (sourceResults != null && !sourceResults.isEmpty()) {
+        resultsPerSource.add(sourceResults);
+        resultCount += sourceResults.size();
+      }
       long hits = sourceResponse.getHits();
       totalHits += hits;
       hitsPerSource.merge(sourceId, hits, (l1, l2) -> l1 + l2);
@@ -222,10 +181,118 @@ public void run() {
     returnProperties.put("hitsPerSource", hitsPerSource);
     returnProperties.put(
         ORIGINAL_SOURCE_PROPERTIES, (Serializable) Collections.unmodifiableMap(sourceProperties));
-    LOGGER.debug("All sources finished returning results: {}", resultList.size());
+    LOGGER.debug("All sources finished returning results: {}", resultCount);
 
     returnResults.setHits(totalHits);
-    returnResults.addResults(sortedResults(resultList, resultComparator), true);
+    mergeResults(resultsPerSource, resultComparator);
+  }
+
+  /**
+   * Creates the comparator that orders results the way the request's {@link SortBy} and {@link
+   * ddf.catalog.Constants#ADDITIONAL_SORT_BYS} ask for, falling back to descending relevance.
+   */
+  static Comparator<Result> createResultComparator(QueryRequest request) {
+    List<SortBy> sortBys = new ArrayList<>();
+    SortBy sortBy = request.getQuery().getSortBy();
+    if (sortBy != null && sortBy.getPropertyName() != null) {
+      sortBys.add(sortBy);
+    }
+    Serializable sortBySer = request.getPropertyValue(ADDITIONAL_SORT_BYS);
+    if (sortBySer instanceof SortBy[]) {
+      SortBy[] extSortBys = (SortBy[]) sortBySer;
+      if (extSortBys.length > 0) {
+        sortBys.addAll(Arrays.asList(extSortBys));
+      }
+    }
+
+    // Prepare the Comparators that we will use
+    CollectionResultComparator resultComparator = new CollectionResultComparator();
+    if (!sortBys.isEmpty()) {
+      for (SortBy sort : sortBys) {
+        Comparator<Result> comparator = null;
+
+        PropertyName sortingProp = sort.getPropertyName();
+        String sortType = sortingProp.getPropertyName();
+        SortOrder sortOrder =
+            (sort.getSortOrder() == null) ? SortOrder.DESCENDING : sort.getSortOrder();
+        LOGGER.debug("Sorting type: {}", sortType);
+        LOGGER.debug("Sorting order: {}", sortOrder);
+
+        // Temporal searches are currently sorted by the effective time
+        if (Metacard.EFFECTIVE.equals(sortType) || Result.TEMPORAL.equals(sortType)) {
+          comparator = new TemporalResultComparator(sortOrder);
+        } else if (Result.DISTANCE.equals(sortType)) {
+          comparator = new DistanceResultComparator(sortOrder);
+        } else if (Result.RELEVANCE.equals(sortType)) {
+          comparator = new RelevanceResultComparator(sortOrder);
+        } else {
+          Comparator<Result> fallback =
+              Comparator.comparing(
+                  r -> getAttributeValue((Result) r, sortType),
+                  ((sortOrder == SortOrder.ASCENDING)
+                      ? Comparator.nullsLast(Comparator.<Comparable>naturalOrder())
+                      : Comparator.nullsLast(Comparator.<Comparable>reverseOrder())));
+          comparator = new CaseInsensitiveIfStringComparator(sortOrder, sortType, fallback);
+        }
+        resultComparator.addComparator(comparator);
+      }
+    } else {
+      Comparator<Result> coreComparator = SortedFederationStrategy.DEFAULT_COMPARATOR;
+      resultComparator.addComparator(coreComparator);
+    }
+    return resultComparator;
+  }
+
+  /**
+   * Performs a k-way merge of the results returned by each source into the result queue, stopping
+   * once the requested page size has been reached. Results are added to the queue as they are
+   * merged so clients can start consuming them before the merge completes. Each source's results
+   * are expected to already be sorted, since sources honor the query's {@link SortBy}; a source
+   * whose results are not in order is sorted on its own before being merged.
+   *
+   * <p>Ties are broken by the order in which the sources responded, so the merged results are in
+   * the same order as a stable sort of all the results concatenated together.
+   */
+  void mergeResults(List<List<Result>> resultsPerSource, Comparator<? super Result> comparator) {
+    int maxResults = Integer.MAX_VALUE;
+    if (query.getPageSize() > 0) {
+      maxResults = query.getPageSize();
+    }
+
+    PriorityQueue<SourceResultCursor> heads =
+        new PriorityQueue<>(
+            Math.max(1, resultsPerSource.size()),
+            Comparator.<SourceResultCursor, Result>comparing(SourceResultCursor::peek, comparator)
+                .thenComparingInt(SourceResultCursor::getSourceIndex));
+
+    for (int i = 0; i < resultsPerSource.size(); i++) {
+      heads.add(new SourceResultCursor(i, sortedIfNeeded(resultsPerSource.get(i), comparator)));
+    }
+
+    int resultsAdded = 0;
+    while (resultsAdded < maxResults && !heads.isEmpty()) {
+      SourceResultCursor head = heads.poll();
+      returnResults.addResult(head.next(), false);
+      resultsAdded++;
+      if (head.hasNext()) {
+        heads.add(head);
+      }
+    }
+
+    LOGGER.debug("Merged {} results from {} sources", resultsAdded, resultsPerSource.size());
+    returnResults.closeResultQueue();
+  }
+
+  private List<Result> sortedIfNeeded(List<Result> results, Comparator<? super Result> comparator) {
+    for (int i = 1; i < results.size(); i++) {
+      if (comparator.compare(results.get(i - 1), results.get(i)) > 0) {
+        LOGGER.debug("Source results are not in the requested sort order. Sorting them.");
+        List<Result> sorted = new ArrayList<>(results);
+        sorted.sort(comparator);
+        return sorted;
+      }
+    }
+    return results;
   }
 
   private Set<ProcessingDetails> sourceProcessingDetailsToProcessingDetails(
@@ -242,17 +309,6 @@ private Set<ProcessingDetails> sourceProcessingDetailsToProcessingDetails(
     return tempProcessingDetails;
   }
 
-  List<Result> sortedResults(List<Result> results, Comparator<? super Result> comparator) {
-    Collections.sort(results, comparator);
-
-    int maxResults = Integer.MAX_VALUE;
-    if (query.getPageSize() > 0) {
-      maxResults = query.getPageSize();
-    }
-
-    return results.size() > maxResults ? results.subList(0, maxResults) : results;
-  }
-
   private static Comparable getAttributeValue(Result r, String attributeName) {
     if (r == null) {
       return null;
@@ -263,6 +319,8 @@ private static Comparable getAttributeValue(Result r, String attributeName) {
   }
 
   private void timeoutRemainingSources(Set<ProcessingDetails> processingDetails) {
+    // Free the query threads of the sources that did not respond in time
+    futures.keySet().forEach(future -> future.cancel(true));
     for (QueryRequest expiredSource : futures.values()) {
       if (expiredSource != null) {
         String sourceId = getSourceIdFromRequest(expiredSource);
@@ -274,6 +332,7 @@ private void timeoutRemainingSources(Set<ProcessingDetails> processingDetails) {
 
   private void interruptRemainingSources(
       Set<ProcessingDetails> processingDetails, InterruptedException interruptedException) {
+    futures.keySet().forEach(future -> future.cancel(true));
     for (QueryRequest interruptedSource : futures.values()) {
       if (interruptedSource != null) {
         String sourceId = getSourceIdFromRequest(interruptedSource);
@@ -373,4 +432,35 @@ private SourceResponse executePostFederationQueryPlugins(
         queryResponse.getHits(),
         detailsOfResponseAfterPlugins);
   }
+
+  /** Position within the sorted results of a single source during a merge. */
+  private static class SourceResultCursor {
+
+    private final int sourceIndex;
+
+    private final List<Result> results;
+
+    private int position = 0;
+
+    SourceResultCursor(int sourceIndex, List<Result> results) {
+      this.sourceIndex = sourceIndex;
+      this.results = results;
+    }
+
+    int getSourceIndex() {
+      return sourceIndex;
+    }
+
+    boolean hasNext() {
+      return position < results.size();
+    }
+
+    Result peek() {
+      return results.get(position);
+    }
+
+    Result next() {
+      return results.get(position++);
+    }
+  }
 }
@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.source.CatalogProvider;
+import ddf.catalog.source.ConnectedSource;
+import ddf.catalog.source.Source;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.source.UnsupportedQueryException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Guards the queries sent to each federated source. Every source gets a limit on the number of its
+ * queries that may run at once and a circuit breaker that opens after a number of consecutive
+ * failures or timeouts. While a source's circuit is open its queries fail immediately instead of
+ * holding a query thread until the query times out. Once the open period has passed, a single query
+ * is let through to probe the source and closes the circuit if it succeeds.
+ *
+ * <p>The local catalog provider and connected sources are never limited. The framework depends on
+ * the local catalog for its own lookups, and connected sources are queried as part of every local
+ * query, so rejecting their queries would fail operations that have nothing to do with federation.
+ *
+ * <p>The latency of every federated source query, along with rejections and circuit states, is
+ * published per source through the Micrometer global registry.
+ */
+class SourceScheduler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SourceScheduler.class);
+
+  private static final String LATENCY_METRIC = "ddf.catalog.federation.source.latency";
+
+  private static final String REJECTED_METRIC = "ddf.catalog.federation.source.rejected";
+
+  private static final String ACTIVE_METRIC = "ddf.catalog.federation.source.active";
+
+  private static final String CIRCUIT_OPEN_METRIC = "ddf.catalog.federation.source.circuit.open";
+
+  private static final String SOURCE_TAG = "source";
+
+  static final int DEFAULT_MAX_CONCURRENT_QUERIES = 32;
+
+  static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+  static final long DEFAULT_OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private final Map<String, SourceHealth> sourceHealth = new ConcurrentHashMap<>();
+
+  private volatile int maxConcurrentQueries = DEFAULT_MAX_CONCURRENT_QUERIES;
+
+  private volatile int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+
+  private volatile long openMillis = DEFAULT_OPEN_MILLIS;
+
+  /**
+   * Creates the task that queries a source on behalf of a federated query. The task fails with a
+   * {@link SourceUnavailableException} without querying the source when the source's circuit is
+   * open or it already has the maximum number of queries running.
+   */
+  Callable<SourceResponse> query(Source source, QueryRequest request) {
+    if (isExempt(source)) {
+      return () -> new TimedSource(source).query(request);
+    }
+
+    return () -> {
+      SourceHealth health = getHealth(source.getId());
+      health.acquire();
+
+      long start = System.nanoTime();
+      Outcome outcome = Outcome.FAILURE;
+      try {
+        SourceResponse response = new TimedSource(source).query(request);
+        outcome =
+            isTimedOut(request, System.nanoTime() - start) ? Outcome.FAILURE : Outcome.SUCCESS;
+        return response;
+      } catch (UnsupportedQueryException e) {
+        // The source rejected this query, which says nothing about the health of the source
+        outcome = Outcome.IGNORED;
+        throw e;
+      } finally {
+        health.release(System.nanoTime() - start, outcome);
+      }
+    };
+  }
+
+  /** @param maxConcurrentQueries the most queries that may run on one source at once, 0 for none */
+  void setMaxConcurrentQueries(int maxConcurrentQueries) {
+    this.maxConcurrentQueries = maxConcurrentQueries;
+  }
+
+  /**
+   * @param failureThreshold the number of consecutive failures that opens a source's circuit, 0 to
+   *     never open it
+   */
+  void setFailureThreshold(int failureThreshold) {
+    this.failureThreshold = failureThreshold;
+  }
+
+  /** @param openMillis how long a source's circuit stays open before it is probed again */
+  void setOpenMillis(long openMillis) {
+    this.openMillis = openMillis;
+  }
+
+  private static boolean isExempt(Source source) {
+    return source instanceof CatalogProvider || source instanceof ConnectedSource;
+  }
+
+  private SourceHealth getHealth(String sourceId) {
+    return sourceHealth.computeIfAbsent(String.valueOf(sourceId), SourceHealth::new);
+  }
+
+  /** A query that outlives its timeout is counted as a failure even if it eventually succeeds. */
+  private static boolean isTimedOut(QueryRequest request, long elapsedNanos) {
+    long timeoutMillis = request.getQuery() == null ? 0 : request.getQuery().getTimeoutMillis();
+    return timeoutMillis > 0 && TimeUnit.NANOSECONDS.toMillis(elapsedNanos) > timeoutMillis;
+  }
+
+  private enum Outcome {
+    SUCCESS,
+    FAILURE,
+    IGNORED
+  }
+
+  private enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private class SourceHealth {
+
+    private final String sourceId;
+
+    private final Timer successes;
+
+    private final Timer failures;
+
+    private CircuitState state = CircuitState.CLOSED;
+
+    private long openedAt;
+
+    private int consecutiveFailures;
+
+    private int active;
+
+    private SourceHealth(String sourceId) {
+      this.sourceId = sourceId;
+      this.successes = latencyTimer("success");
+      this.failures = latencyTimer("failure");
+      Gauge.builder(ACTIVE_METRIC, this, health -> health.getActive())
+          .tag(SOURCE_TAG, sourceId)
+          .register(Metrics.globalRegistry);
+      Gauge.builder(CIRCUIT_OPEN_METRIC, this, health -> health.isOpen() ? 1 : 0)
+          .tag(SOURCE_TAG, sourceId)
+          .register(Metrics.globalRegistry);
+    }
+
+    private Timer latencyTimer(String outcome) {
+      return Timer.builder(LATENCY_METRIC)
+          .tag(SOURCE_TAG, sourceId)
+          .tag("outcome", outcome)
+          .publishPercentileHistogram()
+          .register(Metrics.globalRegistry);
+    }
+
+    synchronized void acquire() throws SourceUnavailableException {
+      if (state == CircuitState.OPEN) {
+        if (System.currentTimeMillis() - openedAt < openMillis) {
+          throw reject("circuit-open", "Source is failing and is not being queried");
+        }
+        LOGGER.debug("Probing source [{}] after its circuit was open", sourceId);
+        state = CircuitState.HALF_OPEN;
+      } else if (state == CircuitState.HALF_OPEN) {
+        throw reject("circuit-open", "Source is being probed and is not being queried");
+      }
+
+      int limit = maxConcurrentQueries;
+      if (limit > 0 && active >= limit) {
+        throw reject("concurrency-limit", "Source has too many queries in progress");
+      }
+      active++;
+    }
+
+    synchronized void release(long elapsedNanos, Outcome outcome) {
+      active--;
+      if (outcome == Outcome.IGNORED) {
+        if (state == CircuitState.HALF_OPEN) {
+          // Let the next query probe the source instead
+          state = CircuitState.OPEN;
+          openedAt = 0;
+        }
+        return;
+      }
+
+      if (outcome == Outcome.SUCCESS) {
+        successes.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        consecutiveFailures = 0;
+        if (state != CircuitState.CLOSED) {
+          LOGGER.info("Source [{}] is responding again, closing its circuit", sourceId);
+          state = CircuitState.CLOSED;
+        }
+        return;
+      }
+
+      failures.record(elapsedNanos, TimeUnit.NANOSECONDS);
+      consecutiveFailures++;
+      int threshold = failureThreshold;
+      if (state == CircuitState.HALF_OPEN
+          || (threshold > 0 && consecutiveFailures >= threshold && state == CircuitState.CLOSED)) {
+        LOGGER.info(
+            "Source [{}] failed {} consecutive queries, not querying it for {} ms",
+            sourceId,
+            consecutiveFailures,
+            openMillis);
+        state = CircuitState.OPEN;
+        openedAt = System.currentTimeMillis();
+      }
+    }
+
+    private SourceUnavailableException reject(String reason, String message) {
+      Metrics.counter(REJECTED_METRIC, SOURCE_TAG, sourceId, "reason", reason).increment();
+      LOGGER.debug("{} [{}]", message, sourceId);
+      return new SourceUnavailableException(message + " [" + sourceId + "]");
+    }
+
+    synchronized int getActive() {
+      return active;
+    }
+
+    synchronized boolean isOpen() {
+      return state != CircuitState.CLOSED;
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
+
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.filter.delegate.FilterToTextDelegate;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.io.Serializable;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import org.opengis.filter.sort.SortBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds a canonical text form of a {@link QueryRequest} from the text of its filter, its sort, its
+ * page size and the sources it targets, so that equivalent requests can share cache entries.
+ */
+final class CanonicalQueries {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CanonicalQueries.class);
+
+  private CanonicalQueries() {}
+
+  /**
+   * Returns the canonical text of the request, excluding its start index, or {@code null} if the
+   * filter cannot be converted to text.
+   */
+  @Nullable
+  static String toText(FilterAdapter filterAdapter, QueryRequest request) {
+    Query query = request.getQuery();
+    if (query == null) {
+      return null;
+    }
+
+    String filter;
+    try {
+      filter = filterAdapter.adapt(query, new FilterToTextDelegate());
+    } catch (UnsupportedQueryException | RuntimeException e) {
+      LOGGER.debug("Unable to create a canonical form of the query filter", e);
+      return null;
+    }
+
+    StringBuilder text = new StringBuilder(filter);
+    appendSortBy(text, query.getSortBy());
+    Serializable additionalSortBys = request.getPropertyValue(ADDITIONAL_SORT_BYS);
+    if (additionalSortBys instanceof SortBy[]) {
+      for (SortBy sortBy : (SortBy[]) additionalSortBys) {
+        appendSortBy(text, sortBy);
+      }
+    }
+
+    Set<String> sourceIds = new TreeSet<>();
+    if (request.getSourceIds() != null) {
+      sourceIds.addAll(request.getSourceIds());
+    }
+
+    return text.append('|')
+        .append(query.getPageSize())
+        .append('|')
+        .append(request.isEnterprise())
+        .append(sourceIds)
+        .toString();
+  }
+
+  private static void appendSortBy(StringBuilder text, @Nullable SortBy sortBy) {
+    text.append('|');
+    if (sortBy != null) {
+      if (sortBy.getPropertyName() != null) {
+        text.append(sortBy.getPropertyName().getPropertyName());
+      }
+      text.append(' ').append(sortBy.getSortOrder());
+    }
+  }
+}
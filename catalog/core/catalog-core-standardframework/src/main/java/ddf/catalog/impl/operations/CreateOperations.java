@@ -15,6 +15,8 @@
 
 import static ddf.catalog.Constants.CONTENT_PATHS;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
 import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.data.ContentItem;
@@ -33,6 +35,7 @@
 import ddf.catalog.operation.ProcessingDetails;
 import ddf.catalog.operation.impl.CreateRequestImpl;
 import ddf.catalog.operation.impl.CreateResponseImpl;
+import ddf.catalog.operation.impl.DeleteRequestImpl;
 import ddf.catalog.operation.impl.OperationTransactionImpl;
 import ddf.catalog.operation.impl.ProcessingDetailsImpl;
 import ddf.catalog.plugin.AccessPlugin;
@@ -48,6 +51,8 @@
 import ddf.catalog.source.InternalIngestException;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.util.impl.Requests;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.file.Path;
@@ -61,9 +66,21 @@
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,6 +100,12 @@ public class CreateOperations {
   private static final String PROCESSING_ERROR =
       "Plugin processing failed. This is allowable. Skipping to next plugin.";
 
+  private static final String INGEST_STAGE_METRIC = "ddf.catalog.create.stage";
+
+  private static final String INGEST_QUEUE_METRIC = "ddf.catalog.create.batches.pending";
+
+  private static final int DEFAULT_INGEST_THREADS = 4;
+
   // Inject properties
   private final FrameworkProperties frameworkProperties;
 
@@ -98,6 +121,14 @@ public class CreateOperations {
 
   private final OperationsStorageSupport opsStorageSupport;
 
+  private final AtomicInteger pendingBatches = new AtomicInteger();
+
+  private volatile int ingestBatchSize = 0;
+
+  private int ingestThreads = DEFAULT_INGEST_THREADS;
+
+  private ExecutorService ingestExecutor;
+
   public CreateOperations(
       FrameworkProperties frameworkProperties,
       QueryOperations queryOperations,
@@ -113,6 +144,30 @@ public CreateOperations(
     this.opsMetacardSupport = opsMetacardSupport;
     this.opsCatStoreSupport = opsCatStoreSupport;
     this.opsStorageSupport = opsStorageSupport;
+
+    Metrics.gauge(INGEST_QUEUE_METRIC, pendingBatches);
+  }
+
+  /**
+   * Sets the maximum number of metacards ingested by the catalog provider in a single call. Create
+   * requests larger than this are split into batches that run through the ingest plugins and the
+   * catalog provider concurrently. A value of {@code 0} disables batching.
+   */
+  public void setIngestBatchSize(int ingestBatchSize) {
+    this.ingestBatchSize = Math.max(0, ingestBatchSize);
+  }
+
+  /** Sets the number of threads shared by all create requests for ingesting batches. */
+  public synchronized void setIngestThreads(int ingestThreads) {
+    int threads = Math.max(1, ingestThreads);
+    if (threads != this.ingestThreads) {
+      this.ingestThreads = threads;
+      shutdownIngestExecutor();
+    }
+  }
+
+  public synchronized void destroy() {
+    shutdownIngestExecutor();
   }
 
   //
@@ -238,6 +293,161 @@ private void rollbackStorage(CreateStorageRequest createStorageRequest) {
   //
   private CreateResponse doCreate(CreateRequest createRequest)
       throws IngestException, SourceUnavailableException {
+    int batchSize = ingestBatchSize;
+    if (batchSize > 0
+        && createRequest != null
+        && createRequest.getMetacards() != null
+        && createRequest.getMetacards().size() > batchSize
+        && Requests.isLocal(createRequest)
+        && !opsCatStoreSupport.isCatalogStoreRequest(createRequest)) {
+      return doBatchedCreate(createRequest, batchSize);
+    }
+    return processCreate(createRequest);
+  }
+
+  /**
+   * Splits the request into batches of at most {@code batchSize} metacards and runs each of them
+   * through {@link #processCreate(CreateRequest)} on the ingest executor. The responses are merged
+   * in request order. If any batch fails, the metacards already created by the other batches are
+   * deleted from the catalog provider and the first failure is rethrown.
+   */
+  private CreateResponse doBatchedCreate(CreateRequest createRequest, int batchSize)
+      throws IngestException, SourceUnavailableException {
+    ExecutorService executor = getIngestExecutor();
+    Subject subject = ThreadContext.getSubject();
+    AtomicBoolean failed = new AtomicBoolean(false);
+
+    List<Future<CreateResponse>> futures = new ArrayList<>();
+    for (List<Metacard> metacards : Lists.partition(createRequest.getMetacards(), batchSize)) {
+      CreateRequest batch =
+          new CreateRequestImpl(
+              new ArrayList<>(metacards),
+              new HashMap<>(createRequest.getProperties()),
+              createRequest.getStoreIds());
+      Callable<CreateResponse> task =
+          () -> {
+            pendingBatches.decrementAndGet();
+            if (failed.get()) {
+              return null;
+            }
+            try {
+              return processCreate(batch);
+            } catch (IngestException | SourceUnavailableException | RuntimeException e) {
+              failed.set(true);
+              throw e;
+            }
+          };
+
+      pendingBatches.incrementAndGet();
+      futures.add(executor.submit(subject == null ? task : subject.associateWith(task)));
+    }
+
+    List<CreateResponse> responses = new ArrayList<>(futures.size());
+    Throwable error = null;
+    for (Future<CreateResponse> future : futures) {
+      try {
+        CreateResponse response = Uninterruptibles.getUninterruptibly(future);
+        if (response != null) {
+          responses.add(response);
+        }
+      } catch (ExecutionException e) {
+        if (error == null) {
+          error = e.getCause();
+        }
+      }
+    }
+
+    if (error != null) {
+      rollbackBatches(responses);
+      if (error instanceof IngestException) {
+        throw (IngestException) error;
+      } else if (error instanceof SourceUnavailableException) {
+        throw (SourceUnavailableException) error;
+      }
+      throw new InternalIngestException("Exception during runtime while performing create", error);
+    }
+
+    return mergeBatches(createRequest, responses);
+  }
+
+  private CreateResponse mergeBatches(CreateRequest createRequest, List<CreateResponse> responses) {
+    List<Metacard> requestMetacards = new ArrayList<>(createRequest.getMetacards().size());
+    List<Metacard> createdMetacards = new ArrayList<>(createRequest.getMetacards().size());
+    Map<String, Serializable> requestProperties = new HashMap<>(createRequest.getProperties());
+    Map<String, Serializable> responseProperties = new HashMap<>();
+    Set<ProcessingDetails> processingErrors = new HashSet<>();
+
+    for (CreateResponse response : responses) {
+      requestMetacards.addAll(response.getRequest().getMetacards());
+      requestProperties.putAll(response.getRequest().getProperties());
+      createdMetacards.addAll(response.getCreatedMetacards());
+      responseProperties.putAll(response.getProperties());
+      if (response.getProcessingErrors() != null) {
+        processingErrors.addAll(response.getProcessingErrors());
+      }
+    }
+
+    return new CreateResponseImpl(
+        new CreateRequestImpl(requestMetacards, requestProperties, createRequest.getStoreIds()),
+        responseProperties,
+        createdMetacards,
+        processingErrors);
+  }
+
+  private void rollbackBatches(List<CreateResponse> responses) {
+    String[] ids =
+        responses.stream()
+            .map(CreateResponse::getCreatedMetacards)
+            .flatMap(Collection::stream)
+            .map(Metacard::getId)
+            .filter(Objects::nonNull)
+            .toArray(String[]::new);
+    if (ids.length == 0) {
+      return;
+    }
+
+    try {
+      sourceOperations.getCatalog().delete(new DeleteRequestImpl(ids));
+      queryOperations.invalidateQueryResults();
+    } catch (IngestException | RuntimeException e) {
+      INGEST_LOGGER.warn(
+          "Unable to roll back {} metacards created before a batch of the same request failed",
+          ids.length,
+          e);
+    }
+  }
+
+  private synchronized ExecutorService getIngestExecutor() {
+    if (ingestExecutor == null) {
+      // When the queue is full the submitting thread ingests the batch itself, which throttles
+      // callers instead of rejecting their batches.
+      ingestExecutor =
+          new ThreadPoolExecutor(
+              ingestThreads,
+              ingestThreads,
+              0L,
+              TimeUnit.MILLISECONDS,
+              new ArrayBlockingQueue<>(ingestThreads * 2),
+              StandardThreadFactoryBuilder.newThreadFactory("catalogIngestThread"),
+              (runnable, executor) -> runnable.run());
+    }
+    return ingestExecutor;
+  }
+
+  private void shutdownIngestExecutor() {
+    if (ingestExecutor != null) {
+      ingestExecutor.shutdown();
+      ingestExecutor = null;
+    }
+  }
+
+  private Timer.Sample recordStage(Timer.Sample sample, String stage) {
+    sample.stop(Metrics.timer(INGEST_STAGE_METRIC, "stage", stage));
+    return Timer.start(Metrics.globalRegistry);
+  }
+
+  private CreateResponse processCreate(CreateRequest createRequest)
+      throws IngestException, SourceUnavailableException {
     CreateResponse createResponse;
 
     Exception ingestError = null;
@@ -258,11 +468,14 @@ private CreateResponse doCreate(CreateRequest createRequest)
 
     try {
       INGEST_LOGGER.info("Started ingesting metacard with titles: {}.", fileNames);
+      Timer.Sample sample = Timer.start(Metrics.globalRegistry);
       createRequest = injectAttributes(createRequest);
       createRequest = setDefaultValues(createRequest);
+      sample = recordStage(sample, "attributes");
       createRequest = processPreAuthorizationPlugins(createRequest);
       createRequest = updateCreateRequestPolicyMap(createRequest);
       createRequest = processPrecreateAccessPlugins(createRequest);
+      sample = recordStage(sample, "authorization");
 
       createRequest
           .getProperties()
@@ -273,8 +486,10 @@ private CreateResponse doCreate(CreateRequest createRequest)
 
       createRequest = processPreIngestPlugins(createRequest);
       createRequest = validateCreateRequest(createRequest);
+      sample = recordStage(sample, "preingest");
       createResponse = getCreateResponse(createRequest);
       createResponse = performRemoteCreate(createRequest, createResponse);
+      recordStage(sample, "store");
 
     } catch (IngestException iee) {
       ingestError = iee;
@@ -520,7 +735,11 @@ private CreateResponse getCreateResponse(CreateRequest createRequest) throws Ing
       return null;
     }
 
-    return sourceOperations.getCatalog().create(createRequest);
+    try {
+      return sourceOperations.getCatalog().create(createRequest);
+    } finally {
+      queryOperations.invalidateQueryResults();
+    }
   }
 
   private CreateRequest processPreIngestPlugins(CreateRequest createRequest)
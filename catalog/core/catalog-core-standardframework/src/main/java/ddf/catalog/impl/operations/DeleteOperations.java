@@ -303,15 +303,19 @@ private DeleteResponse performLocalDelete(
       throw new InternalIngestException(
           "Unable to delete stored content items. Not removing stored metacards.", e);
     }
-    DeleteResponse deleteResponse = sourceOperations.getCatalog().delete(deleteRequest);
-    deleteResponse = injectAttributes(deleteResponse);
     try {
-      historian.version(deleteResponse);
-    } catch (SourceUnavailableException e) {
-      LOGGER.debug("Could not version deleted item!", e);
-      throw new IngestException("Could not version deleted Item!");
+      DeleteResponse deleteResponse = sourceOperations.getCatalog().delete(deleteRequest);
+      deleteResponse = injectAttributes(deleteResponse);
+      try {
+        historian.version(deleteResponse);
+      } catch (SourceUnavailableException e) {
+        LOGGER.debug("Could not version deleted item!", e);
+        throw new IngestException("Could not version deleted Item!");
+      }
+      return deleteResponse;
+    } finally {
+      queryOperations.invalidateQueryResults();
     }
-    return deleteResponse;
   }
 
   //
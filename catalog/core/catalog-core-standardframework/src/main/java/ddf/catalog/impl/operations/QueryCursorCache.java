@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Remembers the cursor Solr returns at the end of each page of a catalog provider query so that a
+ * client paging sequentially with start indexes (e.g. CSW or OpenSearch) continues from the cursor
+ * instead of making the provider skip over every preceding result again.
+ *
+ * <p>Cursors are never started implicitly, since a cursor changes the sort and cannot be combined
+ * with a query time limit. A client opts in by sending {@link
+ * ddf.catalog.Constants#QUERY_CURSOR_START} with its first page, as the CSW and OpenSearch
+ * endpoints do; the cursors returned for that page and the pages after it are remembered so that
+ * its following start index requests can resume from them.
+ *
+ * <p>Entries are keyed by the canonical text of the filter, the sort, the page size, the requested
+ * sources and the start index the cursor resumes at. A client that jumps to an index nobody has
+ * reached sequentially simply misses the cache and falls back to offset paging.
+ */
+class QueryCursorCache {
+
+  private static final long MAX_CURSORS = 1000;
+
+  private static final long CURSOR_EXPIRATION_MINUTES = 5;
+
+  private final Cache<String, String> cursors =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_CURSORS)
+          .expireAfterWrite(CURSOR_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+          .build();
+
+  private final FilterAdapter filterAdapter;
+
+  QueryCursorCache(FilterAdapter filterAdapter) {
+    this.filterAdapter = filterAdapter;
+  }
+
+  /**
+   * Returns the remembered cursor for the page the request starts at, or {@code null} if the
+   * request should use offset paging.
+   */
+  @Nullable
+  String getCursor(QueryRequest request) {
+    Query query = request.getQuery();
+    if (query == null || query.getStartIndex() == 1) {
+      return null;
+    }
+
+    String key = createKey(request, query.getStartIndex());
+    return key == null ? null : cursors.getIfPresent(key);
+  }
+
+  /** Remembers the cursor returned with the response for the page that follows it. */
+  void putNextCursor(QueryRequest request, QueryResponse response) {
+    Query query = request.getQuery();
+    if (query == null || response == null || response.getResults().isEmpty()) {
+      return;
+    }
+
+    Serializable nextCursor = response.getPropertyValue(QUERY_CURSOR_KEY);
+    if (!(nextCursor instanceof String)) {
+      return;
+    }
+
+    String key = createKey(request, query.getStartIndex() + response.getResults().size());
+    if (key != null) {
+      cursors.put(key, (String) nextCursor);
+    }
+  }
+
+  @Nullable
+  private String createKey(QueryRequest request, int startIndex) {
+    String query = CanonicalQueries.toText(filterAdapter, request);
+    return query == null ? null : query + '@' + startIndex;
+  }
+}
@@ -123,6 +123,16 @@ public class QueryOperations extends DescribableImpl {
 
   private FilterAdapter filterAdapter;
 
+  private QueryCursorCache queryCursorCache;
+
+  private QueryResultCache queryResultCache;
+
+  private boolean queryResultCacheEnabled = false;
+
+  private long queryResultCacheSize = 1000;
+
+  private long queryResultCacheTtlSeconds = 30;
+
   private List<String> fanoutProxyTagBlacklist = new ArrayList<>();
 
   private long queryTimeoutMillis = 300000;
@@ -152,12 +162,52 @@ public void setFanoutProxyTagBlacklist(List<String> fanoutProxyTagBlacklist) {
 
   public void setFilterAdapter(FilterAdapter filterAdapter) {
     this.filterAdapter = filterAdapter;
+    this.queryCursorCache = new QueryCursorCache(filterAdapter);
+    updateQueryResultCache();
   }
 
   public void setQueryTimeoutMillis(long queryTimeoutMillis) {
     this.queryTimeoutMillis = queryTimeoutMillis;
   }
 
+  public void setQueryResultCacheEnabled(boolean queryResultCacheEnabled) {
+    this.queryResultCacheEnabled = queryResultCacheEnabled;
+    updateQueryResultCache();
+  }
+
+  public void setQueryResultCacheSize(long queryResultCacheSize) {
+    this.queryResultCacheSize = queryResultCacheSize;
+    updateQueryResultCache();
+  }
+
+  public void setQueryResultCacheTtlSeconds(long queryResultCacheTtlSeconds) {
+    this.queryResultCacheTtlSeconds = queryResultCacheTtlSeconds;
+    updateQueryResultCache();
+  }
+
+  private void updateQueryResultCache() {
+    if (queryResultCacheEnabled
+        && filterAdapter != null
+        && queryResultCacheSize > 0
+        && queryResultCacheTtlSeconds > 0) {
+      queryResultCache =
+          new QueryResultCache(filterAdapter, queryResultCacheSize, queryResultCacheTtlSeconds);
+    } else {
+      queryResultCache = null;
+    }
+  }
+
+  /**
+   * Drops all cached query responses. Called whenever the catalog provider is written to, since any
+   * cached response may no longer match what the provider would return.
+   */
+  void invalidateQueryResults() {
+    QueryResultCache cache = queryResultCache;
+    if (cache != null) {
+      cache.invalidateAll();
+    }
+  }
+
   //
   // Delegate methods
   //
@@ -208,7 +258,7 @@ QueryResponse query(
         }
       }
 
-      queryResponse = doQuery(queryRequest, fedStrategy);
+      queryResponse = doQuery(queryRequest, fedStrategy, queryResultCache);
 
       // Allow callers to determine the total results returned from the query; this value
       // may differ from the number of filtered results after processing plugins have been run.
@@ -265,6 +315,14 @@ private void log(QueryResponse queryResponse) {
    */
   QueryResponse doQuery(QueryRequest queryRequest, FederationStrategy strategy)
       throws FederationException {
+    return doQuery(queryRequest, strategy, null);
+  }
+
+  private QueryResponse doQuery(
+      QueryRequest queryRequest,
+      FederationStrategy strategy,
+      @Nullable QueryResultCache resultCache)
+      throws FederationException {
     Set<String> sourceIds = getCombinedIdSet(queryRequest);
     LOGGER.debug("source ids: {}", sourceIds);
 
@@ -305,11 +363,72 @@ QueryResponse doQuery(QueryRequest queryRequest, FederationStrategy strategy)
               queryRequest.getProperties());
     }
 
-    QueryResponse response = strategy.federate(querySources.sourcesToQuery, queryRequest);
+    boolean catalogProviderOnly = isCatalogProviderOnly(querySources.sourcesToQuery);
+
+    // Only catalog provider responses are cached since writes to other sources can't be observed
+    String resultKey =
+        catalogProviderOnly && resultCache != null ? resultCache.createKey(queryRequest) : null;
+    QueryResponse response = resultKey != null ? resultCache.get(resultKey, queryRequest) : null;
+
+    queryRequest = applyQueryCursor(queryRequest, catalogProviderOnly);
+
+    if (response == null) {
+      long resultGeneration = resultKey != null ? resultCache.getGeneration() : 0;
+      response = strategy.federate(querySources.sourcesToQuery, queryRequest);
+      if (resultKey != null) {
+        resultCache.put(resultKey, resultGeneration, response);
+      }
+    }
+
+    if (catalogProviderOnly && queryCursorCache != null) {
+      queryCursorCache.putNextCursor(queryRequest, response);
+    }
     frameworkProperties.getQueryResponsePostProcessor().processResponse(response);
     return addProcessingDetails(querySources.exceptions, response);
   }
 
+  private boolean isCatalogProviderOnly(List<Source> sourcesToQuery) {
+    return sourcesToQuery.size() == 1
+        && sourcesToQuery.get(0) != null
+        && sourcesToQuery.get(0) == sourceOperations.getCatalog();
+  }
+
+  /**
+   * Query cursors are only understood by the catalog provider, so they are removed from queries
+   * that fan out to other sources. Catalog provider queries that don't request a cursor are given
+   * one when they continue from where a previous page that used a cursor left off.
+   */
+  private QueryRequest applyQueryCursor(QueryRequest queryRequest, boolean catalogProviderOnly) {
+    String queryCursor = null;
+    if (queryRequest.getPropertyValue(Constants.QUERY_CURSOR_KEY) != null) {
+      if (catalogProviderOnly) {
+        return queryRequest;
+      }
+      LOGGER.debug("Removing the query cursor from a query that is not limited to the catalog");
+    } else if (catalogProviderOnly && queryCursorCache != null) {
+      queryCursor = queryCursorCache.getCursor(queryRequest);
+      if (queryCursor == null) {
+        return queryRequest;
+      }
+    } else {
+      return queryRequest;
+    }
+
+    // Copy the properties so the cursor does not leak into requests that reuse the caller's map
+    Map<String, Serializable> properties = new HashMap<>(queryRequest.getProperties());
+    if (queryCursor != null) {
+      properties.put(Constants.QUERY_CURSOR_KEY, queryCursor);
+    } else {
+      properties.remove(Constants.QUERY_CURSOR_KEY);
+    }
+
+    return new QueryRequestImpl(
+        queryRequest.getQuery(),
+        queryRequest.isEnterprise(),
+        queryRequest.getSourceIds(),
+        properties);
+  }
+
   <T extends Request> T setFlagsOnRequest(T request) {
     if (request != null) {
       Set<String> ids = getCombinedIdSet(request);
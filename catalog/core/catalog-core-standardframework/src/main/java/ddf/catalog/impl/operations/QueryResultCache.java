@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static ddf.catalog.Constants.EXPERIMENTAL_FACET_PROPERTIES_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_START;
+import static ddf.catalog.Constants.QUERY_REQUESTED_ATTRIBUTES_KEY;
+import static ddf.catalog.Constants.SUGGESTION_QUERY_KEY;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.CompactMetacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.plugin.PolicyPlugin;
+import ddf.security.SecurityConstants;
+import ddf.security.Subject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.apache.commons.collections.CollectionUtils;
+
+/**
+ * Caches the responses of catalog provider queries so that clients repeating the same query, such
+ * as dashboards refreshing a search, are answered without querying the provider again.
+ *
+ * <p>Entries are keyed by the canonical text of the query, its start index, the attributes it
+ * requested, the subject that made it and the operation policy built for it, so responses are never
+ * shared between security contexts. Cached responses are copied on the way in and out since the
+ * post-query plugins modify the metacards they are given. Copies of results projected to the
+ * requested attributes still load their other attributes on first access. All entries are dropped
+ * whenever the catalog provider is written to.
+ */
+class QueryResultCache {
+
+  private static final String METRIC_NAME = "ddf.catalog.query.cache";
+
+  private final Cache<String, QueryResponse> responses;
+
+  private final FilterAdapter filterAdapter;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private final Counter hits = Metrics.counter(METRIC_NAME, "result", "hit");
+
+  private final Counter misses = Metrics.counter(METRIC_NAME, "result", "miss");
+
+  QueryResultCache(FilterAdapter filterAdapter, long maxEntries, long timeToLiveSeconds) {
+    this.filterAdapter = filterAdapter;
+    this.responses =
+        CacheBuilder.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS)
+            .build();
+  }
+
+  /**
+   * Returns the key the response to the request is cached under, or {@code null} if the request
+   * must not be answered from the cache. Requests that start a cursor are cached under their own
+   * key since their response also holds the cursor for the next page, but requests that continue a
+   * cursor are not.
+   */
+  @Nullable
+  String createKey(QueryRequest request) {
+    Query query = request.getQuery();
+    Serializable queryCursor = request.getPropertyValue(QUERY_CURSOR_KEY);
+    if (query == null
+        || (queryCursor != null && !QUERY_CURSOR_START.equals(queryCursor))
+        || request.getPropertyValue(EXPERIMENTAL_FACET_PROPERTIES_KEY) != null
+        || request.getPropertyValue(SUGGESTION_QUERY_KEY) != null) {
+      return null;
+    }
+
+    String text = CanonicalQueries.toText(filterAdapter, request);
+    if (text == null) {
+      return null;
+    }
+
+    StringBuilder key =
+        new StringBuilder(text)
+            .append('@')
+            .append(query.getStartIndex())
+            .append('|')
+            .append(query.requestsTotalResultsCount())
+            .append('|')
+            .append(request.getPropertyValue("spellcheck"))
+            .append('|')
+            .append(queryCursor != null);
+
+    Serializable requestedAttributes = request.getPropertyValue(QUERY_REQUESTED_ATTRIBUTES_KEY);
+    key.append('|');
+    if (requestedAttributes instanceof Collection) {
+      key.append(
+          ((Collection<?>) requestedAttributes)
+              .stream().map(String::valueOf).collect(Collectors.toCollection(TreeSet::new)));
+    }
+
+    Serializable subject = request.getPropertyValue(SecurityConstants.SECURITY_SUBJECT);
+    key.append('|');
+    if (subject instanceof Subject && ((Subject) subject).getPrincipals() != null) {
+      key.append(((Subject) subject).getPrincipals().getPrimaryPrincipal());
+    }
+
+    Serializable policy = request.getPropertyValue(PolicyPlugin.OPERATION_SECURITY);
+    key.append('|');
+    if (policy instanceof Map) {
+      key.append(new TreeMap<>((Map<?, ?>) policy));
+    }
+
+    return key.toString();
+  }
+
+  /** Returns a copy of the response cached under the key, or {@code null} if there is none. */
+  @Nullable
+  QueryResponse get(String key, QueryRequest request) {
+    QueryResponse response = responses.getIfPresent(key);
+    if (response == null) {
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    return copy(request, response);
+  }
+
+  /** Returns the value to pass to {@link #put} for a query that is about to be executed. */
+  long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Caches the response, unless it is incomplete or the catalog provider was written to after the
+   * query started.
+   */
+  void put(String key, long queryGeneration, QueryResponse response) {
+    if (response == null) {
+      return;
+    }
+
+    // Waits for the federation strategy to finish so the processing details are complete
+    response.getResults();
+    if (CollectionUtils.isNotEmpty(response.getProcessingDetails())) {
+      return;
+    }
+
+    if (queryGeneration == generation.get()) {
+      responses.put(key, copy(response.getRequest(), response));
+      // Drop the entry again if a write raced with the put
+      if (queryGeneration != generation.get()) {
+        responses.invalidate(key);
+      }
+    }
+  }
+
+  /** Drops all cached responses. */
+  void invalidateAll() {
+    generation.incrementAndGet();
+    responses.invalidateAll();
+  }
+
+  private static QueryResponse copy(QueryRequest request, QueryResponse response) {
+    List<Result> results =
+        response.getResults().stream().map(QueryResultCache::copy).collect(Collectors.toList());
+    return new QueryResponseImpl(
+        request,
+        results,
+        true,
+        response.getHits(),
+        new HashMap<>(response.getProperties()),
+        response.getProcessingDetails() == null
+            ? new HashSet<>()
+            : new HashSet<>(response.getProcessingDetails()));
+  }
+
+  private static Result copy(Result result) {
+    ResultImpl copy = new ResultImpl(copy(result.getMetacard()));
+    copy.setDistanceInMeters(result.getDistanceInMeters());
+    copy.setRelevanceScore(result.getRelevanceScore());
+    return copy;
+  }
+
+  private static Metacard copy(Metacard metacard) {
+    if (metacard == null) {
+      return null;
+    } else if (metacard instanceof CompactMetacard) {
+      // Copying attribute by attribute would load the ones a projected result was returned without
+      return new CompactMetacard((CompactMetacard) metacard);
+    }
+    return new MetacardImpl(metacard, metacard.getMetacardType());
+  }
+}
@@ -504,9 +504,13 @@ private UpdateResponse performLocalUpdate(UpdateRequest updateRequest)
       return null;
     }
 
-    UpdateResponse updateResponse = sourceOperations.getCatalog().update(updateRequest);
-    updateResponse = historian.version(updateResponse);
-    return updateResponse;
+    try {
+      UpdateResponse updateResponse = sourceOperations.getCatalog().update(updateRequest);
+      updateResponse = historian.version(updateResponse);
+      return updateResponse;
+    } finally {
+      queryOperations.invalidateQueryResults();
+    }
   }
 
   private UpdateRequest processPreIngestPlugins(UpdateRequest updateRequest)
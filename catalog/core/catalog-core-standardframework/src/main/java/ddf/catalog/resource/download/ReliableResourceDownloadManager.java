@@ -15,6 +15,7 @@
 
 import com.google.common.base.Stopwatch;
 import ddf.catalog.cache.impl.CacheKey;
+import ddf.catalog.cache.impl.ResourceCacheImpl;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.event.retrievestatus.DownloadStatusInfo;
 import ddf.catalog.operation.ResourceRequest;
@@ -108,10 +109,19 @@ public ResourceResponse download(
     }
 
     if (downloaderConfig.isCacheEnabled()) {
-      Resource cachedResource =
-          downloaderConfig
-              .getResourceCache()
-              .getValid(new CacheKey(metacard, resourceRequest).generateKey(), metacard);
+      ResourceCacheImpl resourceCache = downloaderConfig.getResourceCache();
+      String key = new CacheKey(metacard, resourceRequest).generateKey();
+      Resource cachedResource = resourceCache.getValid(key, metacard);
+      if (cachedResource == null
+          && downloaderConfig.getPendingCacheWaitMS() > 0
+          && resourceCache.isPending(key)) {
+        // Another download is already caching this product, so wait for it rather than retrieving
+        // the same product from the source again
+        LOGGER.debug("Waiting for the pending download of cache key [{}] to be cached", key);
+        cachedResource =
+            resourceCache.getValidWhenCached(
+                key, metacard, downloaderConfig.getPendingCacheWaitMS());
+      }
       if (cachedResource != null) {
         resourceResponse =
             new ResourceResponseImpl(
@@ -167,6 +177,10 @@ public void setCacheWhenCanceled(boolean cacheWhenCanceled) {
     downloaderConfig.setCacheWhenCanceled(cacheWhenCanceled);
   }
 
+  public void setPendingCacheWait(int pendingCacheWait) {
+    downloaderConfig.setPendingCacheWaitMS((long) pendingCacheWait * ONE_SECOND_IN_MS);
+  }
+
   public void setDownloaderConfig(ReliableResourceDownloaderConfig downloaderConfig) {
     this.downloaderConfig = downloaderConfig;
   }
@@ -183,6 +197,10 @@ public void setProductCacheDirectory(String productCacheDirectory) {
     this.downloaderConfig.getResourceCache().setProductCacheDirectory(productCacheDirectory);
   }
 
+  public void setMaxCacheDirSizeMegabytes(long maxCacheDirSizeMegabytes) {
+    this.downloaderConfig.getResourceCache().setMaxCacheDirSizeMegabytes(maxCacheDirSizeMegabytes);
+  }
+
   public List<DownloadInfo> getDownloadsInProgress() {
     List<DownloadInfo> downloadsInProgress = new ArrayList<>();
     for (String downloadIdentifier : downloadStatusInfo.getAllDownloads()) {
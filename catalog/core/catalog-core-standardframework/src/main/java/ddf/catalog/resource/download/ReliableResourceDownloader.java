@@ -202,6 +202,9 @@ public ResourceResponse setupDownload(Metacard metacard, DownloadStatusInfo down
           this.downloadState.setCacheEnabled(true);
         } catch (IOException e) {
           LOGGER.info("Unable to open cache file {} - no caching will be done.", filePath);
+          // Nothing else removes the entry when caching never started, and requests for the
+          // product would wait for it
+          resourceCache.removePendingCacheEntry(key);
         }
       } else {
         LOGGER.debug("Cache key {} is already pending caching", key);
@@ -37,6 +37,8 @@ public class ReliableResourceDownloaderConfig {
 
   private boolean cacheWhenCanceled = false;
 
+  private long pendingCacheWaitMS = 60000;
+
   private ResourceCacheImpl resourceCache;
 
   private DownloadsStatusEventPublisher eventPublisher;
@@ -117,6 +119,14 @@ public void setCacheEnabled(boolean cacheEnabled) {
     this.cacheEnabled = cacheEnabled;
   }
 
+  public long getPendingCacheWaitMS() {
+    return pendingCacheWaitMS;
+  }
+
+  public void setPendingCacheWaitMS(long pendingCacheWaitMS) {
+    this.pendingCacheWaitMS = pendingCacheWaitMS;
+  }
+
   public boolean isCacheWhenCanceled() {
     return cacheWhenCanceled;
   }
@@ -27,14 +27,20 @@
 import ddf.catalog.resource.data.ReliableResource;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import javax.activation.MimeType;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -76,6 +82,7 @@ public void setUp() throws IOException, URISyntaxException {
     defaultProductCacheDirectory.toFile().mkdirs();
 
     resourceCache = new ResourceCacheImpl();
+    resourceCache.setProductCacheDirectory(defaultProductCacheDirectory.toString());
 
     newResourceCache =
         new org.codice.ddf.catalog.resource.cache.impl.ResourceCacheImpl(resourceCache);
@@ -97,10 +104,12 @@ public void testPutThenGet() throws URISyntaxException {
     Metacard metacard = generateMetacard();
     ReliableResource reliableResource = createCachedResource(metacard);
     resourceCache.addPendingCacheEntry(reliableResource);
-    assertFalse("cache should be noop", resourceCache.isPending(CACHED_RESOURCE_KEY));
+    assertTrue(resourceCache.isPending(CACHED_RESOURCE_KEY));
     resourceCache.put(reliableResource);
-    assertNull("cache should be noop", resourceCache.getValid(CACHED_RESOURCE_KEY, metacard));
-    assertFalse("cache should be noop", resourceCache.isPending(CACHED_RESOURCE_KEY));
+    assertTrue(
+        assertReliableResourceEquals(
+            reliableResource, resourceCache.getValid(CACHED_RESOURCE_KEY, metacard)));
+    assertFalse(resourceCache.isPending(CACHED_RESOURCE_KEY));
   }
 
   /**
@@ -112,8 +121,10 @@ public void testPutThenGetNotPending() throws URISyntaxException {
     ReliableResource reliableResource = createCachedResource(metacard);
 
     resourceCache.put(reliableResource);
-    assertFalse("cache should be noop", resourceCache.isPending(CACHED_RESOURCE_KEY));
-    assertNull("cache should be noop", resourceCache.getValid(CACHED_RESOURCE_KEY, metacard));
+    assertFalse(resourceCache.isPending(CACHED_RESOURCE_KEY));
+    assertTrue(
+        assertReliableResourceEquals(
+            reliableResource, resourceCache.getValid(CACHED_RESOURCE_KEY, metacard)));
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -144,8 +155,7 @@ public void testValidationEqualMetacards() throws URISyntaxException {
     MetacardImpl metacard = generateMetacard();
     MetacardImpl metacard1 = generateMetacard();
     ReliableResource cachedResource = new ReliableResource("key", "", null, null, metacard);
-    assertFalse(
-        "cache should be noop", resourceCache.validateCacheEntry(cachedResource, metacard1));
+    assertTrue(resourceCache.validateCacheEntry(cachedResource, metacard1));
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -181,18 +191,168 @@ public void testValidationNotEqual() throws URISyntaxException, IOException {
     ReliableResource cachedResource =
         new ReliableResource(
             cachedResourceMetacardKey, cachedResourceFilePath.toString(), null, null, metacard);
-    resourceCache.validateCacheEntry(cachedResource, metacard1);
-    assertTrue("cache should be noop", cachedResourceFile.exists());
+    assertFalse(resourceCache.validateCacheEntry(cachedResource, metacard1));
+    assertFalse(cachedResourceFile.exists());
   }
 
   @Test
-  public void testContainsTrueValid() throws URISyntaxException {
+  public void testContainsTrueValid() throws URISyntaxException, IOException {
+    MetacardImpl cachedMetacard = generateMetacard();
+    MetacardImpl latestMetacard = generateMetacard();
+
+    String fileName = "10bytes.txt";
+    simulateAddFileToCacheDir(fileName);
+    String cacheKey = "cacheKey1";
+    Path cachedResourceFilePath = Paths.get(defaultProductCacheDirectory.toString(), fileName);
+    resourceCache.put(
+        new ReliableResource(
+            cacheKey, cachedResourceFilePath.toString(), null, "name", cachedMetacard));
+    assertTrue(resourceCache.containsValid(cacheKey, latestMetacard));
+  }
+
+  @Test
+  public void testContainsFalseWhenProductFileMissing() throws URISyntaxException {
     MetacardImpl cachedMetacard = generateMetacard();
     MetacardImpl latestMetacard = generateMetacard();
 
     String cacheKey = "cacheKey1";
     resourceCache.put(new ReliableResource(cacheKey, "", null, "name", cachedMetacard));
-    assertFalse("cache should be noop", resourceCache.containsValid(cacheKey, latestMetacard));
+    assertFalse(resourceCache.containsValid(cacheKey, latestMetacard));
+  }
+
+  @Test
+  public void testContainsFalseWhenModifiedDateChanged() throws URISyntaxException, IOException {
+    MetacardImpl cachedMetacard = generateMetacard();
+    MetacardImpl latestMetacard = generateMetacard();
+    latestMetacard.setModifiedDate(new Date());
+
+    String fileName = "10bytes.txt";
+    simulateAddFileToCacheDir(fileName);
+    Path cachedResourceFilePath = Paths.get(defaultProductCacheDirectory.toString(), fileName);
+    resourceCache.put(
+        new ReliableResource(
+            "cacheKey1", cachedResourceFilePath.toString(), null, "name", cachedMetacard));
+
+    assertFalse(resourceCache.containsValid("cacheKey1", latestMetacard));
+    assertFalse(cachedResourceFilePath.toFile().exists());
+  }
+
+  @Test
+  public void testContainsFalseWhenChecksumChanged() throws URISyntaxException, IOException {
+    MetacardImpl cachedMetacard = generateMetacard();
+    MetacardImpl latestMetacard = generateMetacard();
+    latestMetacard.setAttribute(Metacard.CHECKSUM, "2");
+
+    String fileName = "10bytes.txt";
+    simulateAddFileToCacheDir(fileName);
+    Path cachedResourceFilePath = Paths.get(defaultProductCacheDirectory.toString(), fileName);
+    resourceCache.put(
+        new ReliableResource(
+            "cacheKey1", cachedResourceFilePath.toString(), null, "name", cachedMetacard));
+
+    assertFalse(resourceCache.containsValid("cacheKey1", latestMetacard));
+    assertFalse(cachedResourceFilePath.toFile().exists());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntryEvictedWhenCacheFull()
+      throws URISyntaxException, IOException {
+    MetacardImpl metacard = generateMetacard();
+    Path first = createCacheFile("first", 600 * 1024);
+    Path second = createCacheFile("second", 600 * 1024);
+    resourceCache.setMaxCacheDirSizeMegabytes(1);
+
+    resourceCache.put(new ReliableResource("first", first.toString(), null, "first", metacard));
+    resourceCache.put(new ReliableResource("second", second.toString(), null, "second", metacard));
+
+    assertFalse(resourceCache.containsValid("first", metacard));
+    assertFalse(first.toFile().exists());
+    assertTrue(resourceCache.containsValid("second", metacard));
+    assertThat(resourceCache.getCacheDirSizeBytes(), is(600L * 1024));
+  }
+
+  @Test
+  public void testRecentlyReadEntryNotEvicted() throws URISyntaxException, IOException {
+    MetacardImpl metacard = generateMetacard();
+    Path first = createCacheFile("first", 400 * 1024);
+    Path second = createCacheFile("second", 400 * 1024);
+    Path third = createCacheFile("third", 400 * 1024);
+    resourceCache.setMaxCacheDirSizeMegabytes(1);
+
+    resourceCache.put(new ReliableResource("first", first.toString(), null, "first", metacard));
+    resourceCache.put(new ReliableResource("second", second.toString(), null, "second", metacard));
+    assertTrue(resourceCache.containsValid("first", metacard));
+    resourceCache.put(new ReliableResource("third", third.toString(), null, "third", metacard));
+
+    assertTrue(resourceCache.containsValid("first", metacard));
+    assertFalse(resourceCache.containsValid("second", metacard));
+    assertTrue(resourceCache.containsValid("third", metacard));
+  }
+
+  @Test
+  public void testSetProductCacheDirectoryRemovesStaleFiles() throws IOException {
+    Path stale = createCacheFile("stale", 10);
+    Path newDirectory = testFolder.newFolder("newCache").toPath();
+    Path productsDirectory = Files.createDirectory(newDirectory.resolve("products"));
+    Files.copy(stale, productsDirectory.resolve("stale"));
+
+    resourceCache.setProductCacheDirectory(newDirectory.toString());
+
+    assertThat(resourceCache.getProductCacheDirectory(), is(productsDirectory.toString()));
+    assertFalse(productsDirectory.resolve("stale").toFile().exists());
+  }
+
+  @Test
+  public void testSetProductCacheDirectoryKeepsOtherFiles() throws IOException {
+    Path newDirectory = testFolder.newFolder("sharedDirectory").toPath();
+    Path otherFile = Files.write(newDirectory.resolve("other.txt"), new byte[10]);
+
+    resourceCache.setProductCacheDirectory(newDirectory.toString());
+
+    assertTrue(otherFile.toFile().exists());
+  }
+
+  @Test
+  public void testEvictedProductCanStillBeRead() throws URISyntaxException, IOException {
+    MetacardImpl metacard = generateMetacard();
+    Path first = createCacheFile("first", 600 * 1024);
+    Path second = createCacheFile("second", 600 * 1024);
+    resourceCache.setMaxCacheDirSizeMegabytes(1);
+    resourceCache.put(new ReliableResource("first", first.toString(), null, "first", metacard));
+
+    Resource resource = resourceCache.getValid("first", metacard);
+    resourceCache.put(new ReliableResource("second", second.toString(), null, "second", metacard));
+
+    assertFalse(first.toFile().exists());
+    try (InputStream product = resource.getInputStream()) {
+      assertThat(IOUtils.toByteArray(product).length, is(600 * 1024));
+    }
+  }
+
+  @Test
+  public void testGetValidWhenCachedWaitsForPendingProduct() throws Exception {
+    MetacardImpl metacard = generateMetacard();
+    ReliableResource reliableResource = createCachedResource(metacard);
+    resourceCache.addPendingCacheEntry(reliableResource);
+
+    CompletableFuture<Resource> waiting =
+        CompletableFuture.supplyAsync(
+            () -> resourceCache.getValidWhenCached(CACHED_RESOURCE_KEY, metacard, 10000));
+    resourceCache.put(reliableResource);
+
+    assertTrue(assertReliableResourceEquals(reliableResource, waiting.get(5, TimeUnit.SECONDS)));
+  }
+
+  @Test
+  public void testGetValidWhenCachedReturnsNullWhenPendingProductNotCached()
+      throws URISyntaxException {
+    MetacardImpl metacard = generateMetacard();
+    resourceCache.addPendingCacheEntry(createCachedResource(metacard));
+
+    assertNull(resourceCache.getValidWhenCached(CACHED_RESOURCE_KEY, metacard, 10));
+
+    resourceCache.removePendingCacheEntry(CACHED_RESOURCE_KEY);
+    assertNull(resourceCache.getValidWhenCached(CACHED_RESOURCE_KEY, metacard, 10000));
   }
 
   @Test
@@ -223,10 +383,8 @@ public void testContainsTrueInvalid() throws URISyntaxException, IOException {
             null,
             "name",
             cachedMetacard));
-    assertFalse(
-        "cache should be noop",
-        resourceCache.containsValid(cachedResourceMetacardKey, latestMetacard));
-    assertTrue("cache should be noop", cachedResourceFile.exists());
+    assertFalse(resourceCache.containsValid(cachedResourceMetacardKey, latestMetacard));
+    assertFalse(cachedResourceFile.exists());
   }
 
   @Test
@@ -274,7 +432,8 @@ public void getDefaultResourceInCache() {
     ReliableResource cachedResource = createCachedResource(cachedMetacard);
     resourceCache.put(cachedResource);
     Optional<Resource> optionalResource = newResourceCache.get(cachedMetacard);
-    assertFalse("cache should be noop", optionalResource.isPresent());
+    assertTrue(optionalResource.isPresent());
+    assertTrue(assertReliableResourceEquals(cachedResource, optionalResource.get()));
   }
 
   @Test
@@ -283,7 +442,8 @@ public void getSpecificResourceInCache() {
     resourceCache.put(cachedResource);
     Optional<Resource> optionalResource =
         newResourceCache.get(cachedMetacard, new ResourceRequestById(METACARD_ID));
-    assertFalse("cache should be noop", optionalResource.isPresent());
+    assertTrue(optionalResource.isPresent());
+    assertTrue(assertReliableResourceEquals(cachedResource, optionalResource.get()));
   }
 
   @Test
@@ -305,7 +465,7 @@ public void getSpecificResourceNotInCache() {
   public void containsDefaultResourceInCache() {
     ReliableResource cachedResource = createCachedResource(cachedMetacard);
     resourceCache.put(cachedResource);
-    assertThat("cache should be noop", newResourceCache.contains(cachedMetacard), is(false));
+    assertThat(newResourceCache.contains(cachedMetacard), is(true));
   }
 
   @Test
@@ -313,9 +473,7 @@ public void containsSpecificResourceInCache() {
     ReliableResource cachedResource = createCachedResource(cachedMetacard);
     resourceCache.put(cachedResource);
     assertThat(
-        "cache should be noop",
-        newResourceCache.contains(cachedMetacard, new ResourceRequestById(METACARD_ID)),
-        is(false));
+        newResourceCache.contains(cachedMetacard, new ResourceRequestById(METACARD_ID)), is(true));
   }
 
   @Test
@@ -353,6 +511,12 @@ private void simulateAddFileToCacheDir(String fileName) throws IOException {
     FileUtils.copyFile(new File(originalFilePath), new File(destinationFilePath));
   }
 
+  private Path createCacheFile(String fileName, int size) throws IOException {
+    Path cacheFile = defaultProductCacheDirectory.resolve(fileName);
+    Files.write(cacheFile, new byte[size]);
+    return cacheFile;
+  }
+
   private MetacardImpl generateMetacard() throws URISyntaxException {
     MetacardImpl metacard = new MetacardImpl();
     metacard.setAttribute(Metacard.CHECKSUM, "1");
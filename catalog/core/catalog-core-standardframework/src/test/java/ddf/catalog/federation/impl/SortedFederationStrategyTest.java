@@ -14,6 +14,7 @@
 package ddf.catalog.federation.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -22,6 +23,7 @@
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -40,6 +42,7 @@
 import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.PreFederatedQueryPlugin;
 import ddf.catalog.plugin.StopProcessingException;
@@ -286,6 +289,34 @@ public void testStartIndexGreaterThanMaxStartIndex() throws Exception {
     assertThat(requestArgumentCaptor.getValue().getQuery().getStartIndex(), is(1));
   }
 
+  @Test
+  public void testBoundedOffsetPagingStopsExcludedSources() throws Exception {
+    strategy.setBoundedOffsetPaging(true);
+
+    Source high = getScoredSource("high", 100, 30);
+    Source middle = getScoredSource("middle", 50, 30);
+    Source low = getScoredSource("low", 10, 10);
+
+    QueryRequest fedQueryRequest =
+        new QueryRequestImpl(
+            new QueryImpl(mock(NullFilterImpl.class), 11, 5, null, true, LONG_TIMEOUT), properties);
+
+    QueryResponse federateResponse =
+        strategy.federate(ImmutableList.of(high, middle, low), fedQueryRequest);
+
+    List<Double> scores =
+        federateResponse.getResults().stream()
+            .map(Result::getRelevanceScore)
+            .collect(Collectors.toList());
+    assertThat(scores, contains(90.0, 89.0, 88.0, 87.0, 86.0));
+    assertThat(federateResponse.getHits(), is(70L));
+
+    // Every source is queried once, then only the sources that can still reach the page
+    verify(high, times(2)).query(any(QueryRequest.class));
+    verify(middle, times(2)).query(any(QueryRequest.class));
+    verify(low, times(1)).query(any(QueryRequest.class));
+  }
+
   @Test
   public void testSortedQueryMonitorException() throws Exception {
 
@@ -496,4 +527,31 @@ private Source getMockSource() throws UnsupportedQueryException {
 
     return mockSource;
   }
+
+  /**
+   * Returns a source whose results are sorted by descending relevance, starting at {@code topScore}
+   * and decreasing by one, that honors the start index and page size it is queried with.
+   */
+  private Source getScoredSource(String id, int topScore, int count)
+      throws UnsupportedQueryException {
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      ResultImpl result = new ResultImpl(new MetacardImpl());
+      result.setRelevanceScore((double) (topScore - i));
+      results.add(result);
+    }
+
+    Source source = mock(Source.class);
+    when(source.getId()).thenReturn(id);
+    when(source.query(any(QueryRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              Query query = ((QueryRequest) invocation.getArgument(0)).getQuery();
+              int start = Math.min(query.getStartIndex() - 1, count);
+              int end = Math.min(start + query.getPageSize(), count);
+              return new SourceResponseImpl(
+                  invocation.getArgument(0), results.subList(start, end), (long) count);
+            });
+    return source;
+  }
 }
@@ -435,6 +435,49 @@ private void testSorting(
     assertResults(queryResponse.getResults(), TEST_PROPERTY, outputArray);
   }
 
+  @Test
+  public void testMergeSortedSourcesStopsAtPageSize() throws Exception {
+    PropertyName propertyName = mock(PropertyName.class);
+    when(propertyName.getPropertyName()).thenReturn(TEST_PROPERTY);
+
+    SortBy sortBy = mock(SortBy.class);
+    when(sortBy.getSortOrder()).thenReturn(SortOrder.ASCENDING);
+    when(sortBy.getPropertyName()).thenReturn(propertyName);
+
+    CompletionService completionService = mock(CompletionService.class);
+    QueryRequest queryRequest = mock(QueryRequest.class);
+    Query query = mock(Query.class);
+    when(query.getSortBy()).thenReturn(sortBy);
+    when(query.getTimeoutMillis()).thenReturn(0L);
+    when(query.getPageSize()).thenReturn(5);
+    when(queryRequest.getQuery()).thenReturn(query);
+
+    Map<Future<SourceResponse>, QueryRequest> futures = new LinkedHashMap<>();
+    List<Future> sourceFutures = new ArrayList<>();
+    Serializable[][] sourceValues = {{"a", "d", "g"}, {"b", "c", "h"}, {"f", "e", "i"}};
+    for (int i = 0; i < sourceValues.length; i++) {
+      Future futureMock = mock(Future.class);
+      QueryRequest sourceRequest = mock(QueryRequest.class);
+      when(sourceRequest.getSourceIds()).thenReturn(Collections.singleton("Source-" + i));
+      SourceResponse sourceResponse = getMockedResponse(getResults(TEST_PROPERTY, sourceValues[i]));
+      when(futureMock.get()).thenReturn(sourceResponse);
+      futures.put(futureMock, sourceRequest);
+      sourceFutures.add(futureMock);
+    }
+    when(completionService.take())
+        .thenReturn(sourceFutures.get(0), sourceFutures.get(1), sourceFutures.get(2));
+
+    QueryResponseImpl queryResponse = new QueryResponseImpl(queryRequest);
+    SortedQueryMonitor queryMonitor =
+        new SortedQueryMonitor(
+            completionService, futures, queryResponse, queryRequest, new ArrayList<>());
+    queryMonitor.run();
+
+    assertThat(queryResponse.getHits()).isEqualTo(9);
+    assertResults(
+        queryResponse.getResults(), TEST_PROPERTY, new Serializable[] {"a", "b", "c", "d", "e"});
+  }
+
   @Test
   public void testSourcePropertiesCollision() throws Exception {
     PropertyName propertyName = mock(PropertyName.class);
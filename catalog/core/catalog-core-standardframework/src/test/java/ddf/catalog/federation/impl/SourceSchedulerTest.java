@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.source.CatalogProvider;
+import ddf.catalog.source.ConnectedSource;
+import ddf.catalog.source.Source;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.geotools.filter.NullFilterImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SourceSchedulerTest {
+
+  private SourceScheduler scheduler;
+
+  private Source source;
+
+  private QueryRequest request;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    scheduler = new SourceScheduler();
+    source = mock(Source.class);
+    when(source.getId()).thenReturn(UUID.randomUUID().toString());
+    request = new QueryRequestImpl(new QueryImpl(mock(NullFilterImpl.class)));
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testQueriesSource() throws Exception {
+    SourceResponse response = new SourceResponseImpl(request, new ArrayList<>());
+    when(source.query(request)).thenReturn(response);
+
+    assertThat(scheduler.query(source, request).call(), is(response));
+  }
+
+  @Test(expected = SourceUnavailableException.class)
+  public void testConcurrencyLimitRejectsQueries() throws Exception {
+    scheduler.setMaxConcurrentQueries(1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(source.query(request))
+        .thenAnswer(
+            invocation -> {
+              started.countDown();
+              release.await();
+              return new SourceResponseImpl(request, new ArrayList<>());
+            });
+
+    Future<SourceResponse> running = executor.submit(scheduler.query(source, request));
+    assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+    try {
+      scheduler.query(source, request).call();
+    } finally {
+      release.countDown();
+      assertThat(running.get(5, TimeUnit.SECONDS), is(notNullValue()));
+    }
+  }
+
+  @Test
+  public void testCircuitOpensAfterConsecutiveFailures() throws Exception {
+    scheduler.setFailureThreshold(2);
+    when(source.query(request)).thenThrow(new RuntimeException("down"));
+
+    failQuery();
+    failQuery();
+    failQuery();
+
+    verify(source, times(2)).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testCircuitClosesAfterSuccessfulProbe() throws Exception {
+    scheduler.setFailureThreshold(1);
+    scheduler.setOpenMillis(0);
+    SourceResponse response = new SourceResponseImpl(request, new ArrayList<>());
+    when(source.query(request)).thenThrow(new RuntimeException("down")).thenReturn(response);
+
+    failQuery();
+
+    assertThat(scheduler.query(source, request).call(), is(response));
+    assertThat(scheduler.query(source, request).call(), is(response));
+    verify(source, times(3)).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testUnsupportedQueriesDoNotOpenCircuit() throws Exception {
+    scheduler.setFailureThreshold(1);
+    when(source.query(request)).thenThrow(new UnsupportedQueryException("bad query"));
+
+    failQuery();
+    failQuery();
+
+    verify(source, times(2)).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testNoFailureThresholdNeverOpensCircuit() throws Exception {
+    scheduler.setFailureThreshold(0);
+    when(source.query(request)).thenThrow(new RuntimeException("down"));
+
+    for (int i = 0; i < 10; i++) {
+      failQuery();
+    }
+
+    verify(source, times(10)).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testLocalCatalogQueriesAreNeverRejected() throws Exception {
+    CatalogProvider catalog = mock(CatalogProvider.class);
+    when(catalog.getId()).thenReturn("local");
+    assertNeverRejected(catalog);
+  }
+
+  @Test
+  public void testConnectedSourceQueriesAreNeverRejected() throws Exception {
+    ConnectedSource connectedSource = mock(ConnectedSource.class);
+    when(connectedSource.getId()).thenReturn("connected");
+    assertNeverRejected(connectedSource);
+  }
+
+  private void assertNeverRejected(Source exemptSource) throws Exception {
+    scheduler.setMaxConcurrentQueries(1);
+    scheduler.setFailureThreshold(1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    SourceResponse response = new SourceResponseImpl(request, new ArrayList<>());
+    when(exemptSource.query(request))
+        .thenAnswer(
+            invocation -> {
+              started.countDown();
+              release.await();
+              return response;
+            })
+        .thenThrow(new RuntimeException("timed out"))
+        .thenThrow(new RuntimeException("timed out"))
+        .thenReturn(response);
+
+    // A query beyond the concurrency limit still runs
+    Future<SourceResponse> running = executor.submit(scheduler.query(exemptSource, request));
+    assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+    try {
+      failQuery(exemptSource);
+    } finally {
+      release.countDown();
+      assertThat(running.get(5, TimeUnit.SECONDS), is(response));
+    }
+
+    // Failures beyond the threshold do not stop queries to it
+    failQuery(exemptSource);
+    assertThat(scheduler.query(exemptSource, request).call(), is(response));
+    verify(exemptSource, times(4)).query(any(QueryRequest.class));
+  }
+
+  private void failQuery(Source failingSource) {
+    try {
+      scheduler.query(failingSource, request).call();
+    } catch (Exception e) {
+      // expected
+    }
+  }
+
+  private void failQuery() {
+    try {
+      scheduler.query(source, request).call();
+    } catch (Exception e) {
+      // expected
+    }
+  }
+}
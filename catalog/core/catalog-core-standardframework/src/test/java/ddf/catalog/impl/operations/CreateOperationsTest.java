@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.impl.FrameworkProperties;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteRequest;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.operation.impl.CreateResponseImpl;
+import ddf.catalog.plugin.PostIngestPlugin;
+import ddf.catalog.source.CatalogProvider;
+import ddf.catalog.source.IngestException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+
+public class CreateOperationsTest {
+
+  private FrameworkProperties frameworkProperties;
+
+  private CatalogProvider catalogProvider;
+
+  private PostIngestPlugin postIngestPlugin;
+
+  private CreateOperations createOperations;
+
+  @Before
+  public void setUp() throws Exception {
+    catalogProvider = mock(CatalogProvider.class);
+    when(catalogProvider.getId()).thenReturn("local");
+
+    postIngestPlugin = mock(PostIngestPlugin.class);
+    when(postIngestPlugin.process(any(CreateResponse.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    frameworkProperties = new FrameworkProperties();
+    frameworkProperties.getPostIngest().add(postIngestPlugin);
+
+    QueryOperations queryOperations = mock(QueryOperations.class);
+    when(queryOperations.setFlagsOnRequest(any(CreateRequest.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    SourceOperations sourceOperations = mock(SourceOperations.class);
+    when(sourceOperations.getCatalog()).thenReturn(catalogProvider);
+    when(sourceOperations.isSourceAvailable(catalogProvider)).thenReturn(true);
+
+    OperationsMetacardSupport opsMetacardSupport = mock(OperationsMetacardSupport.class);
+    when(opsMetacardSupport.applyInjectors(any(Metacard.class), any()))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    createOperations =
+        new CreateOperations(
+            frameworkProperties,
+            queryOperations,
+            sourceOperations,
+            mock(OperationsSecuritySupport.class),
+            opsMetacardSupport,
+            mock(OperationsCatalogStoreSupport.class),
+            mock(OperationsStorageSupport.class));
+    createOperations.setIngestThreads(2);
+  }
+
+  @After
+  public void tearDown() {
+    createOperations.destroy();
+  }
+
+  @Test
+  public void testCreateWithoutBatching() throws Exception {
+    when(catalogProvider.create(any(CreateRequest.class))).thenAnswer(this::createAll);
+
+    CreateResponse response = createOperations.create(new CreateRequestImpl(metacards(5)));
+
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
+    assertThat(response.getCreatedMetacards().size(), is(5));
+  }
+
+  @Test
+  public void testBatchedCreatePreservesOrder() throws Exception {
+    createOperations.setIngestBatchSize(2);
+    when(catalogProvider.create(any(CreateRequest.class))).thenAnswer(this::createAll);
+
+    CreateResponse response = createOperations.create(new CreateRequestImpl(metacards(5)));
+
+    verify(catalogProvider, times(3)).create(any(CreateRequest.class));
+    verify(postIngestPlugin, times(1)).process(any(CreateResponse.class));
+    assertThat(ids(response.getCreatedMetacards()), contains("0", "1", "2", "3", "4"));
+    assertThat(ids(response.getRequest().getMetacards()), contains("0", "1", "2", "3", "4"));
+  }
+
+  @Test
+  public void testFailedBatchRollsBackCreatedBatches() throws Exception {
+    createOperations.setIngestBatchSize(2);
+    List<String> createdIds = Collections.synchronizedList(new ArrayList<>());
+    when(catalogProvider.create(any(CreateRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              CreateRequest request = invocation.getArgument(0);
+              if (request.getMetacards().get(0).getId().equals("2")) {
+                throw new IngestException("batch failed");
+              }
+              createdIds.addAll(ids(request.getMetacards()));
+              return createAll(invocation);
+            });
+
+    try {
+      createOperations.create(new CreateRequestImpl(metacards(6)));
+      fail("Expected the batched create to fail");
+    } catch (IngestException e) {
+      assertThat(e.getMessage(), is("batch failed"));
+    }
+
+    verify(postIngestPlugin, never()).process(any(CreateResponse.class));
+    if (createdIds.isEmpty()) {
+      verify(catalogProvider, never()).delete(any(DeleteRequest.class));
+    } else {
+      ArgumentCaptor<DeleteRequest> deleteRequest = ArgumentCaptor.forClass(DeleteRequest.class);
+      verify(catalogProvider).delete(deleteRequest.capture());
+      assertThat(
+          deleteRequest.getValue().getAttributeValues(), containsInAnyOrder(createdIds.toArray()));
+    }
+  }
+
+  private CreateResponse createAll(InvocationOnMock invocation) {
+    CreateRequest request = invocation.getArgument(0);
+    return new CreateResponseImpl(request, new HashMap<>(), request.getMetacards());
+  }
+
+  private List<Metacard> metacards(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(
+            i -> {
+              MetacardImpl metacard = new MetacardImpl();
+              metacard.setId(String.valueOf(i));
+              metacard.setTitle("title " + i);
+              return (Metacard) metacard;
+            })
+        .collect(Collectors.toList());
+  }
+
+  private List<String> ids(List<Metacard> metacards) {
+    return metacards.stream().map(Metacard::getId).collect(Collectors.toList());
+  }
+}
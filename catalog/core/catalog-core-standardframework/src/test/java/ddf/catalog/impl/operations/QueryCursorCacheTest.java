@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_START;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.impl.SortByImpl;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+public class QueryCursorCacheTest {
+
+  private static final FilterBuilder FILTER_BUILDER = new GeotoolsFilterBuilder();
+
+  private static final int PAGE_SIZE = 10;
+
+  private QueryCursorCache queryCursorCache;
+
+  @Before
+  public void setUp() {
+    queryCursorCache = new QueryCursorCache(new GeotoolsFilterAdapterImpl());
+  }
+
+  @Test
+  public void testFirstPageUsesOffset() {
+    assertThat(queryCursorCache.getCursor(request("foo", 1, null)), is(nullValue()));
+  }
+
+  @Test
+  public void testUnknownPageUsesOffset() {
+    assertThat(queryCursorCache.getCursor(request("foo", 11, null)), is(nullValue()));
+  }
+
+  @Test
+  public void testNextPageUsesRememberedCursor() {
+    queryCursorCache.putNextCursor(cursorRequest("foo"), response("next", PAGE_SIZE));
+
+    assertThat(queryCursorCache.getCursor(request("foo", 11, null)), is("next"));
+    assertThat(queryCursorCache.getCursor(request("foo", 21, null)), is(nullValue()));
+  }
+
+  @Test
+  public void testDifferentQueryDoesNotUseRememberedCursor() {
+    queryCursorCache.putNextCursor(request("foo", 1, null), response("next", PAGE_SIZE));
+
+    assertThat(queryCursorCache.getCursor(request("bar", 11, null)), is(nullValue()));
+  }
+
+  @Test
+  public void testDifferentSortDoesNotUseRememberedCursor() {
+    queryCursorCache.putNextCursor(
+        request("foo", 1, new SortByImpl(Metacard.MODIFIED, SortOrder.ASCENDING)),
+        response("next", PAGE_SIZE));
+
+    assertThat(
+        queryCursorCache.getCursor(
+            request("foo", 11, new SortByImpl(Metacard.MODIFIED, SortOrder.DESCENDING))),
+        is(nullValue()));
+    assertThat(
+        queryCursorCache.getCursor(
+            request("foo", 11, new SortByImpl(Metacard.MODIFIED, SortOrder.ASCENDING))),
+        is("next"));
+  }
+
+  @Test
+  public void testEmptyPageIsNotRemembered() {
+    queryCursorCache.putNextCursor(request("foo", 1, null), response("next", 0));
+
+    assertThat(queryCursorCache.getCursor(request("foo", 11, null)), is(nullValue()));
+  }
+
+  private static QueryRequest request(String text, int startIndex, SortBy sortBy) {
+    Filter filter = FILTER_BUILDER.attribute(Metacard.ANY_TEXT).is().like().text(text);
+    return new QueryRequestImpl(
+        new QueryImpl(filter, startIndex, PAGE_SIZE, sortBy, false, 0), new HashMap<>());
+  }
+
+  private static QueryRequest cursorRequest(String text) {
+    QueryRequest request = request(text, 1, null);
+    request.getProperties().put(QUERY_CURSOR_KEY, QUERY_CURSOR_START);
+    return request;
+  }
+
+  private static QueryResponse response(String nextCursor, int resultCount) {
+    List<Result> results =
+        IntStream.range(0, resultCount)
+            .mapToObj(i -> new ResultImpl(new MetacardImpl()))
+            .collect(Collectors.toList());
+    Map<String, Serializable> properties =
+        Collections.singletonMap(QUERY_CURSOR_KEY, (Serializable) nextCursor);
+    return new QueryResponseImpl(null, results, true, resultCount, new HashMap<>(properties));
+  }
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_START;
+import static ddf.catalog.Constants.QUERY_REQUESTED_ATTRIBUTES_KEY;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.CompactMetacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.ProcessingDetailsImpl;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+
+public class QueryResultCacheTest {
+
+  private static final FilterBuilder FILTER_BUILDER = new GeotoolsFilterBuilder();
+
+  private QueryResultCache queryResultCache;
+
+  @Before
+  public void setUp() {
+    queryResultCache = new QueryResultCache(new GeotoolsFilterAdapterImpl(), 10, 60);
+  }
+
+  @Test
+  public void testRepeatedQueryIsAnsweredFromCache() {
+    QueryRequest request = request("foo", 1);
+    String key = queryResultCache.createKey(request);
+    QueryResponse response = response(request, "title");
+
+    assertThat(queryResultCache.get(key, request), is(nullValue()));
+    queryResultCache.put(key, queryResultCache.getGeneration(), response);
+
+    QueryRequest repeated = request("foo", 1);
+    QueryResponse cached = queryResultCache.get(queryResultCache.createKey(repeated), repeated);
+    assertThat(cached, is(notNullValue()));
+    assertThat(cached.getRequest(), is(sameInstance(repeated)));
+    assertThat(cached.getHits(), is(1L));
+    assertThat(cached.getResults().get(0).getMetacard().getTitle(), is("title"));
+  }
+
+  @Test
+  public void testCachedMetacardsAreCopies() {
+    QueryRequest request = request("foo", 1);
+    String key = queryResultCache.createKey(request);
+    QueryResponse response = response(request, "title");
+    queryResultCache.put(key, queryResultCache.getGeneration(), response);
+
+    Metacard cached = queryResultCache.get(key, request).getResults().get(0).getMetacard();
+    cached.setAttribute(new AttributeImpl(Metacard.TITLE, "redacted"));
+
+    assertThat(cached, is(not(sameInstance(response.getResults().get(0).getMetacard()))));
+    assertThat(
+        queryResultCache.get(key, request).getResults().get(0).getMetacard().getTitle(),
+        is("title"));
+  }
+
+  @Test
+  public void testDifferentPagesHaveDifferentKeys() {
+    assertThat(
+        queryResultCache.createKey(request("foo", 1)),
+        is(not(queryResultCache.createKey(request("foo", 11)))));
+  }
+
+  @Test
+  public void testInvalidateAllDropsEntries() {
+    QueryRequest request = request("foo", 1);
+    String key = queryResultCache.createKey(request);
+    queryResultCache.put(key, queryResultCache.getGeneration(), response(request, "title"));
+
+    queryResultCache.invalidateAll();
+
+    assertThat(queryResultCache.get(key, request), is(nullValue()));
+  }
+
+  @Test
+  public void testResponseOfQueryStartedBeforeWriteIsNotCached() {
+    QueryRequest request = request("foo", 1);
+    String key = queryResultCache.createKey(request);
+    long generation = queryResultCache.getGeneration();
+
+    queryResultCache.invalidateAll();
+    queryResultCache.put(key, generation, response(request, "title"));
+
+    assertThat(queryResultCache.get(key, request), is(nullValue()));
+  }
+
+  @Test
+  public void testResponseWithProcessingErrorsIsNotCached() {
+    QueryRequest request = request("foo", 1);
+    String key = queryResultCache.createKey(request);
+    QueryResponse response = response(request, "title");
+    response.getProcessingDetails().add(new ProcessingDetailsImpl("source", new Exception()));
+
+    queryResultCache.put(key, queryResultCache.getGeneration(), response);
+
+    assertThat(queryResultCache.get(key, request), is(nullValue()));
+  }
+
+  @Test
+  public void testCursorQueryIsNotCached() {
+    QueryRequest request = request("foo", 11);
+    request.getProperties().put(QUERY_CURSOR_KEY, "AoE/abc");
+
+    assertThat(queryResultCache.createKey(request), is(nullValue()));
+  }
+
+  @Test
+  public void testQueryStartingCursorIsCachedSeparately() {
+    QueryRequest request = request("foo", 1);
+    request.getProperties().put(QUERY_CURSOR_KEY, QUERY_CURSOR_START);
+    String key = queryResultCache.createKey(request);
+    QueryResponse response = response(request, "first");
+    response.getProperties().put(QUERY_CURSOR_KEY, "AoE/next");
+
+    queryResultCache.put(key, queryResultCache.getGeneration(), response);
+
+    assertThat(key, is(not(queryResultCache.createKey(request("foo", 1)))));
+    assertThat(
+        queryResultCache.get(key, request).getPropertyValue(QUERY_CURSOR_KEY), is("AoE/next"));
+  }
+
+  @Test
+  public void testRequestedAttributesArePartOfKey() {
+    QueryRequest projected = request("foo", 1);
+    projected
+        .getProperties()
+        .put(QUERY_REQUESTED_ATTRIBUTES_KEY, new HashSet<>(Arrays.asList("title", "id")));
+    QueryRequest sameProjection = request("foo", 1);
+    sameProjection
+        .getProperties()
+        .put(QUERY_REQUESTED_ATTRIBUTES_KEY, new ArrayList<>(Arrays.asList("id", "title")));
+
+    assertThat(
+        queryResultCache.createKey(projected),
+        is(not(queryResultCache.createKey(request("foo", 1)))));
+    assertThat(
+        queryResultCache.createKey(projected), is(queryResultCache.createKey(sameProjection)));
+  }
+
+  @Test
+  public void testCachedProjectedMetacardsLoadMissingAttributesOnAccess() {
+    MetacardImpl complete = new MetacardImpl();
+    complete.setDescription("description");
+    AtomicInteger loadCount = new AtomicInteger();
+    CompactMetacard metacard = new CompactMetacard(MetacardImpl.BASIC_METACARD);
+    metacard.setTitle("title");
+    metacard.setAttributeLoader(
+        Collections.singleton(Metacard.DESCRIPTION),
+        () -> {
+          loadCount.incrementAndGet();
+          return complete;
+        });
+
+    QueryRequest request = request("foo", 1);
+    String key = queryResultCache.createKey(request);
+    queryResultCache.put(
+        key,
+        queryResultCache.getGeneration(),
+        new QueryResponseImpl(
+            request,
+            Collections.singletonList(new ResultImpl(metacard)),
+            true,
+            1,
+            new HashMap<>(),
+            new HashSet<>()));
+    Metacard cached = queryResultCache.get(key, request).getResults().get(0).getMetacard();
+
+    assertThat(cached.getTitle(), is("title"));
+    assertThat(loadCount.get(), is(0));
+    assertThat(cached.getDescription(), is("description"));
+  }
+
+  private static QueryRequest request(String text, int startIndex) {
+    Filter filter = FILTER_BUILDER.attribute(Metacard.ANY_TEXT).is().like().text(text);
+    return new QueryRequestImpl(
+        new QueryImpl(filter, startIndex, 10, null, false, 0), new HashMap<>());
+  }
+
+  private static QueryResponse response(QueryRequest request, String title) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setTitle(title);
+    List<Result> results = Collections.singletonList(new ResultImpl(metacard));
+    return new QueryResponseImpl(request, results, true, 1, new HashMap<>(), new HashSet<>());
+  }
+}
@@ -48,6 +48,7 @@
 import ddf.catalog.resourceretriever.ResourceRetriever;
 import ddf.security.service.impl.SubjectUtils;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -62,6 +63,7 @@
 import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class ReliableResourceDownloaderTest {
   private static final String DOWNLOAD_ID = "123";
@@ -124,6 +126,35 @@ public void testBadKeyName() throws Exception {
     verify(mockCache, never()).addPendingCacheEntry(any(ReliableResource.class));
   }
 
+  @Test
+  public void testPendingCacheEntryRemovedWhenCacheFileCannotBeOpened() throws Exception {
+    // A file in place of the cache directory makes opening the cache file fail
+    File notADirectory = File.createTempFile("product-cache", ".txt");
+    notADirectory.deleteOnExit();
+
+    downloaderConfig.setCacheEnabled(true);
+
+    ResourceCacheImpl mockCache = mock(ResourceCacheImpl.class);
+    when(mockCache.isPending(anyString())).thenReturn(false);
+    when(mockCache.getProductCacheDirectory()).thenReturn(notADirectory.getAbsolutePath());
+    downloaderConfig.setResourceCache(mockCache);
+
+    ReliableResourceDownloader downloader =
+        new ReliableResourceDownloader(
+            downloaderConfig,
+            new AtomicBoolean(),
+            DOWNLOAD_ID,
+            getMockResourceResponse(mockStream),
+            getMockRetriever());
+    DownloadStatusInfoImpl downloadStatusInfo = new DownloadStatusInfoImpl();
+    downloadStatusInfo.setSubjectOperations(new SubjectUtils());
+    downloader.setupDownload(mockMetacard, downloadStatusInfo);
+
+    ArgumentCaptor<ReliableResource> pending = ArgumentCaptor.forClass(ReliableResource.class);
+    verify(mockCache).addPendingCacheEntry(pending.capture());
+    verify(mockCache).removePendingCacheEntry(pending.getValue().getKey());
+  }
+
   @Test
   public void testIOExceptionDuringRead() throws Exception {
     ResourceResponse mockResponse = getMockResourceResponse(mockStream);
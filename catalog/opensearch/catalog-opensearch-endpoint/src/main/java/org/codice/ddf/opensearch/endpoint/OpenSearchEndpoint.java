@@ -28,6 +28,7 @@
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -75,6 +76,8 @@ public class OpenSearchEndpoint implements OpenSearch {
   private static final Pattern SOURCES_PATTERN =
       Pattern.compile(OpenSearchConstants.SOURCES_DELIMITER);
 
+  private static final Pattern ATTRIBUTES_PATTERN = Pattern.compile(",");
+
   private static final Pattern SORT_PATTERN = Pattern.compile(OpenSearchConstants.SORT_DELIMITER);
 
   /**
@@ -225,6 +228,8 @@ public Response processQuery(
           }
         }
       }
+      setRequestedAttributes(properties);
+      startQueryCursor(query, properties);
 
       response = executeQuery(format, query, ui, properties);
     } catch (ParsingException e) {
@@ -244,6 +249,41 @@ public Response processQuery(
     return response;
   }
 
+  /**
+   * Turns the comma-delimited {@link Constants#QUERY_REQUESTED_ATTRIBUTES_KEY} parameter into the
+   * set of attribute names that sources and query response transformers expect.
+   */
+  private void setRequestedAttributes(Map<String, Serializable> properties) {
+    Serializable requestedAttributes = properties.get(Constants.QUERY_REQUESTED_ATTRIBUTES_KEY);
+    if (!(requestedAttributes instanceof String)) {
+      return;
+    }
+
+    HashSet<String> attributes =
+        ATTRIBUTES_PATTERN
+            .splitAsStream((String) requestedAttributes)
+            .map(String::trim)
+            .filter(StringUtils::isNotEmpty)
+            .collect(Collectors.toCollection(HashSet::new));
+    if (attributes.isEmpty()) {
+      properties.remove(Constants.QUERY_REQUESTED_ATTRIBUTES_KEY);
+    } else {
+      properties.put(Constants.QUERY_REQUESTED_ATTRIBUTES_KEY, attributes);
+    }
+  }
+
+  /**
+   * Starts a query cursor with the first page of results so that the catalog can continue from it
+   * when the client asks for the following pages by start index.
+   */
+  private void startQueryCursor(OpenSearchQuery query, Map<String, Serializable> properties) {
+    if (query.getStartIndex() == 1
+        && query.getPageSize() > 0
+        && !properties.containsKey(Constants.QUERY_CURSOR_KEY)) {
+      properties.put(Constants.QUERY_CURSOR_KEY, Constants.QUERY_CURSOR_START);
+    }
+  }
+
   /**
    * Creates SpatialCriterion based on the input parameters, any null values will be ignored
    *
@@ -13,13 +13,18 @@
  */
 package org.codice.ddf.opensearch.endpoint;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.Constants;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.AttributeBuilder;
@@ -37,6 +42,9 @@
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.UriInfo;
@@ -44,6 +52,7 @@
 import org.codice.ddf.opensearch.endpoint.query.OpenSearchQuery;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.opengis.filter.Filter;
 
 public class OpenSearchEndpointTest {
@@ -152,4 +161,120 @@ public void testProcessQueryForProperHandlingOfSiteNameLOCAL()
         null,
         null);
   }
+
+  @Test
+  public void testRequestedAttributesParameterIsPassedAsSet() throws Exception {
+    CatalogFramework mockFramework = mock(CatalogFramework.class);
+    FilterBuilder mockFilterBuilder = mock(FilterBuilder.class, RETURNS_DEEP_STUBS);
+    when(mockFilterBuilder.attribute(anyString()).is().like().text(anyString()))
+        .thenReturn(mock(Filter.class));
+
+    UriInfo mockUriInfo = mock(UriInfo.class);
+    when(mockUriInfo.getRequestUri()).thenReturn(new URI("test"));
+    when(mockUriInfo.getQueryParameters()).thenReturn(mock(MultivaluedMap.class));
+
+    HttpServletRequest mockRequest = mock(HttpServletRequest.class);
+    when(mockRequest.getParameterMap())
+        .thenReturn(
+            Collections.singletonMap(
+                Constants.QUERY_REQUESTED_ATTRIBUTES_KEY, new String[] {"title, location,"}));
+
+    ArgumentCaptor<QueryRequest> queryRequest = ArgumentCaptor.forClass(QueryRequest.class);
+    when(mockFramework.query(queryRequest.capture()))
+        .thenAnswer(invocation -> new QueryResponseImpl(invocation.getArgument(0)));
+    BinaryContent mockBinaryContent = mock(BinaryContent.class);
+    when(mockBinaryContent.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+    when(mockFramework.transform(any(QueryResponse.class), anyString(), anyMap()))
+        .thenReturn(mockBinaryContent);
+
+    new OpenSearchEndpoint(mockFramework, mockFilterBuilder)
+        .processQuery(
+            "searchForThis",
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            mockUriInfo,
+            null,
+            null,
+            mockRequest);
+
+    assertThat(
+        queryRequest.getValue().getPropertyValue(Constants.QUERY_REQUESTED_ATTRIBUTES_KEY),
+        is(new HashSet<>(Arrays.asList("title", "location"))));
+  }
+
+  @Test
+  public void testFirstPageStartsQueryCursor() throws Exception {
+    assertThat(
+        queryStartingAt("1").getPropertyValue(Constants.QUERY_CURSOR_KEY),
+        is(Constants.QUERY_CURSOR_START));
+  }
+
+  @Test
+  public void testLaterPageDoesNotStartQueryCursor() throws Exception {
+    assertThat(queryStartingAt("11").getPropertyValue(Constants.QUERY_CURSOR_KEY), is(nullValue()));
+  }
+
+  private static QueryRequest queryStartingAt(String startIndex) throws Exception {
+    CatalogFramework mockFramework = mock(CatalogFramework.class);
+    FilterBuilder mockFilterBuilder = mock(FilterBuilder.class, RETURNS_DEEP_STUBS);
+    when(mockFilterBuilder.attribute(anyString()).is().like().text(anyString()))
+        .thenReturn(mock(Filter.class));
+
+    UriInfo mockUriInfo = mock(UriInfo.class);
+    when(mockUriInfo.getRequestUri()).thenReturn(new URI("test"));
+    when(mockUriInfo.getQueryParameters()).thenReturn(mock(MultivaluedMap.class));
+
+    HttpServletRequest mockRequest = mock(HttpServletRequest.class);
+    when(mockRequest.getParameterMap()).thenReturn(Collections.emptyMap());
+
+    ArgumentCaptor<QueryRequest> queryRequest = ArgumentCaptor.forClass(QueryRequest.class);
+    when(mockFramework.query(queryRequest.capture()))
+        .thenAnswer(invocation -> new QueryResponseImpl(invocation.getArgument(0)));
+    BinaryContent mockBinaryContent = mock(BinaryContent.class);
+    when(mockBinaryContent.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+    when(mockFramework.transform(any(QueryResponse.class), anyString(), anyMap()))
+        .thenReturn(mockBinaryContent);
+
+    new OpenSearchEndpoint(mockFramework, mockFilterBuilder)
+        .processQuery(
+            "searchForThis",
+            null,
+            null,
+            null,
+            startIndex,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            mockUriInfo,
+            null,
+            null,
+            mockRequest);
+
+    return queryRequest.getValue();
+  }
 }
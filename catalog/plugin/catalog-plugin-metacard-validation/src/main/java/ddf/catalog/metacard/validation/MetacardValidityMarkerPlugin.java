@@ -27,12 +27,14 @@
 import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -40,6 +42,7 @@
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -81,18 +84,50 @@ public UpdateRequest process(UpdateRequest input)
 
   private <T> List<T> validateList(List<T> requestItems, Function<T, Metacard> itemToMetacard) {
     Map<String, Integer> counter = new HashMap<>();
+    Map<MetacardValidator, Map<Integer, ValidationException>> batchResults =
+        validateBatch(requestItems.stream().map(itemToMetacard).collect(Collectors.toList()));
 
     List<T> validated =
-        requestItems.stream()
-            .map(item -> validate(item, itemToMetacard, counter))
+        IntStream.range(0, requestItems.size())
+            .mapToObj(
+                position ->
+                    validate(
+                        requestItems.get(position),
+                        position,
+                        itemToMetacard,
+                        batchResults,
+                        counter))
             .filter(didNotFailEnforcedValidator)
             .collect(Collectors.toList());
 
     return validated;
   }
 
+  /**
+   * Runs the validators that support it against all of the request's metacards at once, so they can
+   * share work such as catalog queries across the request.
+   */
+  private Map<MetacardValidator, Map<Integer, ValidationException>> validateBatch(
+      List<Metacard> metacards) {
+    Map<MetacardValidator, Map<Integer, ValidationException>> batchResults =
+        new IdentityHashMap<>();
+    if (metacards.size() > 1) {
+      for (MetacardValidator validator : metacardValidators) {
+        if (validator instanceof BatchMetacardValidator) {
+          batchResults.put(
+              validator, ((BatchMetacardValidator) validator).validateMetacards(metacards));
+        }
+      }
+    }
+    return batchResults;
+  }
+
   private <T> T validate(
-      T item, Function<T, Metacard> itemToMetacard, Map<String, Integer> counter) {
+      T item,
+      int position,
+      Function<T, Metacard> itemToMetacard,
+      Map<MetacardValidator, Map<Integer, ValidationException>> batchResults,
+      Map<String, Integer> counter) {
     Set<Serializable> newErrors = new HashSet<>();
     Set<Serializable> newWarnings = new HashSet<>();
     Set<Serializable> errorValidators = new HashSet<>();
@@ -107,7 +142,12 @@ private <T> T validate(
 
     for (MetacardValidator validator : metacardValidators) {
       try {
-        validator.validate(metacard);
+        Map<Integer, ValidationException> validatorResults = batchResults.get(validator);
+        if (validatorResults == null) {
+          validator.validate(metacard);
+        } else if (validatorResults.containsKey(position)) {
+          throw validatorResults.get(position);
+        }
       } catch (ValidationException e) {
         String validatorName = getValidatorName(validator);
         boolean validationErrorsExist = CollectionUtils.isNotEmpty(e.getErrors());
@@ -26,6 +26,9 @@
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
@@ -46,6 +49,7 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import java.io.Serializable;
@@ -422,6 +426,26 @@ public void testTrackingClean() throws Exception {
     testTrackingHelper(getMockPassingValidator(), false, false);
   }
 
+  @Test
+  public void testBatchValidatorValidatesRequestOnce()
+      throws StopProcessingException, PluginExecutionException, ValidationException {
+    ValidationException validationException = mock(ValidationException.class);
+    when(validationException.getErrors()).thenReturn(Collections.singletonList(SAMPLE_ERROR));
+    BatchMetacardValidator batchValidator = mock(BatchMetacardValidator.class);
+    when(batchValidator.validateMetacards(any()))
+        .thenReturn(Collections.singletonMap(1, validationException));
+    metacardValidators.add(batchValidator);
+
+    CreateRequest filteredRequest = plugin.process(getMockCreateRequest());
+
+    verify(batchValidator, times(1)).validateMetacards(any());
+    verify(batchValidator, never()).validate(any(Metacard.class));
+    assertThat(filteredRequest.getMetacards().get(0).getTags(), hasItem(VALID_TAG));
+    assertThat(filteredRequest.getMetacards().get(1).getTags(), hasItem(INVALID_TAG));
+    expectError.accept(
+        filteredRequest.getMetacards().get(1).getAttribute(Validation.VALIDATION_ERRORS));
+  }
+
   private void testTrackingHelper(
       MetacardValidator validator, boolean expectErrors, boolean expectWarnings) throws Exception {
     List<Metacard> metacards = markerPluginResponseHelper(validator, false, false, 2);
@@ -36,8 +36,9 @@
 import ddf.security.SubjectOperations;
 import ddf.security.audit.SecurityLogger;
 import ddf.security.permission.CollectionPermission;
-import ddf.security.permission.KeyValueCollectionPermission;
 import ddf.security.permission.Permissions;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.io.Serializable;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
@@ -45,7 +46,6 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.StringJoiner;
 import java.util.TreeMap;
 import org.apache.shiro.subject.Subject;
@@ -64,6 +64,8 @@ public class FilterPlugin implements AccessPlugin {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FilterPlugin.class);
 
+  private static final String FILTER_METRIC = "ddf.catalog.security.filter.duration";
+
   private static final String UNABLE_TO_FILTER_MSG =
       "Unable to filter contents of current message, no user Subject available.";
 
@@ -78,6 +80,16 @@ public class FilterPlugin implements AccessPlugin {
 
   private Permissions permissions;
 
+  private boolean decisionCacheEnabled = false;
+
+  private long decisionCacheTtlSeconds = 60;
+
+  private long decisionCacheMaxSubjects = 1000;
+
+  private int decisionCacheMaxDecisions = 1000;
+
+  private volatile PermissionDecisionCache decisionCache;
+
   public FilterPlugin(Security security) {
     this.security = security;
   }
@@ -101,21 +113,21 @@ protected Subject getSystemSubject() {
 
   @Override
   public CreateRequest processPreCreate(CreateRequest input) throws StopProcessingException {
-    KeyValueCollectionPermission securityPermission =
-        permissions.buildKeyValueCollectionPermission(CollectionPermission.CREATE_ACTION);
     List<Metacard> metacards = input.getMetacards();
     Subject subject = getSubject(input);
     Subject systemSubject = getSystemSubject();
+    PermissionDecisions userDecisions =
+        getPermissionDecisions(subject, CollectionPermission.CREATE_ACTION);
+    PermissionDecisions systemDecisions =
+        getPermissionDecisions(systemSubject, CollectionPermission.CREATE_ACTION);
     List<String> userNotPermittedTitles = new ArrayList<>();
     List<String> systemNotPermittedTitles = new ArrayList<>();
     for (Metacard metacard : metacards) {
       Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(
-          attr, securityPermission, subject, CollectionPermission.CREATE_ACTION)) {
+      if (!userDecisions.isPermitted(attr)) {
         userNotPermittedTitles.add(metacard.getTitle());
       }
-      if (!checkPermissions(
-          attr, securityPermission, systemSubject, CollectionPermission.CREATE_ACTION)) {
+      if (!systemDecisions.isPermitted(attr)) {
         systemNotPermittedTitles.add(metacard.getTitle());
       }
     }
@@ -144,11 +156,13 @@ public CreateRequest processPreCreate(CreateRequest input) throws StopProcessing
   @Override
   public UpdateRequest processPreUpdate(UpdateRequest input, Map<String, Metacard> metacards)
       throws StopProcessingException {
-    KeyValueCollectionPermission securityPermission =
-        permissions.buildKeyValueCollectionPermission(CollectionPermission.UPDATE_ACTION);
     List<Map.Entry<Serializable, Metacard>> updates = input.getUpdates();
     Subject subject = getSubject(input);
     Subject systemSubject = getSystemSubject();
+    PermissionDecisions userDecisions =
+        getPermissionDecisions(subject, CollectionPermission.UPDATE_ACTION);
+    PermissionDecisions systemDecisions =
+        getPermissionDecisions(systemSubject, CollectionPermission.UPDATE_ACTION);
     List<String> unknownIds = new ArrayList<>();
     List<String> userNotPermittedIds = new ArrayList<>();
     List<String> systemNotPermittedIds = new ArrayList<>();
@@ -166,13 +180,10 @@ public UpdateRequest processPreUpdate(UpdateRequest input, Map<String, Metacard>
         unknownIds.add(id);
       } else {
         Attribute oldAttr = oldMetacard.getAttribute(Metacard.SECURITY);
-        if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.UPDATE_ACTION)
-            || !checkPermissions(
-                oldAttr, securityPermission, subject, CollectionPermission.UPDATE_ACTION)) {
+        if (!userDecisions.isPermitted(attr) || !userDecisions.isPermitted(oldAttr)) {
           userNotPermittedIds.add(newMetacard.getId());
         }
-        if (!checkPermissions(
-            attr, securityPermission, systemSubject, CollectionPermission.UPDATE_ACTION)) {
+        if (!systemDecisions.isPermitted(attr)) {
           systemNotPermittedIds.add(newMetacard.getId());
         }
       }
@@ -205,15 +216,16 @@ public DeleteResponse processPostDelete(DeleteResponse input) throws StopProcess
       throw new StopProcessingException(UNABLE_TO_FILTER_MSG);
     }
     Subject subject = getSubject(input);
+    Timer.Sample sample = Timer.start(Metrics.globalRegistry);
 
     List<Metacard> results = input.getDeletedMetacards();
     List<Metacard> newResults = new ArrayList<>(results.size());
-    KeyValueCollectionPermission securityPermission =
-        permissions.buildKeyValueCollectionPermission(CollectionPermission.READ_ACTION);
+    PermissionDecisions decisions =
+        getPermissionDecisions(subject, CollectionPermission.READ_ACTION);
     int filteredMetacards = 0;
     for (Metacard metacard : results) {
       Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+      if (!decisions.isPermitted(attr)) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -238,6 +250,7 @@ public DeleteResponse processPostDelete(DeleteResponse input) throws StopProcess
     input.getDeletedMetacards().clear();
     input.getDeletedMetacards().addAll(newResults);
     newResults.clear();
+    sample.stop(Metrics.timer(FILTER_METRIC, "operation", "delete"));
     return input;
   }
 
@@ -252,17 +265,18 @@ public QueryResponse processPostQuery(QueryResponse input) throws StopProcessing
       throw new StopProcessingException(UNABLE_TO_FILTER_MSG);
     }
     Subject subject = getSubject(input);
+    Timer.Sample sample = Timer.start(Metrics.globalRegistry);
 
     List<Result> results = input.getResults();
     List<Result> newResults = new ArrayList<>(results.size());
     Metacard metacard;
-    KeyValueCollectionPermission securityPermission =
-        permissions.buildKeyValueCollectionPermission(CollectionPermission.READ_ACTION);
+    PermissionDecisions decisions =
+        getPermissionDecisions(subject, CollectionPermission.READ_ACTION);
     int filteredMetacards = 0;
     for (Result result : results) {
       metacard = result.getMetacard();
       Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+      if (!decisions.isPermitted(attr)) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -287,6 +301,7 @@ public QueryResponse processPostQuery(QueryResponse input) throws StopProcessing
     input.getResults().clear();
     input.getResults().addAll(newResults);
     newResults.clear();
+    sample.stop(Metrics.timer(FILTER_METRIC, "operation", "query"));
     return input;
   }
 
@@ -301,11 +316,9 @@ public ResourceResponse processPostResource(ResourceResponse input, Metacard met
     if (input.getRequest() == null || input.getRequest().getProperties() == null) {
       throw new StopProcessingException(UNABLE_TO_FILTER_MSG);
     }
-    KeyValueCollectionPermission securityPermission =
-        permissions.buildKeyValueCollectionPermission(CollectionPermission.READ_ACTION);
     Subject subject = getSubject(input);
     Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-    if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+    if (!getPermissionDecisions(subject, CollectionPermission.READ_ACTION).isPermitted(attr)) {
       for (FilterStrategy filterStrategy : filterStrategies.values()) {
         FilterResult filterResult = filterStrategy.process(input, metacard);
         if (filterResult.processed()) {
@@ -347,20 +360,8 @@ private Subject getSubject(Request input) throws StopProcessingException {
     return subject;
   }
 
-  private boolean checkPermissions(
-      Attribute attr,
-      KeyValueCollectionPermission securityPermission,
-      Subject subject,
-      String action) {
-    Map<String, Set<String>> map = null;
-
-    if (attr != null) {
-      map = (Map<String, Set<String>>) attr.getValue();
-    }
-    if (map != null) {
-      securityPermission = permissions.buildKeyValueCollectionPermission(action, map);
-    }
-    return subject.isPermitted(securityPermission);
+  private PermissionDecisions getPermissionDecisions(Subject subject, String action) {
+    return new PermissionDecisions(permissions, subject, action, decisionCache);
   }
 
   public void setSubjectOperations(SubjectOperations subjectOperations) {
@@ -374,4 +375,40 @@ public void setSecurityLogger(SecurityLogger securityLogger) {
   public void setPermissions(Permissions permissions) {
     this.permissions = permissions;
   }
+
+  public void setDecisionCacheEnabled(boolean decisionCacheEnabled) {
+    this.decisionCacheEnabled = decisionCacheEnabled;
+    updateDecisionCache();
+  }
+
+  public void setDecisionCacheTtlSeconds(long decisionCacheTtlSeconds) {
+    this.decisionCacheTtlSeconds = decisionCacheTtlSeconds;
+    updateDecisionCache();
+  }
+
+  public void setDecisionCacheMaxSubjects(long decisionCacheMaxSubjects) {
+    this.decisionCacheMaxSubjects = decisionCacheMaxSubjects;
+    updateDecisionCache();
+  }
+
+  public void setDecisionCacheMaxDecisions(int decisionCacheMaxDecisions) {
+    this.decisionCacheMaxDecisions = decisionCacheMaxDecisions;
+    updateDecisionCache();
+  }
+
+  /**
+   * Replaces the cross-request decision cache so that no decision made under the previous
+   * configuration is reused.
+   */
+  private void updateDecisionCache() {
+    PermissionDecisionCache previous = decisionCache;
+    decisionCache =
+        decisionCacheEnabled
+            ? new PermissionDecisionCache(
+                decisionCacheMaxSubjects, decisionCacheMaxDecisions, decisionCacheTtlSeconds)
+            : null;
+    if (previous != null) {
+      previous.invalidateAll();
+    }
+  }
 }
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.security.filter.plugin;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.Subject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers authorization decisions across requests, per subject. Subjects are held by the identity
+ * of their principals, so a subject that logs in again or whose attributes change gets a new set of
+ * decisions. Decisions expire a fixed time after a subject's first decision was made, which bounds
+ * how long a change to the authorization policy can take to be seen.
+ */
+class PermissionDecisionCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PermissionDecisionCache.class);
+
+  private final Cache<PrincipalCollection, Map<List<Object>, Boolean>> decisionsBySubject;
+
+  private final int maxDecisionsPerSubject;
+
+  PermissionDecisionCache(long maxSubjects, int maxDecisionsPerSubject, long timeToLiveSeconds) {
+    this.maxDecisionsPerSubject = maxDecisionsPerSubject;
+    this.decisionsBySubject =
+        CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(maxSubjects)
+            .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS)
+            .build();
+  }
+
+  /**
+   * Returns the decisions made for the subject, or {@code null} if the subject's decisions can't be
+   * remembered.
+   */
+  @Nullable
+  Map<List<Object>, Boolean> getDecisions(Subject subject) {
+    PrincipalCollection principals = subject.getPrincipals();
+    if (principals == null || principals.isEmpty()) {
+      return null;
+    }
+
+    try {
+      return decisionsBySubject.get(principals, ConcurrentHashMap::new);
+    } catch (ExecutionException e) {
+      LOGGER.debug("Unable to cache authorization decisions", e);
+      return null;
+    }
+  }
+
+  /** Remembers a decision unless the subject already has as many decisions as allowed. */
+  void putDecision(Map<List<Object>, Boolean> decisions, List<Object> key, boolean permitted) {
+    if (decisions.size() < maxDecisionsPerSubject) {
+      decisions.put(key, permitted);
+    }
+  }
+
+  void invalidateAll() {
+    decisionsBySubject.invalidateAll();
+  }
+}
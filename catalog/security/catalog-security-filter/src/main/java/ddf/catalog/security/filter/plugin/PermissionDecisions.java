@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.security.filter.plugin;
+
+import ddf.catalog.data.Attribute;
+import ddf.security.permission.KeyValueCollectionPermission;
+import ddf.security.permission.Permissions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import org.apache.shiro.subject.Subject;
+
+/**
+ * Decides whether a subject may perform an action on metacards, evaluating each distinct security
+ * marking only once. Most metacards in a page share one of a handful of markings, so this avoids
+ * running the full authorization for every metacard. Decisions are remembered for the life of this
+ * object, and also across requests when a {@link PermissionDecisionCache} is given.
+ */
+class PermissionDecisions {
+
+  private static final String METRIC_NAME = "ddf.catalog.security.filter.decisions";
+
+  private static final Counter HITS = Metrics.counter(METRIC_NAME, "result", "hit");
+
+  private static final Counter MISSES = Metrics.counter(METRIC_NAME, "result", "miss");
+
+  private static final Comparator<String> NULLS_FIRST =
+      Comparator.nullsFirst(Comparator.naturalOrder());
+
+  private final Map<Map<String, Set<String>>, Boolean> decisions = new HashMap<>();
+
+  private final Permissions permissions;
+
+  private final Subject subject;
+
+  private final String action;
+
+  @Nullable private final PermissionDecisionCache sharedCache;
+
+  @Nullable private final Map<List<Object>, Boolean> sharedDecisions;
+
+  PermissionDecisions(
+      Permissions permissions,
+      Subject subject,
+      String action,
+      @Nullable PermissionDecisionCache sharedCache) {
+    this.permissions = permissions;
+    this.subject = subject;
+    this.action = action;
+    this.sharedCache = sharedCache;
+    this.sharedDecisions = sharedCache == null ? null : sharedCache.getDecisions(subject);
+  }
+
+  /**
+   * @param securityAttribute the {@link ddf.catalog.data.Metacard#SECURITY} attribute of the
+   *     metacard, or {@code null} if it has none
+   * @return {@code true} if the subject is permitted to perform the action on the metacard
+   */
+  @SuppressWarnings("unchecked")
+  boolean isPermitted(@Nullable Attribute securityAttribute) {
+    Map<String, Set<String>> marking = null;
+    if (securityAttribute != null) {
+      marking = (Map<String, Set<String>>) securityAttribute.getValue();
+    }
+
+    Map<String, Set<String>> canonicalMarking = canonicalize(marking);
+    Boolean permitted = decisions.get(canonicalMarking);
+    if (permitted != null) {
+      HITS.increment();
+      return permitted;
+    }
+
+    List<Object> sharedKey = null;
+    if (sharedDecisions != null) {
+      sharedKey = Arrays.asList(action, canonicalMarking);
+      permitted = sharedDecisions.get(sharedKey);
+    }
+
+    if (permitted != null) {
+      HITS.increment();
+    } else {
+      MISSES.increment();
+      KeyValueCollectionPermission permission =
+          marking == null
+              ? permissions.buildKeyValueCollectionPermission(action)
+              : permissions.buildKeyValueCollectionPermission(action, marking);
+      permitted = subject.isPermitted(permission);
+      if (sharedKey != null) {
+        sharedCache.putDecision(sharedDecisions, sharedKey, permitted);
+      }
+    }
+
+    decisions.put(canonicalMarking, permitted);
+    return permitted;
+  }
+
+  /** Returns a copy of the marking that compares equal to any marking with the same content. */
+  private static Map<String, Set<String>> canonicalize(
+      @Nullable Map<String, ? extends Collection<String>> marking) {
+    Map<String, Set<String>> canonical = new TreeMap<>(NULLS_FIRST);
+    if (marking != null) {
+      marking.forEach(
+          (key, values) -> {
+            Set<String> canonicalValues = new TreeSet<>(NULLS_FIRST);
+            if (values != null) {
+              canonicalValues.addAll(values);
+            }
+            canonical.put(key, canonicalValues);
+          });
+    }
+    return canonical;
+  }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.security.filter.plugin;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.security.permission.CollectionPermission;
+import ddf.security.permission.KeyValueCollectionPermission;
+import ddf.security.permission.impl.PermissionsImpl;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.apache.shiro.subject.Subject;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PermissionDecisionsTest {
+
+  private Subject subject;
+
+  @Before
+  public void setup() {
+    subject = mock(Subject.class);
+    when(subject.getPrincipals()).thenReturn(new SimplePrincipalCollection("user", "realm"));
+    when(subject.isPermitted(any(Permission.class)))
+        .then(
+            invocation ->
+                ((KeyValueCollectionPermission) invocation.getArgument(0))
+                    .getKeyValuePermissionList()
+                    .isEmpty());
+  }
+
+  @Test
+  public void testDecisionsAreMadeOncePerMarking() {
+    PermissionDecisions decisions =
+        new PermissionDecisions(
+            new PermissionsImpl(), subject, CollectionPermission.READ_ACTION, null);
+
+    assertThat(decisions.isPermitted(null), is(true));
+    assertThat(decisions.isPermitted(null), is(true));
+    assertThat(decisions.isPermitted(security(marking("a", "b"))), is(false));
+    assertThat(decisions.isPermitted(security(marking("b", "a"))), is(false));
+
+    verify(subject, times(2)).isPermitted(any(Permission.class));
+  }
+
+  @Test
+  public void testSharedCacheIsUsedAcrossRequests() {
+    PermissionDecisionCache cache = new PermissionDecisionCache(10, 10, 60);
+
+    newDecisions(cache).isPermitted(security(marking("a")));
+    newDecisions(cache).isPermitted(security(marking("a")));
+    verify(subject, times(1)).isPermitted(any(Permission.class));
+
+    cache.invalidateAll();
+    newDecisions(cache).isPermitted(security(marking("a")));
+    verify(subject, times(2)).isPermitted(any(Permission.class));
+  }
+
+  @Test
+  public void testSharedCacheIsKeyedBySubjectPrincipals() {
+    PermissionDecisionCache cache = new PermissionDecisionCache(10, 10, 60);
+
+    newDecisions(cache).isPermitted(security(marking("a")));
+    when(subject.getPrincipals()).thenReturn(new SimplePrincipalCollection("user", "realm"));
+    newDecisions(cache).isPermitted(security(marking("a")));
+
+    verify(subject, times(2)).isPermitted(any(Permission.class));
+  }
+
+  @Test
+  public void testSharedCacheIsBoundedPerSubject() {
+    PermissionDecisionCache cache = new PermissionDecisionCache(10, 1, 60);
+
+    newDecisions(cache).isPermitted(security(marking("a")));
+    newDecisions(cache).isPermitted(security(marking("b")));
+    newDecisions(cache).isPermitted(security(marking("a")));
+    newDecisions(cache).isPermitted(security(marking("b")));
+
+    verify(subject, times(3)).isPermitted(any(Permission.class));
+  }
+
+  private PermissionDecisions newDecisions(PermissionDecisionCache cache) {
+    return new PermissionDecisions(
+        new PermissionsImpl(), subject, CollectionPermission.READ_ACTION, cache);
+  }
+
+  private static AttributeImpl security(Map<String, Set<String>> marking) {
+    return new AttributeImpl(Metacard.SECURITY, new HashMap<>(marking));
+  }
+
+  private static Map<String, Set<String>> marking(String... values) {
+    Map<String, Set<String>> marking = new HashMap<>();
+    marking.put("classification", new LinkedHashSet<>(ImmutableSet.copyOf(values)));
+    return marking;
+  }
+}
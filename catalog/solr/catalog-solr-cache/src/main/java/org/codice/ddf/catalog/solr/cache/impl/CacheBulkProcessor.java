@@ -16,36 +16,86 @@
 import com.google.common.collect.Lists;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.commons.lang3.Validate;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Bulk adds metacards to the cache that are not needed immediately. */
+/**
+ * Bulk adds metacards to the cache that are not needed immediately.
+ *
+ * <p>Pending metacards are coalesced by ID and flushed once a full batch is pending or the flush
+ * interval has elapsed. Batches of a flush are written to the cache in parallel. Metacards are
+ * dropped instead of queued while the backlog is full or heap usage is above the memory watermark,
+ * since caching is an optimization and must not put the query path at risk. Heap usage is measured
+ * as the occupancy of the old generation after the last garbage collection, so garbage that has not
+ * been collected yet does not count towards the watermark.
+ */
 public class CacheBulkProcessor {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CacheBulkProcessor.class);
 
+  private static final String METRICS_PREFIX = "ddf.catalog.cache.bulk";
+
+  private static final MemoryPoolMXBean TENURED_POOL = findTenuredPool();
+
   private final ScheduledExecutorService batchScheduler =
-      Executors.newSingleThreadScheduledExecutor();
+      Executors.newSingleThreadScheduledExecutor(
+          StandardThreadFactoryBuilder.newThreadFactory("cacheBulkProcessorThread"));
+
+  private final ThreadPoolExecutor batchWriter =
+      new ThreadPoolExecutor(
+          2,
+          2,
+          0L,
+          TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<>(),
+          StandardThreadFactoryBuilder.newThreadFactory("cacheBulkWriterThread"));
 
   private final Map<String, Metacard> metacardsToCache = new ConcurrentHashMap<>();
 
+  private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+  private final SolrCache cache;
+
+  private final List<Meter> meters = new ArrayList<>();
+
+  private final Counter backlogDrops;
+
+  private final Counter memoryDrops;
+
+  private final Timer flushLatency;
+
   private long flushInterval = TimeUnit.SECONDS.toMillis(10);
 
   private int maximumBacklogSize = 10000;
 
   private int batchSize = 500;
 
-  private Date lastBulkAdd = new Date();
+  private int memoryWatermarkPercent = 90;
+
+  private volatile long lastBulkAdd = System.currentTimeMillis();
 
   private CacheStrategy cacheStrategy;
 
@@ -61,7 +111,6 @@ public CacheBulkProcessor(final SolrCache cache) {
    * @param delay delay between decision to bulk add
    * @param delayUnit units of the delay
    */
-  @SuppressWarnings("squid:S1181" /*Catching throwable intentionally*/)
   public CacheBulkProcessor(
       final SolrCache cache,
       final long delay,
@@ -69,61 +118,170 @@ public CacheBulkProcessor(
       CacheStrategy cacheStrategy) {
     Validate.notNull(cache, "Valid SolrCache required.");
 
-    batchScheduler.scheduleWithFixedDelay(
-        () -> {
-          try {
-            if (metacardsToCache.size() > 0
-                && (metacardsToCache.size() >= batchSize || timeToFlush())) {
-              LOGGER.debug("{} metacards to batch add to cache", metacardsToCache.size());
-
-              List<Metacard> metacards = new ArrayList<>(metacardsToCache.values());
-              for (Collection<Metacard> batch : Lists.partition(metacards, batchSize)) {
-                LOGGER.debug("Caching a batch of {} metacards", batch.size());
-                cache.put(batch);
-
-                for (Metacard metacard : batch) {
-                  metacardsToCache.remove(metacard.getId());
-                }
-              }
-
-              lastBulkAdd = new Date();
-            }
-          } catch (VirtualMachineError vme) {
-            throw vme;
-          } catch (Throwable throwable) {
-            LOGGER.warn("Scheduled bulk ingest to cache failed", throwable);
-          }
-        },
-        delay,
-        delay,
-        delayUnit);
-
+    this.cache = cache;
     this.cacheStrategy = cacheStrategy;
+
+    meters.add(
+        Gauge.builder(METRICS_PREFIX + ".pending", this, CacheBulkProcessor::pendingMetacards)
+            .description("Metacards waiting to be added to the cache")
+            .register(Metrics.globalRegistry));
+    meters.add(
+        Gauge.builder(METRICS_PREFIX + ".lag", this, CacheBulkProcessor::lagMillis)
+            .description("Milliseconds since the last successful flush while metacards are pending")
+            .baseUnit("milliseconds")
+            .register(Metrics.globalRegistry));
+    backlogDrops = dropCounter("backlog");
+    memoryDrops = dropCounter("memory");
+    flushLatency =
+        Timer.builder(METRICS_PREFIX + ".flush.latency")
+            .description("Time taken to add a flush of pending metacards to the cache")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+    meters.add(flushLatency);
+
+    batchScheduler.scheduleWithFixedDelay(this::flushIfNeeded, delay, delay, delayUnit);
   }
 
-  private boolean timeToFlush() {
-    Date now = new Date();
-    return now.getTime() - lastBulkAdd.getTime() > flushInterval;
+  private Counter dropCounter(String reason) {
+    Counter counter =
+        Counter.builder(METRICS_PREFIX + ".dropped")
+            .description("Metacards that were not cached because the cache writer was saturated")
+            .tag("reason", reason)
+            .register(Metrics.globalRegistry);
+    meters.add(counter);
+    return counter;
   }
 
   /**
-   * Adds metacards to be bulk added to cache. Metacards will be ignored if backlog grows too large.
-   * Metacard currently in backlog will be updated if added again.
+   * Adds metacards to be bulk added to cache. Metacards will be ignored if the backlog is full or
+   * heap usage is above the memory watermark. Metacard currently in backlog will be updated if
+   * added again.
    *
    * @param results metacards to add to current batch
    */
   public void add(final List<Result> results) {
-    if (metacardsToCache.size() < maximumBacklogSize) {
-      LOGGER.debug("{} results pending to be added to cache.", results.size());
-      cacheStrategy
-          .getCacheStrategyFunction()
-          .accept(results, m -> metacardsToCache.put(m.getId(), m));
+    LOGGER.debug("{} results pending to be added to cache.", results.size());
+    boolean aboveWatermark = isAboveMemoryWatermark();
+    cacheStrategy.getCacheStrategyFunction().accept(results, m -> offer(m, aboveWatermark));
+
+    if (metacardsToCache.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+      batchScheduler.execute(this::flushIfNeeded);
+    }
+  }
+
+  private void offer(Metacard metacard, boolean aboveWatermark) {
+    if (aboveWatermark) {
+      memoryDrops.increment();
+    } else if (metacardsToCache.size() < maximumBacklogSize
+        || metacardsToCache.containsKey(metacard.getId())) {
+      metacardsToCache.put(metacard.getId(), metacard);
+    } else {
+      backlogDrops.increment();
+    }
+  }
+
+  private boolean isAboveMemoryWatermark() {
+    Runtime runtime = Runtime.getRuntime();
+    long used;
+    long max = runtime.maxMemory();
+    MemoryUsage collectionUsage = TENURED_POOL == null ? null : TENURED_POOL.getCollectionUsage();
+    if (collectionUsage != null) {
+      used = collectionUsage.getUsed();
+      if (collectionUsage.getMax() > 0) {
+        max = collectionUsage.getMax();
+      }
+    } else {
+      // Collectors without a tenured pool only expose the current usage, garbage included
+      used = runtime.totalMemory() - runtime.freeMemory();
+    }
+    return used * 100 >= max * memoryWatermarkPercent;
+  }
+
+  /**
+   * The tenured pool is the heap pool that supports a usage threshold; the young generation pools
+   * are emptied by every collection and do not.
+   */
+  private static MemoryPoolMXBean findTenuredPool() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .filter(MemoryPoolMXBean::isUsageThresholdSupported)
+        .findFirst()
+        .orElse(null);
+  }
+
+  @SuppressWarnings("squid:S1181" /*Catching throwable intentionally*/)
+  private void flushIfNeeded() {
+    flushRequested.set(false);
+    try {
+      if (!metacardsToCache.isEmpty() && (metacardsToCache.size() >= batchSize || timeToFlush())) {
+        flushLatency.record(this::flush);
+      }
+    } catch (VirtualMachineError vme) {
+      throw vme;
+    } catch (Throwable throwable) {
+      LOGGER.warn("Scheduled bulk ingest to cache failed", throwable);
+    }
+  }
+
+  private void flush() {
+    LOGGER.debug("{} metacards to batch add to cache", metacardsToCache.size());
+
+    List<Future<Boolean>> writes = new ArrayList<>();
+    for (List<Metacard> batch :
+        Lists.partition(new ArrayList<>(metacardsToCache.values()), batchSize)) {
+      writes.add(batchWriter.submit(() -> write(batch)));
+    }
+
+    boolean flushed = true;
+    for (Future<Boolean> write : writes) {
+      try {
+        flushed &= write.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        LOGGER.warn("Bulk add to cache failed", e.getCause());
+        flushed = false;
+      }
+    }
+
+    if (flushed) {
+      lastBulkAdd = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Failed batches stay pending and are retried on the next flush. Only the cached version of a
+   * metacard is removed, so an update added while the batch was written is not lost.
+   */
+  private boolean write(List<Metacard> batch) {
+    LOGGER.debug("Caching a batch of {} metacards", batch.size());
+    try {
+      cache.put(batch);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Unable to add a batch of {} metacards to the cache", batch.size(), e);
+      return false;
+    }
+
+    for (Metacard metacard : batch) {
+      metacardsToCache.remove(metacard.getId(), metacard);
     }
+    return true;
+  }
+
+  private boolean timeToFlush() {
+    return System.currentTimeMillis() - lastBulkAdd > flushInterval;
+  }
+
+  private double lagMillis() {
+    return metacardsToCache.isEmpty() ? 0 : System.currentTimeMillis() - lastBulkAdd;
   }
 
   /** Shutdown scheduled tasks. */
   public void shutdown() {
     batchScheduler.shutdown();
+    batchWriter.shutdown();
+    meters.forEach(Metrics.globalRegistry::remove);
   }
 
   int pendingMetacards() {
@@ -142,6 +300,26 @@ public void setMaximumBacklogSize(int maximumBacklogSize) {
     this.maximumBacklogSize = maximumBacklogSize;
   }
 
+  /**
+   * @param memoryWatermarkPercent percentage of the maximum heap above which added metacards are
+   *     dropped instead of cached
+   */
+  public void setMemoryWatermarkPercent(int memoryWatermarkPercent) {
+    this.memoryWatermarkPercent = memoryWatermarkPercent;
+  }
+
+  /** @param writerThreads number of batches of a flush that are added to the cache in parallel */
+  public void setWriterThreads(int writerThreads) {
+    int threads = Math.max(1, writerThreads);
+    if (threads > batchWriter.getMaximumPoolSize()) {
+      batchWriter.setMaximumPoolSize(threads);
+      batchWriter.setCorePoolSize(threads);
+    } else {
+      batchWriter.setCorePoolSize(threads);
+      batchWriter.setMaximumPoolSize(threads);
+    }
+  }
+
   public void setCacheStrategy(CacheStrategy cacheStrategy) {
     this.cacheStrategy = cacheStrategy;
   }
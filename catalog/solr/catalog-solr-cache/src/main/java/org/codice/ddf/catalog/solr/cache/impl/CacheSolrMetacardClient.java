@@ -21,6 +21,7 @@
 import ddf.catalog.source.solr.SolrFilterDelegateFactory;
 import ddf.catalog.source.solr.SolrMetacardClientImpl;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -68,6 +69,13 @@ public MetacardImpl createMetacard(SolrDocument doc) throws MetacardCreationExce
     return metacard;
   }
 
+  @Override
+  protected List<String> getRequiredFields() {
+    List<String> fields = new ArrayList<>(super.getRequiredFields());
+    fields.addAll(ADDITIONAL_FIELDS);
+    return fields;
+  }
+
   public UpdateResponse delete(String query) throws IOException, SolrServerException {
     return getClient().deleteByQuery(query);
   }
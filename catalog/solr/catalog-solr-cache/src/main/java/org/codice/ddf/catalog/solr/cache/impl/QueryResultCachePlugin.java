@@ -78,6 +78,11 @@ public QueryResponse process(QueryResponse input)
       return input;
     }
 
+    // Results of a projected query may not hold every attribute
+    if (input.getRequest().getPropertyValue(Constants.QUERY_REQUESTED_ATTRIBUTES_KEY) != null) {
+      return input;
+    }
+
     if (cacheSource
         .getId()
         .equals(input.getRequest().getProperties().get(Constants.SERVICE_TITLE))) {
@@ -143,4 +148,20 @@ private SourceResponse cloneResponse(SourceResponse sourceResponse) {
   public void setCacheStrategy(String cacheStrategy) {
     cacheBulkProcessor.setCacheStrategy(CacheStrategy.valueOf(cacheStrategy));
   }
+
+  public void setMaximumBacklogSize(int maximumBacklogSize) {
+    cacheBulkProcessor.setMaximumBacklogSize(maximumBacklogSize);
+  }
+
+  public void setBatchSize(int batchSize) {
+    cacheBulkProcessor.setBatchSize(batchSize);
+  }
+
+  public void setMemoryWatermarkPercent(int memoryWatermarkPercent) {
+    cacheBulkProcessor.setMemoryWatermarkPercent(memoryWatermarkPercent);
+  }
+
+  public void setWriterThreads(int writerThreads) {
+    cacheBulkProcessor.setWriterThreads(writerThreads);
+  }
 }
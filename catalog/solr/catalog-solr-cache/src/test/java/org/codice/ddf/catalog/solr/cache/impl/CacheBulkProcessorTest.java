@@ -110,6 +110,56 @@ public void exceedsBacklog() throws Exception {
     verify(mockSolrCache, never()).put(anyCollection());
   }
 
+  @Test
+  public void exceedsBacklogKeepsUpdatingPendingMetacards() throws Exception {
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    cacheBulkProcessor.setMaximumBacklogSize(5);
+    List<Result> mockResults = getMockResults(8);
+
+    cacheBulkProcessor.add(mockResults);
+    cacheBulkProcessor.add(mockResults.subList(0, 5));
+
+    assertThat(cacheBulkProcessor.pendingMetacards()).isEqualTo(5);
+    verify(mockSolrCache, never()).put(anyCollection());
+  }
+
+  @Test
+  public void aboveMemoryWatermark() throws Exception {
+    cacheBulkProcessor.setMemoryWatermarkPercent(0);
+    cacheBulkProcessor.add(getMockResults(10));
+
+    assertThat(cacheBulkProcessor.pendingMetacards()).isZero();
+    verify(mockSolrCache, never()).put(anyCollection());
+  }
+
+  @Test
+  public void belowMemoryWatermark() throws Exception {
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    cacheBulkProcessor.setBatchSize(20);
+    cacheBulkProcessor.setMemoryWatermarkPercent(100);
+    cacheBulkProcessor.add(getMockResults(10));
+
+    assertThat(cacheBulkProcessor.pendingMetacards()).isEqualTo(10);
+  }
+
+  @Test
+  public void flushWritesBatchesInParallel() throws Exception {
+    cacheBulkProcessor.setFlushInterval(1);
+    cacheBulkProcessor.setWriterThreads(3);
+    List<Result> mockResults = getMockResults(25);
+
+    cacheBulkProcessor.add(mockResults);
+    waitForPendingMetacardsToCache();
+
+    verify(mockSolrCache, atLeast(3)).put(capturedMetacards.capture());
+    List<Metacard> cached = new ArrayList<>();
+    for (Collection<Metacard> metacards : capturedMetacards.getAllValues()) {
+      assertThat(metacards.size()).isLessThanOrEqualTo(10);
+      cached.addAll(metacards);
+    }
+    assertThat(cached).containsAll(getMetacards(mockResults));
+  }
+
   @Test
   public void cacheThrowsExcpetion() throws Exception {
     doThrow(new RuntimeException()).doNothing().when(mockSolrCache).put(anyCollection());
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.solr;
+
+import com.google.common.annotations.VisibleForTesting;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.source.solr.DynamicSchemaResolver;
+import ddf.catalog.source.solr.SchemaFields;
+import ddf.catalog.source.solr.SolrMetacardClientImpl;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.karaf.shell.api.action.Command;
+import org.apache.karaf.shell.api.action.Option;
+import org.apache.karaf.shell.api.action.lifecycle.Reference;
+import org.apache.karaf.shell.api.action.lifecycle.Service;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrQuery.ORDER;
+import org.apache.solr.client.solrj.SolrQuery.SortClause;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.codice.solr.client.solrj.SolrClient;
+import org.codice.solr.factory.SolrClientFactory;
+
+@Service
+@Command(
+    scope = SolrCommands.NAMESPACE,
+    name = "migrate-objects",
+    description =
+        "Rewrites documents whose object attributes are stored with Java serialization so that they use the compact object format.")
+public class MigrateObjectsCommand extends SolrCommands {
+  private static final int PAGE_SIZE = 200;
+
+  private SolrClient solrjClient = null;
+
+  private SolrMetacardClientImpl metacardClient = null;
+
+  @Reference private SolrClientFactory clientFactory;
+
+  @Option(
+      name = "-c",
+      aliases = {"--collection"},
+      description = "The collection to migrate. Default: catalog",
+      required = false)
+  private String collection = "catalog";
+
+  @Option(
+      name = "-d",
+      aliases = {"--dryrun"},
+      description = "Count the documents that would be migrated without rewriting them",
+      required = false)
+  private boolean dryrun = false;
+
+  @Override
+  public Object execute() throws Exception {
+    if (solrjClient == null) {
+      solrjClient = clientFactory.newClient(collection);
+    }
+
+    if (!isSolrClientAvailable(solrjClient)) {
+      printErrorMessage("The Solr client is not available.");
+      return null;
+    }
+
+    if (metacardClient == null) {
+      DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+      if (!resolver.updateCompactObjectFieldSupport(solrjClient)) {
+        printErrorMessage(
+            String.format(
+                "The schema of the %s collection has no *%s dynamic field. Add it to the schema and reload the collection before migrating.",
+                collection, SchemaFields.COMPACT_OBJECT_SUFFIX));
+        return null;
+      }
+      metacardClient = new SolrMetacardClientImpl(solrjClient, null, null, resolver);
+    }
+
+    long examined = 0;
+    long migrated = 0;
+    String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+
+    while (true) {
+      QueryResponse response = solrjClient.query(getQuery(cursorMark));
+
+      List<Metacard> metacards = new ArrayList<>();
+      for (SolrDocument doc : response.getResults()) {
+        examined++;
+        if (hasSerializedObjectField(doc)) {
+          try {
+            metacards.add(metacardClient.createMetacard(doc));
+          } catch (MetacardCreationException e) {
+            LOGGER.debug("Unable to convert: {} to metacard", doc.get("id_txt"), e);
+          }
+        }
+      }
+
+      if (!dryrun && !metacards.isEmpty()) {
+        metacardClient.add(metacards, false);
+      }
+      migrated += metacards.size();
+
+      String nextCursorMark = response.getNextCursorMark();
+      if (nextCursorMark == null || nextCursorMark.equals(cursorMark)) {
+        break;
+      }
+      cursorMark = nextCursorMark;
+    }
+
+    printInfoMessage(
+        String.format(
+            "%s %d of %d documents", dryrun ? "Would migrate" : "Migrated", migrated, examined));
+    return null;
+  }
+
+  @VisibleForTesting
+  void setSolrjClient(SolrClient solrjClient) {
+    this.solrjClient = solrjClient;
+  }
+
+  @VisibleForTesting
+  void setMetacardClient(SolrMetacardClientImpl metacardClient) {
+    this.metacardClient = metacardClient;
+  }
+
+  @VisibleForTesting
+  void setDryrun(boolean dryrun) {
+    this.dryrun = dryrun;
+  }
+
+  private SolrQuery getQuery(String cursorMark) {
+    SolrQuery query = new SolrQuery("*:*");
+    query.setSort(new SortClause("id_txt", ORDER.asc));
+    query.setParam(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+    query.setRows(PAGE_SIZE);
+    return query;
+  }
+
+  private boolean hasSerializedObjectField(SolrDocument doc) {
+    return doc.getFieldNames().stream()
+        .anyMatch(
+            name ->
+                name.endsWith(SchemaFields.OBJECT_SUFFIX)
+                    && !SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME.equals(name));
+  }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.solr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.source.solr.SolrMetacardClientImpl;
+import java.util.List;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.codice.solr.client.solrj.SolrClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MigrateObjectsCommandTest extends SolrCommandTest {
+
+  private SolrClient solrClient;
+
+  private SolrMetacardClientImpl metacardClient;
+
+  private MigrateObjectsCommand command;
+
+  @Before
+  public void setUp() throws Exception {
+    SolrDocument serializedDoc = new SolrDocument();
+    serializedDoc.put("id_txt", "1");
+    serializedDoc.put("metacard_type_obj", new byte[0]);
+    serializedDoc.put("payload_obj", new byte[0]);
+
+    SolrDocument compactDoc = new SolrDocument();
+    compactDoc.put("id_txt", "2");
+    compactDoc.put("metacard_type_obj", new byte[0]);
+    compactDoc.put("payload_objc", new byte[0]);
+
+    SolrDocumentList page = new SolrDocumentList();
+    page.add(serializedDoc);
+    page.add(compactDoc);
+    QueryResponse pageResponse = mock(QueryResponse.class);
+    when(pageResponse.getResults()).thenReturn(page);
+    when(pageResponse.getNextCursorMark()).thenReturn("cursor1");
+
+    QueryResponse lastResponse = mock(QueryResponse.class);
+    when(lastResponse.getResults()).thenReturn(new SolrDocumentList());
+    when(lastResponse.getNextCursorMark()).thenReturn("cursor1");
+
+    solrClient = mock(SolrClient.class);
+    when(solrClient.isAvailable()).thenReturn(true);
+    when(solrClient.query(any(SolrQuery.class))).thenReturn(pageResponse, lastResponse);
+
+    metacardClient = mock(SolrMetacardClientImpl.class);
+    when(metacardClient.createMetacard(serializedDoc)).thenReturn(new MetacardImpl());
+
+    command = new MigrateObjectsCommand();
+    command.setSolrjClient(solrClient);
+    command.setMetacardClient(metacardClient);
+  }
+
+  @Test
+  public void testOnlySerializedObjectDocumentsAreRewritten() throws Exception {
+    command.execute();
+
+    ArgumentCaptor<List<Metacard>> metacards = ArgumentCaptor.forClass(List.class);
+    verify(metacardClient).add(metacards.capture(), eq(false));
+    assertThat(metacards.getValue(), hasSize(1));
+  }
+
+  @Test
+  public void testDryRunDoesNotRewrite() throws Exception {
+    command.setDryrun(true);
+
+    command.execute();
+
+    verify(metacardClient, never()).add(anyList(), anyBoolean());
+  }
+}
@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+
+/**
+ * Versioned binary codec for the values of {@link
+ * ddf.catalog.data.AttributeType.AttributeFormat#OBJECT} attributes stored in Solr.
+ *
+ * <p>Every encoded value starts with a format version byte, followed by a type-tagged value.
+ * Strings, primitives, {@link Date}s, byte arrays, JTS {@link Geometry}s (as WKB) and {@link
+ * ArrayList}s of any of these are written without Java serialization. Any other {@link
+ * Serializable} falls back to a length-prefixed Java serialized form, so no value that could be
+ * stored before is rejected.
+ *
+ * <p>Java serialized values, both those nested in the codec's format and those of legacy {@code
+ * *_obj} fields, are only deserialized if every class they contain is on {@link #SERIALIZED_TYPES}.
+ * Anything else is rejected, so a crafted stored value cannot instantiate arbitrary classes on the
+ * classpath.
+ */
+final class AttributeValueCodec {
+
+  static final byte VERSION = 1;
+
+  private static final byte NULL = 0;
+
+  private static final byte STRING = 1;
+
+  private static final byte BOOLEAN = 2;
+
+  private static final byte SHORT = 3;
+
+  private static final byte INTEGER = 4;
+
+  private static final byte LONG = 5;
+
+  private static final byte FLOAT = 6;
+
+  private static final byte DOUBLE = 7;
+
+  private static final byte DATE = 8;
+
+  private static final byte BYTES = 9;
+
+  private static final byte GEOMETRY = 10;
+
+  private static final byte LIST = 11;
+
+  private static final byte SERIALIZED = 12;
+
+  /** Classes that Java serialized attribute values may contain, as an {@link ObjectInputFilter}. */
+  static final String SERIALIZED_TYPES =
+      "maxdepth=32;"
+          + "java.lang.*;java.util.*;java.math.*;java.time.*;java.net.URI;"
+          + "java.sql.Date;java.sql.Time;java.sql.Timestamp;"
+          + "org.locationtech.jts.geom.**;ddf.catalog.**;org.codice.ddf.**;!*";
+
+  private static final ObjectInputFilter SERIALIZED_TYPES_FILTER =
+      ObjectInputFilter.Config.createFilter(SERIALIZED_TYPES);
+
+  private AttributeValueCodec() {}
+
+  static byte[] encode(Serializable value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      write(out, value);
+    }
+    return bytes.toByteArray();
+  }
+
+  static Serializable decode(byte[] encoded) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+      byte version = in.readByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported attribute value encoding version " + version);
+      }
+      return read(in);
+    }
+  }
+
+  private static void write(DataOutputStream out, Serializable value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof String) {
+      out.writeByte(STRING);
+      writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Short) {
+      out.writeByte(SHORT);
+      out.writeShort((Short) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INTEGER);
+      writeVarLong(out, zigZag((Integer) value));
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      writeVarLong(out, zigZag((Long) value));
+    } else if (value instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value.getClass() == Date.class) {
+      // subclasses such as java.sql.Timestamp carry more state and are serialized instead
+      out.writeByte(DATE);
+      out.writeLong(((Date) value).getTime());
+    } else if (value instanceof byte[]) {
+      out.writeByte(BYTES);
+      writeBytes(out, (byte[]) value);
+    } else if (value instanceof Geometry) {
+      Geometry geometry = (Geometry) value;
+      out.writeByte(GEOMETRY);
+      writeBytes(out, new WKBWriter(hasZ(geometry) ? 3 : 2, true).write(geometry));
+    } else if (value.getClass() == ArrayList.class && isEncodable((List<?>) value)) {
+      List<?> list = (List<?>) value;
+      out.writeByte(LIST);
+      writeVarLong(out, list.size());
+      for (Object element : list) {
+        write(out, (Serializable) element);
+      }
+    } else {
+      out.writeByte(SERIALIZED);
+      writeBytes(out, serialize(value));
+    }
+  }
+
+  /** Writes the value with Java serialization, as stored in legacy {@code *_obj} fields. */
+  static byte[] serialize(Serializable value) throws IOException {
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+      objectOut.writeObject(value);
+    }
+    return serialized.toByteArray();
+  }
+
+  /**
+   * Reads a Java serialized value, rejecting any class that is not on {@link #SERIALIZED_TYPES}.
+   *
+   * @throws IOException if the value cannot be read or contains a class that is not allowed
+   */
+  static Serializable deserialize(byte[] serialized) throws IOException {
+    try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+      objectIn.setObjectInputFilter(SERIALIZED_TYPES_FILTER);
+      return (Serializable) objectIn.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Could not create object to return", e);
+    }
+  }
+
+  private static Serializable read(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case STRING:
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+      case BOOLEAN:
+        return in.readBoolean();
+      case SHORT:
+        return in.readShort();
+      case INTEGER:
+        return (int) unZigZag(readVarLong(in));
+      case LONG:
+        return unZigZag(readVarLong(in));
+      case FLOAT:
+        return in.readFloat();
+      case DOUBLE:
+        return in.readDouble();
+      case DATE:
+        return new Date(in.readLong());
+      case BYTES:
+        return readBytes(in);
+      case GEOMETRY:
+        try {
+          return new WKBReader().read(readBytes(in));
+        } catch (ParseException e) {
+          throw new IOException("Could not read geometry", e);
+        }
+      case LIST:
+        int size = (int) readVarLong(in);
+        ArrayList<Serializable> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(read(in));
+        }
+        return list;
+      case SERIALIZED:
+        return deserialize(readBytes(in));
+      default:
+        throw new IOException("Unknown attribute value type tag " + tag);
+    }
+  }
+
+  private static boolean isEncodable(List<?> list) {
+    return list.stream().allMatch(element -> element == null || element instanceof Serializable);
+  }
+
+  private static boolean hasZ(Geometry geometry) {
+    for (Coordinate coordinate : geometry.getCoordinates()) {
+      if (!Double.isNaN(coordinate.getZ())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    writeVarLong(out, bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[(int) readVarLong(in)];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable length value");
+  }
+}
@@ -28,11 +28,7 @@
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.types.experimental.Extracted;
 import ddf.catalog.source.solr.json.MetacardTypeMapperFactory;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.security.AccessController;
@@ -98,6 +94,10 @@ public class DynamicSchemaResolver {
 
   private static final String FIELDS_KEY = "fields";
 
+  private static final String SCHEMA_KEY = "schema";
+
+  private static final String DYNAMIC_FIELDS_KEY = "dynamicFields";
+
   private static final String COULD_NOT_SERIALIZE_OBJECT_MESSAGE = "Could not serialize object";
 
   private static final XMLInputFactory XML_INPUT_FACTORY;
@@ -118,6 +118,7 @@ public class DynamicSchemaResolver {
           SOLR_CLOUD_VERSION_FIELD,
           SchemaFields.METACARD_TYPE_FIELD_NAME,
           SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME,
+          SchemaFields.METACARD_ATTRIBUTES_FIELD_NAME,
           SCORE_FIELD_NAME);
 
   private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
@@ -147,6 +148,12 @@ public class DynamicSchemaResolver {
 
   Set<String> fieldsCache = new HashSet<>();
 
+  /**
+   * Whether the collection's schema has the compact object dynamic field. Collections created
+   * before it was added to the schema only accept the legacy Java serialized object fields.
+   */
+  private volatile boolean compactObjectFields = true;
+
   private Set<String> anyTextFields = new HashSet<>();
 
   private boolean caseInsensitiveSort;
@@ -179,6 +186,7 @@ public DynamicSchemaResolver(List<String> additionalFields) {
 
     fieldsCache.add(SchemaFields.METACARD_TYPE_FIELD_NAME);
     fieldsCache.add(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
+    fieldsCache.add(SchemaFields.METACARD_ATTRIBUTES_FIELD_NAME);
 
     addAdditionalFields(this, additionalFields);
   }
@@ -248,6 +256,42 @@ void addFieldsFromClient(SolrClient client) throws SolrServerException, IOExcept
       String key = e.getKey();
       fieldsCache.add(key);
     }
+
+    updateCompactObjectFieldSupport(client);
+  }
+
+  /**
+   * Checks whether the schema of the client's collection declares the {@code *_objc} dynamic field
+   * that compact object values are written to. If it does not, object attributes are written to the
+   * legacy {@code *_obj} fields with Java serialization until the field is added to the schema. If
+   * the schema cannot be read, the current setting is kept.
+   *
+   * @param client the SolrClient of the collection
+   * @return {@code true} if object attributes are written in the compact format
+   */
+  public boolean updateCompactObjectFieldSupport(SolrClient client) {
+    SolrQuery query = new SolrQuery();
+    query.setRequestHandler("/admin/luke");
+    query.add("show", SCHEMA_KEY);
+
+    try {
+      NamedList<?> schema =
+          (NamedList<?>) client.query(query, METHOD.POST).getResponse().get(SCHEMA_KEY);
+      NamedList<?> dynamicFields =
+          schema == null ? null : (NamedList<?>) schema.get(DYNAMIC_FIELDS_KEY);
+      if (dynamicFields != null) {
+        compactObjectFields = dynamicFields.get("*" + SchemaFields.COMPACT_OBJECT_SUFFIX) != null;
+        if (!compactObjectFields) {
+          LOGGER.info(
+              "The Solr schema has no *{} dynamic field. Object attributes will be stored with Java serialization until it is added.",
+              SchemaFields.COMPACT_OBJECT_SUFFIX);
+        }
+      }
+    } catch (SolrServerException | SolrException | IOException | RuntimeException e) {
+      LOGGER.debug("Could not read the Solr schema's dynamic fields", e);
+    }
+
+    return compactObjectFields;
   }
 
   /** Adds the fields of the Metacard into the {@link SolrInputDocument} */
@@ -257,11 +301,13 @@ void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
 
     // TODO: register these metacard types when a new one is seen
 
+    List<String> attributeNames = new ArrayList<>();
     for (AttributeDescriptor ad : schema.getAttributeDescriptors()) {
       if (metacard.getAttribute(ad.getName()) != null) {
         List<Serializable> attributeValues = metacard.getAttribute(ad.getName()).getValues();
 
         if (CollectionUtils.isNotEmpty(attributeValues) && attributeValues.get(0) != null) {
+          attributeNames.add(ad.getName());
           AttributeFormat format = ad.getType().getAttributeFormat();
           String formatIndexName = ad.getName() + getFieldSuffix(format);
 
@@ -296,14 +342,18 @@ void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
                     + getSpecialIndexSuffix(AttributeFormat.STRING),
                 attributeValues);
           } else if (AttributeFormat.OBJECT.equals(format)) {
-            ByteArrayOutputStream byteArrayOS = new ByteArrayOutputStream();
-            List<Serializable> byteArrays = new ArrayList<>();
+            boolean compact = compactObjectFields;
+            if (!compact) {
+              formatIndexName = ad.getName() + SchemaFields.OBJECT_SUFFIX;
+            }
+            List<Serializable> byteArrays = new ArrayList<>(attributeValues.size());
 
-            try (ObjectOutputStream out = new ObjectOutputStream(byteArrayOS)) {
+            try {
               for (Serializable serializable : attributeValues) {
-                out.writeObject(serializable);
-                byteArrays.add(byteArrayOS.toByteArray());
-                out.reset();
+                byteArrays.add(
+                    compact
+                        ? AttributeValueCodec.encode(serializable)
+                        : AttributeValueCodec.serialize(serializable));
               }
             } catch (IOException e) {
               throw new MetacardCreationException(COULD_NOT_SERIALIZE_OBJECT_MESSAGE, e);
@@ -343,6 +393,11 @@ void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
       }
     }
 
+    // Lets projected results tell which of their attributes were left out
+    if (!attributeNames.isEmpty()) {
+      solrInputDocument.addField(SchemaFields.METACARD_ATTRIBUTES_FIELD_NAME, attributeNames);
+    }
+
     /*
      * Lastly the metacardType must be added to the solr document. These are internal fields
      */
@@ -490,8 +545,6 @@ List<Serializable> getDocValues(String solrFieldName, Collection<Object> docValu
     return values;
   }
 
-  @SuppressWarnings(
-      "squid:S2093" /* try-with-resource will throw IOException with InputStream and we do not care to get that exception */)
   private Serializable getDocValue(String solrFieldName, Object docValue) {
 
     AttributeFormat format = getType(solrFieldName);
@@ -504,25 +557,22 @@ private Serializable getDocValue(String solrFieldName, Object docValue) {
        */
       return Short.parseShort(docValue.toString());
     } else if (AttributeFormat.OBJECT.equals(format)) {
+      if (!solrFieldName.endsWith(SchemaFields.OBJECT_SUFFIX)) {
+        try {
+          return AttributeValueCodec.decode((byte[]) docValue);
+        } catch (IOException e) {
+          LOGGER.info("Could not decode object value of field {}", solrFieldName, e);
+          return null;
+        }
+      }
 
-      ByteArrayInputStream bais = null;
-      ObjectInputStream in = null;
-
+      // Documents indexed before the compact object codec hold Java serialized values
       try {
-        bais = new ByteArrayInputStream((byte[]) docValue);
-        in = new ObjectInputStream(bais);
-        return (Serializable) in.readObject();
+        return AttributeValueCodec.deserialize((byte[]) docValue);
       } catch (IOException e) {
-        LOGGER.info("IO exception loading input document", e);
-      } catch (ClassNotFoundException e) {
-        LOGGER.info("Could not create object to return.", e);
-        // TODO which exception to throw?
-      } finally {
-        IOUtils.closeQuietly(bais);
-        IOUtils.closeQuietly(in);
+        LOGGER.info("Could not deserialize object value of field {}", solrFieldName, e);
+        return null;
       }
-
-      return null;
     } else {
       return ((Serializable) docValue);
     }
@@ -25,8 +25,15 @@
  */
 public class SchemaFields {
 
+  /**
+   * Suffix of object fields holding Java serialized values. Such fields are still read, but object
+   * attributes are now written with {@link #COMPACT_OBJECT_SUFFIX}.
+   */
   public static final String OBJECT_SUFFIX = "_obj";
 
+  /** Suffix of object fields holding values written by {@link AttributeValueCodec}. */
+  public static final String COMPACT_OBJECT_SUFFIX = "_objc";
+
   public static final String LONG_SUFFIX = "_lng";
 
   public static final String INTEGER_SUFFIX = "_int";
@@ -63,6 +70,9 @@ public class SchemaFields {
 
   public static final String METACARD_TYPE_OBJECT_FIELD_NAME = "metacard_type" + OBJECT_SUFFIX;
 
+  /** Names of the attributes a metacard held when it was indexed. */
+  public static final String METACARD_ATTRIBUTES_FIELD_NAME = "metacard_attributes" + TEXT_SUFFIX;
+
   public static final String SORT_SUFFIX = "_sort";
 
   protected static final Map<String, AttributeFormat> SUFFIX_TO_FORMAT_MAP;
@@ -83,6 +93,7 @@ public class SchemaFields {
     suffixToFormatMap.put(LONG_SUFFIX, AttributeFormat.LONG);
     suffixToFormatMap.put(SHORT_SUFFIX, AttributeFormat.SHORT);
     suffixToFormatMap.put(OBJECT_SUFFIX, AttributeFormat.OBJECT);
+    suffixToFormatMap.put(COMPACT_OBJECT_SUFFIX, AttributeFormat.OBJECT);
     SUFFIX_TO_FORMAT_MAP = Collections.unmodifiableMap(suffixToFormatMap);
 
     Map<AttributeFormat, String> formatToSuffixMap = new EnumMap<>(AttributeFormat.class);
@@ -97,7 +108,7 @@ public class SchemaFields {
     formatToSuffixMap.put(AttributeFormat.INTEGER, INTEGER_SUFFIX);
     formatToSuffixMap.put(AttributeFormat.LONG, LONG_SUFFIX);
     formatToSuffixMap.put(AttributeFormat.SHORT, SHORT_SUFFIX);
-    formatToSuffixMap.put(AttributeFormat.OBJECT, OBJECT_SUFFIX);
+    formatToSuffixMap.put(AttributeFormat.OBJECT, COMPACT_OBJECT_SUFFIX);
     FORMAT_TO_SUFFIX_MAP = Collections.unmodifiableMap(formatToSuffixMap);
   }
 
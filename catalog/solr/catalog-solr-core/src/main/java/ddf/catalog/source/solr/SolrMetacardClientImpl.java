@@ -16,6 +16,8 @@
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_PROPERTIES_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY;
+import static ddf.catalog.Constants.QUERY_REQUESTED_ATTRIBUTES_KEY;
 import static ddf.catalog.Constants.SUGGESTION_BUILD_KEY;
 import static ddf.catalog.Constants.SUGGESTION_CONTEXT_KEY;
 import static ddf.catalog.Constants.SUGGESTION_DICT_KEY;
@@ -29,17 +31,19 @@
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeType;
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
-import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.CompactMetacard;
 import ddf.catalog.data.impl.ContentTypeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.impl.types.SecurityAttributes;
+import ddf.catalog.data.types.Validation;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.operation.FacetAttributeResult;
 import ddf.catalog.operation.QueryRequest;
@@ -69,6 +73,7 @@
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.BooleanUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrRequest.METHOD;
@@ -84,6 +89,7 @@
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.codice.solr.client.solrj.SolrClient;
 import org.opengis.filter.sort.SortBy;
@@ -101,6 +107,8 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
 
   private static final String GEOMETRY_FIELD = Metacard.GEOGRAPHY + SchemaFields.GEO_SUFFIX;
 
+  private static final String UNIQUE_KEY_FIELD = Metacard.ID + SchemaFields.TEXT_SUFFIX;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(SolrMetacardClientImpl.class);
 
   private static final String QUOTE = "\"";
@@ -128,6 +136,13 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
 
   private static final String ERR_UNSUPPORTED_QUERY_MSG = "Could not complete solr query.";
 
+  /**
+   * Attributes returned with every projected result because the framework's access control,
+   * filtering and post-query plugins read them from each result. Leaving one out would load the
+   * complete metacard of every result that has it.
+   */
+  private static final Set<String> ALWAYS_REQUESTED_ATTRIBUTES = getAlwaysRequestedAttributes();
+
   private final SolrClient client;
 
   private final SolrFilterDelegateFactory filterDelegateFactory;
@@ -185,6 +200,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     SolrFilterDelegate solrFilterDelegate =
         filterDelegateFactory.newInstance(resolver, request.getProperties());
     SolrQuery query = getSolrQuery(request, solrFilterDelegate);
+    Set<String> requestedAttributes = getRequestedAttributes(request);
 
     boolean isFacetedQuery = handleFacetRequest(query, request);
     query = handleSuggestionQuery(query, request);
@@ -213,6 +229,10 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
         handleFacetResponse(solrResponse, responseProps);
       }
 
+      if (!doRealTimeGet && !userSpellcheckIsOn) {
+        handleQueryCursor(solrResponse, responseProps);
+      }
+
       handleSuggestionResponse(solrResponse, responseProps);
 
       handlePartialResults(solrResponse, responseProps);
@@ -221,7 +241,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
       docs =
           handleSpellcheck(request, solrResponse, responseProps, query, docs, userSpellcheckIsOn);
       if (docs != null) {
-        addDocsToResults(docs, results);
+        addDocsToResults(docs, results, requestedAttributes);
         totalHits = docs.getNumFound();
       }
     } catch (SolrServerException | IOException | SolrException e) {
@@ -300,6 +320,14 @@ private void handleFacetResponse(
     }
   }
 
+  private void handleQueryCursor(
+      QueryResponse solrResponse, Map<String, Serializable> responseProps) {
+    String nextCursorMark = solrResponse.getNextCursorMark();
+    if (nextCursorMark != null) {
+      responseProps.put(QUERY_CURSOR_KEY, nextCursorMark);
+    }
+  }
+
   private void handleSuggestionResponse(
       QueryResponse solrResponse, Map<String, Serializable> responseProps) {
     SuggesterResponse suggesterResponse = solrResponse.getSuggesterResponse();
@@ -416,7 +444,8 @@ private Collation getCollationToResend(QueryResponse solrResponse) {
     return bestCollation;
   }
 
-  private void addDocsToResults(SolrDocumentList docs, List<Result> results)
+  private void addDocsToResults(
+      SolrDocumentList docs, List<Result> results, Set<String> requestedAttributes)
       throws UnsupportedQueryException {
     for (SolrDocument doc : docs) {
       if (LOGGER.isDebugEnabled()) {
@@ -424,7 +453,7 @@ private void addDocsToResults(SolrDocumentList docs, List<Result> results)
       }
       ResultImpl tmpResult;
       try {
-        tmpResult = createResult(doc);
+        tmpResult = createResult(doc, requestedAttributes);
       } catch (MetacardCreationException e) {
         throw new UnsupportedQueryException("Could not create result metacard(s).", e);
       }
@@ -619,6 +648,8 @@ protected SolrQuery getRealTimeQuery(SolrQuery originalQuery, Collection<String>
         realTimeQuery.set(entry.getKey(), entry.getValue());
       }
     }
+    // Real time gets return the requested ids directly and cannot be paged with a cursor
+    realTimeQuery.remove(CursorMarkParams.CURSOR_MARK_PARAM);
     realTimeQuery.set(CommonParams.QT, GET_QUERY_HANDLER);
     realTimeQuery.set(IDS_KEY, ids.toArray(new String[ids.size()]));
 
@@ -654,8 +685,15 @@ protected SolrQuery postAdapt(
       throw new UnsupportedQueryException("Start index must be greater than 0");
     }
 
-    // Solr is 0-based
-    query.setStart(request.getQuery().getStartIndex() - 1);
+    String queryCursor = getQueryCursor(request);
+
+    if (queryCursor != null) {
+      // The cursor determines the position, and Solr requires the start to be 0 with a cursor
+      query.setStart(0);
+    } else {
+      // Solr is 0-based
+      query.setStart(request.getQuery().getStartIndex() - 1);
+    }
 
     if (queryingForAllRecords(request)) {
       try {
@@ -669,6 +707,15 @@ protected SolrQuery postAdapt(
 
     setSortProperty(request, query, filterDelegate);
 
+    Set<String> requestedAttributes = getRequestedAttributes(request);
+    if (requestedAttributes != null) {
+      setRequestedFields(query, requestedAttributes);
+    }
+
+    if (queryCursor != null) {
+      setQueryCursor(query, queryCursor);
+    }
+
     if (queryTimeAllowedMs > 0) {
       query.setTimeAllowed(queryTimeAllowedMs);
     }
@@ -676,6 +723,103 @@ protected SolrQuery postAdapt(
     return query;
   }
 
+  private String getQueryCursor(QueryRequest request) {
+    Serializable queryCursor = request.getPropertyValue(QUERY_CURSOR_KEY);
+    if (!(queryCursor instanceof String) || StringUtils.isBlank((String) queryCursor)) {
+      return null;
+    }
+
+    if (queryTimeAllowedMs > 0) {
+      // Solr rejects cursors on queries with a time limit, so page by the start index instead. No
+      // cursor is returned with the response, which tells the caller to keep using start indexes.
+      LOGGER.debug(
+          "Ignoring the query cursor because {} is set. Paging with the start index instead.",
+          SOLR_QUERY_TIMEALLOWEDMS);
+      return null;
+    }
+
+    return (String) queryCursor;
+  }
+
+  /**
+   * Solr cursors require the sort to end with the unique key so that every document has a distinct
+   * position. Queries without a sort keep Solr's default relevance order ahead of the unique key.
+   */
+  private void setQueryCursor(SolrQuery query, String queryCursor) {
+    if (query.getSorts().isEmpty()) {
+      query.addSort(RELEVANCE_SORT_FIELD, SolrQuery.ORDER.desc);
+    }
+
+    if (query.getSorts().stream().noneMatch(sort -> UNIQUE_KEY_FIELD.equals(sort.getItem()))) {
+      query.addSort(UNIQUE_KEY_FIELD, SolrQuery.ORDER.asc);
+    }
+
+    query.set(CursorMarkParams.CURSOR_MARK_PARAM, queryCursor);
+  }
+
+  /**
+   * @return the attributes the request asks for, including {@link #ALWAYS_REQUESTED_ATTRIBUTES}, or
+   *     null if the request asks for complete metacards
+   */
+  private Set<String> getRequestedAttributes(QueryRequest request) {
+    Serializable requestedAttributes = request.getPropertyValue(QUERY_REQUESTED_ATTRIBUTES_KEY);
+    if (!(requestedAttributes instanceof Collection)
+        || ((Collection<?>) requestedAttributes).isEmpty()) {
+      return null;
+    }
+
+    Set<String> attributes = new HashSet<>(ALWAYS_REQUESTED_ATTRIBUTES);
+    ((Collection<?>) requestedAttributes).stream().map(String::valueOf).forEach(attributes::add);
+    return attributes;
+  }
+
+  /**
+   * Replaces the wildcard in the field list with the stored fields of the requested attributes,
+   * keeping any pseudo-fields already requested for relevance or distance sorting.
+   */
+  private void setRequestedFields(SolrQuery query, Set<String> requestedAttributes) {
+    Set<String> fields = new HashSet<>(getRequiredFields());
+    requestedAttributes.stream()
+        .map(resolver::getAnonymousField)
+        .flatMap(Collection::stream)
+        .forEach(fields::add);
+
+    if (query.getFields() != null) {
+      Arrays.stream(query.getFields().split(","))
+          .filter(field -> !"*".equals(field))
+          .forEach(fields::add);
+    }
+
+    query.setFields(fields.toArray(new String[0]));
+  }
+
+  /**
+   * @return the Solr fields that must be returned with every result to create its metacard, in
+   *     addition to the fields of the requested attributes
+   */
+  protected List<String> getRequiredFields() {
+    return Arrays.asList(
+        UNIQUE_KEY_FIELD,
+        SchemaFields.METACARD_TYPE_FIELD_NAME,
+        SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME,
+        SchemaFields.METACARD_ATTRIBUTES_FIELD_NAME);
+  }
+
+  private static Set<String> getAlwaysRequestedAttributes() {
+    Set<String> attributes = new HashSet<>();
+    attributes.add(Metacard.ID);
+    attributes.add(Metacard.TAGS);
+    attributes.add(Metacard.SECURITY);
+    // Read by the resource status and validity filter plugins
+    attributes.add(Metacard.RESOURCE_URI);
+    attributes.add(Validation.VALIDATION_ERRORS);
+    attributes.add(Validation.VALIDATION_WARNINGS);
+    new SecurityAttributes()
+        .getAttributeDescriptors()
+        .forEach(descriptor -> attributes.add(descriptor.getName()));
+    return Collections.unmodifiableSet(attributes);
+  }
+
   private boolean queryingForAllRecords(QueryRequest request) {
     if (ZERO_PAGESIZE_COMPATIBILTY.get()) {
       return request.getQuery().getPageSize() < 1;
@@ -752,7 +896,8 @@ protected String setSortProperty(
             if (sortField.endsWith(SchemaFields.GEO_SUFFIX)) {
               addDistanceSort(query, resolver.getSortKey(sortField), order, solrFilterDelegate);
             } else if (!(sortField.endsWith(SchemaFields.BINARY_SUFFIX)
-                || sortField.endsWith(SchemaFields.OBJECT_SUFFIX))) {
+                || sortField.endsWith(SchemaFields.OBJECT_SUFFIX)
+                || sortField.endsWith(SchemaFields.COMPACT_OBJECT_SUFFIX))) {
               query.addSort(resolver.getSortKey(sortField), order);
             }
           }
@@ -766,8 +911,19 @@ protected String setSortProperty(
     return resolver.getSortKey(sortProperty);
   }
 
-  private ResultImpl createResult(SolrDocument doc) throws MetacardCreationException {
-    ResultImpl result = new ResultImpl(createMetacard(doc));
+  private ResultImpl createResult(SolrDocument doc, Set<String> requestedAttributes)
+      throws MetacardCreationException {
+    MetacardImpl metacard = createMetacard(doc);
+    if (requestedAttributes != null && metacard instanceof CompactMetacard) {
+      Set<String> missingAttributes = getMissingAttributes(doc, metacard, requestedAttributes);
+      if (!missingAttributes.isEmpty()) {
+        String uniqueKey = String.valueOf(doc.getFirstValue(UNIQUE_KEY_FIELD));
+        ((CompactMetacard) metacard)
+            .setAttributeLoader(missingAttributes, () -> loadMetacard(uniqueKey));
+      }
+    }
+
+    ResultImpl result = new ResultImpl(metacard);
 
     if (doc.get(RELEVANCE_SORT_FIELD) != null) {
       result.setRelevanceScore(((Float) (doc.get(RELEVANCE_SORT_FIELD))).doubleValue());
@@ -789,18 +945,55 @@ private ResultImpl createResult(SolrDocument doc) throws MetacardCreationExcepti
     return result;
   }
 
+  /**
+   * @return the attributes of the indexed metacard that a projected result was returned without.
+   *     Documents indexed before attribute names were stored may hold any attribute of their type.
+   */
+  private Set<String> getMissingAttributes(
+      SolrDocument doc, Metacard metacard, Set<String> requestedAttributes) {
+    Collection<Object> storedAttributes =
+        doc.getFieldValues(SchemaFields.METACARD_ATTRIBUTES_FIELD_NAME);
+
+    Set<String> missingAttributes;
+    if (storedAttributes != null) {
+      missingAttributes =
+          storedAttributes.stream().map(String::valueOf).collect(Collectors.toSet());
+    } else {
+      missingAttributes =
+          metacard.getMetacardType().getAttributeDescriptors().stream()
+              .map(AttributeDescriptor::getName)
+              .collect(Collectors.toSet());
+    }
+    missingAttributes.removeAll(requestedAttributes);
+    return missingAttributes;
+  }
+
+  /**
+   * Retrieves the complete metacard of a projected result. Failures are logged rather than thrown
+   * because attributes are loaded from within {@link Metacard#getAttribute(String)}.
+   */
+  private Metacard loadMetacard(String uniqueKey) {
+    LOGGER.debug("Loading remaining attributes of projected result [{}]", uniqueKey);
+    try {
+      SolrDocument doc = client.getById(uniqueKey);
+      return doc == null ? null : createMetacard(doc);
+    } catch (SolrServerException | SolrException | IOException | MetacardCreationException e) {
+      LOGGER.info("Unable to load the remaining attributes of result [{}]", uniqueKey, e);
+      return null;
+    }
+  }
+
   public MetacardImpl createMetacard(SolrDocument doc) throws MetacardCreationException {
     MetacardType metacardType = resolver.getMetacardType(doc);
-    MetacardImpl metacard = new MetacardImpl(metacardType);
+    CompactMetacard metacard = new CompactMetacard(metacardType, resolver::getDocValues);
 
     for (String solrFieldName : doc.getFieldNames()) {
       if (!resolver.isPrivateField(solrFieldName)) {
-        Collection<Object> fieldValues = doc.getFieldValues(solrFieldName);
-        Attribute attr =
-            new AttributeImpl(
-                resolver.resolveFieldName(solrFieldName),
-                resolver.getDocValues(solrFieldName, fieldValues));
-        metacard.setAttribute(attr);
+        // Values are decoded on first access, so unread attributes are never deserialized
+        metacard.setEncodedAttribute(
+            resolver.resolveFieldName(solrFieldName),
+            solrFieldName,
+            doc.getFieldValue(solrFieldName));
       }
     }
 
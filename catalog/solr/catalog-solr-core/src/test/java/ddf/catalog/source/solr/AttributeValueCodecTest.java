@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.awt.Point;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+
+public class AttributeValueCodecTest {
+
+  @Test
+  public void testPrimitives() throws Exception {
+    assertRoundTrip("a string with unicode é中");
+    assertRoundTrip(true);
+    assertRoundTrip((short) -12);
+    assertRoundTrip(Integer.MIN_VALUE);
+    assertRoundTrip(Integer.MAX_VALUE);
+    assertRoundTrip(-1L);
+    assertRoundTrip(Long.MAX_VALUE);
+    assertRoundTrip(1.5f);
+    assertRoundTrip(Math.PI);
+    assertRoundTrip(new Date(1234567890L));
+  }
+
+  @Test
+  public void testNull() throws Exception {
+    assertThat(AttributeValueCodec.decode(AttributeValueCodec.encode(null)), is(nullValue()));
+  }
+
+  @Test
+  public void testBytes() throws Exception {
+    byte[] bytes = new byte[] {1, 2, 3, -1};
+
+    Serializable decoded = AttributeValueCodec.decode(AttributeValueCodec.encode(bytes));
+
+    assertThat(Arrays.equals((byte[]) decoded, bytes), is(true));
+  }
+
+  @Test
+  public void testGeometry() throws Exception {
+    Geometry polygon = new WKTReader().read("POLYGON ((1 1, 2 1, 2 2, 1 2, 1 1))");
+    Geometry point = new WKTReader().read("POINT Z (1 2 3)");
+
+    Geometry decodedPolygon =
+        (Geometry) AttributeValueCodec.decode(AttributeValueCodec.encode(polygon));
+    Geometry decodedPoint =
+        (Geometry) AttributeValueCodec.decode(AttributeValueCodec.encode(point));
+
+    assertThat(decodedPolygon.equalsExact(polygon), is(true));
+    assertThat(decodedPoint.getCoordinate().getZ(), is(3.0));
+  }
+
+  @Test
+  public void testNestedLists() throws Exception {
+    ArrayList<Serializable> inner = new ArrayList<>(Arrays.asList(1L, "two", null));
+    ArrayList<Serializable> outer = new ArrayList<>(Arrays.asList(inner, 3.0, new Date(0)));
+
+    assertRoundTrip(outer);
+  }
+
+  @Test
+  public void testOtherSerializablesFallBackToJavaSerialization() throws Exception {
+    HashMap<String, Serializable> map = new HashMap<>();
+    map.put("count", 2L);
+
+    assertRoundTrip(new BigDecimal("12.345"));
+    assertRoundTrip(new Timestamp(1234567890L));
+    assertRoundTrip(map);
+    assertRoundTrip(new ArrayList<>(Collections.singletonList(new BigDecimal("6.7"))));
+  }
+
+  @Test(expected = IOException.class)
+  public void testSerializedTypeNotAllowedIsRejected() throws Exception {
+    AttributeValueCodec.decode(AttributeValueCodec.encode(new Point(3, 4)));
+  }
+
+  @Test(expected = IOException.class)
+  public void testNestedSerializedTypeNotAllowedIsRejected() throws Exception {
+    HashMap<String, Serializable> map = new HashMap<>();
+    map.put("point", new Point(3, 4));
+
+    AttributeValueCodec.deserialize(javaSerialize(map));
+  }
+
+  @Test
+  public void testCompactEncodingIsSmallerThanJavaSerialization() throws Exception {
+    ArrayList<Serializable> value = new ArrayList<>(Arrays.asList(1L, "two", new Date(0), 4.0));
+
+    assertThat(AttributeValueCodec.encode(value).length, is(lessThan(javaSerialize(value).length)));
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnknownVersion() throws Exception {
+    byte[] encoded = AttributeValueCodec.encode("value");
+    encoded[0] = AttributeValueCodec.VERSION + 1;
+
+    AttributeValueCodec.decode(encoded);
+  }
+
+  private static void assertRoundTrip(Serializable value) throws IOException {
+    Serializable decoded = AttributeValueCodec.decode(AttributeValueCodec.encode(value));
+
+    assertThat(decoded, instanceOf(value.getClass()));
+    assertThat(decoded, is(value));
+  }
+
+  private static byte[] javaSerialize(Serializable value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -14,12 +14,14 @@
 package ddf.catalog.source.solr;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
@@ -36,10 +38,14 @@
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
 import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.source.solr.json.MetacardTypeMapperFactory;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -47,7 +53,12 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.codice.solr.client.solrj.SolrClient;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -292,4 +303,130 @@ public void getFieldExactValue() {
         dynamicSchemaResolver.getField("unknown", AttributeFormat.STRING, true, enabledFeatures),
         is("unknown_txt"));
   }
+
+  @Test
+  public void testGetDocValuesReadsCompactAndSerializedObjects() throws Exception {
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+      out.writeObject("legacy");
+    }
+
+    assertThat(
+        dynamicSchemaResolver.getDocValues(
+            "payload" + SchemaFields.OBJECT_SUFFIX,
+            Collections.singletonList(serialized.toByteArray())),
+        is(Collections.singletonList("legacy")));
+    assertThat(
+        dynamicSchemaResolver.getDocValues(
+            "payload" + SchemaFields.COMPACT_OBJECT_SUFFIX,
+            Collections.singletonList(AttributeValueCodec.encode("compact"))),
+        is(Collections.singletonList("compact")));
+  }
+
+  @Test
+  public void testAddFieldsRecordsAttributeNames() throws Exception {
+    MetacardImpl metacard =
+        new MetacardImpl(
+            new MetacardTypeImpl(
+                "names",
+                new HashSet<>(
+                    Arrays.asList(
+                        new AttributeDescriptorImpl(
+                            "title", true, true, false, false, BasicTypes.STRING_TYPE),
+                        new AttributeDescriptorImpl(
+                            "description", true, true, false, false, BasicTypes.STRING_TYPE)))));
+    metacard.setAttribute("title", "value");
+    SolrInputDocument solrInputDocument = new SolrInputDocument();
+
+    dynamicSchemaResolver.addFields(metacard, solrInputDocument);
+
+    assertThat(
+        solrInputDocument.getFieldValues(SchemaFields.METACARD_ATTRIBUTES_FIELD_NAME),
+        contains("title"));
+  }
+
+  @Test
+  public void testAddFieldsWritesCompactObjects() throws Exception {
+    MetacardImpl metacard =
+        new MetacardImpl(
+            new MetacardTypeImpl(
+                "objects",
+                Collections.singleton(
+                    new AttributeDescriptorImpl(
+                        "payload", false, true, false, false, BasicTypes.OBJECT_TYPE))));
+    metacard.setAttribute("payload", 42L);
+    SolrInputDocument solrInputDocument = new SolrInputDocument();
+
+    dynamicSchemaResolver.addFields(metacard, solrInputDocument);
+
+    assertThat(solrInputDocument.getFieldNames(), hasItem("payload_objc"));
+    assertThat(
+        AttributeValueCodec.decode(
+            (byte[])
+                solrInputDocument.getFieldValue("payload" + SchemaFields.COMPACT_OBJECT_SUFFIX)),
+        is(42L));
+  }
+
+  @Test
+  public void testGetDocValuesRejectsSerializedTypeNotAllowed() throws Exception {
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+      out.writeObject(new java.awt.Point(1, 2));
+    }
+
+    assertThat(
+        dynamicSchemaResolver.getDocValues(
+            "payload" + SchemaFields.OBJECT_SUFFIX,
+            Collections.singletonList(serialized.toByteArray())),
+        is(Collections.singletonList(null)));
+  }
+
+  @Test
+  public void testAddFieldsWritesLegacyObjectsWithoutCompactField() throws Exception {
+    NamedList<Object> dynamicFields = new NamedList<>();
+    dynamicFields.add("*_obj", new NamedList<>());
+    assertThat(
+        dynamicSchemaResolver.updateCompactObjectFieldSupport(mockSchemaClient(dynamicFields)),
+        is(false));
+    MetacardImpl metacard =
+        new MetacardImpl(
+            new MetacardTypeImpl(
+                "objects",
+                Collections.singleton(
+                    new AttributeDescriptorImpl(
+                        "payload", false, true, false, false, BasicTypes.OBJECT_TYPE))));
+    metacard.setAttribute("payload", 42L);
+    SolrInputDocument solrInputDocument = new SolrInputDocument();
+
+    dynamicSchemaResolver.addFields(metacard, solrInputDocument);
+
+    assertThat(solrInputDocument.getFieldNames(), hasItem("payload_obj"));
+    assertThat(
+        dynamicSchemaResolver.getDocValues(
+            "payload" + SchemaFields.OBJECT_SUFFIX,
+            solrInputDocument.getFieldValues("payload" + SchemaFields.OBJECT_SUFFIX)),
+        is(Collections.singletonList(42L)));
+  }
+
+  @Test
+  public void testCompactObjectsKeptWhenSchemaHasCompactField() throws Exception {
+    NamedList<Object> dynamicFields = new NamedList<>();
+    dynamicFields.add("*_objc", new NamedList<>());
+
+    assertThat(
+        dynamicSchemaResolver.updateCompactObjectFieldSupport(mockSchemaClient(dynamicFields)),
+        is(true));
+  }
+
+  private SolrClient mockSchemaClient(NamedList<Object> dynamicFields) throws Exception {
+    NamedList<Object> schema = new NamedList<>();
+    schema.add("dynamicFields", dynamicFields);
+    NamedList<Object> response = new NamedList<>();
+    response.add("schema", schema);
+    QueryResponse queryResponse = mock(QueryResponse.class);
+    when(queryResponse.getResponse()).thenReturn(response);
+    SolrClient client = mock(SolrClient.class);
+    when(client.query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST))).thenReturn(queryResponse);
+    return client;
+  }
 }
@@ -13,15 +13,24 @@
  */
 package ddf.catalog.source.solr;
 
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_START;
 import static ddf.catalog.Constants.QUERY_HIGHLIGHT_KEY;
+import static ddf.catalog.Constants.QUERY_REQUESTED_ATTRIBUTES_KEY;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -34,6 +43,7 @@
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
 import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.data.types.Validation;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.filter.impl.SortByImpl;
@@ -69,6 +79,7 @@
 import org.apache.solr.client.solrj.response.UpdateResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.util.NamedList;
 import org.codice.solr.client.solrj.SolrClient;
 import org.junit.Before;
@@ -294,6 +305,57 @@ public void testPartialResults() throws Exception {
     assertThat(response.getPropertyValue("partial-results"), is(Boolean.TRUE));
   }
 
+  @Test
+  public void testQueryCursor() throws Exception {
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    request.getProperties().put(QUERY_CURSOR_KEY, QUERY_CURSOR_START);
+
+    when(queryResponse.getResults()).thenReturn(new SolrDocumentList());
+    when(queryResponse.getNextCursorMark()).thenReturn("AoE/next");
+
+    SourceResponse response = clientImpl.query(request);
+
+    verify(solrQuery).setStart(0);
+    verify(solrQuery).addSort("id_txt", SolrQuery.ORDER.asc);
+    verify(solrQuery).set(CursorMarkParams.CURSOR_MARK_PARAM, QUERY_CURSOR_START);
+    assertThat(response.getPropertyValue(QUERY_CURSOR_KEY), is("AoE/next"));
+  }
+
+  @Test
+  public void testQueryCursorIgnoredWithTimeAllowed() throws Exception {
+    System.setProperty("solr.query.timeAllowed", "1000");
+    try {
+      clientImpl =
+          new TestSolrMetacardClientImpl(
+              client, catalogFilterAdapter, solrFilterDelegateFactory, dynamicSchemaResolver);
+    } finally {
+      System.clearProperty("solr.query.timeAllowed");
+    }
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    request.getProperties().put(QUERY_CURSOR_KEY, QUERY_CURSOR_START);
+
+    when(queryResponse.getResults()).thenReturn(new SolrDocumentList());
+
+    SourceResponse response = clientImpl.query(request);
+
+    verify(solrQuery).setTimeAllowed(1000);
+    verify(solrQuery, never()).set(eq(CursorMarkParams.CURSOR_MARK_PARAM), anyString());
+    verify(solrQuery, never()).addSort("id_txt", SolrQuery.ORDER.asc);
+    assertThat(response.getPropertyValue(QUERY_CURSOR_KEY), is(nullValue()));
+  }
+
+  @Test
+  public void testQueryWithoutCursor() throws Exception {
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+
+    when(queryResponse.getResults()).thenReturn(new SolrDocumentList());
+
+    SourceResponse response = clientImpl.query(request);
+
+    verify(solrQuery, never()).set(eq(CursorMarkParams.CURSOR_MARK_PARAM), anyString());
+    assertThat(response.getPropertyValue(QUERY_CURSOR_KEY), is(nullValue()));
+  }
+
   @Test
   public void testHighlightOn() throws Exception {
     System.setProperty(ResultHighlighter.HIGHLIGHT_ENABLE_PROPERTY, "true");
@@ -357,6 +419,130 @@ public void testHighlightOn() throws Exception {
     verifyHighlight(descriptionHighlights.get(), new HighlightImpl(44, 50, 0));
   }
 
+  @Test
+  public void testRequestedAttributesLimitFields() throws Exception {
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    request
+        .getProperties()
+        .put(QUERY_REQUESTED_ATTRIBUTES_KEY, new HashSet<>(Arrays.asList("title")));
+
+    when(queryResponse.getResults()).thenReturn(new SolrDocumentList());
+    when(dynamicSchemaResolver.getAnonymousField(anyString()))
+        .thenAnswer(invocation -> Collections.singletonList(invocation.getArgument(0) + "_txt"));
+    when(solrQuery.getFields()).thenReturn("*,score");
+    List<String> fields = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              Arrays.stream(invocation.getArguments()).map(String::valueOf).forEach(fields::add);
+              return solrQuery;
+            })
+        .when(solrQuery)
+        .setFields(any());
+
+    clientImpl.query(request);
+
+    assertThat(fields, hasItems("title_txt", "id_txt", "security_txt", "score"));
+    assertThat(fields, not(hasItems("*")));
+    assertThat(fields, not(hasItems("description_txt")));
+  }
+
+  @Test
+  public void testRequestedAttributesLoadRemainingAttributesOnAccess() throws Exception {
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    request
+        .getProperties()
+        .put(QUERY_REQUESTED_ATTRIBUTES_KEY, new HashSet<>(Arrays.asList("title")));
+
+    Map<String, String> projected =
+        createAttributes(Arrays.asList("title", "id_txt"), Arrays.asList("normal", "id1"));
+    Map<String, String> complete = new HashMap<>(projected);
+    complete.put("description", "complete");
+
+    when(queryResponse.getResults())
+        .thenReturn(createSolrDocuments(Collections.singletonMap("id1", projected)));
+    when(client.getById("id1")).thenReturn(createSolrDocument(complete));
+    mockDynamicSchemsolverCalls(
+        createAttributeDescriptor(Arrays.asList("title", "description")), complete);
+
+    Metacard metacard = clientImpl.query(request).getResults().get(0).getMetacard();
+
+    assertThat(metacard.getAttribute("title").getValue(), is("normal"));
+    verify(client, never()).getById(anyString());
+    assertThat(metacard.getAttribute("description").getValue(), is("complete"));
+    assertThat(metacard.getAttribute("description").getValue(), is("complete"));
+    verify(client, times(1)).getById("id1");
+  }
+
+  @Test
+  public void testRequestedAttributesDoNotLoadAttributesTheDocumentDoesNotHave() throws Exception {
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    request
+        .getProperties()
+        .put(QUERY_REQUESTED_ATTRIBUTES_KEY, new HashSet<>(Arrays.asList("title")));
+
+    Map<String, String> projected =
+        createAttributes(
+            Arrays.asList("title", "id_txt", SchemaFields.METACARD_ATTRIBUTES_FIELD_NAME),
+            Arrays.asList("normal", "id1", "title"));
+
+    when(queryResponse.getResults())
+        .thenReturn(createSolrDocuments(Collections.singletonMap("id1", projected)));
+    when(dynamicSchemaResolver.isPrivateField(SchemaFields.METACARD_ATTRIBUTES_FIELD_NAME))
+        .thenReturn(true);
+    mockDynamicSchemsolverCalls(
+        createAttributeDescriptor(Arrays.asList("title", "description")), projected);
+
+    Metacard metacard = clientImpl.query(request).getResults().get(0).getMetacard();
+
+    assertThat(metacard.getAttribute("title").getValue(), is("normal"));
+    assertThat(metacard.getAttribute("description"), is(nullValue()));
+    assertThat(metacard.getAttribute("ext.undeclared"), is(nullValue()));
+    verify(client, never()).getById(anyString());
+  }
+
+  @Test
+  public void testRequestedAttributesIncludeThoseReadByPostQueryPlugins() throws Exception {
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    request
+        .getProperties()
+        .put(QUERY_REQUESTED_ATTRIBUTES_KEY, new HashSet<>(Arrays.asList("title")));
+
+    List<String> storedAttributes =
+        Arrays.asList(
+            "title",
+            "description",
+            Metacard.RESOURCE_URI,
+            Validation.VALIDATION_ERRORS,
+            Validation.VALIDATION_WARNINGS);
+    Map<String, String> projected = new HashMap<>();
+    projected.put("title", "normal");
+    projected.put(Metacard.RESOURCE_URI, "content:id");
+    projected.put(Validation.VALIDATION_ERRORS, "error");
+    projected.put(Validation.VALIDATION_WARNINGS, "warning");
+
+    SolrDocumentList docs = new SolrDocumentList();
+    for (String id : Arrays.asList("id1", "id2")) {
+      SolrDocument doc = createSolrDocument(projected);
+      doc.addField("id_txt", id);
+      doc.addField(SchemaFields.METACARD_ATTRIBUTES_FIELD_NAME, storedAttributes);
+      docs.add(doc);
+    }
+
+    when(queryResponse.getResults()).thenReturn(docs);
+    when(dynamicSchemaResolver.isPrivateField(SchemaFields.METACARD_ATTRIBUTES_FIELD_NAME))
+        .thenReturn(true);
+    mockDynamicSchemsolverCalls(createAttributeDescriptor(storedAttributes), projected);
+
+    // The attributes MetacardResourceStatus and MetacardValidityFilterPlugin read from each result
+    for (Result result : clientImpl.query(request).getResults()) {
+      Metacard metacard = result.getMetacard();
+      assertThat(metacard.getAttribute(Metacard.RESOURCE_URI).getValue(), is("content:id"));
+      assertThat(metacard.getAttribute(Validation.VALIDATION_ERRORS).getValue(), is("error"));
+      assertThat(metacard.getAttribute(Validation.VALIDATION_WARNINGS).getValue(), is("warning"));
+    }
+    verify(client, never()).getById(anyString());
+  }
+
   private void verifyHighlight(List<Highlight> results, Highlight mustContain) {
     boolean found = false;
     for (Highlight highlight : results) {
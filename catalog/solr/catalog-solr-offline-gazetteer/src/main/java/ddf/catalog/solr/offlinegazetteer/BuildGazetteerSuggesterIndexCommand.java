@@ -35,6 +35,10 @@ public class BuildGazetteerSuggesterIndexCommand extends AbstractSolrClientComma
 
   @Override
   void executeWithSolrClient(SolrClient solrClient) throws SolrServerException, IOException {
+    buildSuggesterIndex(solrClient);
+  }
+
+  static void buildSuggesterIndex(SolrClient solrClient) throws SolrServerException, IOException {
     SolrQuery query = new SolrQuery();
     query.setRequestHandler(GAZETTEER_REQUEST_HANDLER);
     query.setParam(SUGGEST_Q_KEY, "CatalogSolrGazetteerBuildSuggester");
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.solr.offlinegazetteer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import org.apache.karaf.shell.api.action.Argument;
+import org.apache.karaf.shell.api.action.Command;
+import org.apache.karaf.shell.api.action.Option;
+import org.apache.karaf.shell.api.action.lifecycle.Reference;
+import org.apache.karaf.shell.api.action.lifecycle.Service;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractionException;
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractor;
+import org.codice.ddf.spatial.geocoding.GeoNamesRemoteDownloadException;
+import org.codice.solr.client.solrj.SolrClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Service
+@Command(
+    scope = "offline-solr-gazetteer",
+    name = "bulk-load",
+    description =
+        "Loads the cities of a GeoNames resource directly into the solr gazetteer collection, "
+            + "without creating catalog metacards, and builds the suggester index once at the end. "
+            + "Don't also index the same resource through the catalog, or its cities will be "
+            + "duplicated.")
+public class BulkLoadGazetteerCommand extends AbstractSolrClientCommand {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BulkLoadGazetteerCommand.class);
+
+  @Argument(
+      index = 0,
+      name = "resource",
+      description =
+          "The GeoNames resource to load: a country code, cities1000, cities5000, cities15000, "
+              + "allCountries, a URL, or the absolute path to a .txt or .zip file.",
+      required = true)
+  String resource;
+
+  @Option(
+      name = "--resume",
+      aliases = "-r",
+      description =
+          "Continue a previous bulk load of the same resource from its last checkpoint instead of "
+              + "starting over.")
+  boolean resume = false;
+
+  @Option(
+      name = "--batch-size",
+      aliases = "-b",
+      description = "Number of documents sent to solr in each update request.")
+  int batchSize = GazetteerBulkLoader.DEFAULT_BATCH_SIZE;
+
+  @Option(
+      name = "--writer-threads",
+      aliases = "-t",
+      description = "Number of update requests sent to solr concurrently.")
+  int writerThreads = GazetteerBulkLoader.DEFAULT_WRITER_THREADS;
+
+  @Reference GeoEntryExtractor geoEntryExtractor;
+
+  @Reference(optional = true)
+  GazetteerSpatialIndex spatialIndex;
+
+  @Override
+  void executeWithSolrClient(SolrClient solrClient)
+      throws SolrServerException, IOException, InterruptedException {
+    GazetteerBulkLoader loader =
+        new GazetteerBulkLoader(solrClient, geoEntryExtractor, getCheckpointFile());
+    loader.setBatchSize(batchSize);
+    loader.setWriterThreads(writerThreads);
+
+    console.println("Loading " + resource + "...");
+    Instant start = Instant.now();
+    long written;
+    try {
+      written = loader.load(resource, resume, this::printProgress);
+    } catch (GeoEntryExtractionException | GeoNamesRemoteDownloadException e) {
+      LOGGER.info("Unable to read {}", resource, e);
+      throw new IOException("Unable to read " + resource, e);
+    }
+
+    console.printf("%nBuilding suggester index...%n");
+    BuildGazetteerSuggesterIndexCommand.buildSuggesterIndex(solrClient);
+
+    if (spatialIndex != null) {
+      spatialIndex.gazetteerChanged();
+    }
+
+    printSuccessMessage(
+        String.format(
+            "%nComplete. Loaded %d items in %s%n",
+            written, Duration.between(start, Instant.now())));
+  }
+
+  Path getCheckpointFile() {
+    return Paths.get(
+        System.getProperty("ddf.home", ""), "data", "gazetteer", "bulk-load.checkpoint");
+  }
+
+  private void printProgress(int progress) {
+    console.printf("\r%d%%", progress);
+    console.flush();
+  }
+}
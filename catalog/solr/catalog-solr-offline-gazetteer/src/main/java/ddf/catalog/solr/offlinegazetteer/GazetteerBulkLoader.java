@@ -0,0 +1,481 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.solr.offlinegazetteer;
+
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.COUNTRY_CODE;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.DESCRIPTION;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.FEATURE_CODE;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.ID;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.LOCATION;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.NAME;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.POPULATION;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.SORT_VALUE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import net.jodah.failsafe.Failsafe;
+import net.jodah.failsafe.FailsafeException;
+import net.jodah.failsafe.RetryPolicy;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrInputDocument;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
+import org.codice.ddf.spatial.geocoding.GeoEntry;
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractionException;
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractor;
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractor.ExtractionCallback;
+import org.codice.ddf.spatial.geocoding.GeoEntryIndexingException;
+import org.codice.ddf.spatial.geocoding.GeoNamesRemoteDownloadException;
+import org.codice.ddf.spatial.geocoding.ProgressCallback;
+import org.codice.solr.client.solrj.SolrClient;
+import org.codice.solr.client.solrj.UnavailableSolrException;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.WKTWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads GeoNames entries directly into the gazetteer Solr collection without going through the
+ * catalog. Entries are converted to the same documents {@link CatalogGazetteerForwardingPlugin}
+ * would produce for the metacards created by the GeoNames catalog indexer, and are written in
+ * batches by a pool of writer threads. Solr is only committed once, after the whole resource has
+ * been written.
+ *
+ * <p>After each contiguous run of batches is acknowledged by Solr, the number of entries read from
+ * the resource is recorded in a checkpoint file so that an interrupted load can be resumed.
+ * Acknowledged updates survive a Solr restart through its update log even before they are
+ * committed, and document ids are derived from the entry contents, so rewriting a batch that was in
+ * flight when the load stopped is harmless.
+ *
+ * <p>The catalog path gives the same entries random metacard ids, so its documents are not replaced
+ * by a bulk load. Bulk loading and indexing GeoNames through the catalog are therefore mutually
+ * exclusive ways of filling the gazetteer collection; loading the same resource both ways leaves
+ * duplicate entries.
+ */
+public class GazetteerBulkLoader {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GazetteerBulkLoader.class);
+
+  static final int DEFAULT_BATCH_SIZE = 5000;
+
+  static final int DEFAULT_WRITER_THREADS = 4;
+
+  private static final String CHECKPOINT_RESOURCE = "resource";
+
+  private static final String CHECKPOINT_ENTRIES = "entries";
+
+  private static final String TITLE_FORMAT = "%s, %s";
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  private static final ThreadLocal<WKTWriter> WKT_WRITER_THREAD_LOCAL =
+      ThreadLocal.withInitial(WKTWriter::new);
+
+  private final SolrClient solrClient;
+
+  private final GeoEntryExtractor geoEntryExtractor;
+
+  private final Path checkpointFile;
+
+  private int batchSize = DEFAULT_BATCH_SIZE;
+
+  private int writerThreads = DEFAULT_WRITER_THREADS;
+
+  public GazetteerBulkLoader(
+      SolrClient solrClient, GeoEntryExtractor geoEntryExtractor, Path checkpointFile) {
+    this.solrClient = solrClient;
+    this.geoEntryExtractor = geoEntryExtractor;
+    this.checkpointFile = checkpointFile;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  public void setWriterThreads(int writerThreads) {
+    this.writerThreads = Math.max(1, writerThreads);
+  }
+
+  /**
+   * Writes the city entries of {@code resource} to the gazetteer collection and commits them.
+   *
+   * @param resource the GeoNames resource, as accepted by {@link GeoEntryExtractor}
+   * @param resume whether to skip the entries recorded in the checkpoint of a previous load of the
+   *     same resource
+   * @param progressCallback receives the extraction progress, may be null
+   * @return the number of documents written by this load
+   * @throws GeoEntryExtractionException if the resource cannot be read or parsed
+   * @throws GeoNamesRemoteDownloadException if the resource cannot be downloaded
+   * @throws SolrServerException if Solr rejects a batch or the commit
+   * @throws IOException if there is a low-level I/O error talking to Solr
+   * @throws InterruptedException if interrupted while waiting for the writers
+   */
+  public long load(String resource, boolean resume, ProgressCallback progressCallback)
+      throws GeoEntryExtractionException, GeoNamesRemoteDownloadException, SolrServerException,
+          IOException, InterruptedException {
+    long skip = resume ? readCheckpoint(resource) : 0;
+    if (skip > 0) {
+      LOGGER.info("Resuming bulk load of {} after {} entries", resource, skip);
+    }
+
+    ExecutorService writers =
+        Executors.newFixedThreadPool(
+            writerThreads, StandardThreadFactoryBuilder.newThreadFactory("gazetteerBulkLoader"));
+    Load load = new Load(resource, skip, progressCallback, writers);
+
+    try {
+      try {
+        geoEntryExtractor.pushGeoEntriesToExtractionCallback(resource, load);
+        load.finish();
+      } catch (GeoEntryExtractionException e) {
+        load.rethrowWriteFailure();
+        throw e;
+      } catch (GeoEntryIndexingException e) {
+        load.rethrowWriteFailure();
+        throw new GeoEntryExtractionException(
+            "Unable to load GeoEntries from " + resource + ".", e);
+      }
+
+      writers.shutdown();
+      writers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      load.rethrowWriteFailure();
+    } finally {
+      writers.shutdownNow();
+    }
+
+    solrClient.commit();
+    Files.deleteIfExists(checkpointFile);
+    return load.written.get();
+  }
+
+  private long readCheckpoint(String resource) {
+    if (!Files.isRegularFile(checkpointFile)) {
+      return 0;
+    }
+
+    Properties checkpoint = new Properties();
+    try (InputStream inputStream = Files.newInputStream(checkpointFile)) {
+      checkpoint.load(inputStream);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to read the gazetteer bulk load checkpoint, starting from the beginning");
+      LOGGER.debug("Unable to read {}", checkpointFile, e);
+      return 0;
+    }
+
+    if (!resource.equals(checkpoint.getProperty(CHECKPOINT_RESOURCE))) {
+      LOGGER.info(
+          "Checkpoint is for {}, starting {} from the beginning",
+          checkpoint.getProperty(CHECKPOINT_RESOURCE),
+          resource);
+      return 0;
+    }
+
+    try {
+      return Long.parseLong(checkpoint.getProperty(CHECKPOINT_ENTRIES, "0"));
+    } catch (NumberFormatException e) {
+      LOGGER.debug("Invalid checkpoint in {}", checkpointFile, e);
+      return 0;
+    }
+  }
+
+  private void writeCheckpoint(String resource, long entries) {
+    Properties checkpoint = new Properties();
+    checkpoint.setProperty(CHECKPOINT_RESOURCE, resource);
+    checkpoint.setProperty(CHECKPOINT_ENTRIES, Long.toString(entries));
+
+    try {
+      Files.createDirectories(checkpointFile.toAbsolutePath().getParent());
+      try (OutputStream outputStream = Files.newOutputStream(checkpointFile)) {
+        checkpoint.store(outputStream, null);
+      }
+    } catch (IOException e) {
+      LOGGER.debug("Unable to write the gazetteer bulk load checkpoint {}", checkpointFile, e);
+    }
+  }
+
+  private void write(List<GeoEntry> geoEntries) {
+    List<SolrInputDocument> documents =
+        geoEntries.stream().map(GazetteerBulkLoader::convert).collect(Collectors.toList());
+
+    RetryPolicy retryPolicy =
+        new RetryPolicy()
+            .withBackoff(1, 30, TimeUnit.SECONDS)
+            .withMaxRetries(3)
+            .retryOn(SolrServerException.class, IOException.class, UnavailableSolrException.class);
+
+    Failsafe.with(retryPolicy).run(() -> solrClient.add(documents));
+  }
+
+  /**
+   * Converts a GeoNames city entry to a gazetteer document with the same fields the catalog path
+   * produces.
+   */
+  static SolrInputDocument convert(GeoEntry geoEntry) {
+    SolrInputDocument solrDoc = new SolrInputDocument();
+    solrDoc.addField(ID, getId(geoEntry));
+    solrDoc.addField(
+        NAME, String.format(TITLE_FORMAT, geoEntry.getName(), geoEntry.getCountryCode()));
+    solrDoc.addField(FEATURE_CODE, geoEntry.getFeatureCode());
+    solrDoc.addField(POPULATION, geoEntry.getPopulation());
+    Integer gazetteerSortValue = getGeoNameGazetterSortByFeatureClass(geoEntry);
+    if (gazetteerSortValue != null) {
+      solrDoc.addField(SORT_VALUE, gazetteerSortValue);
+    } else {
+      solrDoc.addField(SORT_VALUE, geoEntry.getPopulation());
+    }
+
+    if (geoEntry.getAlternateNames() != null) {
+      solrDoc.addField(DESCRIPTION, geoEntry.getAlternateNames());
+    }
+    if (geoEntry.getCountryCode() != null) {
+      solrDoc.addField(COUNTRY_CODE, geoEntry.getCountryCode());
+    }
+    if (geoEntry.getLatitude() != null && geoEntry.getLongitude() != null) {
+      Coordinate coordinate = new Coordinate(geoEntry.getLongitude(), geoEntry.getLatitude());
+      solrDoc.addField(
+          LOCATION, WKT_WRITER_THREAD_LOCAL.get().write(GEOMETRY_FACTORY.createPoint(coordinate)));
+    }
+
+    return solrDoc;
+  }
+
+  /** Same sort value as the GeoNames catalog indexer, null where it falls back to population. */
+  private static Integer getGeoNameGazetterSortByFeatureClass(GeoEntry geoEntry) {
+    Integer gazetteerSortValue = null;
+    if (geoEntry.getFeatureClass() == null) {
+      return gazetteerSortValue;
+    } else {
+      switch (geoEntry.getFeatureClass()) {
+        case GeoCodingConstants.ADMIN_FEATURE_CLASS:
+          gazetteerSortValue =
+              GeoCodingConstants.FEATURE_CLASS_VALUES.get(GeoCodingConstants.ADMIN_FEATURE_CLASS);
+          break;
+        case GeoCodingConstants.HYDROGRAPHIC_FEATURE_CLASS:
+          if (geoEntry.getFeatureCode().equals(GeoCodingConstants.OCEAN_FEATURE_CODE)
+              || geoEntry.getFeatureCode().equals(GeoCodingConstants.SEA_FEATURE_CODE)) {
+            gazetteerSortValue = GeoCodingConstants.SPECIAL_GAZETTEER_SORT_VALUE;
+          } else {
+            gazetteerSortValue =
+                GeoCodingConstants.FEATURE_CLASS_VALUES.get(
+                    GeoCodingConstants.HYDROGRAPHIC_FEATURE_CLASS);
+          }
+          break;
+        case GeoCodingConstants.AREA_FEATURE_CLASS:
+          gazetteerSortValue =
+              GeoCodingConstants.FEATURE_CLASS_VALUES.get(GeoCodingConstants.AREA_FEATURE_CLASS);
+          break;
+        case GeoCodingConstants.POPULATED_FEATURE_CLASS:
+          break;
+        case GeoCodingConstants.ROAD_FEATURE_CLASS:
+          gazetteerSortValue =
+              GeoCodingConstants.FEATURE_CLASS_VALUES.get(GeoCodingConstants.ROAD_FEATURE_CLASS);
+          break;
+        case GeoCodingConstants.SPOT_FEATURE_CLASS:
+          gazetteerSortValue =
+              GeoCodingConstants.FEATURE_CLASS_VALUES.get(GeoCodingConstants.SPOT_FEATURE_CLASS);
+          break;
+        case GeoCodingConstants.MOUNTAIN_FEATURE_CLASS:
+          if (geoEntry.getFeatureCode().equals(GeoCodingConstants.MOUNTAIN_FEATURE_CODE)
+              || geoEntry.getFeatureCode().equals(GeoCodingConstants.MOUNTAIN_RANGE_FEATURE_CODE)) {
+            gazetteerSortValue = GeoCodingConstants.SPECIAL_GAZETTEER_SORT_VALUE;
+          } else {
+            gazetteerSortValue =
+                GeoCodingConstants.FEATURE_CLASS_VALUES.get(
+                    GeoCodingConstants.MOUNTAIN_FEATURE_CLASS);
+          }
+          break;
+        case GeoCodingConstants.UNDERSEA_FEATURE_CLASS:
+          gazetteerSortValue =
+              GeoCodingConstants.FEATURE_CLASS_VALUES.get(
+                  GeoCodingConstants.UNDERSEA_FEATURE_CLASS);
+          break;
+        case GeoCodingConstants.VEGETATION_FEATURE_CLASS:
+          gazetteerSortValue =
+              GeoCodingConstants.FEATURE_CLASS_VALUES.get(
+                  GeoCodingConstants.VEGETATION_FEATURE_CLASS);
+          break;
+        default:
+          gazetteerSortValue =
+              GeoCodingConstants.FEATURE_CLASS_VALUES.get(
+                  GeoCodingConstants.VEGETATION_FEATURE_CLASS);
+          break;
+      }
+    }
+    return gazetteerSortValue;
+  }
+
+  private static String getId(GeoEntry geoEntry) {
+    String key =
+        String.join(
+            "|",
+            geoEntry.getName(),
+            geoEntry.getCountryCode(),
+            geoEntry.getFeatureCode(),
+            String.valueOf(geoEntry.getLatitude()),
+            String.valueOf(geoEntry.getLongitude()));
+    return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString().replace("-", "");
+  }
+
+  /**
+   * The state of a single load. Entries are received and batched on the extracting thread; batches
+   * are written and checkpointed on the writer threads.
+   */
+  private class Load implements ExtractionCallback {
+
+    private final String resource;
+
+    private final long skip;
+
+    private final ProgressCallback progressCallback;
+
+    private final ExecutorService writers;
+
+    private final Semaphore inFlight;
+
+    private final AtomicReference<Exception> writeFailure = new AtomicReference<>();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final SortedMap<Long, Long> writtenBatches = new TreeMap<>();
+
+    private List<GeoEntry> batch = new ArrayList<>(batchSize);
+
+    private long entries;
+
+    private long nextBatch;
+
+    private long nextCheckpointBatch;
+
+    private Load(
+        String resource, long skip, ProgressCallback progressCallback, ExecutorService writers) {
+      this.resource = resource;
+      this.skip = skip;
+      this.progressCallback = progressCallback;
+      this.writers = writers;
+      this.inFlight = new Semaphore(writerThreads * 2);
+    }
+
+    @Override
+    public void extracted(GeoEntry newEntry) throws GeoEntryIndexingException {
+      if (writeFailure.get() != null) {
+        throw new GeoEntryIndexingException(
+            "Unable to write to the gazetteer collection", writeFailure.get());
+      }
+
+      entries++;
+      if (entries <= skip) {
+        return;
+      }
+
+      if (GeoCodingConstants.CITY_FEATURE_CODES.contains(newEntry.getFeatureCode())) {
+        batch.add(newEntry);
+        if (batch.size() >= batchSize) {
+          submitBatch();
+        }
+      }
+    }
+
+    @Override
+    public void updateProgress(int progress) {
+      if (progressCallback != null) {
+        progressCallback.updateProgress(progress);
+      }
+    }
+
+    private void finish() throws GeoEntryIndexingException {
+      if (!batch.isEmpty()) {
+        submitBatch();
+      }
+    }
+
+    private void submitBatch() throws GeoEntryIndexingException {
+      final List<GeoEntry> geoEntries = batch;
+      final long entriesRead = entries;
+      final long batchNumber = nextBatch++;
+      batch = new ArrayList<>(batchSize);
+
+      try {
+        inFlight.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new GeoEntryIndexingException("Interrupted while loading " + resource, e);
+      }
+
+      writers.execute(
+          () -> {
+            try {
+              write(geoEntries);
+              written.addAndGet(geoEntries.size());
+              batchWritten(batchNumber, entriesRead);
+            } catch (RuntimeException e) {
+              LOGGER.debug("Unable to write gazetteer batch {} of {}", batchNumber, resource, e);
+              writeFailure.compareAndSet(null, e);
+            } finally {
+              inFlight.release();
+            }
+          });
+    }
+
+    private synchronized void batchWritten(long batchNumber, long entriesRead) {
+      writtenBatches.put(batchNumber, entriesRead);
+
+      Long checkpoint = null;
+      while (writtenBatches.containsKey(nextCheckpointBatch)) {
+        checkpoint = writtenBatches.remove(nextCheckpointBatch++);
+      }
+
+      if (checkpoint != null) {
+        writeCheckpoint(resource, checkpoint);
+      }
+    }
+
+    private void rethrowWriteFailure() throws SolrServerException, IOException {
+      Exception failure = writeFailure.get();
+      if (failure == null) {
+        return;
+      }
+
+      Throwable cause =
+          failure instanceof FailsafeException && failure.getCause() != null
+              ? failure.getCause()
+              : failure;
+      if (cause instanceof SolrServerException) {
+        throw (SolrServerException) cause;
+      } else if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new SolrServerException("Unable to write to the gazetteer collection", cause);
+    }
+  }
+}
@@ -76,7 +76,7 @@ public class GazetteerQueryOfflineSolr implements GeoEntryQueryable {
           .collect(Collectors.joining(" OR ", "(", ")"));
 
   private static final int MAX_RESULTS = 100;
-  private static final double KM_PER_DEGREE = 111.139;
+  static final double KM_PER_DEGREE = 111.139;
 
   private static final Map<String, String> SPATIAL_CONTEXT_ARGUMENTS =
       ImmutableMap.of(
@@ -96,10 +96,20 @@ public class GazetteerQueryOfflineSolr implements GeoEntryQueryable {
 
   private final SolrClient client;
 
+  private GazetteerSpatialIndex spatialIndex;
+
   public GazetteerQueryOfflineSolr(SolrClientFactory clientFactory) {
     this.client = clientFactory.newClient(COLLECTION_NAME);
   }
 
+  /**
+   * Sets the in-memory index used for nearest city and country code lookups while it is available.
+   * Lookups query Solr otherwise.
+   */
+  public void setSpatialIndex(GazetteerSpatialIndex spatialIndex) {
+    this.spatialIndex = spatialIndex;
+  }
+
   @Override
   public List<GeoEntry> query(String queryString, int maxResults) throws GeoEntryQueryException {
     SolrQuery solrQuery =
@@ -189,6 +199,10 @@ public List<NearbyLocation> getNearestCities(String location, int radiusInKm, in
     } catch (org.locationtech.jts.io.ParseException e) {
       throw new GeoEntryQueryException("Could not parse location");
     }
+    if (spatialIndex != null && spatialIndex.isAvailable()) {
+      return spatialIndex.getNearestCities(geometry, radiusInKm, Math.min(maxResults, MAX_RESULTS));
+    }
+
     final Geometry originalGeometry = geometry;
     Geometry bufferedGeo = originalGeometry.buffer(convertKilometerToDegree(radiusInKm), 14);
     String wkt = WKT_WRITER_THREAD_LOCAL.get().write(bufferedGeo);
@@ -269,7 +283,7 @@ public double getDistance() {
    * @param endPoint the point at which to end
    * @return the bearing from {@code startPoint} to {@code endPoint}, in degrees
    */
-  private static double getBearing(final Point startPoint, final Point endPoint) {
+  static double getBearing(final Point startPoint, final Point endPoint) {
     final double lat1 = startPoint.getY();
     final double lon1 = startPoint.getX();
 
@@ -293,7 +307,7 @@ private static double getBearing(final Point startPoint, final Point endPoint) {
    * @param bearing the bearing, in degrees
    * @return the cardinal direction corresponding to {@code bearing} (N, NE, E, SE, S, SW, W, NW)
    */
-  private static String bearingToCardinalDirection(final double bearing) {
+  static String bearingToCardinalDirection(final double bearing) {
     final String[] directions = {"N", "NE", "E", "SE", "S", "SW", "W", "NW", "N"};
     return directions[(int) Math.round(bearing / 45)];
   }
@@ -308,6 +322,9 @@ public Optional<String> getCountryCode(String wktLocation, int radius)
               .get()
               .read(fixSelfIntersectingGeometry(wktLocation))
               .getCentroid();
+      if (spatialIndex != null && spatialIndex.isAvailable()) {
+        return spatialIndex.getCountryCode(center, radius);
+      }
       wkt = WKT_WRITER_THREAD_LOCAL.get().write(center.buffer(convertKilometerToDegree(radius)));
     } catch (org.locationtech.jts.io.ParseException e) {
       LOGGER.debug("Could not parse wkt: {}", wktLocation, e);
@@ -0,0 +1,389 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.solr.offlinegazetteer;
+
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.COLLECTION_NAME;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.COUNTRY_CODE;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.GAZETTEER_METACARD_TAG;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.ID;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.LOCATION;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.NAME;
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.SORT_VALUE;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.plugin.PostIngestPlugin;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest.METHOD;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.codice.solr.client.solrj.SolrClient;
+import org.codice.solr.factory.SolrClientFactory;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory spatial index of the gazetteer collection, used to answer nearest city and country code
+ * lookups without a Solr query per lookup.
+ *
+ * <p>Cities are held in an STR-tree of points and country shapes in an STR-tree of prepared
+ * polygons. The index is loaded from the gazetteer collection when it is enabled and is reloaded,
+ * once ingest has been quiet for the reload delay, after gazetteer metacards are created, updated
+ * or deleted. Lookups are answered from the last complete load while a reload is in progress.
+ */
+public class GazetteerSpatialIndex implements PostIngestPlugin {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GazetteerSpatialIndex.class);
+
+  private static final int PAGE_SIZE = 1000;
+
+  private static final String CITY_SOLR_QUERY =
+      GeoCodingConstants.CITY_FEATURE_CODES.stream()
+          .map(fc -> String.format("%s:%s", GazetteerConstants.FEATURE_CODE, fc))
+          .collect(Collectors.joining(" OR ", "(", ")"));
+
+  private static final String COUNTRY_SOLR_QUERY =
+      String.format("%s:%d", SORT_VALUE, GeoCodingConstants.COUNTRY_GAZETTEER_SORT_VALUE);
+
+  private final SolrClient client;
+
+  private final ScheduledExecutorService reloadScheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          StandardThreadFactoryBuilder.newThreadFactory("gazetteerSpatialIndexThread"));
+
+  private final WKTReader wktReader = new WKTReader();
+
+  private volatile Snapshot snapshot;
+
+  private volatile boolean enabled = false;
+
+  private long reloadDelaySeconds = 60;
+
+  private ScheduledFuture<?> pendingReload;
+
+  public GazetteerSpatialIndex(SolrClientFactory clientFactory) {
+    this.client = clientFactory.newClient(COLLECTION_NAME);
+  }
+
+  /** @return true if the index is enabled and has been loaded */
+  public boolean isAvailable() {
+    return enabled && snapshot != null;
+  }
+
+  /**
+   * Retrieves the cities within {@code radiusInKm} kilometers of {@code location}, closest first.
+   *
+   * @see GazetteerQueryOfflineSolr#getNearestCities(String, int, int)
+   */
+  public List<NearbyLocation> getNearestCities(Geometry location, int radiusInKm, int maxResults) {
+    Point center = location.getCentroid();
+    return citiesWithin(location, radiusInKm)
+        .sorted(Comparator.comparingDouble(city -> location.distance(city.point)))
+        .limit(maxResults)
+        .map(
+            city ->
+                new GazetteerQueryOfflineSolr.NearbyLocationImpl(
+                    city.name,
+                    GazetteerQueryOfflineSolr.bearingToCardinalDirection(
+                        GazetteerQueryOfflineSolr.getBearing(center, city.point)),
+                    location.distance(city.point) * GazetteerQueryOfflineSolr.KM_PER_DEGREE))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Retrieves the country code of the country shape that contains {@code point}. If no country
+   * shape contains it, the country code of the closest city within {@code radiusInKm} kilometers is
+   * used instead.
+   *
+   * @see GazetteerQueryOfflineSolr#getCountryCode(String, int)
+   */
+  public Optional<String> getCountryCode(Point point, int radiusInKm) {
+    Snapshot current = snapshot;
+    if (current == null) {
+      return Optional.empty();
+    }
+
+    for (Object item : current.countries.query(point.getEnvelopeInternal())) {
+      Country country = (Country) item;
+      if (country.shape.covers(point)) {
+        return Optional.of(country.countryCode);
+      }
+    }
+
+    return citiesWithin(point, radiusInKm)
+        .filter(city -> city.countryCode != null)
+        .min(Comparator.comparingDouble(city -> point.distance(city.point)))
+        .map(city -> city.countryCode);
+  }
+
+  private Stream<City> citiesWithin(Geometry location, int radiusInKm) {
+    Snapshot current = snapshot;
+    if (current == null) {
+      return Stream.empty();
+    }
+
+    double radius = radiusInKm / GazetteerQueryOfflineSolr.KM_PER_DEGREE;
+    Envelope searchEnvelope = new Envelope(location.getEnvelopeInternal());
+    searchEnvelope.expandBy(radius);
+
+    List<?> candidates = current.cities.query(searchEnvelope);
+    return candidates.stream()
+        .map(City.class::cast)
+        .filter(city -> location.isWithinDistance(city.point, radius));
+  }
+
+  /** Loads the index from Solr, replacing the current contents once the load completes. */
+  void reload() {
+    if (!enabled) {
+      return;
+    }
+
+    long start = System.currentTimeMillis();
+    try {
+      STRtree cities = new STRtree();
+      load(
+          CITY_SOLR_QUERY,
+          doc -> {
+            City city = toCity(doc);
+            if (city != null) {
+              cities.insert(city.point.getEnvelopeInternal(), city);
+            }
+          },
+          ID,
+          NAME,
+          LOCATION,
+          COUNTRY_CODE);
+      cities.build();
+
+      STRtree countries = new STRtree();
+      load(
+          COUNTRY_SOLR_QUERY,
+          doc -> {
+            Country country = toCountry(doc);
+            if (country != null) {
+              countries.insert(country.shape.getGeometry().getEnvelopeInternal(), country);
+            }
+          },
+          ID,
+          LOCATION,
+          COUNTRY_CODE);
+      countries.build();
+
+      snapshot = new Snapshot(cities, countries);
+      LOGGER.info(
+          "Loaded {} cities and {} country shapes into the gazetteer index in {} ms",
+          cities.size(),
+          countries.size(),
+          System.currentTimeMillis() - start);
+    } catch (SolrServerException | IOException | RuntimeException e) {
+      LOGGER.warn(
+          "Unable to load the gazetteer index, retrying in {} seconds", reloadDelaySeconds, e);
+      scheduleReload(reloadDelaySeconds);
+    }
+  }
+
+  private void load(String queryString, Consumer<SolrDocument> consumer, String... fields)
+      throws SolrServerException, IOException {
+    SolrQuery query = new SolrQuery(queryString);
+    query.setFields(fields);
+    query.setRows(PAGE_SIZE);
+    query.setSort(ID, SolrQuery.ORDER.asc);
+
+    String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+    while (true) {
+      query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+      QueryResponse response = client.query(query, METHOD.POST);
+      response.getResults().forEach(consumer);
+
+      String nextCursorMark = response.getNextCursorMark();
+      if (nextCursorMark == null || nextCursorMark.equals(cursorMark)) {
+        return;
+      }
+      cursorMark = nextCursorMark;
+    }
+  }
+
+  private City toCity(SolrDocument doc) {
+    Geometry geometry = readLocation(doc);
+    String name = getField(doc, NAME, String.class);
+    if (geometry == null || name == null) {
+      return null;
+    }
+    return new City(name, getField(doc, COUNTRY_CODE, String.class), geometry.getCentroid());
+  }
+
+  private Country toCountry(SolrDocument doc) {
+    Geometry geometry = readLocation(doc);
+    String countryCode = getField(doc, COUNTRY_CODE, String.class);
+    if (!(geometry instanceof Polygonal) || countryCode == null) {
+      return null;
+    }
+    return new Country(countryCode, PreparedGeometryFactory.prepare(geometry));
+  }
+
+  private Geometry readLocation(SolrDocument doc) {
+    String location = getField(doc, LOCATION, String.class);
+    if (location == null) {
+      return null;
+    }
+
+    try {
+      return wktReader.read(location);
+    } catch (ParseException e) {
+      LOGGER.debug(
+          "Unable to parse location of gazetteer entry {}", getField(doc, ID, String.class), e);
+      return null;
+    }
+  }
+
+  private static <T> T getField(SolrDocument doc, String field, Class<T> clazz) {
+    Object value = doc.getFirstValue(field);
+    return clazz.isInstance(value) ? clazz.cast(value) : null;
+  }
+
+  private synchronized void scheduleReload(long delaySeconds) {
+    if (!enabled || reloadScheduler.isShutdown()) {
+      return;
+    }
+
+    if (pendingReload != null) {
+      pendingReload.cancel(false);
+    }
+    pendingReload = reloadScheduler.schedule(this::reload, delaySeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Reloads the index after the reload delay. Used by bulk loads that write to the gazetteer
+   * collection directly rather than through the catalog.
+   */
+  public void gazetteerChanged() {
+    scheduleReload(reloadDelaySeconds);
+  }
+
+  @Override
+  public CreateResponse process(CreateResponse input) throws PluginExecutionException {
+    reloadIfGazetteerChanged(input.getCreatedMetacards());
+    return input;
+  }
+
+  @Override
+  public UpdateResponse process(UpdateResponse input) throws PluginExecutionException {
+    reloadIfGazetteerChanged(
+        input.getUpdatedMetacards().stream()
+            .map(Update::getNewMetacard)
+            .collect(Collectors.toList()));
+    return input;
+  }
+
+  @Override
+  public DeleteResponse process(DeleteResponse input) throws PluginExecutionException {
+    reloadIfGazetteerChanged(input.getDeletedMetacards());
+    return input;
+  }
+
+  private void reloadIfGazetteerChanged(Collection<Metacard> metacards) {
+    if (metacards != null
+        && metacards.stream()
+            .filter(Objects::nonNull)
+            .map(Metacard::getTags)
+            .anyMatch(tags -> tags.contains(GAZETTEER_METACARD_TAG))) {
+      gazetteerChanged();
+    }
+  }
+
+  public void setEnabled(boolean enabled) {
+    boolean wasEnabled = this.enabled;
+    this.enabled = enabled;
+    if (enabled && !wasEnabled) {
+      scheduleReload(0);
+    } else if (!enabled) {
+      snapshot = null;
+    }
+  }
+
+  public void setReloadDelaySeconds(long reloadDelaySeconds) {
+    this.reloadDelaySeconds = reloadDelaySeconds;
+  }
+
+  public void destroy() {
+    reloadScheduler.shutdownNow();
+  }
+
+  private static class Snapshot {
+    private final STRtree cities;
+
+    private final STRtree countries;
+
+    Snapshot(STRtree cities, STRtree countries) {
+      this.cities = cities;
+      this.countries = countries;
+    }
+  }
+
+  private static class City {
+    private final String name;
+
+    private final String countryCode;
+
+    private final Point point;
+
+    City(String name, String countryCode, Point point) {
+      this.name = name;
+      this.countryCode = countryCode;
+      this.point = point;
+    }
+  }
+
+  private static class Country {
+    private final String countryCode;
+
+    private final PreparedGeometry shape;
+
+    Country(String countryCode, PreparedGeometry shape) {
+      this.countryCode = countryCode;
+      this.shape = shape;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.solr.offlinegazetteer
+
+import org.codice.ddf.spatial.geocoding.GeoEntry
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractionException
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractor
+import org.codice.solr.client.solrj.SolrClient
+import org.junit.platform.runner.JUnitPlatform
+import org.junit.runner.RunWith
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+@RunWith(JUnitPlatform.class)
+class BulkLoadGazetteerCommandSpec extends Specification {
+
+    private GeoEntryExtractor mockGeoEntryExtractor = Mock()
+
+    private GazetteerSpatialIndex mockSpatialIndex = Mock()
+
+    private BulkLoadGazetteerCommand bulkLoadGazetteerCommand = new BulkLoadGazetteerCommand().with {
+        resource = "US"
+        geoEntryExtractor = mockGeoEntryExtractor
+        spatialIndex = mockSpatialIndex
+        return it
+    }
+
+    private SolrClient mockSolrClient = Mock()
+
+    private Path ddfHome
+
+    private String originalDdfHome
+
+    def setup() {
+        ddfHome = Files.createTempDirectory("ddf")
+        originalDdfHome = System.getProperty("ddf.home")
+        System.setProperty("ddf.home", ddfHome.toString())
+    }
+
+    def cleanup() {
+        if (originalDdfHome == null) {
+            System.clearProperty("ddf.home")
+        } else {
+            System.setProperty("ddf.home", originalDdfHome)
+        }
+        ddfHome.toFile().deleteDir()
+    }
+
+    def 'test executeWithSolrClient'() {
+        when:
+        bulkLoadGazetteerCommand.executeWithSolrClient(mockSolrClient)
+
+        then:
+        1 * mockGeoEntryExtractor.pushGeoEntriesToExtractionCallback("US", _) >> { resource, callback ->
+            callback.extracted(new GeoEntry.Builder()
+                    .name("Kingman")
+                    .latitude(35.18944)
+                    .longitude(-114.05301)
+                    .featureCode("PPL")
+                    .population(28068)
+                    .countryCode("USA")
+                    .build())
+            callback.updateProgress(100)
+        }
+        1 * mockSolrClient.add({ it.size() == 1 } as Collection)
+
+        then:
+        1 * mockSolrClient.commit()
+
+        then:
+        1 * mockSolrClient.query({
+            it.getRequestHandler() == "/gazetteer"
+            it.getParams("suggest.build") == ["true"]
+        })
+
+        then:
+        1 * mockSpatialIndex.gazetteerChanged()
+    }
+
+    def 'test executeWithSolrClient without spatial index'() {
+        setup:
+        bulkLoadGazetteerCommand.spatialIndex = null
+
+        when:
+        bulkLoadGazetteerCommand.executeWithSolrClient(mockSolrClient)
+
+        then:
+        1 * mockSolrClient.commit()
+        1 * mockSolrClient.query(_)
+    }
+
+    def 'test checkpoint file is under ddf.home'() {
+        expect:
+        bulkLoadGazetteerCommand.getCheckpointFile().startsWith(ddfHome)
+    }
+
+    def 'test extraction failure'() {
+        setup:
+        mockGeoEntryExtractor.pushGeoEntriesToExtractionCallback(_, _) >> {
+            throw new GeoEntryExtractionException("bad file")
+        }
+
+        when:
+        bulkLoadGazetteerCommand.executeWithSolrClient(mockSolrClient)
+
+        then:
+        IOException e = thrown()
+        e.getCause() instanceof GeoEntryExtractionException
+        0 * mockSolrClient.commit()
+        0 * mockSolrClient.query(_)
+        0 * mockSpatialIndex.gazetteerChanged()
+    }
+}
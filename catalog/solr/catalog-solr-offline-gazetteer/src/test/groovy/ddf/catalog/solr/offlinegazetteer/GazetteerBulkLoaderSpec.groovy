@@ -0,0 +1,279 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.solr.offlinegazetteer
+
+import org.apache.solr.client.solrj.SolrServerException
+import org.apache.solr.common.SolrInputDocument
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants
+import org.codice.ddf.spatial.geocoding.GeoEntry
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractionException
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractor
+import org.codice.ddf.spatial.geocoding.GeoEntryIndexingException
+import org.codice.solr.client.solrj.SolrClient
+import org.junit.platform.runner.JUnitPlatform
+import org.junit.runner.RunWith
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.COUNTRY_CODE
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.DESCRIPTION
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.FEATURE_CODE
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.ID
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.LOCATION
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.NAME
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.POPULATION
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.SORT_VALUE
+
+@RunWith(JUnitPlatform.class)
+class GazetteerBulkLoaderSpec extends Specification {
+
+    private static final String RESOURCE = "US"
+
+    private SolrClient mockSolrClient = Mock()
+
+    private List<GeoEntry> geoEntries = []
+
+    private GeoEntryExtractor geoEntryExtractor = Mock(GeoEntryExtractor) {
+        pushGeoEntriesToExtractionCallback(_, _) >> { String resource, callback ->
+            try {
+                geoEntries.each { callback.extracted(it) }
+            } catch (GeoEntryIndexingException e) {
+                throw new GeoEntryExtractionException("Unable to extract GeoEntry", e)
+            }
+            callback.updateProgress(100)
+        }
+    }
+
+    private Path checkpointDirectory
+
+    private Path checkpointFile
+
+    private GazetteerBulkLoader loader
+
+    def setup() {
+        checkpointDirectory = Files.createTempDirectory("gazetteer")
+        checkpointFile = checkpointDirectory.resolve("bulk-load.checkpoint")
+        loader = new GazetteerBulkLoader(mockSolrClient, geoEntryExtractor, checkpointFile)
+        loader.setBatchSize(2)
+        loader.setWriterThreads(1)
+    }
+
+    def cleanup() {
+        checkpointDirectory.toFile().deleteDir()
+    }
+
+    def 'test load writes cities in batches and commits once'() {
+        setup:
+        geoEntries = [city("A"), city("B"), city("C"), lake("D"), city("E"), city("F")]
+        List<SolrInputDocument> written = [].asSynchronized()
+
+        when:
+        long count = loader.load(RESOURCE, false, null)
+
+        then:
+        3 * mockSolrClient.add(_ as Collection) >> { args ->
+            written.addAll(args[0])
+            null
+        }
+
+        then:
+        1 * mockSolrClient.commit()
+        count == 5
+        written.collect { it.getFieldValue(NAME) } as Set ==
+                ["A, USA", "B, USA", "C, USA", "E, USA", "F, USA"] as Set
+        !Files.exists(checkpointFile)
+    }
+
+    def 'test load reports progress'() {
+        setup:
+        geoEntries = [city("A")]
+        List<Integer> progress = []
+
+        when:
+        loader.load(RESOURCE, false, { progress << it })
+
+        then:
+        progress == [100]
+    }
+
+    def 'test convert matches the catalog path'() {
+        when:
+        SolrInputDocument document = GazetteerBulkLoader.convert(city("Kingman"))
+
+        then:
+        document.getFieldValue(NAME) == "Kingman, USA"
+        document.getFieldValue(DESCRIPTION) == "IGM,Kingmen"
+        document.getFieldValue(FEATURE_CODE) == "PPL"
+        document.getFieldValue(COUNTRY_CODE) == "USA"
+        document.getFieldValue(POPULATION) == 28068L
+        document.getFieldValue(LOCATION) == "POINT (-114.05301 35.18944)"
+        document.getFieldValue(SORT_VALUE) == 28068L
+        document.getFieldValue(ID) ==~ /[0-9a-f]{32}/
+    }
+
+    def 'test convert sets the sort value of feature class #featureClass'() {
+        setup:
+        GeoEntry geoEntry = new GeoEntry.Builder()
+                .name("A")
+                .featureClass(featureClass)
+                .featureCode(featureCode)
+                .population(28068)
+                .countryCode("USA")
+                .build()
+
+        expect:
+        GazetteerBulkLoader.convert(geoEntry).getFieldValue(SORT_VALUE) == sortValue
+
+        where:
+        featureClass | featureCode || sortValue
+        null         | "PPL"       || 28068L
+        "P"          | "PPLA"      || 28068L
+        "A"          | "ADM1"      || GeoCodingConstants.MAXIMUM_GAZETTEER_SORT_VALUE
+        "H"          | "OCN"       || GeoCodingConstants.SPECIAL_GAZETTEER_SORT_VALUE
+        "H"          | "LK"        || 7
+        "T"          | "MT"        || GeoCodingConstants.SPECIAL_GAZETTEER_SORT_VALUE
+        "V"          | "FRST"      || 1
+    }
+
+    def 'test convert ids are deterministic'() {
+        expect:
+        GazetteerBulkLoader.convert(city("A")).getFieldValue(ID) ==
+                GazetteerBulkLoader.convert(city("A")).getFieldValue(ID)
+        GazetteerBulkLoader.convert(city("A")).getFieldValue(ID) !=
+                GazetteerBulkLoader.convert(city("B")).getFieldValue(ID)
+    }
+
+    def 'test resume skips checkpointed entries'() {
+        setup:
+        geoEntries = [city("A"), city("B"), city("C"), city("D")]
+        checkpointFile.toFile().text = "resource=${RESOURCE}\nentries=2\n"
+        List<SolrInputDocument> written = [].asSynchronized()
+
+        when:
+        long count = loader.load(RESOURCE, true, null)
+
+        then:
+        1 * mockSolrClient.add(_ as Collection) >> { args ->
+            written.addAll(args[0])
+            null
+        }
+        1 * mockSolrClient.commit()
+        count == 2
+        written.collect { it.getFieldValue(NAME) } == ["C, USA", "D, USA"]
+    }
+
+    def 'test resume ignores checkpoint of another resource'() {
+        setup:
+        geoEntries = [city("A"), city("B"), city("C"), city("D")]
+        checkpointFile.toFile().text = "resource=allCountries\nentries=2\n"
+
+        when:
+        long count = loader.load(RESOURCE, true, null)
+
+        then:
+        2 * mockSolrClient.add(_ as Collection)
+        count == 4
+    }
+
+    def 'test without resume the checkpoint is ignored'() {
+        setup:
+        geoEntries = [city("A"), city("B")]
+        checkpointFile.toFile().text = "resource=${RESOURCE}\nentries=2\n"
+
+        when:
+        long count = loader.load(RESOURCE, false, null)
+
+        then:
+        1 * mockSolrClient.add(_ as Collection)
+        count == 2
+    }
+
+    def 'test write failure stops the load and keeps the checkpoint'() {
+        setup:
+        geoEntries = [city("A"), city("B"), city("C"), city("D"), city("E"), city("F")]
+        int adds = 0
+        mockSolrClient.add(_ as Collection) >> {
+            if (++adds > 1) {
+                throw new IllegalStateException("rejected")
+            }
+            null
+        }
+
+        when:
+        loader.load(RESOURCE, false, null)
+
+        then:
+        thrown(IllegalStateException)
+        0 * mockSolrClient.commit()
+        checkpointFile.toFile().text.contains("entries=2")
+    }
+
+    def 'test transient write failures are retried'() {
+        setup:
+        geoEntries = [city("A")]
+        int adds = 0
+
+        when:
+        long count = loader.load(RESOURCE, false, null)
+
+        then:
+        2 * mockSolrClient.add(_ as Collection) >> {
+            if (++adds == 1) {
+                throw new SolrServerException("unavailable")
+            }
+            null
+        }
+        1 * mockSolrClient.commit()
+        count == 1
+    }
+
+    def 'test extraction failure is rethrown without commit'() {
+        setup:
+        GeoEntryExtractionException exception = new GeoEntryExtractionException("bad file")
+
+        when:
+        loader.load(RESOURCE, false, null)
+
+        then:
+        1 * geoEntryExtractor.pushGeoEntriesToExtractionCallback(_, _) >> { throw exception }
+        GeoEntryExtractionException e = thrown()
+        e == exception
+        0 * mockSolrClient.commit()
+    }
+
+    private static GeoEntry city(String name) {
+        return new GeoEntry.Builder()
+                .name(name)
+                .latitude(35.18944)
+                .longitude(-114.05301)
+                .featureCode("PPL")
+                .population(28068)
+                .alternateNames("IGM,Kingmen")
+                .countryCode("USA")
+                .build()
+    }
+
+    private static GeoEntry lake(String name) {
+        return new GeoEntry.Builder()
+                .name(name)
+                .latitude(34.4839)
+                .longitude(-114.32245)
+                .featureCode("LK")
+                .population(0)
+                .countryCode("USA")
+                .build()
+    }
+}
@@ -29,6 +29,8 @@ import org.codice.solr.client.solrj.SolrClient
 import org.codice.solr.factory.SolrClientFactory
 import org.junit.platform.runner.JUnitPlatform
 import org.junit.runner.RunWith
+import org.locationtech.jts.geom.Geometry
+import org.locationtech.jts.geom.Point
 import spock.lang.Specification
 
 import java.util.stream.Stream
@@ -395,4 +397,61 @@ class GazetteerQueryOfflineSolrSpec extends Specification {
 
     }
 
+    def "getNearestCities uses the spatial index when available"() {
+        setup:
+        NearbyLocation nearbyLocation = Mock(NearbyLocation)
+        testedClass.setSpatialIndex(Mock(GazetteerSpatialIndex) {
+            isAvailable() >> true
+            1 * getNearestCities({ Geometry it -> it.toText() == "POINT (-98.86253 29.18968)" },
+                    50, 100) >> [nearbyLocation]
+        })
+
+        when:
+        List<NearbyLocation> results = testedClass.
+                getNearestCities("POINT (-98.86253 29.18968)", 50, 1000)
+
+        then:
+        results == [nearbyLocation]
+        0 * solrClient.query(*_)
+    }
+
+    def "getCountryCode uses the spatial index when available"() {
+        setup:
+        testedClass.setSpatialIndex(Mock(GazetteerSpatialIndex) {
+            isAvailable() >> true
+            1 * getCountryCode({ Point it -> it.toText() == "POINT (-98.86253 29.18968)" },
+                    50) >> Optional.of("USA")
+        })
+
+        when:
+        Optional<String> result = testedClass.getCountryCode("POINT (-98.86253 29.18968)", 50)
+
+        then:
+        result == Optional.of("USA")
+        0 * solrClient.query(*_)
+    }
+
+    def "lookups query solr while the spatial index is not available"() {
+        setup:
+        testedClass.setSpatialIndex(Mock(GazetteerSpatialIndex) {
+            isAvailable() >> false
+            0 * getCountryCode(*_)
+        })
+
+        when:
+        Optional<String> result = testedClass.getCountryCode("POINT (-98.86253 29.18968)", 50)
+
+        then:
+        1 * solrClient.query(*_) >> Mock(QueryResponse) {
+            getResults() >> Mock(SolrDocumentList) {
+                stream() >> {
+                    Stream.of(Mock(SolrDocument) {
+                        get(COUNTRY_CODE) >> ["USA"]
+                    })
+                }
+            }
+        }
+        result == Optional.of("USA")
+    }
+
 }
@@ -0,0 +1,314 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.solr.offlinegazetteer
+
+import ddf.catalog.data.Metacard
+import ddf.catalog.operation.CreateResponse
+import ddf.catalog.operation.DeleteResponse
+import ddf.catalog.operation.Update
+import ddf.catalog.operation.UpdateResponse
+import org.apache.solr.client.solrj.SolrQuery
+import org.apache.solr.client.solrj.SolrRequest.METHOD
+import org.apache.solr.client.solrj.SolrServerException
+import org.apache.solr.client.solrj.response.QueryResponse
+import org.apache.solr.common.SolrDocument
+import org.apache.solr.common.SolrDocumentList
+import org.apache.solr.common.params.CursorMarkParams
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation
+import org.codice.solr.client.solrj.SolrClient
+import org.codice.solr.factory.SolrClientFactory
+import org.junit.platform.runner.JUnitPlatform
+import org.junit.runner.RunWith
+import org.locationtech.jts.geom.Point
+import org.locationtech.jts.io.WKTReader
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.COLLECTION_NAME
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.COUNTRY_CODE
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.GAZETTEER_METACARD_TAG
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.ID
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.LOCATION
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.NAME
+import static ddf.catalog.solr.offlinegazetteer.GazetteerConstants.SORT_VALUE
+
+@RunWith(JUnitPlatform.class)
+class GazetteerSpatialIndexSpec extends Specification {
+    static final String BOSTON = "POINT (-71.0596 42.3577)"
+
+    GazetteerSpatialIndex testedIndex
+    SolrClientFactory solrClientFactory
+    SolrClient solrClient
+    PollingConditions conditions = new PollingConditions(timeout: 5)
+    AtomicInteger loads = new AtomicInteger()
+
+    SolrDocumentList cities = documents(
+            city("1", "Cambridge", "USA", "POINT (-71.1097 42.3736)"),
+            city("2", "Boston", "USA", BOSTON),
+            city("3", "Worcester", "USA", "POINT (-71.8023 42.2626)"),
+            city("4", "Toronto", "CAN", "POINT (-79.3832 43.6532)"),
+            city("5", null, "CAN", "POINT (-79.3832 43.6532)"),
+            city("6", "Nowhere", "CAN", "NOT WKT"))
+
+    SolrDocumentList countries = documents(
+            country("7", "USA", "POLYGON ((-73 41, -69 41, -69 43, -73 43, -73 41))"),
+            country("8", "CAN", "POINT (-80 44)"))
+
+    void setup() {
+        solrClient = Mock(SolrClient)
+        solrClientFactory = Mock(SolrClientFactory) {
+            newClient(COLLECTION_NAME) >> solrClient
+        }
+        testedIndex = new GazetteerSpatialIndex(solrClientFactory)
+    }
+
+    void cleanup() {
+        testedIndex.destroy()
+    }
+
+    def "not available until enabled and loaded"() {
+        expect:
+        !testedIndex.isAvailable()
+        testedIndex.getCountryCode(read(BOSTON), 10) == Optional.empty()
+        testedIndex.getNearestCities(read(BOSTON), 10, 5).isEmpty()
+    }
+
+    def "nearest cities are closest first and within the radius"() {
+        setup:
+        load()
+
+        when:
+        List<NearbyLocation> results = testedIndex.getNearestCities(read(BOSTON), 10, 5)
+
+        then:
+        results*.name == ["Boston", "Cambridge"]
+        results[0].distance == 0
+        with(results[1]) {
+            cardinalDirection == "NW"
+            5 <= it.distance && it.distance <= 7
+        }
+    }
+
+    def "nearest cities are limited to max results"() {
+        setup:
+        load()
+
+        expect:
+        testedIndex.getNearestCities(read(BOSTON), 100, 2)*.name == ["Boston", "Cambridge"]
+    }
+
+    def "country code from the covering country shape"() {
+        setup:
+        load()
+
+        expect:
+        testedIndex.getCountryCode(read("POINT (-72.5 41.5)"), 1) == Optional.of("USA")
+    }
+
+    def "country code from the closest city"() {
+        setup:
+        load()
+
+        expect:
+        testedIndex.getCountryCode(read("POINT (-79.39 43.66)"), 10) == Optional.of("CAN")
+    }
+
+    def "no country code far from any country or city"() {
+        setup:
+        load()
+
+        expect:
+        testedIndex.getCountryCode(read("POINT (-40 30)"), 10) == Optional.empty()
+    }
+
+    def "pages through the collection with a cursor"() {
+        setup:
+        List<String> cursorMarks = []
+        solrClient.query(_ as SolrQuery, METHOD.POST) >> { SolrQuery query, METHOD method ->
+            String cursorMark = query.get(CursorMarkParams.CURSOR_MARK_PARAM)
+            cursorMarks << cursorMark
+            if (!query.query.contains(SORT_VALUE)) {
+                return cursorMark == CursorMarkParams.CURSOR_MARK_START ?
+                        response(documents(cities[0]), "page2") :
+                        response(documents(cities[1]), "page2")
+            }
+            return response(countries, CursorMarkParams.CURSOR_MARK_START)
+        }
+
+        when:
+        testedIndex.setEnabled(true)
+
+        then:
+        conditions.eventually {
+            assert testedIndex.isAvailable()
+        }
+        cursorMarks == [CursorMarkParams.CURSOR_MARK_START, "page2", CursorMarkParams.CURSOR_MARK_START]
+        testedIndex.getNearestCities(read(BOSTON), 10, 5)*.name == ["Boston", "Cambridge"]
+    }
+
+    def "retries a failed load"() {
+        setup:
+        testedIndex.setReloadDelaySeconds(0)
+        int attempts = 0
+        solrClient.query(_ as SolrQuery, METHOD.POST) >> { SolrQuery query, METHOD method ->
+            if (attempts++ == 0) {
+                throw new SolrServerException("unavailable")
+            }
+            return query.query.contains(SORT_VALUE) ?
+                    response(countries, CursorMarkParams.CURSOR_MARK_START) :
+                    response(cities, CursorMarkParams.CURSOR_MARK_START)
+        }
+
+        when:
+        testedIndex.setEnabled(true)
+
+        then:
+        conditions.eventually {
+            assert testedIndex.isAvailable()
+        }
+    }
+
+    def "disabling clears the index"() {
+        setup:
+        load()
+
+        when:
+        testedIndex.setEnabled(false)
+
+        then:
+        !testedIndex.isAvailable()
+        testedIndex.getNearestCities(read(BOSTON), 10, 5).isEmpty()
+    }
+
+    def "gazetteer changes reload the index"() {
+        setup:
+        load()
+        testedIndex.setReloadDelaySeconds(0)
+
+        Metacard gazetteerMetacard = Mock(Metacard) {
+            getTags() >> [GAZETTEER_METACARD_TAG, GeoCodingConstants.GEONAMES_TAG]
+        }
+        Metacard resourceMetacard = Mock(Metacard) {
+            getTags() >> ["resource"]
+        }
+
+        when:
+        testedIndex.process(Mock(CreateResponse) {
+            getCreatedMetacards() >> [resourceMetacard]
+        })
+        sleep(100)
+
+        then:
+        loads.get() == 1
+
+        when:
+        testedIndex.process(Mock(CreateResponse) {
+            getCreatedMetacards() >> [resourceMetacard, gazetteerMetacard]
+        })
+
+        then:
+        conditions.eventually {
+            assert loads.get() == 2
+        }
+
+        when:
+        testedIndex.process(Mock(UpdateResponse) {
+            getUpdatedMetacards() >> [Mock(Update) {
+                getNewMetacard() >> gazetteerMetacard
+            }]
+        })
+
+        then:
+        conditions.eventually {
+            assert loads.get() == 3
+        }
+
+        when:
+        testedIndex.process(Mock(DeleteResponse) {
+            getDeletedMetacards() >> [gazetteerMetacard]
+        })
+
+        then:
+        conditions.eventually {
+            assert loads.get() == 4
+        }
+    }
+
+    def "bulk loads reload the index"() {
+        setup:
+        load()
+        testedIndex.setReloadDelaySeconds(0)
+
+        when:
+        testedIndex.gazetteerChanged()
+
+        then:
+        conditions.eventually {
+            assert loads.get() == 2
+        }
+    }
+
+    private void load() {
+        solrClient.query(_ as SolrQuery, METHOD.POST) >> { SolrQuery query, METHOD method ->
+            if (query.query.contains(SORT_VALUE)) {
+                loads.incrementAndGet()
+                return response(countries, CursorMarkParams.CURSOR_MARK_START)
+            }
+            return response(cities, CursorMarkParams.CURSOR_MARK_START)
+        }
+        testedIndex.setEnabled(true)
+        conditions.eventually {
+            assert testedIndex.isAvailable()
+        }
+    }
+
+    private QueryResponse response(SolrDocumentList results, String nextCursorMark) {
+        return Mock(QueryResponse) {
+            getResults() >> results
+            getNextCursorMark() >> nextCursorMark
+        }
+    }
+
+    private static Point read(String wkt) {
+        return (Point) new WKTReader().read(wkt)
+    }
+
+    private static SolrDocumentList documents(SolrDocument... documents) {
+        SolrDocumentList list = new SolrDocumentList()
+        list.addAll(documents)
+        return list
+    }
+
+    private static SolrDocument city(String id, String name, String countryCode, String wkt) {
+        SolrDocument document = new SolrDocument()
+        document.addField(ID, id)
+        if (name != null) {
+            document.addField(NAME, [name])
+        }
+        document.addField(COUNTRY_CODE, [countryCode])
+        document.addField(LOCATION, [wkt])
+        return document
+    }
+
+    private static SolrDocument country(String id, String countryCode, String wkt) {
+        SolrDocument document = new SolrDocument()
+        document.addField(ID, id)
+        document.addField(COUNTRY_CODE, [countryCode])
+        document.addField(LOCATION, [wkt])
+        return document
+    }
+}
@@ -14,6 +14,9 @@
 package org.codice.ddf.spatial.ogc.csw.catalog.endpoint;
 
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_START;
+import static ddf.catalog.Constants.QUERY_REQUESTED_ATTRIBUTES_KEY;
 
 import ddf.catalog.data.AttributeRegistry;
 import ddf.catalog.data.types.Core;
@@ -36,7 +39,9 @@
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -146,18 +151,24 @@ public QueryRequest getQuery(GetRecordsType request) throws CswException {
       extSortBys = Arrays.copyOfRange(sortBys, 1, sortBys.length);
     }
 
+    Map<String, Serializable> properties = new HashMap<>();
     if (ResultType.HITS.equals(request.getResultType()) || request.getMaxRecords().intValue() < 1) {
       frameworkQuery.setStartIndex(1);
       frameworkQuery.setPageSize(1);
+      // Only the hit count is returned, so there is no need to retrieve the whole record
+      properties.put(QUERY_REQUESTED_ATTRIBUTES_KEY, new HashSet<>(Collections.singleton(Core.ID)));
     } else {
       frameworkQuery.setStartIndex(request.getStartPosition().intValue());
       frameworkQuery.setPageSize(request.getMaxRecords().intValue());
+      // Lets the catalog continue from the first page when the client pages on with startPosition
+      if (frameworkQuery.getStartIndex() == 1) {
+        properties.put(QUERY_CURSOR_KEY, QUERY_CURSOR_START);
+      }
     }
     boolean isEnterprise =
         request.getDistributedSearch() != null
             && (request.getDistributedSearch().getHopCount().longValue() > 1);
 
-    Map<String, Serializable> properties = new HashMap<>();
     if (extSortBys != null && extSortBys.length > 0) {
       properties.put(ADDITIONAL_SORT_BYS, extSortBys);
     }
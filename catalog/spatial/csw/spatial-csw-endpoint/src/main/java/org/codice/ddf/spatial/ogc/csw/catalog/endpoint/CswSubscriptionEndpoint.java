@@ -313,8 +313,9 @@ public Response createOrUpdateSubscription(
   @Produces({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
   public Response createEvent(GetRecordsResponseType recordsResponse) throws CswException {
     validateResponseSchema(recordsResponse);
-    List<Metacard> metacards = getMetacards(recordsResponse);
-    eventProcessor.notifyCreated(metacards.get(0));
+    for (Metacard metacard : getMetacards(recordsResponse)) {
+      eventProcessor.notifyCreated(metacard);
+    }
     return Response.ok().build();
   }
 
@@ -326,7 +327,15 @@ public Response createEvent(GetRecordsResponseType recordsResponse) throws CswEx
   public Response updateEvent(GetRecordsResponseType recordsResponse) throws CswException {
     validateResponseSchema(recordsResponse);
     List<Metacard> metacards = getMetacards(recordsResponse);
-    eventProcessor.notifyUpdated(metacards.get(0), null);
+    int i = 0;
+    while (i < metacards.size()) {
+      Metacard newMetacard = metacards.get(i++);
+      Metacard oldMetacard = null;
+      if (i < metacards.size() && isSameMetacard(newMetacard, metacards.get(i))) {
+        oldMetacard = metacards.get(i++);
+      }
+      eventProcessor.notifyUpdated(newMetacard, oldMetacard);
+    }
     return Response.ok().build();
   }
 
@@ -337,8 +346,9 @@ public Response updateEvent(GetRecordsResponseType recordsResponse) throws CswEx
   @Produces({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
   public Response deleteEvent(GetRecordsResponseType recordsResponse) throws CswException {
     validateResponseSchema(recordsResponse);
-    List<Metacard> metacards = getMetacards(recordsResponse);
-    eventProcessor.notifyDeleted(metacards.get(0));
+    for (Metacard metacard : getMetacards(recordsResponse)) {
+      eventProcessor.notifyDeleted(metacard);
+    }
     return Response.ok().build();
   }
 
@@ -349,6 +359,15 @@ public Response ping() {
     return Response.ok().build();
   }
 
+  /**
+   * Updates are sent as each new metacard followed by its old one, but either may have been
+   * filtered out by the sender's access plugins, so a record is only taken as the old metacard of
+   * the one before it when both have the same ID.
+   */
+  private static boolean isSameMetacard(Metacard newMetacard, Metacard oldMetacard) {
+    return newMetacard.getId() != null && newMetacard.getId().equals(oldMetacard.getId());
+  }
+
   private void validateResponseSchema(GetRecordsResponseType recordsResponse) throws CswException {
     if (!METACARD_SCHEMA.equals(recordsResponse.getSearchResults().getRecordSchema())) {
       throw new CswException(
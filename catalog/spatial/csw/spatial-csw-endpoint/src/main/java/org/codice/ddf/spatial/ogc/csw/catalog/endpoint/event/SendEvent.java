@@ -17,6 +17,7 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.event.BatchDeliveryMethod;
 import ddf.catalog.event.DeliveryMethod;
 import ddf.catalog.operation.Pingable;
 import ddf.catalog.operation.QueryRequest;
@@ -30,6 +31,7 @@
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -63,9 +65,9 @@
 
 /**
  * SendEvent provides a implementation of {@link DeliveryMethod} for sending events to a CSW
- * subscription event endpoint
+ * subscription event endpoint. Batches of events are sent as a single record collection.
  */
-public class SendEvent implements DeliveryMethod, Pingable {
+public class SendEvent implements BatchDeliveryMethod, Pingable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SendEvent.class);
 
@@ -295,6 +297,29 @@ public void deleted(Metacard oldMetacard) {
     sendEvent(HttpMethod.DELETE, oldMetacard);
   }
 
+  @Override
+  public void created(List<Metacard> newMetacards) {
+    LOGGER.debug("Created {} metacards", newMetacards.size());
+    sendEvent(HttpMethod.POST, newMetacards.toArray(new Metacard[0]));
+  }
+
+  @Override
+  public void updatedHit(List<Metacard> newMetacards, List<Metacard> oldMetacards) {
+    LOGGER.debug("Updated Hit {} metacards", newMetacards.size());
+    List<Metacard> metacards = new ArrayList<>(newMetacards.size() * 2);
+    for (int i = 0; i < newMetacards.size(); i++) {
+      metacards.add(newMetacards.get(i));
+      metacards.add(oldMetacards.get(i));
+    }
+    sendEvent(HttpMethod.PUT, metacards.toArray(new Metacard[0]));
+  }
+
+  @Override
+  public void deleted(List<Metacard> oldMetacards) {
+    LOGGER.debug("Deleted {} metacards", oldMetacards.size());
+    sendEvent(HttpMethod.DELETE, oldMetacards.toArray(new Metacard[0]));
+  }
+
   private long introduceJitter(long value, double percent) {
     long maxJitter = Math.round(value * percent);
     if (value == 0 || maxJitter == 0) {
@@ -13,6 +13,8 @@
  */
 package org.codice.ddf.spatial.ogc.csw.catalog.endpoint;
 
+import static ddf.catalog.Constants.QUERY_CURSOR_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_START;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.contains;
@@ -416,6 +418,38 @@ public void testPostGetRecordsValidSort()
     assertThat(resultSort.getSortOrder(), is(SortOrder.ASCENDING));
   }
 
+  @Test
+  public void testPostGetRecordsFirstPageStartsQueryCursor() throws CswException {
+    GetRecordsType grr = createDefaultPostRecordsRequest();
+    grr.setResultType(ResultType.RESULTS);
+    grr.setStartPosition(BigInteger.ONE);
+
+    QueryRequest queryRequest = queryFactory.getQuery(grr);
+
+    assertThat(queryRequest.getPropertyValue(QUERY_CURSOR_KEY), is(QUERY_CURSOR_START));
+  }
+
+  @Test
+  public void testPostGetRecordsLaterPageDoesNotStartQueryCursor() throws CswException {
+    GetRecordsType grr = createDefaultPostRecordsRequest();
+    grr.setResultType(ResultType.RESULTS);
+    grr.setStartPosition(BigInteger.valueOf(11));
+
+    QueryRequest queryRequest = queryFactory.getQuery(grr);
+
+    assertThat(queryRequest.getPropertyValue(QUERY_CURSOR_KEY), is(nullValue()));
+  }
+
+  @Test
+  public void testPostGetRecordsHitsDoesNotStartQueryCursor() throws CswException {
+    GetRecordsType grr = createDefaultPostRecordsRequest();
+    grr.setResultType(ResultType.HITS);
+
+    QueryRequest queryRequest = queryFactory.getQuery(grr);
+
+    assertThat(queryRequest.getPropertyValue(QUERY_CURSOR_KEY), is(nullValue()));
+  }
+
   @Test
   public void testPostGetRecordsFunctionCQLQuery()
       throws CswException, UnsupportedQueryException, SourceUnavailableException,
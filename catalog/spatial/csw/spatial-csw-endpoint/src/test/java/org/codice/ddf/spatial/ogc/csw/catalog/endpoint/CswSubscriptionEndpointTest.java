@@ -21,6 +21,7 @@
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -41,6 +42,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Dictionary;
 import java.util.List;
 import javax.ws.rs.core.Response;
@@ -70,6 +72,7 @@
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Filter;
@@ -416,11 +419,39 @@ public void testCreateEvent() throws Exception {
     verify(eventProcessor).notifyCreated(any(Metacard.class));
   }
 
+  @Test
+  public void testCreateEventWithSeveralRecords() throws Exception {
+    Metacard first = metacard("1");
+    Metacard second = metacard("2");
+    cswSubscriptionEndpoint.createEvent(getRecordsResponse(first, second));
+    verify(eventProcessor).notifyCreated(first);
+    verify(eventProcessor).notifyCreated(second);
+  }
+
   @Test
   public void testUpdateEvent() throws Exception {
+    Metacard newMetacard = metacard("1");
+    Metacard oldMetacard = metacard("1");
+    cswSubscriptionEndpoint.updateEvent(getRecordsResponse(newMetacard, oldMetacard));
+    verify(eventProcessor).notifyUpdated(newMetacard, oldMetacard);
+  }
 
-    cswSubscriptionEndpoint.updateEvent(getRecordsResponse(2));
-    verify(eventProcessor).notifyUpdated(any(Metacard.class), isNull());
+  @Test
+  public void testUpdateEventWithSeveralPairs() throws Exception {
+    Metacard newFirst = metacard("1");
+    Metacard oldFirst = metacard("1");
+    Metacard newSecond = metacard("2");
+    Metacard newThird = metacard("3");
+    Metacard oldThird = metacard("3");
+    // The old metacard of the second update was filtered out by the sender
+    cswSubscriptionEndpoint.updateEvent(
+        getRecordsResponse(newFirst, oldFirst, newSecond, newThird, oldThird));
+
+    InOrder inOrder = inOrder(eventProcessor);
+    inOrder.verify(eventProcessor).notifyUpdated(newFirst, oldFirst);
+    inOrder.verify(eventProcessor).notifyUpdated(newSecond, null);
+    inOrder.verify(eventProcessor).notifyUpdated(newThird, oldThird);
+    verify(eventProcessor, times(3)).notifyUpdated(any(Metacard.class), any());
   }
 
   @Test
@@ -429,6 +460,15 @@ public void testDeleteEvent() throws Exception {
     verify(eventProcessor).notifyDeleted(any(Metacard.class));
   }
 
+  @Test
+  public void testDeleteEventWithSeveralRecords() throws Exception {
+    Metacard first = metacard("1");
+    Metacard second = metacard("2");
+    cswSubscriptionEndpoint.deleteEvent(getRecordsResponse(first, second));
+    verify(eventProcessor).notifyDeleted(first);
+    verify(eventProcessor).notifyDeleted(second);
+  }
+
   @Test(expected = CswException.class)
   public void testCreateEventInvalidSchema() throws Exception {
     GetRecordsResponseType getRecordsResponse = new GetRecordsResponseType();
@@ -456,6 +496,22 @@ public void testDeleteEventInvalidSchema() throws Exception {
     cswSubscriptionEndpoint.deleteEvent(getRecordsResponse);
   }
 
+  private static Metacard metacard(String id) {
+    Metacard metacard = mock(Metacard.class);
+    when(metacard.getId()).thenReturn(id);
+    return metacard;
+  }
+
+  private GetRecordsResponseType getRecordsResponse(Metacard... metacards)
+      throws IOException, CatalogTransformerException {
+    GetRecordsResponseType getRecordsResponse = getRecordsResponse(metacards.length);
+    InputTransformer inputTransformer = mock(InputTransformer.class);
+    when(mockInputManager.getTransformerBySchema(METACARD_SCHEMA)).thenReturn(inputTransformer);
+    when(inputTransformer.transform(any(InputStream.class)))
+        .thenReturn(metacards[0], Arrays.copyOfRange(metacards, 1, metacards.length));
+    return getRecordsResponse;
+  }
+
   private GetRecordsResponseType getRecordsResponse(int metacardCount)
       throws IOException, CatalogTransformerException {
     InputTransformer inputTransformer = mock(InputTransformer.class);
@@ -18,8 +18,10 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -27,39 +29,56 @@
 
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.event.EventProcessor;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.plugin.AccessPlugin;
+import ddf.catalog.transform.InputTransformer;
 import ddf.catalog.transform.QueryResponseTransformer;
 import ddf.security.Subject;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import net.opengis.cat.csw.v_2_0_2.ElementSetNameType;
 import net.opengis.cat.csw.v_2_0_2.ElementSetType;
+import net.opengis.cat.csw.v_2_0_2.GetRecordsResponseType;
 import net.opengis.cat.csw.v_2_0_2.GetRecordsType;
 import net.opengis.cat.csw.v_2_0_2.ObjectFactory;
 import net.opengis.cat.csw.v_2_0_2.QueryType;
 import net.opengis.cat.csw.v_2_0_2.ResultType;
+import net.opengis.cat.csw.v_2_0_2.SearchResultsType;
 import org.apache.cxf.jaxrs.client.WebClient;
+import org.codice.ddf.cxf.client.ClientBuilderFactory;
 import org.codice.ddf.cxf.client.SecureCxfClientFactory;
 import org.codice.ddf.security.Security;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswException;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordCollection;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswSubscribe;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
+import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.CswQueryFactory;
+import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.CswSubscriptionEndpoint;
+import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.Validator;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.osgi.framework.InvalidSyntaxException;
+import org.w3c.dom.Node;
 
 public class SendEventTest {
 
+  private static final String METACARD_SCHEMA = "urn:catalog:metacard";
+
   private Security mockSecurity;
 
   private URL callbackURI;
@@ -166,6 +185,65 @@ public void testDeleted() throws Exception {
     verifyResults();
   }
 
+  @Test
+  public void testCreatedBatchSentAsOneCollection() throws Exception {
+    sendEvent.created(Arrays.asList(metacard, metacard, metacard));
+    verifyResults();
+    verify(webclient)
+        .invoke(
+            eq("POST"),
+            argThat(
+                collection ->
+                    ((CswRecordCollection) collection).getSourceResponse().getResults().size()
+                        == 3));
+  }
+
+  @Test
+  public void testUpdatedBatchReceivedAsPairs() throws Exception {
+    Metacard newFirst = metacardWithId("1");
+    Metacard oldFirst = metacardWithId("1");
+    Metacard newSecond = metacardWithId("2");
+    Metacard oldSecond = metacardWithId("2");
+    sendEvent.updatedHit(Arrays.asList(newFirst, newSecond), Arrays.asList(oldFirst, oldSecond));
+
+    ArgumentCaptor<Object> recordCollection = ArgumentCaptor.forClass(Object.class);
+    verify(webclient).invoke(eq("PUT"), recordCollection.capture());
+    List<Metacard> sent =
+        ((CswRecordCollection) recordCollection.getValue())
+            .getSourceResponse().getResults().stream()
+                .map(Result::getMetacard)
+                .collect(Collectors.toList());
+
+    EventProcessor eventProcessor = mock(EventProcessor.class);
+    receivingEndpoint(eventProcessor, sent).updateEvent(getRecordsResponse(sent.size()));
+
+    InOrder inOrder = inOrder(eventProcessor);
+    inOrder.verify(eventProcessor).notifyUpdated(newFirst, oldFirst);
+    inOrder.verify(eventProcessor).notifyUpdated(newSecond, oldSecond);
+    verify(eventProcessor, times(2)).notifyUpdated(any(Metacard.class), any());
+  }
+
+  @Test
+  public void testCreatedBatchReceivedAsSeparateEvents() throws Exception {
+    Metacard first = metacardWithId("1");
+    Metacard second = metacardWithId("2");
+    sendEvent.created(Arrays.asList(first, second));
+
+    ArgumentCaptor<Object> recordCollection = ArgumentCaptor.forClass(Object.class);
+    verify(webclient).invoke(eq("POST"), recordCollection.capture());
+    List<Metacard> sent =
+        ((CswRecordCollection) recordCollection.getValue())
+            .getSourceResponse().getResults().stream()
+                .map(Result::getMetacard)
+                .collect(Collectors.toList());
+
+    EventProcessor eventProcessor = mock(EventProcessor.class);
+    receivingEndpoint(eventProcessor, sent).createEvent(getRecordsResponse(sent.size()));
+
+    verify(eventProcessor).notifyCreated(first);
+    verify(eventProcessor).notifyCreated(second);
+  }
+
   @Test
   public void testIsAvailableNoExpiration() throws Exception {
     long lastPing = sendEvent.getLastPing();
@@ -182,6 +260,45 @@ public void testIsAvailableNoExpiration() throws Exception {
     assertThat(lastPing, is(sendEvent.getLastPing()));
   }
 
+  private static Metacard metacardWithId(String id) {
+    Metacard metacard = mock(Metacard.class);
+    when(metacard.getId()).thenReturn(id);
+    return metacard;
+  }
+
+  /** Endpoint of the receiving node, which reads back the given metacards in order. */
+  private CswSubscriptionEndpoint receivingEndpoint(
+      EventProcessor eventProcessor, List<Metacard> metacards) throws Exception {
+    InputTransformer inputTransformer = mock(InputTransformer.class);
+    when(inputTransformer.transform(any(InputStream.class)))
+        .thenReturn(
+            metacards.get(0), metacards.subList(1, metacards.size()).toArray(new Metacard[0]));
+    TransformerManager inputTransformerManager = mock(TransformerManager.class);
+    when(inputTransformerManager.getTransformerBySchema(METACARD_SCHEMA))
+        .thenReturn(inputTransformer);
+
+    return new CswSubscriptionEndpoint(
+        eventProcessor,
+        mock(TransformerManager.class),
+        mock(TransformerManager.class),
+        inputTransformerManager,
+        mock(Validator.class),
+        mock(CswQueryFactory.class),
+        mock(ClientBuilderFactory.class),
+        mockSecurity);
+  }
+
+  private static GetRecordsResponseType getRecordsResponse(int recordCount) {
+    SearchResultsType searchResults = new SearchResultsType();
+    searchResults.setRecordSchema(METACARD_SCHEMA);
+    for (int i = 0; i < recordCount; i++) {
+      searchResults.getAny().add(mock(Node.class));
+    }
+    GetRecordsResponseType getRecordsResponse = new GetRecordsResponseType();
+    getRecordsResponse.setSearchResults(searchResults);
+    return getRecordsResponse;
+  }
+
   private class SendEventExtension extends SendEvent {
 
     public SendEventExtension(
@@ -13,6 +13,8 @@
  */
 package org.codice.ddf.spatial.geocoding.create;
 
+import java.util.HashMap;
+import java.util.Map;
 import org.codice.countrycode.standard.StandardProvider;
 import org.codice.countrycode.standard.StandardRegistry;
 import org.codice.countrycode.standard.StandardRegistryImpl;
@@ -24,11 +26,24 @@
  * href="http://download.geonames.org/export/dump">geonames.org</a>.
  */
 public class GeoNamesCreator implements GeoEntryCreator {
-  private StandardProvider isoStandard;
+  /**
+   * Alpha-2 to alpha-3 country codes, computed once so that creating an entry does not scan the
+   * whole ISO 3166 standard for every line of a GeoNames file.
+   */
+  private final Map<String, String> alpha3ByAlpha2 = new HashMap<>();
 
   public GeoNamesCreator() {
     StandardRegistry registry = StandardRegistryImpl.getInstance();
-    isoStandard = registry.lookup("ISO3166", "1");
+    StandardProvider isoStandard = registry.lookup("ISO3166", "1");
+    isoStandard
+        .getStandardEntries()
+        .forEach(
+            cc -> {
+              String alpha3 = cc.getAsFormat("alpha3");
+              if (alpha3 != null) {
+                alpha3ByAlpha2.putIfAbsent(cc.getAsFormat("alpha2"), alpha3);
+              }
+            });
   }
 
   @Override
@@ -37,12 +52,8 @@ public GeoEntry createGeoEntry(final String line, String entryResource) {
     final String[] fields = line.split("\\t", -1);
 
     final String countryCodeAlpha2 = fields[8];
-    String countryCodeAlpha3 =
-        isoStandard.getStandardEntries().stream()
-            .filter(c -> c.getAsFormat("alpha2").equals(countryCodeAlpha2))
-            .findFirst()
-            .map(cc -> cc.getAsFormat("alpha3"))
-            .orElse(countryCodeAlpha2);
+    final String countryCodeAlpha3 =
+        alpha3ByAlpha2.getOrDefault(countryCodeAlpha2, countryCodeAlpha2);
 
     return new GeoEntry.Builder()
         .name(fields[1])
@@ -24,8 +24,14 @@
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import javax.ws.rs.NotFoundException;
@@ -34,6 +40,7 @@
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.apache.cxf.jaxrs.client.WebClient;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.codice.ddf.spatial.geocoding.GeoEntry;
 import org.codice.ddf.spatial.geocoding.GeoEntryCreator;
@@ -47,6 +54,8 @@ public class GeoNamesFileExtractor implements GeoEntryExtractor {
 
   private static final int BUFFER_SIZE = 4096;
 
+  private static final int PARSE_CHUNK_SIZE = 1000;
+
   private static final String[] SCHEMES = {"http", "https"};
 
   private static final UrlValidator URL_VALIDATOR =
@@ -60,10 +69,23 @@ public class GeoNamesFileExtractor implements GeoEntryExtractor {
 
   private String url;
 
+  private int parserThreads = 1;
+
   public void setGeoEntryCreator(final GeoEntryCreator geoEntryCreator) {
     this.geoEntryCreator = geoEntryCreator;
   }
 
+  /**
+   * Sets the number of threads used to parse lines into {@link GeoEntry}s. With more than one
+   * thread, lines are still read sequentially but are parsed in chunks on a pool; the entries are
+   * always handed to the {@link ExtractionCallback} on the calling thread and in file order.
+   *
+   * @param parserThreads the number of parser threads, values less than 1 are treated as 1
+   */
+  public void setParserThreads(int parserThreads) {
+    this.parserThreads = Math.max(1, parserThreads);
+  }
+
   @Override
   public void setUrl(String url) {
     if (!url.endsWith("/")) {
@@ -115,12 +137,16 @@ public void pushGeoEntriesToExtractionCallback(
             new InputStreamReader(fileInputStream, StandardCharsets.UTF_8);
         BufferedReader reader = new BufferedReader(inputStreamReader)) {
 
-      double bytesRead = 0.0;
+      if (parserThreads > 1) {
+        extractInParallel(reader, resource, extractionCallback);
+      } else {
+        double bytesRead = 0.0;
 
-      for (String line; (line = reader.readLine()) != null; ) {
-        extractionCallback.extracted(extractGeoEntry(line, resource));
-        bytesRead += line.getBytes(StandardCharsets.UTF_8).length;
-        extractionCallback.updateProgress((int) (50 + (bytesRead / fileSize) * 50));
+        for (String line; (line = reader.readLine()) != null; ) {
+          extractionCallback.extracted(extractGeoEntry(line, resource));
+          bytesRead += line.getBytes(StandardCharsets.UTF_8).length;
+          extractionCallback.updateProgress((int) (50 + (bytesRead / fileSize) * 50));
+        }
       }
       extractionCallback.updateProgress(100);
 
@@ -352,6 +378,84 @@ private InputStream unZipInputStream(String resource, InputStream inputStream)
     throw new GeoEntryExtractionException("Unable to unzip " + resource);
   }
 
+  /**
+   * Reads the lines of {@code reader} in chunks and parses each chunk on a pool of {@link
+   * #parserThreads} threads. At most two chunks per thread are in flight, so memory stays bounded
+   * regardless of the size of the resource.
+   */
+  private void extractInParallel(
+      BufferedReader reader, String resource, ExtractionCallback extractionCallback)
+      throws IOException, GeoEntryExtractionException, GeoEntryIndexingException {
+    final ExecutorService parsers =
+        Executors.newFixedThreadPool(
+            parserThreads, StandardThreadFactoryBuilder.newThreadFactory("geoNamesParserThread"));
+    final Deque<Future<List<GeoEntry>>> pending = new ArrayDeque<>();
+
+    try {
+      double bytesRead = 0.0;
+      List<String> chunk = new ArrayList<>(PARSE_CHUNK_SIZE);
+
+      for (String line; (line = reader.readLine()) != null; ) {
+        chunk.add(line);
+        bytesRead += line.getBytes(StandardCharsets.UTF_8).length;
+
+        if (chunk.size() == PARSE_CHUNK_SIZE) {
+          pending.add(submitChunk(parsers, chunk, resource));
+          chunk = new ArrayList<>(PARSE_CHUNK_SIZE);
+
+          if (pending.size() >= parserThreads * 2) {
+            deliverChunk(pending.poll(), resource, extractionCallback);
+          }
+          extractionCallback.updateProgress((int) (50 + (bytesRead / fileSize) * 50));
+        }
+      }
+
+      if (!chunk.isEmpty()) {
+        pending.add(submitChunk(parsers, chunk, resource));
+      }
+
+      while (!pending.isEmpty()) {
+        deliverChunk(pending.poll(), resource, extractionCallback);
+      }
+    } finally {
+      parsers.shutdownNow();
+    }
+  }
+
+  private Future<List<GeoEntry>> submitChunk(
+      ExecutorService parsers, List<String> lines, String resource) {
+    return parsers.submit(
+        () -> {
+          List<GeoEntry> geoEntries = new ArrayList<>(lines.size());
+          for (String line : lines) {
+            geoEntries.add(extractGeoEntry(line, resource));
+          }
+          return geoEntries;
+        });
+  }
+
+  private void deliverChunk(
+      Future<List<GeoEntry>> chunk, String resource, ExtractionCallback extractionCallback)
+      throws GeoEntryExtractionException, GeoEntryIndexingException {
+    List<GeoEntry> geoEntries;
+    try {
+      geoEntries = chunk.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GeoEntryExtractionException("Interrupted while extracting " + resource, e);
+    } catch (ExecutionException e) {
+      // Rethrow parse failures as-is so they are reported the same way as sequential parsing.
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new GeoEntryExtractionException("Unable to extract GeoEntry from " + resource, e);
+    }
+
+    for (GeoEntry geoEntry : geoEntries) {
+      extractionCallback.extracted(geoEntry);
+    }
+  }
+
   private GeoEntry extractGeoEntry(final String line, final String resource) {
     return geoEntryCreator.createGeoEntry(line, resource);
   }
@@ -32,6 +32,8 @@
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import javax.ws.rs.core.Response;
 import org.apache.commons.io.FileUtils;
@@ -102,6 +104,65 @@ public void testExtractFromValidZipFileStreaming()
     FileUtils.deleteQuietly(new File(FilenameUtils.removeExtension(VALID_ZIP_FILE_PATH) + ".txt"));
   }
 
+  @Test
+  public void testExtractFromValidTextFileStreamingWithParserThreads()
+      throws GeoEntryExtractionException, GeoNamesRemoteDownloadException,
+          GeoEntryIndexingException {
+    geoNamesFileExtractor.setParserThreads(4);
+    testFileExtractionStreaming(VALID_TEXT_FILE_PATH);
+  }
+
+  @Test
+  public void testExtractWithParserThreadsPreservesFileOrder() throws Exception {
+    final List<String> validLines =
+        FileUtils.readLines(new File(VALID_TEXT_FILE_PATH), StandardCharsets.UTF_8);
+    final List<String> lines = new ArrayList<>();
+    final List<String> expectedNames = new ArrayList<>();
+    for (int i = 0; i < 2500; i++) {
+      String[] fields = validLines.get(i % validLines.size()).split("\\t", -1);
+      fields[1] = "Place " + i;
+      lines.add(String.join("\t", fields));
+      expectedNames.add(fields[1]);
+    }
+
+    final File file = File.createTempFile("geonames", ".txt");
+    try {
+      FileUtils.writeLines(file, StandardCharsets.UTF_8.name(), lines);
+      geoNamesFileExtractor.setParserThreads(3);
+
+      final List<String> extractedNames = new ArrayList<>();
+      geoNamesFileExtractor.pushGeoEntriesToExtractionCallback(
+          file.getAbsolutePath(),
+          new ExtractionCallback() {
+            @Override
+            public void extracted(GeoEntry newEntry) {
+              extractedNames.add(newEntry.getName());
+            }
+
+            @Override
+            public void updateProgress(int progress) {}
+          });
+
+      assertEquals(expectedNames, extractedNames);
+    } finally {
+      FileUtils.deleteQuietly(file);
+    }
+  }
+
+  @Test
+  public void testExtractFromTextFileWrongFormatWithParserThreads()
+      throws GeoEntryExtractionException, GeoNamesRemoteDownloadException {
+    geoNamesFileExtractor.setParserThreads(4);
+    try {
+      geoNamesFileExtractor.getGeoEntries(INVALID_TEXT_FILE_PATH, null);
+      fail(
+          "Should have thrown a GeoEntryExtractionException because 'invalid.txt' is not "
+              + "formatted in the expected way.");
+    } catch (GeoEntryExtractionException e) {
+      assertThat(e.getCause(), instanceOf(IndexOutOfBoundsException.class));
+    }
+  }
+
   @Test
   public void testExtractFromTextFileWrongFormat()
       throws GeoEntryExtractionException, GeoNamesRemoteDownloadException {
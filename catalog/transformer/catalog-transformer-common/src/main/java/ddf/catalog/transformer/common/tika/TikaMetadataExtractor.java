@@ -18,6 +18,7 @@
 import ddf.catalog.transformer.common.tika.handler.BodyAndMetadataContentHandler;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
@@ -71,6 +72,29 @@ public TikaMetadataExtractor(InputStream inputStream, int maxBodyLength, int max
     parseMetadata(inputStream);
   }
 
+  /**
+   * Constructs a new tika extractor which parses the provided input stream into a tika Metadata
+   * object and the metadata XML, writing the body text to the given writer while parsing. The body
+   * text is truncated after maxBodyLength and is not kept in memory, so {@link #getBodyText()}
+   * should not be used.
+   *
+   * @param inputStream - the input stream to be parsed
+   * @param bodyWriter - the writer that receives the parsed body text
+   * @param maxBodyLength - the max length of the parsed body text
+   * @param maxMetadataLength - the max length of the parsed metadata.
+   * @throws TikaException - if parsing fails
+   */
+  public TikaMetadataExtractor(
+      InputStream inputStream, Writer bodyWriter, int maxBodyLength, int maxMetadataLength)
+      throws TikaException {
+    notNull(inputStream);
+    notNull(bodyWriter);
+    this.metadata = new Metadata();
+    this.bodyAndMetadataContentHandler =
+        new BodyAndMetadataContentHandler(bodyWriter, maxBodyLength, maxMetadataLength);
+    parseMetadata(inputStream);
+  }
+
   private void parseMetadata(InputStream inputStream) throws TikaException {
 
     try {
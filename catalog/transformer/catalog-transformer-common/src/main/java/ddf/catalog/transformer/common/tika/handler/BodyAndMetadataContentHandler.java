@@ -14,6 +14,8 @@
 package ddf.catalog.transformer.common.tika.handler;
 
 import ddf.catalog.transformer.common.tika.TikaMetadataExtractor;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import org.apache.tika.sax.BodyContentHandler;
 import org.apache.tika.sax.WriteOutContentHandler;
@@ -32,9 +34,23 @@ public class BodyAndMetadataContentHandler extends DefaultHandler {
   private boolean bodyWriteLimitReached = false;
 
   public BodyAndMetadataContentHandler(int bodyWriteLimit, int metadataWriteLimit) {
+    this(new StringWriter(), bodyWriteLimit, metadataWriteLimit);
+  }
+
+  /**
+   * Constructs a content handler that writes the body text to the given {@link Writer} as it is
+   * parsed instead of keeping it in memory. {@link #getBodyText()} returns the writer's {@code
+   * toString()} value in this case.
+   *
+   * @param bodyWriter the writer that receives the body text
+   * @param bodyWriteLimit the maximum number of body characters to write, or -1 for no limit
+   * @param metadataWriteLimit the maximum length of the metadata XML, or -1 for no limit
+   */
+  public BodyAndMetadataContentHandler(
+      Writer bodyWriter, int bodyWriteLimit, int metadataWriteLimit) {
     this.xmlMetadataContentHandler =
         new XmlMetadataContentHandler(StandardCharsets.UTF_8.toString(), metadataWriteLimit);
-    this.writeOutContentHandler = new WriteOutContentHandler(bodyWriteLimit);
+    this.writeOutContentHandler = new WriteOutContentHandler(bodyWriter, bodyWriteLimit);
     this.bodyContentHandler = new BodyContentHandler(writeOutContentHandler);
   }
 
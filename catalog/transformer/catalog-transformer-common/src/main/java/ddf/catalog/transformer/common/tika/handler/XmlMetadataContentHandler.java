@@ -66,7 +66,7 @@ protected void write(String string) throws SAXException {
     if (!inBody) {
       if (okToWrite(string.length())) {
         super.write(string);
-        this.writeCount += 1;
+        this.writeCount += string.length();
       }
     }
   }
@@ -18,6 +18,7 @@
 import static org.hamcrest.Matchers.equalTo;
 
 import java.io.InputStream;
+import java.io.StringWriter;
 import org.apache.tika.exception.TikaException;
 import org.junit.Before;
 import org.junit.Test;
@@ -87,4 +88,38 @@ public void testBothBodyAndMetadataParseLimitExceeded() throws Exception {
         tikaMetadataExtractor.getMetadataXml(),
         equalTo(TikaMetadataExtractor.METADATA_LIMIT_REACHED_MSG));
   }
+
+  @Test
+  public void testBodyWriter() throws Exception {
+    StringWriter bodyWriter = new StringWriter();
+    tikaMetadataExtractor = new TikaMetadataExtractor(stream, bodyWriter, -1, 1000);
+
+    assertThat(bodyWriter.toString(), equalTo(BODY));
+    assertNotNull(tikaMetadataExtractor.getMetadata());
+    assertNotNull(tikaMetadataExtractor.getMetadataXml());
+  }
+
+  @Test
+  public void testBodyWriterParseLimitExceeded() throws Exception {
+    StringWriter bodyWriter = new StringWriter();
+    tikaMetadataExtractor = new TikaMetadataExtractor(stream, bodyWriter, 1, 1000);
+
+    assertThat(bodyWriter.toString(), equalTo("t"));
+    assertNotNull(tikaMetadataExtractor.getMetadata());
+  }
+
+  @Test
+  public void testMetadataParseLimitCountsMarkup() throws Exception {
+    int metadataXmlLength = new TikaMetadataExtractor(stream).getMetadataXml().length();
+
+    tikaMetadataExtractor =
+        new TikaMetadataExtractor(
+            Thread.currentThread().getContextClassLoader().getResourceAsStream("test.txt"),
+            1000,
+            metadataXmlLength - 1);
+
+    assertThat(
+        tikaMetadataExtractor.getMetadataXml(),
+        equalTo(TikaMetadataExtractor.METADATA_LIMIT_REACHED_MSG));
+  }
 }
@@ -71,6 +71,10 @@ public static BinaryContent createResponse(final Appendable csv) {
     return new BinaryContentImpl(inputStream, CSV_MIME_TYPE);
   }
 
+  public static BinaryContent createResponse(final InputStream csv) {
+    return new BinaryContentImpl(csv, CSV_MIME_TYPE);
+  }
+
   public static Appendable writeMetacardsToCsv(
       final List<Metacard> metacards,
       final List<AttributeDescriptor> orderedAttributeDescriptors,
@@ -91,6 +95,38 @@ public static Appendable writeMetacardsToCsv(
     }
   }
 
+  /** Writes the CSV header row, for output that is written in several parts. */
+  public static String writeColumnHeadersToCsv(
+      final List<AttributeDescriptor> orderedAttributeDescriptors,
+      final Map<String, String> aliasMap)
+      throws CatalogTransformerException {
+    StringBuilder stringBuilder = new StringBuilder();
+
+    try {
+      CSVPrinter csvPrinter = new CSVPrinter(stringBuilder, CSVFormat.RFC4180);
+      printColumnHeaders(csvPrinter, orderedAttributeDescriptors, aliasMap);
+      return stringBuilder.toString();
+    } catch (IOException ioe) {
+      throw new CatalogTransformerException(ioe);
+    }
+  }
+
+  /** Writes one CSV row per metacard without a header row, for output written in several parts. */
+  public static String writeMetacardRowsToCsv(
+      final List<Metacard> metacards, final List<AttributeDescriptor> orderedAttributeDescriptors)
+      throws CatalogTransformerException {
+    StringBuilder stringBuilder = new StringBuilder();
+
+    try {
+      CSVPrinter csvPrinter = new CSVPrinter(stringBuilder, CSVFormat.RFC4180);
+      metacards.forEach(
+          metacard -> printMetacard(csvPrinter, metacard, orderedAttributeDescriptors));
+      return stringBuilder.toString();
+    } catch (IOException ioe) {
+      throw new CatalogTransformerException(ioe);
+    }
+  }
+
   private static boolean attributeNotBinary(AttributeDescriptor attributeDescriptor) {
     return !AttributeType.AttributeFormat.BINARY.equals(
         attributeDescriptor.getType().getAttributeFormat());
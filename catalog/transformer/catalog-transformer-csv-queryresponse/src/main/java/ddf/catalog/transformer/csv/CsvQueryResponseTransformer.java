@@ -14,23 +14,55 @@
 
 package ddf.catalog.transformer.csv;
 
+import static ddf.catalog.Constants.QUERY_REQUESTED_ATTRIBUTES_KEY;
+
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.QueryResponseTransformer;
+import ddf.catalog.util.impl.ParallelEncodingStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.codice.ddf.platform.util.ForkJoinPoolFactory;
 
 /**
- * An implementation of QueryResponseTransformer that produces CSV output.
+ * An implementation of QueryResponseTransformer that produces CSV output. Rows are written in
+ * parallel, in chunks of {@code threshold} metacards, and streamed to the returned content as they
+ * are produced.
  *
  * @see ddf.catalog.transform.QueryResponseTransformer
  */
 public class CsvQueryResponseTransformer implements QueryResponseTransformer {
+
+  private static final int DEFAULT_THRESHOLD = 100;
+
+  private final ForkJoinPool fjp = ForkJoinPoolFactory.getNewForkJoinPool(null, false);
+
+  private ParallelEncodingStream<Metacard> encodingStream =
+      new ParallelEncodingStream<>(fjp, DEFAULT_THRESHOLD);
+
+  /**
+   * @param threshold number of metacards written by a single task; larger result lists are written
+   *     in threshold-sized chunks in parallel
+   */
+  public void setThreshold(int threshold) {
+    this.encodingStream = new ParallelEncodingStream<>(fjp, threshold);
+  }
+
+  /** Stops the pool used to write rows; called when the transformer is unregistered. */
+  public void destroy() {
+    fjp.shutdownNow();
+  }
+
   /**
    * @param upstreamResponse the SourceResponse to be converted.
    * @param arguments this transformer accepts 2 parameters in the 'arguments' map.
@@ -42,13 +74,11 @@ public class CsvQueryResponseTransformer implements QueryResponseTransformer {
    *           For example, if the key is 'title' and the value is 'Product' then the resulting CSV
    *           will have a column name of 'Product' instead of 'title'.
    *     </ol>
-   *
+   *     When no column order is given and the query request declares {@link
+   *     ddf.catalog.Constants#QUERY_REQUESTED_ATTRIBUTES_KEY}, those attributes are the columns.
    * @return a BinaryContent object that contains an InputStream with the CSV content.
-   * @throws CatalogTransformerException during processing, the CSV output is written to an
-   *     Appendable, whose 'append()' method signature declares that it throws IOException. When
-   *     that Appendable throws IOException, this class will theoretically convert that into a
-   *     CatalogTransformerException and raise that. Because this implementation uses a
-   *     StringBuilder which doesn't throw IOException, this will never occur.
+   * @throws CatalogTransformerException if the first rows cannot be written. Failures while writing
+   *     later rows are reported as an IOException when reading the returned content.
    */
   @Override
   public BinaryContent transform(
@@ -60,6 +90,37 @@ public BinaryContent transform(
             .map(Result::getMetacard)
             .collect(Collectors.toList());
 
-    return CsvTransformerSupport.transformWithArguments(metacards, arguments);
+    return CsvTransformerSupport.streamWithArguments(
+        metacards, withRequestedColumns(upstreamResponse, arguments), encodingStream);
+  }
+
+  /**
+   * Uses the attributes the query requested as the columns when no column order is given, so that
+   * results projected to those attributes are written without loading the rest.
+   */
+  private static Map<String, Serializable> withRequestedColumns(
+      SourceResponse upstreamResponse, Map<String, Serializable> arguments) {
+    if (arguments.get(CsvTransformerSupport.COLUMN_ORDER_KEY) != null
+        || upstreamResponse.getRequest() == null) {
+      return arguments;
+    }
+
+    Serializable requestedAttributes =
+        upstreamResponse.getRequest().getPropertyValue(QUERY_REQUESTED_ATTRIBUTES_KEY);
+    if (!(requestedAttributes instanceof Collection)
+        || ((Collection<?>) requestedAttributes).isEmpty()) {
+      return arguments;
+    }
+
+    Stream<String> columns = ((Collection<?>) requestedAttributes).stream().map(String::valueOf);
+    if (!(requestedAttributes instanceof List)) {
+      columns = columns.sorted();
+    }
+
+    Map<String, Serializable> csvArguments = new HashMap<>(arguments);
+    csvArguments.put(
+        CsvTransformerSupport.COLUMN_ORDER_KEY,
+        columns.collect(Collectors.toCollection(ArrayList::new)));
+    return csvArguments;
   }
 }
@@ -17,12 +17,16 @@
 import static ddf.catalog.transformer.csv.common.CsvTransformer.getAllCsvAttributeDescriptors;
 import static ddf.catalog.transformer.csv.common.CsvTransformer.getOnlyRequestedAttributes;
 import static ddf.catalog.transformer.csv.common.CsvTransformer.sortAttributes;
+import static ddf.catalog.transformer.csv.common.CsvTransformer.writeColumnHeadersToCsv;
+import static ddf.catalog.transformer.csv.common.CsvTransformer.writeMetacardRowsToCsv;
 import static ddf.catalog.transformer.csv.common.CsvTransformer.writeMetacardsToCsv;
 
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.transform.CatalogTransformerException;
+import ddf.catalog.util.impl.ParallelEncodingStream;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -47,16 +51,63 @@ private CsvTransformerSupport() {}
   static BinaryContent transformWithArguments(
       final List<Metacard> metacards, final Map<String, Serializable> arguments)
       throws CatalogTransformerException {
+    final List<AttributeDescriptor> sortedAttributeDescriptors =
+        getSortedAttributeDescriptors(metacards, arguments);
+
+    final Appendable csv =
+        writeMetacardsToCsv(metacards, sortedAttributeDescriptors, getColumnAliases(arguments));
+
+    return createResponse(csv);
+  }
+
+  /**
+   * Same as {@link #transformWithArguments(List, Map)}, but the rows are written in parallel and
+   * streamed to the returned content as they are produced.
+   */
+  static BinaryContent streamWithArguments(
+      final List<Metacard> metacards,
+      final Map<String, Serializable> arguments,
+      final ParallelEncodingStream<Metacard> encodingStream)
+      throws CatalogTransformerException {
+    final List<AttributeDescriptor> sortedAttributeDescriptors =
+        getSortedAttributeDescriptors(metacards, arguments);
+
+    final String header =
+        writeColumnHeadersToCsv(sortedAttributeDescriptors, getColumnAliases(arguments));
+
+    try {
+      return createResponse(
+          encodingStream.stream(
+              header,
+              metacards,
+              (chunk, offset) -> writeRows(chunk, sortedAttributeDescriptors),
+              ""));
+    } catch (IOException e) {
+      if (e.getCause() instanceof CatalogTransformerException) {
+        throw (CatalogTransformerException) e.getCause();
+      }
+      throw new CatalogTransformerException("Unable to stream CSV results", e);
+    }
+  }
+
+  private static String writeRows(
+      final List<Metacard> metacards, final List<AttributeDescriptor> attributeDescriptors)
+      throws IOException {
+    try {
+      return writeMetacardRowsToCsv(metacards, attributeDescriptors);
+    } catch (CatalogTransformerException e) {
+      throw new IOException("Unable to write CSV rows", e);
+    }
+  }
+
+  private static List<AttributeDescriptor> getSortedAttributeDescriptors(
+      final List<Metacard> metacards, final Map<String, Serializable> arguments) {
     final Set<String> hiddenFields =
         Optional.ofNullable((Set<String>) arguments.get(HIDDEN_FIELDS_KEY))
             .orElse(Collections.emptySet());
 
     final List<String> attributeOrder = getColumnOrder(arguments);
 
-    final Map<String, String> columnAliasMap =
-        Optional.ofNullable((Map<String, String>) arguments.get(COLUMN_ALIAS_KEY))
-            .orElse(Collections.emptyMap());
-
     final Set<String> requestedFields = new HashSet<>(attributeOrder);
 
     final Set<AttributeDescriptor> requestedAttributeDescriptors =
@@ -69,13 +120,12 @@ static BinaryContent transformWithArguments(
             .filter(desc -> !hiddenFields.contains(desc.getName()))
             .collect(Collectors.toSet());
 
-    final List<AttributeDescriptor> sortedAttributeDescriptors =
-        sortAttributes(filteredAttributeDescriptors, attributeOrder);
-
-    final Appendable csv =
-        writeMetacardsToCsv(metacards, sortedAttributeDescriptors, columnAliasMap);
+    return sortAttributes(filteredAttributeDescriptors, attributeOrder);
+  }
 
-    return createResponse(csv);
+  private static Map<String, String> getColumnAliases(final Map<String, Serializable> arguments) {
+    return Optional.ofNullable((Map<String, String>) arguments.get(COLUMN_ALIAS_KEY))
+        .orElse(Collections.emptyMap());
   }
 
   private static List<String> getColumnOrder(final Map<String, Serializable> arguments) {
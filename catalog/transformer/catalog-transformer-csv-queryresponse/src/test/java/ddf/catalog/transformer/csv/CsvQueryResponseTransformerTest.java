@@ -14,10 +14,13 @@
 
 package ddf.catalog.transformer.csv;
 
+import static ddf.catalog.Constants.QUERY_REQUESTED_ATTRIBUTES_KEY;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.data.Attribute;
@@ -28,6 +31,7 @@
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import java.io.Serializable;
@@ -119,6 +123,54 @@ public void testCsvQueryResponseTransformer() throws CatalogTransformerException
     assertThat(scanner.hasNext(), is(false));
   }
 
+  @Test
+  public void testStreamedRowsKeepResultOrder() throws Exception {
+    transformer.setThreshold(3);
+
+    RESULT_LIST.clear();
+    for (int i = 0; i < 50; i++) {
+      Metacard metacard = buildMetacard();
+      Attribute attribute = buildAttribute("attribute2", i);
+      when(metacard.getAttribute("attribute2")).thenReturn(attribute);
+      Result result = mock(Result.class);
+      when(result.getMetacard()).thenReturn(metacard);
+      RESULT_LIST.add(result);
+    }
+
+    Map<String, Serializable> argumentsMap = new HashMap<>();
+    argumentsMap.put("columnOrder", buildList(new String[] {"attribute2"}));
+
+    BinaryContent bc = transformer.transform(sourceResponse, argumentsMap);
+    Scanner scanner = new Scanner(bc.getInputStream());
+    scanner.useDelimiter("\\r\\n");
+
+    assertThat(scanner.next(), is("attribute2"));
+    for (int i = 0; i < 50; i++) {
+      assertThat(scanner.next(), is(Integer.toString(i)));
+    }
+    assertThat(scanner.hasNext(), is(false));
+  }
+
+  @Test
+  public void testRequestedAttributesAreTheDefaultColumns() throws Exception {
+    QueryRequest request = mock(QueryRequest.class);
+    when(request.getPropertyValue(QUERY_REQUESTED_ATTRIBUTES_KEY))
+        .thenReturn(buildSet(new String[] {"attribute2", "attribute1"}));
+    when(sourceResponse.getRequest()).thenReturn(request);
+
+    BinaryContent bc = transformer.transform(sourceResponse, new HashMap<>());
+    Scanner scanner = new Scanner(bc.getInputStream());
+    scanner.useDelimiter("\\r\\n");
+
+    assertThat(scanner.next(), is("attribute1,attribute2"));
+    for (int i = 0; i < METACARD_COUNT; i++) {
+      assertThat(scanner.next(), is("value1,101"));
+    }
+    for (Result result : RESULT_LIST) {
+      verify(result.getMetacard(), never()).getAttribute("attribute5");
+    }
+  }
+
   private void validate(Scanner scanner, String[] expectedValues) {
     for (int i = 0; i < expectedValues.length; i++) {
       assertThat(scanner.hasNext(), is(true));
@@ -13,26 +13,37 @@
  */
 package ddf.catalog.transformer.queryresponse.geojson;
 
+import static ddf.catalog.Constants.QUERY_REQUESTED_ATTRIBUTES_KEY;
+
+import ddf.catalog.data.Attribute;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transform.QueryResponseTransformer;
-import java.io.ByteArrayInputStream;
+import ddf.catalog.util.impl.ParallelEncodingStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
-import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
-import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
 import net.minidev.json.JSONValue;
 import net.minidev.json.parser.JSONParser;
 import net.minidev.json.parser.ParseException;
+import org.codice.ddf.platform.util.ForkJoinPoolFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +53,12 @@
  * ddf.catalog.data.Metacard}s that are the results from a query. This class leverages the {@link
  * GeoJsonMetacardTransformer} to convert metacards to JSON.
  *
+ * <p>When the query request declares {@link ddf.catalog.Constants#QUERY_REQUESTED_ATTRIBUTES_KEY},
+ * each metacard is written with only those attributes and its id.
+ *
+ * <p>Results are converted in parallel, in chunks of {@code threshold} results, and the JSON is
+ * streamed to the returned {@link BinaryContent} as it is produced.
+ *
  * @see GeoJsonMetacardTransformer
  * @see QueryResponseTransformer
  * @see ddf.catalog.data.Metacard
@@ -66,18 +83,41 @@ public class GeoJsonQueryResponseTransformer implements QueryResponseTransformer
     }
   }
 
+  private static final int DEFAULT_THRESHOLD = 50;
+
   private final MetacardTransformer metacardTransformer;
 
+  private final ForkJoinPool fjp;
+
+  private ParallelEncodingStream<Result> encodingStream;
+
   public GeoJsonQueryResponseTransformer(MetacardTransformer metacardTransformer) {
     this.metacardTransformer = metacardTransformer;
+    this.fjp = ForkJoinPoolFactory.getNewForkJoinPool(null, false);
+    this.encodingStream = new ParallelEncodingStream<>(fjp, DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * @param threshold number of results converted to JSON by a single task; larger result lists are
+   *     converted in threshold-sized chunks in parallel
+   */
+  public void setThreshold(int threshold) {
+    this.encodingStream = new ParallelEncodingStream<>(fjp, threshold);
   }
 
-  private JSONObject convertToJSON(Result result) throws CatalogTransformerException {
+  /** Stops the pool used to convert results; called when the transformer is unregistered. */
+  public void destroy() {
+    fjp.shutdownNow();
+  }
+
+  private JSONObject convertToJSON(Result result, Set<String> requestedAttributes)
+      throws CatalogTransformerException {
     JSONObject rootObject = new JSONObject();
 
     addNonNullObject(rootObject, "distance", result.getDistanceInMeters());
     addNonNullObject(rootObject, "relevance", result.getRelevanceScore());
-    addNonNullObject(rootObject, "metacard", createGeoJSON(result.getMetacard()));
+    addNonNullObject(
+        rootObject, "metacard", createGeoJSON(project(result.getMetacard(), requestedAttributes)));
 
     return rootObject;
   }
@@ -112,26 +152,101 @@ public BinaryContent transform(
           "Cannot transform null " + SourceResponse.class.getName());
     }
 
-    JSONObject rootObject = new JSONObject();
+    List<Result> results =
+        upstreamResponse.getResults() != null
+            ? upstreamResponse.getResults()
+            : Collections.emptyList();
+    validate(results);
+    Set<String> requestedAttributes = getRequestedAttributes(upstreamResponse);
 
-    addNonNullObject(rootObject, "hits", upstreamResponse.getHits());
+    try {
+      InputStream json =
+          encodingStream.stream(
+              "{\"hits\":" + upstreamResponse.getHits() + ",\"results\":[",
+              results,
+              (chunk, offset) -> convertChunkToJSON(chunk, offset, requestedAttributes),
+              "]}");
+      return new BinaryContentImpl(json, DEFAULT_MIME_TYPE);
+    } catch (IOException e) {
+      if (e.getCause() instanceof CatalogTransformerException) {
+        throw (CatalogTransformerException) e.getCause();
+      }
+      throw new CatalogTransformerException("Unable to stream GeoJSON results", e);
+    }
+  }
 
-    JSONArray resultsList = new JSONArray();
+  /** Checks the results up front, since conversion errors can't be thrown once streaming starts */
+  private void validate(List<Result> results) throws CatalogTransformerException {
+    if (!results.isEmpty() && metacardTransformer == null) {
+      throw new CatalogTransformerException("The metacard transformer cannot be null");
+    }
 
-    if (upstreamResponse.getResults() != null) {
-      for (Result result : upstreamResponse.getResults()) {
-        if (result == null) {
-          throw new CatalogTransformerException("Cannot transform null " + Result.class.getName());
-        }
-        resultsList.add(convertToJSON(result));
+    for (Result result : results) {
+      if (result == null) {
+        throw new CatalogTransformerException("Cannot transform null " + Result.class.getName());
+      }
+      if (result.getMetacard() == null) {
+        throw new CatalogTransformerException("Cannot transform null " + Metacard.class.getName());
       }
     }
-    addNonNullObject(rootObject, "results", resultsList);
+  }
 
-    String jsonText = JSONValue.toJSONString(rootObject);
+  /**
+   * @return the attributes the query requested plus the id, or null if the query asked for complete
+   *     metacards
+   */
+  private static Set<String> getRequestedAttributes(SourceResponse upstreamResponse) {
+    if (upstreamResponse.getRequest() == null) {
+      return null;
+    }
 
-    return new BinaryContentImpl(
-        new ByteArrayInputStream(jsonText.getBytes(StandardCharsets.UTF_8)), DEFAULT_MIME_TYPE);
+    Serializable requestedAttributes =
+        upstreamResponse.getRequest().getPropertyValue(QUERY_REQUESTED_ATTRIBUTES_KEY);
+    if (!(requestedAttributes instanceof Collection)
+        || ((Collection<?>) requestedAttributes).isEmpty()) {
+      return null;
+    }
+
+    Set<String> attributes = new HashSet<>();
+    attributes.add(Metacard.ID);
+    ((Collection<?>) requestedAttributes).stream().map(String::valueOf).forEach(attributes::add);
+    return attributes;
+  }
+
+  /**
+   * Copies only the requested attributes, so that attributes a projected result was returned
+   * without are neither loaded nor written.
+   */
+  private static Metacard project(Metacard metacard, Set<String> requestedAttributes) {
+    if (requestedAttributes == null) {
+      return metacard;
+    }
+
+    MetacardImpl projected = new MetacardImpl(metacard.getMetacardType());
+    projected.setSourceId(metacard.getSourceId());
+    for (String name : requestedAttributes) {
+      Attribute attribute = metacard.getAttribute(name);
+      if (attribute != null) {
+        projected.setAttribute(attribute);
+      }
+    }
+    return projected;
+  }
+
+  private String convertChunkToJSON(
+      List<Result> results, int offset, Set<String> requestedAttributes) throws IOException {
+    StringBuilder json = new StringBuilder();
+    for (Result result : results) {
+      if (offset > 0 || json.length() > 0) {
+        json.append(',');
+      }
+      try {
+        json.append(JSONValue.toJSONString(convertToJSON(result, requestedAttributes)));
+      } catch (CatalogTransformerException e) {
+        throw new IOException("Unable to convert result to GeoJSON", e);
+      }
+    }
+    return json.toString();
   }
 
   @Override
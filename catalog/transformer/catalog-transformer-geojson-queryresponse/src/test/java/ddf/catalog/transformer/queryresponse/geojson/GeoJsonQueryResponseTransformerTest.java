@@ -13,6 +13,7 @@
  */
 package ddf.catalog.transformer.queryresponse.geojson;
 
+import static ddf.catalog.Constants.QUERY_REQUESTED_ATTRIBUTES_KEY;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -26,16 +27,21 @@
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transformer.metacard.geojson.GeoJsonMetacardTransformer;
 import java.io.IOException;
+import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -127,6 +133,20 @@ public void testNullMetacard() throws CatalogTransformerException {
     geoJsonQueryResponseTransformer.transform(sourceResponse, null);
   }
 
+  @Test(expected = CatalogTransformerException.class)
+  public void testMetacardTransformerFailureIsThrown() throws CatalogTransformerException {
+    GeoJsonQueryResponseTransformer failingTransformer =
+        new GeoJsonQueryResponseTransformer(
+            (metacard, arguments) -> {
+              throw new CatalogTransformerException("failed");
+            });
+    try {
+      failingTransformer.transform(setupResponse(2, 2L), null);
+    } finally {
+      failingTransformer.destroy();
+    }
+  }
+
   @Test
   public void testGoodResponse() throws CatalogTransformerException, IOException, ParseException {
 
@@ -155,6 +175,56 @@ public void testCustomTransformerWithJsonArray()
     assertThat(((JSONObject) metacard.get(1)).get("id"), is("1"));
   }
 
+  @Test
+  public void testLargeResponseKeepsResultOrder()
+      throws ParseException, IOException, CatalogTransformerException {
+    GeoJsonQueryResponseTransformer geoJsonQRT =
+        new GeoJsonQueryResponseTransformer(
+            (metacard, arguments) ->
+                new BinaryContentImpl(
+                    IOUtils.toInputStream(
+                        "{\"id\":\"" + metacard.getId() + "\"}", StandardCharsets.UTF_8)));
+    geoJsonQRT.setThreshold(7);
+
+    final int resultCount = 500;
+    List<Result> results = new LinkedList<>();
+    for (int i = 0; i < resultCount; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId(Integer.toString(i));
+      results.add(new ResultImpl(metacard));
+    }
+
+    JSONObject json = transform(new SourceResponseImpl(null, results, 1000L), geoJsonQRT);
+
+    assertThat(toString(json.get("hits")), is("1000"));
+    JSONArray jsonResults = (JSONArray) json.get("results");
+    assertThat(jsonResults.size(), is(resultCount));
+    for (int i = 0; i < resultCount; i++) {
+      JSONObject metacard = (JSONObject) ((JSONObject) jsonResults.get(i)).get("metacard");
+      assertThat(metacard.get("id"), is(Integer.toString(i)));
+    }
+  }
+
+  @Test
+  public void testRequestedAttributesLimitProperties()
+      throws ParseException, IOException, CatalogTransformerException {
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(
+        QUERY_REQUESTED_ATTRIBUTES_KEY, new HashSet<>(Collections.singleton(Metacard.TITLE)));
+    SourceResponse sourceResponse =
+        new SourceResponseImpl(
+            new QueryRequestImpl(null, properties), Collections.singletonList(setupResult()), 1L);
+
+    JSONObject json = transform(sourceResponse);
+
+    JSONObject result = (JSONObject) ((JSONArray) json.get("results")).get(0);
+    @SuppressWarnings("rawtypes")
+    Map metacardProperties = (Map) ((Map) result.get("metacard")).get("properties");
+    assertThat(toString(metacardProperties.get(Metacard.TITLE)), is(DEFAULT_TITLE));
+    assertThat(metacardProperties.get(Metacard.METADATA), nullValue());
+    assertThat(metacardProperties.get(Metacard.THUMBNAIL), nullValue());
+  }
+
   private MetacardTransformer createCustomMetacardTransformer(String binContent) {
     return (metacard, arguments) ->
         new BinaryContentImpl(IOUtils.toInputStream(binContent, StandardCharsets.UTF_8));
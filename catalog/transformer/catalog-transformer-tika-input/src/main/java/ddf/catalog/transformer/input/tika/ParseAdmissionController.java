@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.transformer.input.tika;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits the total size of the content being parsed at the same time. Each parse is admitted with a
+ * weight equal to the size of its content, so a few large documents cannot be parsed concurrently
+ * while many small ones still can. Content larger than the limit is admitted on its own once every
+ * other parse has finished.
+ */
+class ParseAdmissionController {
+
+  private static final int KILOBYTES_PER_MEGABYTE = 1024;
+
+  private static final long BYTES_PER_KILOBYTE = 1024;
+
+  private static final Admission UNLIMITED_ADMISSION = () -> {};
+
+  private final int maxPermits;
+
+  private final Semaphore permits;
+
+  /**
+   * @param maxMegabytes the maximum number of megabytes of content to parse at the same time, or
+   *     zero or less for no limit
+   */
+  ParseAdmissionController(int maxMegabytes) {
+    this.maxPermits =
+        maxMegabytes > 0
+            ? (int) Math.min(Integer.MAX_VALUE, (long) maxMegabytes * KILOBYTES_PER_MEGABYTE)
+            : 0;
+    // Fair, so that large content is not starved by a steady stream of small content.
+    this.permits = maxPermits > 0 ? new Semaphore(maxPermits, true) : null;
+  }
+
+  /**
+   * Blocks until content of the given size may be parsed.
+   *
+   * @param bytes the size of the content in bytes
+   * @return the admission, which must be closed once the parse is finished
+   * @throws InterruptedException if interrupted while waiting
+   */
+  Admission admit(long bytes) throws InterruptedException {
+    if (permits == null) {
+      return UNLIMITED_ADMISSION;
+    }
+
+    long kilobytes = bytes / BYTES_PER_KILOBYTE + (bytes % BYTES_PER_KILOBYTE > 0 ? 1 : 0);
+    int weight = (int) Math.max(1, Math.min(maxPermits, kilobytes));
+    permits.acquire(weight);
+    return () -> permits.release(weight);
+  }
+
+  int availableKilobytes() {
+    return permits == null ? Integer.MAX_VALUE : permits.availablePermits();
+  }
+
+  /** A granted admission. Closing it lets waiting parses proceed. */
+  interface Admission extends AutoCloseable {
+    @Override
+    void close();
+  }
+}
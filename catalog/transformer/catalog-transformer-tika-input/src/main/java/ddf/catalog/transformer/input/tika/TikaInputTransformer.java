@@ -15,6 +15,7 @@
 
 import com.github.jaiimageio.impl.plugins.tiff.TIFFImageReaderSpi;
 import com.github.jaiimageio.jpeg2000.impl.J2KImageReaderSpi;
+import com.google.common.io.ByteSource;
 import ddf.catalog.content.operation.ContentMetadataExtractor;
 import ddf.catalog.content.operation.MetadataExtractor;
 import ddf.catalog.data.Attribute;
@@ -40,6 +41,11 @@
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -80,6 +86,13 @@ public class TikaInputTransformer implements InputTransformer {
 
   private int metadataMaxLength = 30000;
 
+  private boolean streamExtractedText = false;
+
+  private int extractedTextMaxLength = 10000000;
+
+  private volatile ParseAdmissionController parseAdmissionController =
+      new ParseAdmissionController(1024);
+
   private static final Logger LOGGER = LoggerFactory.getLogger(TikaInputTransformer.class);
 
   private static final Map<com.google.common.net.MediaType, String>
@@ -183,6 +196,31 @@ public void setMetadataMaxLength(int metadataMaxLength) {
     this.metadataMaxLength = metadataMaxLength;
   }
 
+  /**
+   * @param streamExtractedText whether the extracted text should be written to a temporary file
+   *     while parsing and streamed to the {@link ContentMetadataExtractor}s, instead of being kept
+   *     in memory and truncated to the preview length
+   */
+  public void setStreamExtractedText(boolean streamExtractedText) {
+    this.streamExtractedText = streamExtractedText;
+  }
+
+  /**
+   * @param extractedTextMaxLength the maximum number of characters of extracted text to stream to
+   *     the {@link ContentMetadataExtractor}s, or -1 for no limit
+   */
+  public void setExtractedTextMaxLength(int extractedTextMaxLength) {
+    this.extractedTextMaxLength = extractedTextMaxLength;
+  }
+
+  /**
+   * @param maxConcurrentParseMegabytes the maximum number of megabytes of content to parse at the
+   *     same time, or 0 for no limit
+   */
+  public void setMaxConcurrentParseMegabytes(int maxConcurrentParseMegabytes) {
+    this.parseAdmissionController = new ParseAdmissionController(maxConcurrentParseMegabytes);
+  }
+
   @SuppressWarnings("unused")
   public void setCommonTikaMetacardType(MetacardType metacardType) {
     this.commonTikaMetacardType = metacardType;
@@ -365,50 +403,100 @@ public Metacard transform(InputStream input, String id)
       Metacard metacard = new MetacardImpl(commonTikaMetacardType);
       String contentType = DataType.DATASET.name();
       TikaMetadataExtractor extractor = null;
-      try (InputStream inputStreamCopy = fileBackedOutputStream.asByteSource().openStream()) {
-        extractor = new TikaMetadataExtractor(inputStreamCopy, previewMaxLength, metadataMaxLength);
-
-      } catch (TikaException | RuntimeException t) {
-        LOGGER.debug("Unable to extract tika metadata", t);
-      }
 
-      if (extractor != null) {
-        metadataText = getMetadataXml(extractor.getMetadataXml());
-        Attribute validationAttribute = null;
-        if (metadataText.equals(TikaMetadataExtractor.METADATA_LIMIT_REACHED_MSG)) {
-          validationAttribute =
-              new AttributeImpl(
-                  Validation.VALIDATION_WARNINGS, Collections.singletonList(metadataText));
-          metadataText = "";
-        }
-        bodyText = extractor.getBodyText();
-        metadata = extractor.getMetadata();
-        contentType = metadata.get(Metadata.CONTENT_TYPE);
-        MetacardType metacardType = mergeAttributes(getMetacardType(contentType));
-        metacard =
-            MetacardCreator.createMetacard(
-                metadata, id, metadataText, metacardType, useResourceTitleAsTitle);
-        if (StringUtils.isNotBlank(bodyText)) {
-          metacard.setAttribute(new AttributeImpl(Extracted.EXTRACTED_TEXT, bodyText));
-          processContentMetadataExtractors(bodyText, metacard);
+      try (ParseAdmissionController.Admission admission = admitParse(bytes);
+          TemporaryFileBackedOutputStream bodyTextBuffer =
+              streamExtractedText ? new TemporaryFileBackedOutputStream() : null) {
+        try (InputStream inputStreamCopy = fileBackedOutputStream.asByteSource().openStream()) {
+          if (bodyTextBuffer != null) {
+            extractor = extractStreamingBodyText(inputStreamCopy, bodyTextBuffer);
+          } else {
+            extractor =
+                new TikaMetadataExtractor(inputStreamCopy, previewMaxLength, metadataMaxLength);
+          }
+        } catch (TikaException | RuntimeException t) {
+          LOGGER.debug("Unable to extract tika metadata", t);
         }
 
-        if (StringUtils.isNotBlank(metadataText)) {
-          processMetadataExtractors(metadataText, metacard);
+        if (extractor != null) {
+          metadataText = getMetadataXml(extractor.getMetadataXml());
+          Attribute validationAttribute = null;
+          if (metadataText.equals(TikaMetadataExtractor.METADATA_LIMIT_REACHED_MSG)) {
+            validationAttribute =
+                new AttributeImpl(
+                    Validation.VALIDATION_WARNINGS, Collections.singletonList(metadataText));
+            metadataText = "";
+          }
+          bodyText =
+              bodyTextBuffer != null
+                  ? readBodyTextPreview(bodyTextBuffer)
+                  : extractor.getBodyText();
+          metadata = extractor.getMetadata();
+          contentType = metadata.get(Metadata.CONTENT_TYPE);
+          MetacardType metacardType = mergeAttributes(getMetacardType(contentType));
+          metacard =
+              MetacardCreator.createMetacard(
+                  metadata, id, metadataText, metacardType, useResourceTitleAsTitle);
+          if (StringUtils.isNotBlank(bodyText)) {
+            metacard.setAttribute(new AttributeImpl(Extracted.EXTRACTED_TEXT, bodyText));
+            if (bodyTextBuffer != null) {
+              processContentMetadataExtractors(bodyTextBuffer.asByteSource(), metacard);
+            } else {
+              processContentMetadataExtractors(bodyText, metacard);
+            }
+          }
+
+          if (StringUtils.isNotBlank(metadataText)) {
+            processMetadataExtractors(metadataText, metacard);
+          }
+
+          if (validationAttribute != null) {
+            metacard.setAttribute(validationAttribute);
+          }
         }
 
-        if (validationAttribute != null) {
-          metacard.setAttribute(validationAttribute);
-        }
+        enrichMetacard(fileBackedOutputStream, contentType, bytes, metacard);
       }
 
-      enrichMetacard(fileBackedOutputStream, contentType, bytes, metacard);
-
       LOGGER.debug("Finished transforming input stream using Tika.");
       return metacard;
     }
   }
 
+  private ParseAdmissionController.Admission admitParse(long bytes)
+      throws CatalogTransformerException {
+    try {
+      return parseAdmissionController.admit(bytes);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CatalogTransformerException("Interrupted while waiting to parse content.", e);
+    }
+  }
+
+  private TikaMetadataExtractor extractStreamingBodyText(
+      InputStream input, OutputStream bodyTextBuffer) throws TikaException, IOException {
+    // Not closed, since that would close (and delete) the buffer before it is read.
+    Writer bodyTextWriter = new OutputStreamWriter(bodyTextBuffer, StandardCharsets.UTF_8);
+    TikaMetadataExtractor extractor =
+        new TikaMetadataExtractor(input, bodyTextWriter, extractedTextMaxLength, metadataMaxLength);
+    bodyTextWriter.flush();
+    return extractor;
+  }
+
+  private String readBodyTextPreview(TemporaryFileBackedOutputStream bodyTextBuffer)
+      throws IOException {
+    try (Reader reader =
+        bodyTextBuffer.asByteSource().asCharSource(StandardCharsets.UTF_8).openStream()) {
+      if (previewMaxLength < 0) {
+        return IOUtils.toString(reader);
+      }
+
+      char[] preview = new char[previewMaxLength];
+      int length = IOUtils.read(reader, preview);
+      return new String(preview, 0, length);
+    }
+  }
+
   private String getMetadataXml(String extractorMetadataXml) {
     if (extractorMetadataXml != null && extractorMetadataXml.trim().endsWith("?>")) {
       // Contains just the prolog, use empty string instead
@@ -431,6 +519,15 @@ private void processContentMetadataExtractors(String bodyText, Metacard metacard
     }
   }
 
+  private void processContentMetadataExtractors(ByteSource bodyText, Metacard metacard)
+      throws IOException {
+    for (ContentMetadataExtractor contentMetadataExtractor : contentExtractors.values()) {
+      try (InputStream bodyTextStream = bodyText.openBufferedStream()) {
+        contentMetadataExtractor.process(bodyTextStream, metacard);
+      }
+    }
+  }
+
   public void addContentMetadataExtractor(
       ServiceReference<ContentMetadataExtractor> contentMetadataExtractorRef) {
     Bundle bundle = getBundle();
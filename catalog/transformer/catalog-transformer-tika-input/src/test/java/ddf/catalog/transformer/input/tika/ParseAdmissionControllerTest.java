@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.transformer.input.tika;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class ParseAdmissionControllerTest {
+
+  private static final long MEGABYTE = 1024 * 1024;
+
+  @Test
+  public void testAdmissionReservesContentSize() throws Exception {
+    ParseAdmissionController controller = new ParseAdmissionController(10);
+
+    try (ParseAdmissionController.Admission admission = controller.admit(3 * MEGABYTE)) {
+      assertThat(controller.availableKilobytes(), is(7 * 1024));
+    }
+
+    assertThat(controller.availableKilobytes(), is(10 * 1024));
+  }
+
+  @Test
+  public void testSmallContentReservesAtLeastOneKilobyte() throws Exception {
+    ParseAdmissionController controller = new ParseAdmissionController(1);
+
+    try (ParseAdmissionController.Admission admission = controller.admit(0)) {
+      assertThat(controller.availableKilobytes(), is(1023));
+    }
+  }
+
+  @Test
+  public void testContentLargerThanLimitIsAdmittedAlone() throws Exception {
+    ParseAdmissionController controller = new ParseAdmissionController(1);
+
+    try (ParseAdmissionController.Admission admission = controller.admit(100 * MEGABYTE)) {
+      assertThat(controller.availableKilobytes(), is(0));
+    }
+
+    assertThat(controller.availableKilobytes(), is(1024));
+  }
+
+  @Test
+  public void testAdmissionWaitsForCapacity() throws Exception {
+    ParseAdmissionController controller = new ParseAdmissionController(1);
+    CountDownLatch admitted = new CountDownLatch(1);
+
+    ParseAdmissionController.Admission first = controller.admit(MEGABYTE);
+    Thread waiting =
+        new Thread(
+            () -> {
+              try (ParseAdmissionController.Admission second = controller.admit(MEGABYTE)) {
+                admitted.countDown();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    waiting.start();
+
+    assertThat(admitted.await(200, TimeUnit.MILLISECONDS), is(false));
+
+    first.close();
+
+    assertThat(admitted.await(5, TimeUnit.SECONDS), is(true));
+    waiting.join();
+  }
+
+  @Test
+  public void testNoLimit() throws Exception {
+    ParseAdmissionController controller = new ParseAdmissionController(0);
+
+    try (ParseAdmissionController.Admission first = controller.admit(Long.MAX_VALUE);
+        ParseAdmissionController.Admission second = controller.admit(Long.MAX_VALUE)) {
+      assertThat(controller.availableKilobytes(), is(Integer.MAX_VALUE));
+    }
+  }
+}
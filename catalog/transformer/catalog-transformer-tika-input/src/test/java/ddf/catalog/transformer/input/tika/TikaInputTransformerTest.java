@@ -29,6 +29,7 @@
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -58,12 +59,15 @@
 import ddf.catalog.transformer.common.tika.TikaMetadataExtractor;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -200,6 +204,55 @@ public void testContentExtractors() throws Exception {
         allOf(hasItem(equalTo("attr1")), hasItem(equalTo("attr2"))));
   }
 
+  @Test
+  public void testStreamedContentExtractors() throws Exception {
+    AtomicReference<String> streamedText = new AtomicReference<>();
+    doAnswer(
+            invocation -> {
+              streamedText.set(
+                  IOUtils.toString(invocation.<InputStream>getArgument(0), StandardCharsets.UTF_8));
+              return null;
+            })
+        .when(cme)
+        .process(any(InputStream.class), any());
+    tikaInputTransformer.addContentMetadataExtractor(serviceRefCme);
+    tikaInputTransformer.setStreamExtractedText(true);
+    tikaInputTransformer.setPreviewMaxLength(10);
+
+    Metacard metacard =
+        transform(Thread.currentThread().getContextClassLoader().getResourceAsStream("test.txt"));
+
+    verify(cme).process(any(InputStream.class), any());
+    verify(cme, never()).process(anyString(), any());
+    assertThat(streamedText.get(), containsString("119917165"));
+    assertThat(
+        metacard.getAttribute(Extracted.EXTRACTED_TEXT).getValue().toString().length(), is(10));
+  }
+
+  @Test
+  public void testStreamedExtractedTextMaxLength() throws Exception {
+    AtomicReference<String> streamedText = new AtomicReference<>();
+    doAnswer(
+            invocation -> {
+              streamedText.set(
+                  IOUtils.toString(invocation.<InputStream>getArgument(0), StandardCharsets.UTF_8));
+              return null;
+            })
+        .when(cme)
+        .process(any(InputStream.class), any());
+    tikaInputTransformer.addContentMetadataExtractor(serviceRefCme);
+    tikaInputTransformer.setStreamExtractedText(true);
+    tikaInputTransformer.setExtractedTextMaxLength(10);
+
+    Metacard metacard =
+        transform(Thread.currentThread().getContextClassLoader().getResourceAsStream("test.txt"));
+
+    assertThat(streamedText.get().length(), is(10));
+    assertThat(
+        metacard.getAttribute(Extracted.EXTRACTED_TEXT).getValue().toString(),
+        is(streamedText.get()));
+  }
+
   @Test
   public void testMetadataExtractor() throws Exception {
     InputStream stream =
@@ -14,17 +14,23 @@
 package org.codice.ddf.validator.metacard.duplication;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.Constants;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.impl.SortByImpl;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ReportingMetacardValidator;
 import ddf.catalog.validation.ValidationException;
@@ -35,10 +41,15 @@
 import ddf.catalog.validation.violation.ValidationViolation;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
@@ -46,12 +57,15 @@
 import java.util.stream.Stream;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
 import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class DuplicationValidator
-    implements MetacardValidator,
+    implements BatchMetacardValidator,
+        MetacardValidator,
         ReportingMetacardValidator,
         ddf.catalog.util.Describable,
         org.codice.ddf.platform.services.common.Describable {
@@ -63,6 +77,11 @@
 
   private static final String VERSION = "version";
 
+  /** Maximum number of attribute values checked by a single query when validating a batch. */
+  private static final int MAX_VALUES_PER_QUERY = 100;
+
+  private static final int BATCH_QUERY_PAGE_SIZE = 500;
+
   private static Properties describableProperties = new Properties();
 
   static {
@@ -126,30 +145,65 @@ public void validate(Metacard metacard) throws ValidationException {
     final Optional<MetacardValidationReport> report = validateMetacard(metacard);
 
     if (report.isPresent()) {
-      final List<String> errors =
-          report.get().getMetacardValidationViolations().stream()
-              .filter(
-                  validationViolation ->
-                      validationViolation.getSeverity().equals(ValidationViolation.Severity.ERROR))
-              .map(ValidationViolation::getMessage)
-              .collect(Collectors.toList());
-      final List<String> warnings =
-          report.get().getMetacardValidationViolations().stream()
-              .filter(
-                  validationViolation ->
-                      validationViolation
-                          .getSeverity()
-                          .equals(ValidationViolation.Severity.WARNING))
-              .map(ValidationViolation::getMessage)
-              .collect(Collectors.toList());
-
-      String message =
-          String.format("Duplicate data found in catalog for ID {%s}.", metacard.getId());
-      final ValidationExceptionImpl exception = new ValidationExceptionImpl(message);
-      exception.setErrors(errors);
-      exception.setWarnings(warnings);
-      throw exception;
+      throw createException(metacard, report.get());
+    }
+  }
+
+  /**
+   * Checks a batch of metacards with one query per group of attribute values rather than one query
+   * per metacard. Each metacard is also checked against the metacards before it in the batch, since
+   * those are not in the catalog yet.
+   */
+  @Override
+  public Map<Integer, ValidationException> validateMetacards(List<Metacard> metacards) {
+    Preconditions.checkArgument(metacards != null, "The metacards cannot be null.");
+
+    List<Set<ValidationViolation>> violations =
+        metacards.stream()
+            .map(metacard -> new HashSet<ValidationViolation>())
+            .collect(Collectors.toList());
+
+    if (ArrayUtils.isNotEmpty(warnOnDuplicateAttributes)) {
+      reportDuplicates(
+          metacards, warnOnDuplicateAttributes, ValidationViolation.Severity.WARNING, violations);
+    }
+    if (ArrayUtils.isNotEmpty(errorOnDuplicateAttributes)) {
+      reportDuplicates(
+          metacards, errorOnDuplicateAttributes, ValidationViolation.Severity.ERROR, violations);
     }
+
+    Map<Integer, ValidationException> exceptions = new HashMap<>();
+    for (int i = 0; i < metacards.size(); i++) {
+      Optional<MetacardValidationReport> report = getReport(violations.get(i));
+      if (report.isPresent()) {
+        exceptions.put(i, createException(metacards.get(i), report.get()));
+      }
+    }
+    return exceptions;
+  }
+
+  private ValidationException createException(Metacard metacard, MetacardValidationReport report) {
+    final List<String> errors =
+        report.getMetacardValidationViolations().stream()
+            .filter(
+                validationViolation ->
+                    validationViolation.getSeverity().equals(ValidationViolation.Severity.ERROR))
+            .map(ValidationViolation::getMessage)
+            .collect(Collectors.toList());
+    final List<String> warnings =
+        report.getMetacardValidationViolations().stream()
+            .filter(
+                validationViolation ->
+                    validationViolation.getSeverity().equals(ValidationViolation.Severity.WARNING))
+            .map(ValidationViolation::getMessage)
+            .collect(Collectors.toList());
+
+    String message =
+        String.format("Duplicate data found in catalog for ID {%s}.", metacard.getId());
+    final ValidationExceptionImpl exception = new ValidationExceptionImpl(message);
+    exception.setErrors(errors);
+    exception.setWarnings(warnings);
+    return exception;
   }
 
   private Set<ValidationViolation> reportDuplicates(final Metacard metacard) {
@@ -210,6 +264,103 @@ private ValidationViolation reportDuplicates(
     return violation;
   }
 
+  private void reportDuplicates(
+      List<Metacard> metacards,
+      String[] attributeNames,
+      ValidationViolation.Severity severity,
+      List<Set<ValidationViolation>> violations) {
+
+    // attribute name -> attribute value -> positions of the metacards that have that value
+    Map<String, Map<String, List<Integer>>> positionsByValue = new HashMap<>();
+    List<Set<String>> checkedAttributeNames = new ArrayList<>(metacards.size());
+    List<Set<String>> catalogDuplicates = new ArrayList<>(metacards.size());
+    List<Set<String>> batchDuplicates = new ArrayList<>(metacards.size());
+
+    for (int position = 0; position < metacards.size(); position++) {
+      final Metacard metacard = metacards.get(position);
+      final Set<String> uniqueAttributeNames =
+          Stream.of(attributeNames)
+              .filter(attribute -> metacard.getAttribute(attribute) != null)
+              .collect(Collectors.toSet());
+      checkedAttributeNames.add(uniqueAttributeNames);
+      catalogDuplicates.add(new HashSet<>());
+      batchDuplicates.add(new HashSet<>());
+
+      for (String attributeName : uniqueAttributeNames) {
+        for (Serializable value : metacard.getAttribute(attributeName).getValues()) {
+          List<Integer> positions =
+              positionsByValue
+                  .computeIfAbsent(attributeName, name -> new HashMap<>())
+                  .computeIfAbsent(value.toString().trim(), text -> new ArrayList<>());
+          for (int earlier : positions) {
+            if (earlier != position && !isSameMetacard(metacards.get(earlier), metacard)) {
+              batchDuplicates.get(position).add(describe(metacards.get(earlier)));
+            }
+          }
+          if (positions.isEmpty() || positions.get(positions.size() - 1) != position) {
+            positions.add(position);
+          }
+        }
+      }
+    }
+
+    List<Filter> filters =
+        positionsByValue.entrySet().stream()
+            .flatMap(
+                entry ->
+                    entry.getValue().keySet().stream()
+                        .map(
+                            value -> filterBuilder.attribute(entry.getKey()).equalTo().text(value)))
+            .collect(Collectors.toList());
+
+    for (List<Filter> group : Lists.partition(filters, MAX_VALUES_PER_QUERY)) {
+      for (Result result : query(group)) {
+        Metacard duplicate = result.getMetacard();
+        positionsByValue.forEach(
+            (attributeName, positionsForName) -> {
+              Attribute attribute = duplicate.getAttribute(attributeName);
+              if (attribute == null) {
+                return;
+              }
+              attribute.getValues().stream()
+                  .map(value -> positionsForName.get(value.toString().trim()))
+                  .filter(Objects::nonNull)
+                  .flatMap(List::stream)
+                  .filter(position -> !duplicate.getId().equals(metacards.get(position).getId()))
+                  .forEach(position -> catalogDuplicates.get(position).add(duplicate.getId()));
+            });
+      }
+    }
+
+    for (int position = 0; position < metacards.size(); position++) {
+      if (!catalogDuplicates.get(position).isEmpty()) {
+        ValidationViolation violation =
+            createViolation(
+                checkedAttributeNames.get(position), catalogDuplicates.get(position), severity);
+        LOGGER.debug(violation.getMessage());
+        violations.get(position).add(violation);
+      }
+      if (!batchDuplicates.get(position).isEmpty()) {
+        ValidationViolation violation =
+            createBatchViolation(
+                checkedAttributeNames.get(position), batchDuplicates.get(position), severity);
+        LOGGER.debug(violation.getMessage());
+        violations.get(position).add(violation);
+      }
+    }
+  }
+
+  private boolean isSameMetacard(Metacard metacard, Metacard other) {
+    return metacard.getId() != null && metacard.getId().equals(other.getId());
+  }
+
+  private String describe(Metacard metacard) {
+    if (metacard.getId() != null) {
+      return metacard.getId();
+    }
+    return StringUtils.defaultString(metacard.getTitle());
+  }
+
   private Filter[] buildFilters(Set<Attribute> attributes) {
 
     return attributes.stream()
@@ -244,6 +395,42 @@ private SourceResponse query(Set<Attribute> attributes) {
     return response;
   }
 
+  /**
+   * Returns all of the catalog's matches for any of the filters, up to {@link
+   * Constants#DEFAULT_PAGE_SIZE} per filter, which is as many as checking each metacard separately
+   * would find.
+   */
+  private List<Result> query(List<Filter> filters) {
+    final Filter filter = filterBuilder.anyOf(filters);
+    final int maxResults = Constants.DEFAULT_PAGE_SIZE * filters.size();
+
+    LOGGER.debug("Checking {} attribute values for duplicates", filters.size());
+
+    List<Result> results = new ArrayList<>();
+    while (results.size() < maxResults) {
+      QueryImpl query =
+          new QueryImpl(
+              filter,
+              results.size() + 1,
+              Math.min(BATCH_QUERY_PAGE_SIZE, maxResults - results.size()),
+              new SortByImpl(Core.ID, SortOrder.ASCENDING),
+              false,
+              0);
+      SourceResponse response;
+      try {
+        response = catalogFramework.query(new QueryRequestImpl(query));
+      } catch (FederationException | SourceUnavailableException | UnsupportedQueryException e) {
+        LOGGER.debug("Query failed ", e);
+        break;
+      }
+      results.addAll(response.getResults());
+      if (response.getResults().size() < query.getPageSize()) {
+        break;
+      }
+    }
+    return results;
+  }
+
   private ValidationViolation createViolation(
       final Set<String> attributes, Set<String> duplicates, ValidationViolation.Severity severity) {
 
@@ -255,6 +442,17 @@ private ValidationViolation createViolation(
         severity);
   }
 
+  private ValidationViolation createBatchViolation(
+      final Set<String> attributes, Set<String> duplicates, ValidationViolation.Severity severity) {
+
+    return new ValidationViolationImpl(
+        attributes,
+        String.format(
+            "Duplicate data found in the same request: {%s}, based on attributes: {%s}.",
+            collectionToString(duplicates), collectionToString(attributes)),
+        severity);
+  }
+
   private String collectionToString(final Collection collection) {
 
     return (String)
@@ -24,6 +24,7 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -45,6 +46,7 @@
 import ddf.catalog.validation.report.MetacardValidationReport;
 import ddf.catalog.validation.violation.ValidationViolation;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -241,4 +243,46 @@ public void testValidateMetacardWithMultiValuedAttribute()
               assertThat(violation.getMessage(), containsString(Metacard.TAGS));
             });
   }
+
+  @Test
+  public void testValidateMetacardsQueriesOnceForBatch()
+      throws FederationException, UnsupportedQueryException, SourceUnavailableException {
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    MetacardImpl otherMetacard = new MetacardImpl();
+    otherMetacard.setId("other metacard ID");
+    otherMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "other-checksum-value"));
+
+    Map<Integer, ValidationException> exceptions =
+        validator.validateMetacards(Arrays.asList(testMetacard, otherMetacard, matchingMetacard));
+
+    verify(mockFramework, times(1)).query(any(QueryRequest.class));
+    assertThat(exceptions.keySet(), is(Collections.singleton(0)));
+    assertThat(exceptions.get(0).getWarnings(), hasSize(1));
+    assertThat(exceptions.get(0).getWarnings().get(0), containsString(ID));
+  }
+
+  @Test
+  public void testValidateMetacardsFindsDuplicatesWithinBatch() {
+    validator.setErrorOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    MetacardImpl firstMetacard = new MetacardImpl();
+    firstMetacard.setId("first metacard ID");
+    firstMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "batch-checksum-value"));
+    MetacardImpl secondMetacard = new MetacardImpl();
+    secondMetacard.setTitle("second metacard");
+    secondMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, " batch-checksum-value"));
+
+    Map<Integer, ValidationException> exceptions =
+        validator.validateMetacards(Arrays.asList(firstMetacard, secondMetacard));
+
+    assertThat(exceptions.keySet(), is(Collections.singleton(1)));
+    assertThat(exceptions.get(1).getErrors(), hasSize(1));
+    assertThat(exceptions.get(1).getErrors().get(0), containsString("first metacard ID"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testValidateMetacardsNullInput() {
+    validator.validateMetacards(null);
+  }
 }
@@ -14,7 +14,7 @@
 package org.codice.ddf.libs.klv;
 
 import com.google.common.base.Preconditions;
-import java.util.List;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import javax.xml.bind.DatatypeConverter;
 import org.codice.ddf.libs.klv.data.Klv;
@@ -51,40 +51,61 @@ public KlvDecoder(final KlvContext klvContext) {
    */
   public KlvContext decode(final byte[] klvBytes) throws KlvDecodingException {
     Preconditions.checkArgument(klvBytes != null, "The array of bytes to decode cannot be null.");
+    return decode(ByteBuffer.wrap(klvBytes));
+  }
 
-    List<Klv> klvDataElements;
+  /**
+   * Decodes the KLV data between the position and the limit of {@code klvBuffer}, in the same way
+   * as {@link #decode(byte[])}. The position and limit of the buffer are not changed.
+   *
+   * <p>The data is first indexed with a {@link KlvIndex}, and only the data elements described by
+   * the {@code KlvContext} are decoded. Callers that only need a few values and want to avoid
+   * creating {@link KlvDataElement}s can use a {@code KlvIndex} directly.
+   *
+   * @param klvBuffer buffer containing data in KLV format
+   * @return a new {@code KlvContext} containing the decoded KLV data elements
+   * @throws IllegalArgumentException if {@code klvBuffer} is null
+   * @throws KlvDecodingException if the KLV cannot be decoded using the given context information
+   */
+  public KlvContext decode(final ByteBuffer klvBuffer) throws KlvDecodingException {
+    Preconditions.checkArgument(klvBuffer != null, "The buffer to decode cannot be null.");
 
-    try {
-      klvDataElements =
-          Klv.bytesToList(
-              klvBytes,
-              0,
-              klvBytes.length,
-              klvContext.getKeyLength(),
-              klvContext.getLengthEncoding());
-    } catch (RuntimeException e) {
-      throw new KlvDecodingException(
-          String.format(
-              "Could not decode KLV using the given key length %s and length encoding %s",
-              klvContext.getKeyLength(), klvContext.getLengthEncoding()),
-          e);
-    }
+    final KlvIndex klvIndex =
+        new KlvIndex(klvContext.getKeyLength(), klvContext.getLengthEncoding()).index(klvBuffer);
 
     final KlvContext decodedContext =
         new KlvContext(klvContext.getKeyLength(), klvContext.getLengthEncoding());
     final Map<String, KlvDataElement> keyToDataElementMap = klvContext.getKeyToDataElementMap();
 
-    klvDataElements.forEach(
-        klv -> {
-          final String key = DatatypeConverter.printHexBinary(klv.getFullKey());
+    for (int i = 0; i < klvIndex.size(); i++) {
+      final String key = DatatypeConverter.printHexBinary(klvIndex.getKey(i));
+      final KlvDataElement dataElement = keyToDataElementMap.get(key);
 
-          if (keyToDataElementMap.containsKey(key)) {
-            final KlvDataElement dataElementCopy = keyToDataElementMap.get(key).copy();
-            dataElementCopy.decodeValue(klv);
-            decodedContext.addDataElement(dataElementCopy);
-          }
-        });
+      if (dataElement != null) {
+        final KlvDataElement dataElementCopy = dataElement.copy();
+        dataElementCopy.decodeValue(toKlv(klvIndex, i));
+        decodedContext.addDataElement(dataElementCopy);
+      }
+    }
 
     return decodedContext;
   }
+
+  private Klv toKlv(final KlvIndex klvIndex, final int i) {
+    final ByteBuffer buffer = klvIndex.getBuffer();
+    if (buffer.hasArray()) {
+      return Klv.fromBytes(
+          buffer.array(),
+          buffer.arrayOffset() + klvIndex.getKeyOffset(i),
+          klvContext.getKeyLength(),
+          klvContext.getLengthEncoding());
+    }
+
+    final byte[] dataElementBytes = new byte[klvIndex.getDataElementLength(i)];
+    final ByteBuffer dataElementBuffer = buffer.duplicate();
+    dataElementBuffer.position(klvIndex.getKeyOffset(i));
+    dataElementBuffer.get(dataElementBytes);
+    return Klv.fromBytes(
+        dataElementBytes, 0, klvContext.getKeyLength(), klvContext.getLengthEncoding());
+  }
 }
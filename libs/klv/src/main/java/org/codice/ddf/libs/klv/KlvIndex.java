@@ -0,0 +1,409 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.klv;
+
+import static org.codice.ddf.libs.klv.data.Klv.KeyLength;
+import static org.codice.ddf.libs.klv.data.Klv.LengthEncoding;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A reusable, read-only view of KLV-encoded data in a {@link ByteBuffer}.
+ *
+ * <p>{@link #index(ByteBuffer)} makes a single pass over the data and records where the key and the
+ * value of each data element start. Nothing is copied or decoded at that point: values are read
+ * straight from the buffer when one of the {@code getValueAs...} methods is called. The offset
+ * arrays are reused when the index is reused, so a single {@code KlvIndex} can decode every packet
+ * of a stream without allocating per data element.
+ *
+ * <p>A local set nested inside a data element can be read by indexing that element's value with a
+ * second {@code KlvIndex}, see {@link #indexValue(KlvIndex, int)}.
+ *
+ * <p>Instances are not thread-safe, and the indexed buffer must not be modified while it is in use.
+ * Use {@link KlvDecoder} to decode data into {@link KlvDataElement}s described by a {@link
+ * KlvContext} instead.
+ */
+public final class KlvIndex {
+  private static final int INITIAL_CAPACITY = 32;
+
+  private final KeyLength keyLength;
+
+  private final LengthEncoding lengthEncoding;
+
+  private ByteBuffer buffer;
+
+  private int size;
+
+  private int[] keyOffsets = new int[INITIAL_CAPACITY];
+
+  private int[] valueOffsets = new int[INITIAL_CAPACITY];
+
+  private int[] valueLengths = new int[INITIAL_CAPACITY];
+
+  /**
+   * Constructs an empty {@code KlvIndex} for data elements with the given key length and length
+   * encoding.
+   *
+   * @param keyLength the key length of the data elements
+   * @param lengthEncoding the length encoding of the data elements
+   * @throws IllegalArgumentException if any of the arguments are null
+   */
+  public KlvIndex(final KeyLength keyLength, final LengthEncoding lengthEncoding) {
+    Preconditions.checkArgument(keyLength != null, "Key length cannot be null");
+    Preconditions.checkArgument(lengthEncoding != null, "Length encoding cannot be null");
+
+    this.keyLength = keyLength;
+    this.lengthEncoding = lengthEncoding;
+  }
+
+  /**
+   * Indexes the data elements between the position and the limit of {@code buffer}, replacing
+   * whatever was previously indexed. The position and limit of the buffer are not changed.
+   *
+   * @param buffer the buffer containing the KLV-encoded data
+   * @return this {@code KlvIndex}
+   * @throws IllegalArgumentException if {@code buffer} is null
+   * @throws KlvDecodingException if the data cannot be decoded with this key length and length
+   *     encoding
+   */
+  public KlvIndex index(final ByteBuffer buffer) throws KlvDecodingException {
+    Preconditions.checkArgument(buffer != null, "The buffer to index cannot be null.");
+    return index(buffer, buffer.position(), buffer.remaining());
+  }
+
+  /**
+   * Indexes the {@code length} bytes of {@code buffer} starting at the absolute offset {@code
+   * offset}, replacing whatever was previously indexed.
+   *
+   * @param buffer the buffer containing the KLV-encoded data
+   * @param offset the absolute offset of the first data element
+   * @param length the number of bytes to index
+   * @return this {@code KlvIndex}
+   * @throws IllegalArgumentException if {@code buffer} is null
+   * @throws IndexOutOfBoundsException if the range is not within the limit of {@code buffer}
+   * @throws KlvDecodingException if the data cannot be decoded with this key length and length
+   *     encoding
+   */
+  public KlvIndex index(final ByteBuffer buffer, final int offset, final int length)
+      throws KlvDecodingException {
+    Preconditions.checkArgument(buffer != null, "The buffer to index cannot be null.");
+    Preconditions.checkPositionIndexes(offset, offset + length, buffer.limit());
+
+    this.buffer = buffer;
+    this.size = 0;
+
+    try {
+      final int end = offset + length;
+      int position = offset;
+      while (position < end) {
+        position = indexDataElement(position, end);
+      }
+    } catch (RuntimeException e) {
+      this.size = 0;
+      throw new KlvDecodingException(
+          String.format(
+              "Could not decode KLV using the given key length %s and length encoding %s",
+              keyLength, lengthEncoding),
+          e);
+    }
+
+    return this;
+  }
+
+  /**
+   * Indexes the value of the data element at {@code i} in {@code parent}, which is a local set.
+   *
+   * @param parent the index containing the local set
+   * @param i the index of the local set in {@code parent}
+   * @return this {@code KlvIndex}
+   * @throws KlvDecodingException if the local set cannot be decoded with this key length and length
+   *     encoding
+   */
+  public KlvIndex indexValue(final KlvIndex parent, final int i) throws KlvDecodingException {
+    return index(parent.buffer, parent.getValueOffset(i), parent.getValueLength(i));
+  }
+
+  /** @return the number of data elements found by the last call to {@code index} */
+  public int size() {
+    return size;
+  }
+
+  public KeyLength getKeyLength() {
+    return keyLength;
+  }
+
+  public LengthEncoding getLengthEncoding() {
+    return lengthEncoding;
+  }
+
+  /**
+   * Returns the index of the first data element with the given key.
+   *
+   * @param key the key
+   * @return the index of the data element, or -1 if there is none
+   */
+  public int indexOf(final byte[] key) {
+    for (int i = 0; i < size; i++) {
+      if (keyEquals(i, key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the first data element with the given key. Only supported for keys of up
+   * to four bytes, such as the tags of a local set.
+   *
+   * @param key the key as an unsigned integer
+   * @return the index of the data element, or -1 if there is none
+   * @throws IllegalStateException if the keys are sixteen bytes long
+   */
+  public int indexOf(final int key) {
+    for (int i = 0; i < size; i++) {
+      if (getKeyAsInt(i) == key) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the key of the data element at {@code i} as an unsigned integer. Only supported for
+   * keys of up to four bytes.
+   *
+   * @throws IllegalStateException if the keys are sixteen bytes long
+   */
+  public int getKeyAsInt(final int i) {
+    Preconditions.checkState(
+        keyLength != KeyLength.SIXTEEN_BYTES, "A sixteen-byte key does not fit in an int.");
+    return (int) read(keyOffsets[checkIndex(i)], keyLength.value());
+  }
+
+  /**
+   * Determines whether the data element at {@code i} has the given key, without copying it.
+   *
+   * @param i the index of the data element
+   * @param key the key
+   * @return whether the keys are equal
+   */
+  public boolean keyEquals(final int i, final byte[] key) {
+    final int keyOffset = keyOffsets[checkIndex(i)];
+    if (key.length != keyLength.value()) {
+      return false;
+    }
+    for (int j = 0; j < key.length; j++) {
+      if (buffer.get(keyOffset + j) != key[j]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** @return a copy of the key of the data element at {@code i} */
+  public byte[] getKey(final int i) {
+    return copy(keyOffsets[checkIndex(i)], keyLength.value());
+  }
+
+  /** @return the absolute offset of the key of the data element at {@code i} in the buffer */
+  public int getKeyOffset(final int i) {
+    return keyOffsets[checkIndex(i)];
+  }
+
+  /** @return the absolute offset of the value of the data element at {@code i} in the buffer */
+  public int getValueOffset(final int i) {
+    return valueOffsets[checkIndex(i)];
+  }
+
+  /** @return the length of the value of the data element at {@code i} */
+  public int getValueLength(final int i) {
+    return valueLengths[checkIndex(i)];
+  }
+
+  /** @return a copy of the value of the data element at {@code i} */
+  public byte[] getValue(final int i) {
+    return copy(valueOffsets[checkIndex(i)], valueLengths[i]);
+  }
+
+  /** @see org.codice.ddf.libs.klv.data.Klv#getValueAs8bitSignedInt() */
+  public int getValueAs8bitSignedInt(final int i) {
+    return (byte) readValue(i, 1);
+  }
+
+  /** @see org.codice.ddf.libs.klv.data.Klv#getValueAs8bitUnsignedInt() */
+  public int getValueAs8bitUnsignedInt(final int i) {
+    return (int) readValue(i, 1);
+  }
+
+  /** @see org.codice.ddf.libs.klv.data.Klv#getValueAs16bitSignedInt() */
+  public int getValueAs16bitSignedInt(final int i) {
+    return (short) readValue(i, 2);
+  }
+
+  /** @see org.codice.ddf.libs.klv.data.Klv#getValueAs16bitUnsignedInt() */
+  public int getValueAs16bitUnsignedInt(final int i) {
+    return (int) readValue(i, 2);
+  }
+
+  /** @see org.codice.ddf.libs.klv.data.Klv#getValueAs32bitInt() */
+  public int getValueAs32bitInt(final int i) {
+    return (int) readValue(i, 4);
+  }
+
+  /** @see org.codice.ddf.libs.klv.data.Klv#getValueAs64bitLong() */
+  public long getValueAs64bitLong(final int i) {
+    return readValue(i, 8);
+  }
+
+  /** @see org.codice.ddf.libs.klv.data.Klv#getValueAsFloat() */
+  public float getValueAsFloat(final int i) {
+    return getValueLength(i) < 4 ? Float.NaN : Float.intBitsToFloat(getValueAs32bitInt(i));
+  }
+
+  /** @see org.codice.ddf.libs.klv.data.Klv#getValueAsDouble() */
+  public double getValueAsDouble(final int i) {
+    return getValueLength(i) < 8 ? Double.NaN : Double.longBitsToDouble(getValueAs64bitLong(i));
+  }
+
+  /**
+   * Returns the value of the data element at {@code i} as a String interpreted with the given
+   * charset. Array-backed buffers are decoded in place.
+   */
+  public String getValueAsString(final int i, final Charset charset) {
+    final int valueOffset = valueOffsets[checkIndex(i)];
+    if (buffer.hasArray()) {
+      return new String(
+          buffer.array(), buffer.arrayOffset() + valueOffset, valueLengths[i], charset);
+    }
+    return new String(copy(valueOffset, valueLengths[i]), charset);
+  }
+
+  /**
+   * @return the buffer passed to the last call to {@code index}, which the key and value offsets
+   *     are absolute positions in, or null if nothing has been indexed yet
+   */
+  ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * @return the number of bytes the data element at {@code i} takes up, including key and length
+   */
+  int getDataElementLength(final int i) {
+    return valueOffsets[checkIndex(i)] + valueLengths[i] - keyOffsets[i];
+  }
+
+  private int indexDataElement(final int keyOffset, final int end) {
+    if (end - keyOffset < keyLength.value()) {
+      throw new IndexOutOfBoundsException(
+          String.format("Not enough bytes for %d-byte key.", keyLength.value()));
+    }
+
+    final int lengthOffset = keyOffset + keyLength.value();
+    final int remaining = end - lengthOffset;
+    final int valueOffset;
+    final int valueLength;
+
+    switch (lengthEncoding) {
+      case ONE_BYTE:
+      case TWO_BYTES:
+      case FOUR_BYTES:
+        checkLengthBytesRemaining(remaining, lengthEncoding.value());
+        valueLength = (int) read(lengthOffset, lengthEncoding.value());
+        valueOffset = lengthOffset + lengthEncoding.value();
+        break;
+
+      case BER:
+      default:
+        // Short form: the high bit is not set and the byte is the length. Long form: the low
+        // seven bits are the number of bytes that follow and hold the length.
+        checkLengthBytesRemaining(remaining, 1);
+        final int ber = buffer.get(lengthOffset) & 0xFF;
+        if ((ber & 0x80) == 0) {
+          valueLength = ber;
+          valueOffset = lengthOffset + 1;
+        } else {
+          final int following = ber & 0x7F;
+          if (following > 4) {
+            throw new IndexOutOfBoundsException(
+                String.format("BER lengths of %d bytes are not supported.", following));
+          }
+          checkLengthBytesRemaining(remaining, following + 1);
+          valueLength = (int) read(lengthOffset + 1, following);
+          valueOffset = lengthOffset + 1 + following;
+        }
+        break;
+    }
+
+    final int valueRemaining = end - valueOffset;
+    if (valueLength < 0 || valueRemaining < valueLength) {
+      throw new IndexOutOfBoundsException(
+          String.format(
+              "Not enough bytes left in array (%d) for the declared length (%d).",
+              valueRemaining, valueLength));
+    }
+
+    add(keyOffset, valueOffset, valueLength);
+    return valueOffset + valueLength;
+  }
+
+  private void checkLengthBytesRemaining(final int remaining, final int lengthBytes) {
+    if (remaining < lengthBytes) {
+      throw new IndexOutOfBoundsException(
+          String.format("Not enough bytes for %s length encoding.", lengthEncoding));
+    }
+  }
+
+  private void add(final int keyOffset, final int valueOffset, final int valueLength) {
+    if (size == keyOffsets.length) {
+      final int capacity = size * 2;
+      keyOffsets = Arrays.copyOf(keyOffsets, capacity);
+      valueOffsets = Arrays.copyOf(valueOffsets, capacity);
+      valueLengths = Arrays.copyOf(valueLengths, capacity);
+    }
+
+    keyOffsets[size] = keyOffset;
+    valueOffsets[size] = valueOffset;
+    valueLengths[size] = valueLength;
+    size++;
+  }
+
+  /** Reads up to {@code maxBytes} of the value at {@code i} as a big-endian unsigned number. */
+  private long readValue(final int i, final int maxBytes) {
+    return read(valueOffsets[checkIndex(i)], Math.min(valueLengths[i], maxBytes));
+  }
+
+  private long read(final int offset, final int length) {
+    long value = 0;
+    for (int j = 0; j < length; j++) {
+      value = (value << 8) | (buffer.get(offset + j) & 0xFF);
+    }
+    return value;
+  }
+
+  private byte[] copy(final int offset, final int length) {
+    final byte[] bytes = new byte[length];
+    for (int j = 0; j < length; j++) {
+      bytes[j] = buffer.get(offset + j);
+    }
+    return bytes;
+  }
+
+  private int checkIndex(final int i) {
+    return Preconditions.checkElementIndex(i, size);
+  }
+}
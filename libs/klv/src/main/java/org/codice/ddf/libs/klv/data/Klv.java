@@ -211,7 +211,7 @@ public byte[] getValue() {
    * @return the value as an 8-bit signed integer
    */
   public int getValueAs8bitSignedInt() {
-    final byte[] bytes = getValue();
+    final byte[] bytes = this.value;
     byte value = 0;
     if (bytes.length > 0) {
       value = bytes[0];
@@ -225,7 +225,7 @@ public int getValueAs8bitSignedInt() {
    * @return the value as an 8-bit unsigned integer
    */
   public int getValueAs8bitUnsignedInt() {
-    final byte[] bytes = getValue();
+    final byte[] bytes = this.value;
     int value = 0;
     if (bytes.length > 0) {
       value = bytes[0] & 0xFF;
@@ -239,7 +239,7 @@ public int getValueAs8bitUnsignedInt() {
    * @return the value as a 16-bit signed integer
    */
   public int getValueAs16bitSignedInt() {
-    final byte[] bytes = getValue();
+    final byte[] bytes = this.value;
     final int length = bytes.length;
     final int shortLen = length < 2 ? length : 2;
     short value = 0;
@@ -255,7 +255,7 @@ public int getValueAs16bitSignedInt() {
    * @return the value as a 16-bit unsigned integer
    */
   public int getValueAs16bitUnsignedInt() {
-    final byte[] bytes = getValue();
+    final byte[] bytes = this.value;
     final int length = bytes.length;
     final int shortLen = length < 2 ? length : 2;
     int value = 0;
@@ -273,7 +273,7 @@ public int getValueAs16bitUnsignedInt() {
    * @return the value as an int
    */
   public int getValueAs32bitInt() {
-    final byte[] bytes = getValue();
+    final byte[] bytes = this.value;
     final int length = bytes.length;
     final int shortLen = length < 4 ? length : 4;
     int value = 0;
@@ -291,7 +291,7 @@ public int getValueAs32bitInt() {
    * @return the value as a long
    */
   public long getValueAs64bitLong() {
-    final byte[] bytes = getValue();
+    final byte[] bytes = this.value;
     final int length = bytes.length;
     final int shortLen = length < 8 ? length : 8;
     long value = 0;
@@ -310,7 +310,7 @@ public long getValueAs64bitLong() {
    * @return the value as a float
    */
   public float getValueAsFloat() {
-    return this.getValue().length < 4 ? Float.NaN : Float.intBitsToFloat(getValueAs32bitInt());
+    return this.value.length < 4 ? Float.NaN : Float.intBitsToFloat(getValueAs32bitInt());
   }
 
   /**
@@ -322,7 +322,7 @@ public float getValueAsFloat() {
    * @return the value as a double
    */
   public double getValueAsDouble() {
-    return this.getValue().length < 8 ? Double.NaN : Double.longBitsToDouble(getValueAs64bitLong());
+    return this.value.length < 8 ? Double.NaN : Double.longBitsToDouble(getValueAs64bitLong());
   }
 
   /**
@@ -334,7 +334,7 @@ public double getValueAsDouble() {
    *     encoding
    */
   public String getValueAsString(final String charsetName) throws UnsupportedEncodingException {
-    return new String(getValue(), charsetName);
+    return new String(this.value, charsetName);
   }
 
   /**
@@ -497,6 +497,24 @@ private Klv setLength(final int length, final LengthEncoding lengthEncoding) {
     return this;
   }
 
+  /**
+   * Returns the KLV set that starts at {@code offset} in the supplied byte array.
+   *
+   * @param bytes The byte array to parse
+   * @param offset Where the KLV set starts
+   * @param keyLength Length of the key of the KLV set
+   * @param lengthEncoding Flag indicating encoding type
+   * @return the KLV set
+   * @throws IndexOutOfBoundsException If the KLV set does not fit in the byte array
+   */
+  public static Klv fromBytes(
+      final byte[] bytes,
+      final int offset,
+      final KeyLength keyLength,
+      final LengthEncoding lengthEncoding) {
+    return new Klv(bytes, offset, keyLength, lengthEncoding);
+  }
+
   /**
    * Returns a list of KLV sets in the supplied byte array assuming the provided key length and
    * length field encoding.
@@ -27,6 +27,7 @@
 import static org.junit.Assert.fail;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
@@ -224,6 +225,32 @@ public void testKLVSet() throws Exception {
         });
   }
 
+  @Test
+  public void testKLVSetFromDirectBuffer() throws Exception {
+    byte[] klvBytes;
+
+    try (final InputStream inputStream =
+        getClass().getClassLoader().getResourceAsStream("testKLV.klv")) {
+      klvBytes = IOUtils.toByteArray(inputStream);
+    }
+
+    final ByteBuffer klvBuffer = ByteBuffer.allocateDirect(klvBytes.length);
+    klvBuffer.put(klvBytes).flip();
+
+    final Map<String, KlvDataElement> decodedDataElements =
+        new KlvDecoder(getKLVContext(DATA_ELEMENTS)).decode(klvBuffer).getDataElements();
+
+    final KlvContext localSet =
+        ((KlvLocalSet) decodedDataElements.get(UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY)).getValue();
+
+    assertThat(localSet.getDataElements().size(), is(DATA_ELEMENTS.size()));
+    localSet
+        .getDataElements()
+        .forEach(
+            (name, dataElement) ->
+                assertThat(name, dataElement.getValue(), is(EXPECTED_VALUES.get(name))));
+  }
+
   private KlvContext decodeKLV(
       final KeyLength keyLength,
       final LengthEncoding lengthEncoding,
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.klv;
+
+import static org.codice.ddf.libs.klv.data.Klv.KeyLength;
+import static org.codice.ddf.libs.klv.data.Klv.LengthEncoding;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.IOUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class KlvIndexTest {
+  private static final byte[] UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY = {
+    0x06, 0x0E, 0x2B, 0x34, 0x02, 0x0B, 0x01, 0x01, 0x0E, 0x01, 0x03, 0x01, 0x01, 0x00, 0x00, 0x00
+  };
+
+  private static byte[] testKlvBytes;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    try (final InputStream inputStream =
+        KlvIndexTest.class.getClassLoader().getResourceAsStream("testKLV.klv")) {
+      testKlvBytes = IOUtils.toByteArray(inputStream);
+    }
+  }
+
+  @Test
+  public void testUasDatalinkLocalSet() throws KlvDecodingException {
+    verifyUasDatalinkLocalSet(ByteBuffer.wrap(testKlvBytes));
+  }
+
+  @Test
+  public void testDirectBuffer() throws KlvDecodingException {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(testKlvBytes.length + 3);
+    buffer.put(new byte[] {1, 2, 3});
+    buffer.put(testKlvBytes);
+    buffer.position(3);
+
+    verifyUasDatalinkLocalSet(buffer);
+    assertThat(buffer.position(), is(3));
+  }
+
+  private void verifyUasDatalinkLocalSet(final ByteBuffer buffer) throws KlvDecodingException {
+    final KlvIndex universalSet =
+        new KlvIndex(KeyLength.SIXTEEN_BYTES, LengthEncoding.BER).index(buffer);
+
+    assertThat(universalSet.size(), is(1));
+    assertThat(universalSet.indexOf(UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY), is(0));
+    assertThat(universalSet.getKey(0), is(UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY));
+
+    final KlvIndex localSet =
+        new KlvIndex(KeyLength.ONE_BYTE, LengthEncoding.ONE_BYTE).indexValue(universalSet, 0);
+
+    assertThat(localSet.getValueAs64bitLong(localSet.indexOf(0x02)), is(1245257585099653L));
+    assertThat(localSet.getValueAs8bitSignedInt(localSet.indexOf(0x41)), is(1));
+    assertThat(localSet.getValueAs16bitUnsignedInt(localSet.indexOf(0x05)), is(15675));
+    assertThat(localSet.getValueAs16bitSignedInt(localSet.indexOf(0x06)), is(5504));
+    assertThat(
+        localSet.getValueAsString(localSet.indexOf(0x0b), StandardCharsets.UTF_8), is("EON"));
+    assertThat(
+        localSet.getValueAsString(localSet.indexOf(0x0c), StandardCharsets.UTF_8),
+        is("Geodetic WGS84"));
+    assertThat(localSet.getValueAs32bitInt(localSet.indexOf(0x0d)), is(1304747195));
+    assertThat(localSet.getValueAs32bitInt(localSet.indexOf(0x0e)), is(-1314362114));
+    assertThat(localSet.getValueAs64bitLong(localSet.indexOf(0x14)), is(4273523553L));
+    assertThat(localSet.getValueAs8bitUnsignedInt(localSet.indexOf(0x38)), is(46));
+    assertThat(localSet.getValueAs16bitUnsignedInt(localSet.indexOf(0x01)), is(7263));
+  }
+
+  @Test
+  public void testReuse() throws KlvDecodingException {
+    final KlvIndex klvIndex = new KlvIndex(KeyLength.ONE_BYTE, LengthEncoding.ONE_BYTE);
+
+    final byte[] manyElements = new byte[100 * 3];
+    for (int i = 0; i < 100; i++) {
+      manyElements[i * 3] = (byte) i;
+      manyElements[i * 3 + 1] = 1;
+      manyElements[i * 3 + 2] = (byte) (i * 2);
+    }
+    klvIndex.index(ByteBuffer.wrap(manyElements));
+    assertThat(klvIndex.size(), is(100));
+    assertThat(klvIndex.getValueAs8bitUnsignedInt(klvIndex.indexOf(99)), is(198));
+
+    klvIndex.index(ByteBuffer.wrap(new byte[] {7, 2, 1, 2}));
+    assertThat(klvIndex.size(), is(1));
+    assertThat(klvIndex.getKeyAsInt(0), is(7));
+    assertThat(klvIndex.indexOf(99), is(-1));
+  }
+
+  @Test
+  public void testKeyLengths() throws KlvDecodingException {
+    final KlvIndex twoByteKeys =
+        new KlvIndex(KeyLength.TWO_BYTES, LengthEncoding.ONE_BYTE)
+            .index(ByteBuffer.wrap(new byte[] {-14, 99, 3, -1, 0, 1}));
+    assertThat(twoByteKeys.getKeyAsInt(0), is(0xF263));
+    assertThat(twoByteKeys.getValue(0), is(new byte[] {-1, 0, 1}));
+
+    final KlvIndex fourByteKeys =
+        new KlvIndex(KeyLength.FOUR_BYTES, LengthEncoding.ONE_BYTE)
+            .index(ByteBuffer.wrap(new byte[] {-14, 99, -55, 101, 3, -1, 0, 1}));
+    assertThat(fourByteKeys.getKeyAsInt(0), is(0xF263C965));
+    assertThat(fourByteKeys.keyEquals(0, new byte[] {-14, 99, -55, 101}), is(true));
+    assertThat(fourByteKeys.getValueAs16bitSignedInt(0), is(-256));
+  }
+
+  @Test
+  public void testBerLengthEncodingMultipleBytes() throws KlvDecodingException {
+    final byte[] klvBytes = new byte[4 + 300];
+    klvBytes[0] = 5;
+    klvBytes[1] = (byte) 0b10000010;
+    klvBytes[2] = 0x01;
+    klvBytes[3] = 0x2C;
+
+    final KlvIndex klvIndex =
+        new KlvIndex(KeyLength.ONE_BYTE, LengthEncoding.BER).index(ByteBuffer.wrap(klvBytes));
+
+    assertThat(klvIndex.size(), is(1));
+    assertThat(klvIndex.getValueOffset(0), is(4));
+    assertThat(klvIndex.getValueLength(0), is(300));
+  }
+
+  @Test
+  public void testFloatingPointValues() throws KlvDecodingException {
+    final byte[] klvBytes = {
+      1,
+      4,
+      0x46,
+      (byte) 0xA8,
+      0x7E,
+      0x59,
+      2,
+      8,
+      0x40,
+      (byte) 0xD5,
+      0x0F,
+      (byte) 0xCB,
+      0x21,
+      0x07,
+      (byte) 0xB7,
+      (byte) 0x84,
+      3,
+      2,
+      0x01,
+      0x02
+    };
+    final KlvIndex klvIndex =
+        new KlvIndex(KeyLength.ONE_BYTE, LengthEncoding.ONE_BYTE).index(ByteBuffer.wrap(klvBytes));
+
+    assertThat(klvIndex.getValueAsFloat(0), is(21567.174f));
+    assertThat(klvIndex.getValueAsDouble(1), is(21567.173891));
+    assertThat(Float.isNaN(klvIndex.getValueAsFloat(2)), is(true));
+    assertThat(Double.isNaN(klvIndex.getValueAsDouble(2)), is(true));
+  }
+
+  @Test
+  public void testMissingBytes() {
+    final KlvIndex klvIndex = new KlvIndex(KeyLength.ONE_BYTE, LengthEncoding.ONE_BYTE);
+    try {
+      klvIndex.index(ByteBuffer.wrap(new byte[] {-8, 4, (byte) 0x87, (byte) 0xF8, 0x4B}));
+      fail("Should have thrown a KlvDecodingException.");
+    } catch (KlvDecodingException e) {
+      assertThat(e.getCause(), instanceOf(IndexOutOfBoundsException.class));
+      assertThat(klvIndex.size(), is(0));
+    }
+  }
+
+  @Test(expected = KlvDecodingException.class)
+  public void testUnsupportedBerLength() throws KlvDecodingException {
+    new KlvIndex(KeyLength.ONE_BYTE, LengthEncoding.BER)
+        .index(ByteBuffer.wrap(new byte[] {5, (byte) 0x85, 0, 0, 0, 0, 1, 9}));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSixteenByteKeyAsInt() throws KlvDecodingException {
+    new KlvIndex(KeyLength.SIXTEEN_BYTES, LengthEncoding.BER)
+        .index(ByteBuffer.wrap(testKlvBytes))
+        .getKeyAsInt(0);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testIndexOutOfRange() throws KlvDecodingException {
+    new KlvIndex(KeyLength.ONE_BYTE, LengthEncoding.ONE_BYTE)
+        .index(ByteBuffer.wrap(new byte[] {1, 1, 1}))
+        .getValueAs8bitUnsignedInt(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullBuffer() throws KlvDecodingException {
+    new KlvIndex(KeyLength.ONE_BYTE, LengthEncoding.ONE_BYTE).index(null);
+  }
+}
@@ -14,16 +14,26 @@
 package org.codice.ddf.libs.mpeg.transport;
 
 import com.google.common.io.ByteSource;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang.ArrayUtils;
 import org.jcodec.api.JCodecException;
 import org.jcodec.containers.mps.MTSUtils.StreamType;
 import org.jcodec.containers.mps.psi.PMTSection;
@@ -36,20 +46,37 @@
 import org.taktik.mpegts.sources.MTSSources;
 import org.taktik.mpegts.sources.ResettableMTSSource;
 
-/** This class is for extracting arbitrary metadata (as raw bytes) from an MPEG transport stream. */
+/**
+ * This class is for extracting arbitrary metadata (as raw bytes) from an MPEG transport stream.
+ *
+ * <p>When constructed with a {@link Path}, the file is memory-mapped and split into packet-aligned
+ * segments that are scanned concurrently. Metadata packets that span segment boundaries are
+ * reassembled and the callback is still called on the calling thread, in stream order.
+ */
 public class MpegTransportStreamMetadataExtractor {
   private static final Logger LOGGER =
       LoggerFactory.getLogger(MpegTransportStreamMetadataExtractor.class);
 
+  static final long DEFAULT_SEGMENT_SIZE = TransportStreamSegment.PACKET_SIZE * 65536L;
+
+  private static final int MAX_PACKET_ID = 0x1fff;
+
   private final ByteSource byteSource;
 
+  private final Path path;
+
+  private final int segmentThreads;
+
+  private final long segmentSize;
+
   private final Set<Integer> programMapTablePacketIdDirectory = new HashSet<>();
 
   private final Map<Integer, PMTSection> programMapTables = new HashMap<>();
 
   private final Map<Integer, PMTStream> programElementaryStreams = new HashMap<>();
 
-  private final Map<Integer, byte[]> currentMetadataPacketBytesByStream = new HashMap<>();
+  private final Map<Integer, ByteArrayOutputStream> currentMetadataPacketBytesByStream =
+      new HashMap<>();
 
   /**
    * Constructs an {@code MpegTransportStreamMetadataExtractor} with the given {@link ByteSource} as
@@ -59,6 +86,37 @@ public class MpegTransportStreamMetadataExtractor {
    */
   public MpegTransportStreamMetadataExtractor(final ByteSource byteSource) {
     this.byteSource = byteSource;
+    this.path = null;
+    this.segmentThreads = 1;
+    this.segmentSize = DEFAULT_SEGMENT_SIZE;
+  }
+
+  /**
+   * Constructs an {@code MpegTransportStreamMetadataExtractor} that memory-maps the transport
+   * stream file at the given path and scans its segments using the given number of threads.
+   *
+   * @param path the path of the transport stream file
+   * @param segmentThreads the number of segments to scan concurrently, where 1 scans the segments
+   *     on the calling thread
+   * @throws IllegalArgumentException if {@code segmentThreads} is less than 1
+   */
+  public MpegTransportStreamMetadataExtractor(final Path path, final int segmentThreads) {
+    this(path, segmentThreads, DEFAULT_SEGMENT_SIZE);
+  }
+
+  MpegTransportStreamMetadataExtractor(
+      final Path path, final int segmentThreads, final long segmentSize) {
+    if (segmentThreads < 1) {
+      throw new IllegalArgumentException("segmentThreads must be at least 1");
+    }
+
+    this.byteSource = null;
+    this.path = path;
+    this.segmentThreads = segmentThreads;
+    // Segments always hold whole packets so that their boundaries fall on packet boundaries.
+    this.segmentSize =
+        Math.max(1, segmentSize / TransportStreamSegment.PACKET_SIZE)
+            * TransportStreamSegment.PACKET_SIZE;
   }
 
   /**
@@ -72,7 +130,11 @@ public MpegTransportStreamMetadataExtractor(final ByteSource byteSource) {
    * @throws Exception if an error occurs while parsing the transport stream
    */
   public void getMetadata(final BiConsumer<Integer, byte[]> callback) throws Exception {
-    extractTransportStreamMetadata(callback);
+    if (path != null) {
+      extractMappedTransportStreamMetadata(callback);
+    } else {
+      extractTransportStreamMetadata(callback);
+    }
   }
 
   /**
@@ -132,14 +194,86 @@ private void extractTransportStreamMetadata(final BiConsumer<Integer, byte[]> ca
     }
   }
 
+  private void extractMappedTransportStreamMetadata(final BiConsumer<Integer, byte[]> callback)
+      throws Exception {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final long fileSize = channel.size();
+      final List<TransportStreamSegment> segments =
+          TransportStreamSegment.split(fileSize, segmentSize);
+
+      getProgramSpecificInformation(channel, fileSize);
+
+      final boolean[] metadataPacketIds = getMetadataPacketIds();
+
+      long packetsProcessed = 0;
+      long bytesSkipped = 0;
+
+      final ExecutorService executor =
+          segmentThreads > 1
+              ? Executors.newFixedThreadPool(
+                  segmentThreads,
+                  new ThreadFactoryBuilder()
+                      .setNameFormat("mpegTransportStreamSegment-%d")
+                      .setDaemon(true)
+                      .build())
+              : null;
+
+      try {
+        final Deque<Future<SegmentMetadata>> segmentsInFlight = new ArrayDeque<>();
+
+        for (final TransportStreamSegment segment : segments) {
+          final SegmentMetadata segmentMetadata;
+
+          if (executor == null) {
+            segmentMetadata = scanSegment(channel, fileSize, segment, metadataPacketIds);
+          } else {
+            segmentsInFlight.add(
+                executor.submit(() -> scanSegment(channel, fileSize, segment, metadataPacketIds)));
+
+            // Bound the number of scanned segments waiting to be handled.
+            if (segmentsInFlight.size() < segmentThreads * 2) {
+              continue;
+            }
+
+            segmentMetadata = awaitSegment(segmentsInFlight.poll());
+          }
+
+          handleSegmentMetadata(segmentMetadata, callback);
+          packetsProcessed += segmentMetadata.segment.getPacketsProcessed();
+          bytesSkipped += segmentMetadata.segment.getBytesSkipped();
+        }
+
+        while (!segmentsInFlight.isEmpty()) {
+          final SegmentMetadata segmentMetadata = awaitSegment(segmentsInFlight.poll());
+          handleSegmentMetadata(segmentMetadata, callback);
+          packetsProcessed += segmentMetadata.segment.getPacketsProcessed();
+          bytesSkipped += segmentMetadata.segment.getBytesSkipped();
+        }
+      } finally {
+        if (executor != null) {
+          executor.shutdownNow();
+        }
+
+        LOGGER.debug(
+            "Mpegts Packet Processing Complete: Total Processed {}, Bytes Skipped Resynchronizing: {}",
+            packetsProcessed,
+            bytesSkipped);
+        handleLastPacketOfEachStream(callback);
+      }
+    }
+  }
+
   private void getProgramSpecificInformation(final MTSSource source) throws Exception {
     MTSPacket packet;
 
     while ((packet = source.nextPacket()) != null) {
-      if (isProgramAssociationTable(packet) && !seenProgramAssociationTable()) {
-        getProgramAssociationTable(packet);
-      } else if (isProgramMapTable(packet) && !seenProgramMapTable(packet)) {
-        getProgramMapTable(packet);
+      final int packetId = packet.getPid();
+      final boolean payloadUnitStart = packet.isPayloadUnitStartIndicator();
+
+      if (isProgramAssociationTable(packetId, payloadUnitStart) && !seenProgramAssociationTable()) {
+        getProgramAssociationTable(packet.getPayload());
+      } else if (isProgramMapTable(packetId, payloadUnitStart) && !seenProgramMapTable(packetId)) {
+        getProgramMapTable(packetId, packet.getPayload());
 
         if (foundAllProgramMapTables()) {
           break;
@@ -148,21 +282,54 @@ private void getProgramSpecificInformation(final MTSSource source) throws Except
     }
   }
 
+  /*
+   * The program specific information is normally repeated throughout the stream, so the segments
+   * are scanned in order on the calling thread only until every program map table has been seen.
+   */
+  private void getProgramSpecificInformation(final FileChannel channel, final long fileSize)
+      throws Exception {
+    final TransportStreamSegment.PacketHandler programSpecificInformationHandler =
+        (packetId, payloadUnitStart, buffer, payloadOffset, payloadLength) -> {
+          if (isProgramAssociationTable(packetId, payloadUnitStart)
+              && !seenProgramAssociationTable()) {
+            getProgramAssociationTable(slice(buffer, payloadOffset, payloadLength));
+          } else if (isProgramMapTable(packetId, payloadUnitStart)
+              && !seenProgramMapTable(packetId)) {
+            getProgramMapTable(packetId, slice(buffer, payloadOffset, payloadLength));
+            return !foundAllProgramMapTables();
+          }
+
+          return true;
+        };
+
+    for (final TransportStreamSegment segment :
+        TransportStreamSegment.split(fileSize, segmentSize)) {
+      if (!segment.scan(channel, fileSize, programSpecificInformationHandler)) {
+        return;
+      }
+    }
+  }
+
+  private ByteBuffer slice(final ByteBuffer buffer, final int offset, final int length) {
+    final ByteBuffer slice = buffer.duplicate();
+    slice.position(offset);
+    slice.limit(offset + length);
+    return slice.slice();
+  }
+
   private boolean seenProgramAssociationTable() {
     return !programMapTablePacketIdDirectory.isEmpty();
   }
 
-  private boolean seenProgramMapTable(final MTSPacket packet) {
-    return programMapTables.containsKey(packet.getPid());
+  private boolean seenProgramMapTable(final int packetId) {
+    return programMapTables.containsKey(packetId);
   }
 
-  private boolean isProgramAssociationTable(final MTSPacket packet) {
-    return packet.getPid() == 0 && packet.isPayloadUnitStartIndicator();
+  private boolean isProgramAssociationTable(final int packetId, final boolean payloadUnitStart) {
+    return packetId == 0 && payloadUnitStart;
   }
 
-  private void getProgramAssociationTable(final MTSPacket packet) throws JCodecException {
-    final ByteBuffer payload = packet.getPayload();
-
+  private void getProgramAssociationTable(final ByteBuffer payload) throws JCodecException {
     final int pointer = payload.get() & 0xff;
     payload.position(payload.position() + pointer);
     final PATSection programAssociationTable = PATSection.parse(payload);
@@ -176,18 +343,14 @@ private void getProgramAssociationTable(final MTSPacket packet) throws JCodecExc
     }
   }
 
-  private boolean isProgramMapTable(final MTSPacket packet) {
-    return programMapTablePacketIdDirectory.contains(packet.getPid())
-        && packet.isPayloadUnitStartIndicator();
+  private boolean isProgramMapTable(final int packetId, final boolean payloadUnitStart) {
+    return programMapTablePacketIdDirectory.contains(packetId) && payloadUnitStart;
   }
 
-  private void getProgramMapTable(final MTSPacket packet) {
-    final ByteBuffer payload = packet.getPayload();
-
+  private void getProgramMapTable(final int packetId, final ByteBuffer payload) {
     final int pointer = payload.get() & 0xff;
     payload.position(payload.position() + pointer);
 
-    final int packetId = packet.getPid();
     final PMTSection pmt = PMTSection.parsePMT(payload);
     programMapTables.put(packetId, pmt);
 
@@ -206,6 +369,23 @@ private boolean isElementaryStreamPacket(final int packetId) {
     return packetId != 0 && !programMapTablePacketIdDirectory.contains(packetId);
   }
 
+  /*
+   * Looking the packet ID up in an array indexed by packet ID keeps the per-packet check in the
+   * segment scans free of boxing and hashing.
+   */
+  private boolean[] getMetadataPacketIds() {
+    final boolean[] metadataPacketIds = new boolean[MAX_PACKET_ID + 1];
+
+    programElementaryStreams.forEach(
+        (packetId, stream) -> {
+          if (isElementaryStreamPacket(packetId) && isMetadataStream(stream)) {
+            metadataPacketIds[packetId & MAX_PACKET_ID] = true;
+          }
+        });
+
+    return metadataPacketIds;
+  }
+
   private byte[] getByteBufferAsBytes(final ByteBuffer buffer) {
     final byte[] bytes = new byte[buffer.remaining()];
     buffer.get(bytes);
@@ -218,7 +398,8 @@ private void handleElementaryStreamPacket(
       final PMTStream stream = programElementaryStreams.get(packetId);
 
       if (isMetadataStream(stream)) {
-        final byte[] currentMetadataPacketBytes = currentMetadataPacketBytesByStream.get(packetId);
+        final ByteArrayOutputStream currentMetadataPacketBytes =
+            currentMetadataPacketBytesByStream.get(packetId);
 
         final boolean startingNewMetadataPacket = packet.isPayloadUnitStartIndicator();
         final boolean currentMetadataPacketToHandle = currentMetadataPacketBytes != null;
@@ -228,14 +409,12 @@ private void handleElementaryStreamPacket(
         final byte[] payloadBytes = getByteBufferAsBytes(packet.getPayload());
 
         if (reachedEndOfCurrentMetadataPacket) {
-          callback.accept(packetId, currentMetadataPacketBytes);
+          callback.accept(packetId, currentMetadataPacketBytes.toByteArray());
           startNewMetadataPacketBytes(packetId, payloadBytes);
         } else if (startingNewMetadataPacket) {
           startNewMetadataPacketBytes(packetId, payloadBytes);
         } else if (currentMetadataPacketToHandle) {
-          final byte[] concatenatedMetadataPacket =
-              ArrayUtils.addAll(currentMetadataPacketBytes, payloadBytes);
-          currentMetadataPacketBytesByStream.put(packetId, concatenatedMetadataPacket);
+          currentMetadataPacketBytes.write(payloadBytes, 0, payloadBytes.length);
         }
       }
     }
@@ -254,7 +433,72 @@ private boolean isMetadataStream(final PMTStream stream) {
   }
 
   private void startNewMetadataPacketBytes(final int packetId, final byte[] newMetadataBytes) {
-    currentMetadataPacketBytesByStream.put(packetId, newMetadataBytes);
+    final ByteArrayOutputStream metadataPacketBytes = new ByteArrayOutputStream();
+    metadataPacketBytes.write(newMetadataBytes, 0, newMetadataBytes.length);
+    currentMetadataPacketBytesByStream.put(packetId, metadataPacketBytes);
+  }
+
+  private static SegmentMetadata scanSegment(
+      final FileChannel channel,
+      final long fileSize,
+      final TransportStreamSegment segment,
+      final boolean[] metadataPacketIds)
+      throws Exception {
+    final SegmentMetadata segmentMetadata = new SegmentMetadata(segment, metadataPacketIds);
+    segment.scan(channel, fileSize, segmentMetadata);
+    return segmentMetadata;
+  }
+
+  private static SegmentMetadata awaitSegment(final Future<SegmentMetadata> segmentFuture)
+      throws Exception {
+    try {
+      return segmentFuture.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw e;
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /*
+   * Applies the metadata packets of a scanned segment to the packets carried over from the
+   * previous segments, in the same order that a sequential pass over the stream would have.
+   */
+  private void handleSegmentMetadata(
+      final SegmentMetadata segmentMetadata, final BiConsumer<Integer, byte[]> callback) {
+    segmentMetadata.continuedMetadataPacketBytes.forEach(
+        (packetId, continuedBytes) -> {
+          final ByteArrayOutputStream currentMetadataPacketBytes =
+              currentMetadataPacketBytesByStream.get(packetId);
+
+          if (currentMetadataPacketBytes != null) {
+            final byte[] bytes = continuedBytes.toByteArray();
+            currentMetadataPacketBytes.write(bytes, 0, bytes.length);
+          }
+        });
+
+    for (final MetadataPacket metadataPacket : segmentMetadata.completedMetadataPackets) {
+      if (metadataPacket.bytes != null) {
+        callback.accept(metadataPacket.packetId, metadataPacket.bytes);
+      } else {
+        final ByteArrayOutputStream carriedMetadataPacketBytes =
+            currentMetadataPacketBytesByStream.remove(metadataPacket.packetId);
+
+        if (carriedMetadataPacketBytes != null) {
+          callback.accept(metadataPacket.packetId, carriedMetadataPacketBytes.toByteArray());
+        }
+      }
+    }
+
+    currentMetadataPacketBytesByStream.putAll(segmentMetadata.openMetadataPacketBytes);
   }
 
   /*
@@ -266,6 +510,81 @@ private void startNewMetadataPacketBytes(final int packetId, final byte[] newMet
    * over the transport stream and they will need to be handled separately.
    */
   private void handleLastPacketOfEachStream(final BiConsumer<Integer, byte[]> callback) {
-    currentMetadataPacketBytesByStream.forEach(callback);
+    currentMetadataPacketBytesByStream.forEach(
+        (packetId, metadataPacketBytes) ->
+            callback.accept(packetId, metadataPacketBytes.toByteArray()));
+  }
+
+  /**
+   * A metadata packet that ended within a segment. A packet without bytes is the one that was still
+   * open when the previous segment ended, whose bytes are only known once the segments have been
+   * put back in order.
+   */
+  private static class MetadataPacket {
+    private final int packetId;
+
+    private final byte[] bytes;
+
+    private MetadataPacket(final int packetId, final byte[] bytes) {
+      this.packetId = packetId;
+      this.bytes = bytes;
+    }
+  }
+
+  /** The metadata packet bytes found while scanning a single segment. */
+  private static class SegmentMetadata implements TransportStreamSegment.PacketHandler {
+    private final TransportStreamSegment segment;
+
+    private final boolean[] metadataPacketIds;
+
+    private final byte[] payloadBytes = new byte[TransportStreamSegment.PACKET_SIZE];
+
+    /* Payloads that continue a packet started in a previous segment. */
+    private final Map<Integer, ByteArrayOutputStream> continuedMetadataPacketBytes =
+        new HashMap<>();
+
+    private final List<MetadataPacket> completedMetadataPackets = new ArrayList<>();
+
+    /* Packets started in this segment that had not ended by the end of the segment. */
+    private final Map<Integer, ByteArrayOutputStream> openMetadataPacketBytes = new HashMap<>();
+
+    private SegmentMetadata(
+        final TransportStreamSegment segment, final boolean[] metadataPacketIds) {
+      this.segment = segment;
+      this.metadataPacketIds = metadataPacketIds;
+    }
+
+    @Override
+    public boolean handlePacket(
+        final int packetId,
+        final boolean payloadUnitStart,
+        final ByteBuffer buffer,
+        final int payloadOffset,
+        final int payloadLength) {
+      if (!metadataPacketIds[packetId]) {
+        return true;
+      }
+
+      final ByteBuffer payload = buffer.duplicate();
+      payload.position(payloadOffset);
+      payload.get(payloadBytes, 0, payloadLength);
+
+      ByteArrayOutputStream metadataPacketBytes = openMetadataPacketBytes.get(packetId);
+
+      if (payloadUnitStart) {
+        completedMetadataPackets.add(
+            new MetadataPacket(
+                packetId, metadataPacketBytes == null ? null : metadataPacketBytes.toByteArray()));
+        metadataPacketBytes = new ByteArrayOutputStream();
+        openMetadataPacketBytes.put(packetId, metadataPacketBytes);
+      } else if (metadataPacketBytes == null) {
+        metadataPacketBytes =
+            continuedMetadataPacketBytes.computeIfAbsent(
+                packetId, id -> new ByteArrayOutputStream());
+      }
+
+      metadataPacketBytes.write(payloadBytes, 0, payloadLength);
+      return true;
+    }
   }
 }
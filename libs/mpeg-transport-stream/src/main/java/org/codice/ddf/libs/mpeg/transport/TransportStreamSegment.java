@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.mpeg.transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A contiguous region of a memory-mapped transport stream file. Segments are scanned independently
+ * of each other, so each one resynchronizes on the sync byte at its start and whenever the packet
+ * boundaries within it are lost. A packet belongs to the segment in which it starts, even if its
+ * bytes extend into the next segment.
+ */
+final class TransportStreamSegment {
+  static final int PACKET_SIZE = 188;
+
+  private static final byte SYNC_BYTE = 0x47;
+
+  /*
+   * The number of following packets that must also start with the sync byte before a candidate
+   * sync byte is trusted. Without this, a 0x47 inside a payload would be taken for a packet start.
+   */
+  private static final int SYNC_CONFIRMATIONS = 2;
+
+  private final long start;
+
+  private final long end;
+
+  private long packetsProcessed;
+
+  private long bytesSkipped;
+
+  private TransportStreamSegment(final long start, final long end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Splits a file of the given size into segments of (at most) the given size.
+   *
+   * @param fileSize the size of the file in bytes
+   * @param segmentSize the size of each segment in bytes, which should be a multiple of {@link
+   *     #PACKET_SIZE} so that segment boundaries fall on packet boundaries in well-formed streams
+   * @return the segments, in file order
+   */
+  static List<TransportStreamSegment> split(final long fileSize, final long segmentSize) {
+    final List<TransportStreamSegment> segments = new ArrayList<>();
+
+    for (long segmentStart = 0; segmentStart < fileSize; segmentStart += segmentSize) {
+      segments.add(
+          new TransportStreamSegment(segmentStart, Math.min(fileSize, segmentStart + segmentSize)));
+    }
+
+    return segments;
+  }
+
+  long getPacketsProcessed() {
+    return packetsProcessed;
+  }
+
+  long getBytesSkipped() {
+    return bytesSkipped;
+  }
+
+  /**
+   * Maps this segment of the file and passes each packet that starts within it to the given
+   * handler, in order.
+   *
+   * @param channel the channel of the transport stream file
+   * @param fileSize the size of the transport stream file in bytes
+   * @param handler the handler to pass the packets to
+   * @return {@code false} if the handler stopped the scan, {@code true} otherwise
+   * @throws Exception if the segment could not be mapped or the handler fails
+   */
+  boolean scan(final FileChannel channel, final long fileSize, final PacketHandler handler)
+      throws Exception {
+    final ByteBuffer buffer = map(channel, fileSize);
+    final int packetStartLimit = (int) (end - start);
+
+    boolean inSync = false;
+    int position = 0;
+
+    while (position < packetStartLimit && position + PACKET_SIZE <= buffer.limit()) {
+      if (buffer.get(position) != SYNC_BYTE || (!inSync && !isConfirmedSync(buffer, position))) {
+        inSync = false;
+        ++bytesSkipped;
+        ++position;
+        continue;
+      }
+
+      inSync = true;
+      ++packetsProcessed;
+
+      if (!handlePacket(buffer, position, handler)) {
+        return false;
+      }
+
+      position += PACKET_SIZE;
+    }
+
+    return true;
+  }
+
+  private ByteBuffer map(final FileChannel channel, final long fileSize) throws IOException {
+    // Map enough of the next segment to read the last packet starting here and confirm syncs.
+    final long mapEnd = Math.min(fileSize, end + (SYNC_CONFIRMATIONS + 1) * PACKET_SIZE);
+    return channel.map(FileChannel.MapMode.READ_ONLY, start, mapEnd - start);
+  }
+
+  private boolean isConfirmedSync(final ByteBuffer buffer, final int position) {
+    for (int confirmation = 1; confirmation <= SYNC_CONFIRMATIONS; ++confirmation) {
+      final int nextPacketPosition = position + confirmation * PACKET_SIZE;
+
+      if (nextPacketPosition >= buffer.limit()) {
+        break;
+      }
+
+      if (buffer.get(nextPacketPosition) != SYNC_BYTE) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean handlePacket(
+      final ByteBuffer buffer, final int position, final PacketHandler handler) throws Exception {
+    final int flagsAndPacketIdHigh = buffer.get(position + 1) & 0xff;
+    final boolean payloadUnitStart = (flagsAndPacketIdHigh & 0x40) != 0;
+    final int packetId = ((flagsAndPacketIdHigh & 0x1f) << 8) | (buffer.get(position + 2) & 0xff);
+
+    final int adaptationFieldControl = (buffer.get(position + 3) >> 4) & 0x03;
+    final boolean hasAdaptationField = (adaptationFieldControl & 0x02) != 0;
+    final boolean hasPayload = (adaptationFieldControl & 0x01) != 0;
+
+    int payloadOffset = position + 4;
+    if (hasAdaptationField) {
+      payloadOffset += 1 + (buffer.get(payloadOffset) & 0xff);
+    }
+
+    final int payloadLength = hasPayload ? position + PACKET_SIZE - payloadOffset : 0;
+    if (payloadLength < 0) {
+      // The adaptation field claims more bytes than the packet has, so the packet is unusable.
+      return true;
+    }
+
+    return handler.handlePacket(packetId, payloadUnitStart, buffer, payloadOffset, payloadLength);
+  }
+
+  /** Receives the packets of a segment as they are scanned. */
+  interface PacketHandler {
+    /**
+     * Handles a single transport stream packet. The payload is only valid for the duration of the
+     * call and must be copied if it is needed afterwards.
+     *
+     * @param packetId the packet ID
+     * @param payloadUnitStart whether the packet's payload unit start indicator is set
+     * @param buffer the buffer holding the packet
+     * @param payloadOffset the offset of the packet's payload in {@code buffer}
+     * @param payloadLength the length of the packet's payload, which may be zero
+     * @return {@code false} to stop scanning, {@code true} to continue
+     * @throws Exception if the packet cannot be handled
+     */
+    boolean handlePacket(
+        int packetId,
+        boolean payloadUnitStart,
+        ByteBuffer buffer,
+        int payloadOffset,
+        int payloadLength)
+        throws Exception;
+  }
+}
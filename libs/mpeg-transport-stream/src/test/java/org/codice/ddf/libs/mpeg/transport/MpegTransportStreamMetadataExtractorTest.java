@@ -23,15 +23,28 @@
 
 import com.google.common.io.ByteSource;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 
 public class MpegTransportStreamMetadataExtractorTest {
+  // Small enough to put many segment boundaries between the metadata packets of the test file.
+  private static final long SMALL_SEGMENT_SIZE = TransportStreamSegment.PACKET_SIZE * 50L;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private MpegTransportStreamMetadataExtractor getExtractor() throws IOException {
     final ByteSource byteSource =
         ByteSource.wrap(
@@ -40,6 +53,10 @@ private MpegTransportStreamMetadataExtractor getExtractor() throws IOException {
     return new MpegTransportStreamMetadataExtractor(byteSource);
   }
 
+  private Path getTestFilePath() throws URISyntaxException {
+    return Paths.get(getClass().getClassLoader().getResource("dayflight.mpg").toURI());
+  }
+
   @Test
   public void testExtractCallback() throws Exception {
     final MpegTransportStreamMetadataExtractor extractor = getExtractor();
@@ -72,6 +89,75 @@ public void testExtractAll() throws Exception {
     verifyExtractedBytes(metadataStreams.get(497));
   }
 
+  @Test
+  public void testExtractMappedCallback() throws Exception {
+    final MpegTransportStreamMetadataExtractor extractor =
+        new MpegTransportStreamMetadataExtractor(getTestFilePath(), 4, SMALL_SEGMENT_SIZE);
+
+    // Mockito cannot spy anonymous classes.
+    final BiConsumer<Integer, byte[]> callback =
+        new BiConsumer<Integer, byte[]>() {
+          @Override
+          public void accept(Integer integer, byte[] bytes) {}
+        };
+    final BiConsumer<Integer, byte[]> callbackSpy = spy(callback);
+    extractor.getMetadata(callbackSpy);
+
+    // The packet ID of the metadata stream in this file is 497.
+    final ArgumentCaptor<byte[]> metadataCaptor = ArgumentCaptor.forClass(byte[].class);
+    verify(callbackSpy, times(12)).accept(eq(497), metadataCaptor.capture());
+
+    verifyExtractedBytes(metadataCaptor.getAllValues());
+  }
+
+  @Test
+  public void testExtractMappedAllSingleThread() throws Exception {
+    final MpegTransportStreamMetadataExtractor extractor =
+        new MpegTransportStreamMetadataExtractor(getTestFilePath(), 1);
+
+    final Map<Integer, List<byte[]>> metadataStreams = extractor.getMetadata();
+
+    assertThat(metadataStreams, hasKey(497));
+
+    verifyExtractedBytes(metadataStreams.get(497));
+  }
+
+  @Test
+  public void testExtractMappedResynchronizes() throws Exception {
+    final byte[] transportStream;
+    try (InputStream inputStream =
+        getClass().getClassLoader().getResourceAsStream("dayflight.mpg")) {
+      transportStream = IOUtils.toByteArray(inputStream);
+    }
+
+    // Garbage (including stray sync bytes) before the first packet and between two packets.
+    final byte[] leadingGarbage = new byte[] {0x01, 0x47, 0x03, 0x04, 0x05};
+    final byte[] trailingGarbage = new byte[] {0x09, 0x47, 0x09, 0x09, 0x09, 0x09, 0x09};
+    final int garbageOffset = TransportStreamSegment.PACKET_SIZE * 1000;
+
+    final Path corruptedFile = temporaryFolder.newFile("corrupted.mpg").toPath();
+    try (OutputStream outputStream = Files.newOutputStream(corruptedFile)) {
+      outputStream.write(leadingGarbage);
+      outputStream.write(transportStream, 0, garbageOffset);
+      outputStream.write(trailingGarbage);
+      outputStream.write(transportStream, garbageOffset, transportStream.length - garbageOffset);
+    }
+
+    final MpegTransportStreamMetadataExtractor extractor =
+        new MpegTransportStreamMetadataExtractor(corruptedFile, 4, SMALL_SEGMENT_SIZE);
+
+    final Map<Integer, List<byte[]>> metadataStreams = extractor.getMetadata();
+
+    assertThat(metadataStreams, hasKey(497));
+
+    verifyExtractedBytes(metadataStreams.get(497));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSegmentThreads() throws Exception {
+    new MpegTransportStreamMetadataExtractor(getTestFilePath(), 0);
+  }
+
   private void verifyExtractedBytes(final List<byte[]> metadataPackets) {
     assertThat(metadataPackets.size(), is(12));
 